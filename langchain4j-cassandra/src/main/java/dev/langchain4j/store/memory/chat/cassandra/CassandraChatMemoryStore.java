@@ -11,6 +11,7 @@ import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.data.message.ChatMessageDeserializer;
 import dev.langchain4j.data.message.ChatMessageSerializer;
 import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import dev.langchain4j.store.memory.chat.IncrementalChatMemoryStore;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
@@ -25,11 +26,14 @@ import static java.util.stream.Collectors.toList;
  * Implementation of {@link ChatMemoryStore} using Astra DB Vector Search.
  * Table contains all chats. (default name is message_store). Each chat with multiple messages
  * is a partition.Message id is a time uuid.
+ * <p>
+ * Messages are appended and evicted without rewriting the partition:
+ * evicted messages are deleted with a single range deletion.
  *
  * @see <a href="https://docs.datastax.com/en/astra-serverless/docs/vector-search/overview.html">Astra Vector Store Documentation</a>
  */
 @Slf4j
-public class CassandraChatMemoryStore implements ChatMemoryStore {
+public class CassandraChatMemoryStore implements IncrementalChatMemoryStore {
 
     /**
      * Default message store.
@@ -41,6 +45,16 @@ public class CassandraChatMemoryStore implements ChatMemoryStore {
      */
     private final ClusteredTable messageTable;
 
+    /**
+     * Selects the ids of the oldest messages of a chat.
+     */
+    private final String selectOldestRowIds;
+
+    /**
+     * Deletes the messages of a chat in a range of ids.
+     */
+    private final String deleteRowIdRange;
+
     /**
      * Constructor for message store
      *
@@ -57,7 +71,11 @@ public class CassandraChatMemoryStore implements ChatMemoryStore {
      * @param tableName    table name
      */
     public CassandraChatMemoryStore(CqlSession session, String tableName) {
-        messageTable = new ClusteredTable(session, session.getKeyspace().get().asInternal(), tableName);
+        String keyspaceName = session.getKeyspace().get().asInternal();
+        messageTable = new ClusteredTable(session, keyspaceName, tableName);
+        String table = keyspaceName + "." + tableName;
+        selectOldestRowIds = "SELECT row_id FROM " + table + " WHERE partition_id = ? ORDER BY row_id ASC LIMIT ?";
+        deleteRowIdRange = "DELETE FROM " + table + " WHERE partition_id = ? AND row_id >= ? AND row_id <= ?";
     }
 
     /**
@@ -123,6 +141,43 @@ public class CassandraChatMemoryStore implements ChatMemoryStore {
                 .collect(toList()));
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Message ids are time uuids generated in order, so appended messages come after the stored ones.
+     */
+    @Override
+    public void appendMessages(@NonNull Object memoryId, @NonNull List<ChatMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        messageTable.upsertPartition(messages.stream()
+                .map(record -> fromChatMessage(getMemoryId(memoryId), record))
+                .collect(toList()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeMessages(@NonNull Object memoryId, int fromIndex, int count) {
+        if (count <= 0) {
+            return;
+        }
+        String partitionId = getMemoryId(memoryId);
+        CqlSession session = messageTable.getCqlSession();
+        // only the ids of the messages up to the last one removed are read, oldest first
+        int limit = (int) Math.min((long) fromIndex + count, Integer.MAX_VALUE);
+        List<UUID> oldestRowIds = session.execute(selectOldestRowIds, partitionId, limit).all().stream()
+                .map(row -> row.getUuid("row_id"))
+                .collect(toList());
+        if (oldestRowIds.size() <= fromIndex) {
+            return;
+        }
+        session.execute(deleteRowIdRange, partitionId,
+                oldestRowIds.get(fromIndex), oldestRowIds.get(oldestRowIds.size() - 1));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1,6 +1,7 @@
 package dev.langchain4j.store.memory.chat.cassandra;
 
 import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.memory.ChatMemory;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
@@ -13,11 +14,13 @@ import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 
+import java.util.List;
 import java.util.UUID;
 
 import static dev.langchain4j.data.message.AiMessage.aiMessage;
 import static dev.langchain4j.data.message.UserMessage.userMessage;
 import static dev.langchain4j.model.openai.OpenAiModelName.GPT_3_5_TURBO;
+import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
@@ -84,6 +87,31 @@ abstract class CassandraChatMemoryStoreTestSupport {
         assertThat(chatMemory.messages()).containsExactly(userMessage, aiMessage);
     }
 
+    @Test
+    @Order(5)
+    @DisplayName("5. Remove a range of items")
+    void shouldRemoveRangeOfItems() {
+        // Given
+        String chatSessionId = "chat-" + UUID.randomUUID();
+        List<ChatMessage> messages = asList(
+                userMessage("1"), aiMessage("2"), userMessage("3"), aiMessage("4"), userMessage("5"));
+        chatMemoryStore.appendMessages(chatSessionId, messages);
+
+        // When
+        chatMemoryStore.removeMessages(chatSessionId, 1, 2);
+
+        // Then
+        assertThat(chatMemoryStore.getMessages(chatSessionId))
+                .containsExactly(messages.get(0), messages.get(3), messages.get(4));
+
+        // When
+        chatMemoryStore.removeMessages(chatSessionId, 2, 10);
+
+        // Then
+        assertThat(chatMemoryStore.getMessages(chatSessionId))
+                .containsExactly(messages.get(0), messages.get(3));
+    }
+
     abstract void createDatabase();
 
     abstract CassandraChatMemoryStore createChatMemoryStore();
@@ -0,0 +1,40 @@
+package dev.langchain4j.data.message;
+
+import java.util.List;
+
+/**
+ * A codec for serializing and deserializing {@link ChatMessage} objects to and from a binary representation.
+ * It is the binary counterpart of {@link ChatMessageJsonCodec}, for stores that can hold bytes.
+ *
+ * @see DefaultChatMessageBinaryCodec
+ */
+public interface ChatMessageBinaryCodec {
+
+    /**
+     * Deserializes bytes to a {@link ChatMessage} object.
+     * @param bytes the bytes.
+     * @return the deserialized {@link ChatMessage} object.
+     */
+    ChatMessage messageFromBytes(byte[] bytes);
+
+    /**
+     * Deserializes bytes to a list of {@link ChatMessage} objects.
+     * @param bytes the bytes.
+     * @return the deserialized list of {@link ChatMessage} objects.
+     */
+    List<ChatMessage> messagesFromBytes(byte[] bytes);
+
+    /**
+     * Serializes a {@link ChatMessage} object to bytes.
+     * @param message the {@link ChatMessage} object.
+     * @return the serialized bytes.
+     */
+    byte[] messageToBytes(ChatMessage message);
+
+    /**
+     * Serializes a list of {@link ChatMessage} objects to bytes.
+     * @param messages the list of {@link ChatMessage} objects.
+     * @return the serialized bytes.
+     */
+    byte[] messagesToBytes(List<ChatMessage> messages);
+}
@@ -0,0 +1,522 @@
+package dev.langchain4j.data.message;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.audio.Audio;
+import dev.langchain4j.data.image.Image;
+import dev.langchain4j.data.pdf.PdfFile;
+import dev.langchain4j.data.text.TextFile;
+import dev.langchain4j.data.video.Video;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+import static dev.langchain4j.internal.ValidationUtils.ensureBetween;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The default {@link ChatMessageBinaryCodec}: a compact binary format, without reflection.
+ * <p>
+ * The format starts with a header: a magic byte, the version of the format and flags.
+ * The messages follow: each field is written in a fixed order, strings and lists are prefixed by their length
+ * (as a variable-length integer), and the base64 data of images, audio, video and files is written as raw bytes.
+ * <p>
+ * When a {@code compressionThreshold} is set, the messages are compressed with DEFLATE
+ * if their encoded size reaches it (and if compression makes them smaller).
+ * Compressed and uncompressed messages can be deserialized by any instance.
+ * <p>
+ * The first byte of the format is never the first byte of a JSON document,
+ * so bytes written by this codec can be told apart from JSON with {@link #isBinary(byte[])}.
+ */
+public class DefaultChatMessageBinaryCodec implements ChatMessageBinaryCodec {
+
+    private static final byte MAGIC = (byte) 0xB1; // not a valid first byte in UTF-8
+    private static final byte VERSION = 1; // increment on any change of the format, keep reading older versions!
+
+    private static final int COMPRESSED = 1;
+    private static final int LIST = 2;
+
+    private static final int MAX_COMPRESSION_RATIO = 1032; // of deflate
+
+    private static final int SYSTEM = 1;
+    private static final int USER = 2;
+    private static final int AI = 3;
+    private static final int TOOL_EXECUTION_RESULT = 4;
+
+    private static final int TEXT = 1;
+    private static final int IMAGE = 2;
+    private static final int AUDIO = 3;
+    private static final int VIDEO = 4;
+    private static final int PDF = 5;
+    private static final int TEXT_FILE = 6;
+
+    private static final int NO_DATA = 0;
+    private static final int RAW_DATA = 1;
+    private static final int BASE64_DATA = 2;
+
+    private final Integer compressionThreshold;
+
+    /**
+     * Creates a codec that does not compress the messages.
+     */
+    public DefaultChatMessageBinaryCodec() {
+        this(null);
+    }
+
+    /**
+     * Creates a codec compressing the messages whose encoded size reaches the specified threshold.
+     *
+     * @param compressionThreshold The size, in bytes, from which messages are compressed, or null to never compress.
+     */
+    public DefaultChatMessageBinaryCodec(Integer compressionThreshold) {
+        this.compressionThreshold = compressionThreshold == null
+                ? null
+                : ensureBetween(compressionThreshold, 0, Integer.MAX_VALUE, "compressionThreshold");
+    }
+
+    /**
+     * @param bytes Serialized chat message(s).
+     * @return true if the bytes were written by a {@code DefaultChatMessageBinaryCodec}, false otherwise (e.g. JSON).
+     */
+    public static boolean isBinary(byte[] bytes) {
+        return bytes != null && bytes.length > 0 && bytes[0] == MAGIC;
+    }
+
+    @Override
+    public ChatMessage messageFromBytes(byte[] bytes) {
+        Input input = open(bytes);
+        if ((input.flags & LIST) != 0) {
+            throw illegalArgument("The bytes contain a list of messages, not a single message");
+        }
+        return readMessage(input);
+    }
+
+    @Override
+    public List<ChatMessage> messagesFromBytes(byte[] bytes) {
+        Input input = open(bytes);
+        if ((input.flags & LIST) == 0) {
+            List<ChatMessage> messages = new ArrayList<>(1);
+            messages.add(readMessage(input));
+            return messages;
+        }
+        int size = input.readSize();
+        List<ChatMessage> messages = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            messages.add(readMessage(input));
+        }
+        return messages;
+    }
+
+    @Override
+    public byte[] messageToBytes(ChatMessage message) {
+        Output output = new Output();
+        writeMessage(output, message);
+        return close(output, 0);
+    }
+
+    @Override
+    public byte[] messagesToBytes(List<ChatMessage> messages) {
+        Output output = new Output();
+        output.writeVarInt(messages.size());
+        for (ChatMessage message : messages) {
+            writeMessage(output, message);
+        }
+        return close(output, LIST);
+    }
+
+    private byte[] close(Output body, int flags) {
+        byte[] payload = body.toByteArray();
+        if (compressionThreshold != null && payload.length >= compressionThreshold) {
+            byte[] compressed = deflate(payload);
+            if (compressed.length < payload.length) {
+                payload = compressed;
+                flags |= COMPRESSED;
+            }
+        }
+        byte[] bytes = new byte[3 + payload.length];
+        bytes[0] = MAGIC;
+        bytes[1] = VERSION;
+        bytes[2] = (byte) flags;
+        System.arraycopy(payload, 0, bytes, 3, payload.length);
+        return bytes;
+    }
+
+    private static Input open(byte[] bytes) {
+        if (!isBinary(bytes) || bytes.length < 3) {
+            throw illegalArgument("The bytes are not chat message(s) serialized by %s",
+                    DefaultChatMessageBinaryCodec.class.getSimpleName());
+        }
+        if (bytes[1] != VERSION) {
+            throw illegalArgument("Unsupported version of the chat message format: %s", bytes[1]);
+        }
+        int flags = bytes[2];
+        if ((flags & COMPRESSED) == 0) {
+            return new Input(bytes, 3, flags);
+        }
+        Input compressed = new Input(bytes, 3, flags);
+        int length = compressed.readVarInt();
+        int compressedLength = bytes.length - compressed.position;
+        if (length < 0 || length > (long) compressedLength * MAX_COMPRESSION_RATIO) {
+            throw illegalArgument("Corrupted chat message(s)");
+        }
+        return new Input(inflate(bytes, compressed.position, compressedLength, length), 0, flags);
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        Output output = new Output();
+        output.writeVarInt(bytes.length);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                output.write(buffer, 0, length);
+            }
+        } finally {
+            deflater.end();
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] bytes, int offset, int length, int inflatedLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset, length);
+            // grown as the bytes are inflated, rather than trusting the inflated length of (possibly corrupted) bytes
+            byte[] inflated = new byte[(int) Math.min(inflatedLength, Math.max(1024L, 4L * length))];
+            int position = 0;
+            while (position < inflatedLength) {
+                if (position == inflated.length) {
+                    inflated = Arrays.copyOf(inflated, (int) Math.min(inflatedLength, 2L * inflated.length));
+                }
+                int inflatedBytes = inflater.inflate(inflated, position, inflated.length - position);
+                if (inflatedBytes == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw illegalArgument("Truncated chat message(s)");
+                }
+                position += inflatedBytes;
+            }
+            return inflated;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupted chat message(s)", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeMessage(Output output, ChatMessage message) {
+        if (message instanceof SystemMessage) {
+            output.writeVarInt(SYSTEM);
+            output.writeString(((SystemMessage) message).text());
+        } else if (message instanceof UserMessage) {
+            UserMessage userMessage = (UserMessage) message;
+            output.writeVarInt(USER);
+            output.writeString(userMessage.name());
+            output.writeVarInt(userMessage.contents().size());
+            for (Content content : userMessage.contents()) {
+                writeContent(output, content);
+            }
+        } else if (message instanceof AiMessage) {
+            AiMessage aiMessage = (AiMessage) message;
+            output.writeVarInt(AI);
+            output.writeString(aiMessage.text());
+            List<ToolExecutionRequest> toolExecutionRequests = aiMessage.toolExecutionRequests();
+            output.writeVarInt(toolExecutionRequests == null ? 0 : toolExecutionRequests.size() + 1);
+            if (toolExecutionRequests != null) {
+                for (ToolExecutionRequest toolExecutionRequest : toolExecutionRequests) {
+                    output.writeString(toolExecutionRequest.id());
+                    output.writeString(toolExecutionRequest.name());
+                    output.writeString(toolExecutionRequest.arguments());
+                }
+            }
+        } else if (message instanceof ToolExecutionResultMessage) {
+            ToolExecutionResultMessage toolExecutionResultMessage = (ToolExecutionResultMessage) message;
+            output.writeVarInt(TOOL_EXECUTION_RESULT);
+            output.writeString(toolExecutionResultMessage.id());
+            output.writeString(toolExecutionResultMessage.toolName());
+            output.writeString(toolExecutionResultMessage.text());
+        } else {
+            throw illegalArgument("Unsupported chat message: %s", message.getClass().getName());
+        }
+    }
+
+    private static ChatMessage readMessage(Input input) {
+        int type = input.readVarInt();
+        switch (type) {
+            case SYSTEM:
+                return new SystemMessage(input.readString());
+            case USER: {
+                String name = input.readString();
+                int size = input.readSize();
+                List<Content> contents = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    contents.add(readContent(input));
+                }
+                return name == null ? new UserMessage(contents) : new UserMessage(name, contents);
+            }
+            case AI: {
+                String text = input.readString();
+                int size = input.readVarInt() - 1;
+                if (size == -1) {
+                    return new AiMessage(text);
+                }
+                input.ensureAvailable(size);
+                List<ToolExecutionRequest> toolExecutionRequests = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    toolExecutionRequests.add(ToolExecutionRequest.builder()
+                            .id(input.readString())
+                            .name(input.readString())
+                            .arguments(input.readString())
+                            .build());
+                }
+                return text == null ? new AiMessage(toolExecutionRequests) : new AiMessage(text, toolExecutionRequests);
+            }
+            case TOOL_EXECUTION_RESULT:
+                return new ToolExecutionResultMessage(input.readString(), input.readString(), input.readString());
+            default:
+                throw illegalArgument("Unknown chat message type: %s", type);
+        }
+    }
+
+    private static void writeContent(Output output, Content content) {
+        if (content instanceof TextContent) {
+            output.writeVarInt(TEXT);
+            output.writeString(((TextContent) content).text());
+        } else if (content instanceof ImageContent) {
+            ImageContent imageContent = (ImageContent) content;
+            Image image = imageContent.image();
+            output.writeVarInt(IMAGE);
+            writeUrl(output, image.url());
+            writeData(output, image.base64Data());
+            output.writeString(image.mimeType());
+            output.writeString(image.revisedPrompt());
+            output.writeVarInt(imageContent.detailLevel() == null ? 0 : imageContent.detailLevel().ordinal() + 1);
+        } else if (content instanceof AudioContent) {
+            Audio audio = ((AudioContent) content).audio();
+            output.writeVarInt(AUDIO);
+            writeUrl(output, audio.url());
+            writeData(output, audio.base64Data());
+            output.writeString(audio.mimeType());
+        } else if (content instanceof VideoContent) {
+            Video video = ((VideoContent) content).video();
+            output.writeVarInt(VIDEO);
+            writeUrl(output, video.url());
+            writeData(output, video.base64Data());
+            output.writeString(video.mimeType());
+        } else if (content instanceof PdfFileContent) {
+            PdfFile pdfFile = ((PdfFileContent) content).pdfFile();
+            output.writeVarInt(PDF);
+            writeUrl(output, pdfFile.url());
+            writeData(output, pdfFile.base64Data());
+        } else if (content instanceof TextFileContent) {
+            TextFile textFile = ((TextFileContent) content).textFile();
+            output.writeVarInt(TEXT_FILE);
+            writeUrl(output, textFile.url());
+            writeData(output, textFile.base64Data());
+            output.writeString(textFile.mimeType());
+        } else {
+            throw illegalArgument("Unsupported content: %s", content.getClass().getName());
+        }
+    }
+
+    private static Content readContent(Input input) {
+        int type = input.readVarInt();
+        switch (type) {
+            case TEXT:
+                return new TextContent(input.readString());
+            case IMAGE: {
+                Image.Builder image = Image.builder();
+                image.url(readUrl(input));
+                image.base64Data(readData(input));
+                image.mimeType(input.readString());
+                image.revisedPrompt(input.readString());
+                int detailLevel = input.readVarInt();
+                if (detailLevel < 0 || detailLevel > ImageContent.DetailLevel.values().length) {
+                    throw illegalArgument("Unknown image detail level: %s", detailLevel);
+                }
+                return detailLevel == 0
+                        ? new ImageContent(image.build())
+                        : new ImageContent(image.build(), ImageContent.DetailLevel.values()[detailLevel - 1]);
+            }
+            case AUDIO:
+                return new AudioContent(Audio.builder()
+                        .url(readUrl(input))
+                        .base64Data(readData(input))
+                        .mimeType(input.readString())
+                        .build());
+            case VIDEO:
+                return new VideoContent(Video.builder()
+                        .url(readUrl(input))
+                        .base64Data(readData(input))
+                        .mimeType(input.readString())
+                        .build());
+            case PDF:
+                return new PdfFileContent(PdfFile.builder()
+                        .url(readUrl(input))
+                        .base64Data(readData(input))
+                        .build());
+            case TEXT_FILE:
+                return new TextFileContent(TextFile.builder()
+                        .url(readUrl(input))
+                        .base64Data(readData(input))
+                        .mimeType(input.readString())
+                        .build());
+            default:
+                throw illegalArgument("Unknown content type: %s", type);
+        }
+    }
+
+    private static void writeUrl(Output output, URI url) {
+        output.writeString(url == null ? null : url.toString());
+    }
+
+    private static URI readUrl(Input input) {
+        String url = input.readString();
+        return url == null ? null : URI.create(url);
+    }
+
+    private static void writeData(Output output, String base64Data) {
+        if (base64Data == null) {
+            output.writeVarInt(NO_DATA);
+            return;
+        }
+        byte[] data = decodeBase64(base64Data);
+        if (data == null) {
+            // not canonical base64, it is kept as is
+            output.writeVarInt(BASE64_DATA);
+            output.writeString(base64Data);
+        } else {
+            output.writeVarInt(RAW_DATA);
+            output.writeBytes(data);
+        }
+    }
+
+    private static String readData(Input input) {
+        int type = input.readVarInt();
+        switch (type) {
+            case NO_DATA:
+                return null;
+            case RAW_DATA:
+                return Base64.getEncoder().encodeToString(input.readBytes());
+            case BASE64_DATA:
+                return input.readString();
+            default:
+                throw illegalArgument("Unknown data type: %s", type);
+        }
+    }
+
+    /**
+     * @return the decoded data, or null if it is not encoded exactly as {@link Base64#getEncoder()} would encode it.
+     */
+    private static byte[] decodeBase64(String base64Data) {
+        try {
+            byte[] data = Base64.getDecoder().decode(base64Data);
+            return Base64.getEncoder().encodeToString(data).equals(base64Data) ? data : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static class Output extends ByteArrayOutputStream {
+
+        Output() {
+            super(256);
+        }
+
+        void writeVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        /**
+         * Writes a string, or null: the length is shifted by one, 0 means null.
+         */
+        void writeString(String value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(UTF_8);
+            writeVarInt(bytes.length + 1);
+            write(bytes, 0, bytes.length);
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarInt(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    private static class Input {
+
+        final byte[] bytes;
+        final int flags;
+        int position;
+
+        Input(byte[] bytes, int position, int flags) {
+            this.bytes = bytes;
+            this.position = position;
+            this.flags = flags;
+        }
+
+        int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                ensureAvailable(1);
+                byte b = bytes[position++];
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw illegalArgument("Corrupted chat message(s)");
+        }
+
+        String readString() {
+            int length = readVarInt() - 1;
+            if (length == -1) {
+                return null;
+            }
+            ensureAvailable(length);
+            String value = new String(bytes, position, length, UTF_8);
+            position += length;
+            return value;
+        }
+
+        byte[] readBytes() {
+            int length = readVarInt();
+            ensureAvailable(length);
+            byte[] value = new byte[length];
+            System.arraycopy(bytes, position, value, 0, length);
+            position += length;
+            return value;
+        }
+
+        /**
+         * Reads the size of a list: as each element takes at least one byte,
+         * a size larger than the bytes left is rejected before the list is allocated.
+         */
+        int readSize() {
+            int size = readVarInt();
+            ensureAvailable(size);
+            return size;
+        }
+
+        void ensureAvailable(int length) {
+            if (length < 0 || length > bytes.length - position) {
+                throw illegalArgument("Truncated chat message(s)");
+            }
+        }
+    }
+}
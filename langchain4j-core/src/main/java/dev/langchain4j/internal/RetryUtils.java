@@ -3,10 +3,26 @@ package dev.langchain4j.internal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Random;
+import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static dev.langchain4j.internal.ValidationUtils.ensureTrue;
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 /**
  * Utility class for retrying actions.
@@ -36,6 +52,10 @@ public final class RetryUtils {
             private int delayMillis = 1000;
             private double jitterScale = 0.2;
             private double backoffExp = 1.5;
+            private Predicate<Throwable> retryIf = RetryUtils::isRetryable;
+            private Function<Throwable, Duration> retryAfter;
+            private RetryBudget retryBudget;
+            private CircuitBreaker circuitBreaker;
 
             /**
              * Construct a RetryPolicy.Builder.
@@ -96,12 +116,65 @@ public final class RetryUtils {
                 return this;
             }
 
+            /**
+             * Sets which exceptions are worth retrying, e.g. timeouts, rate limits and server errors,
+             * but not invalid requests or authentication errors.
+             * An exception that is not retryable is thrown immediately.
+             * By default, exceptions are classified by {@link RetryUtils#isRetryable(Throwable)}
+             * (unlike {@link RetryUtils#DEFAULT_RETRY_POLICY}, which retries all exceptions).
+             *
+             * @param retryIf The predicate telling whether an exception is retryable.
+             * @return {@code this}
+             */
+            public Builder retryIf(Predicate<Throwable> retryIf) {
+                this.retryIf = ensureNotNull(retryIf, "retryIf");
+                return this;
+            }
+
+            /**
+             * Sets how to obtain the delay requested by the server before the next attempt,
+             * e.g. from the {@code Retry-After} header of a rate-limited response.
+             * When the function returns a delay, it is used instead of the computed backoff delay.
+             * When it returns {@code null}, the computed backoff delay is used.
+             *
+             * @param retryAfter The function extracting the delay from an exception.
+             * @return {@code this}
+             */
+            public Builder retryAfter(Function<Throwable, Duration> retryAfter) {
+                this.retryAfter = retryAfter;
+                return this;
+            }
+
+            /**
+             * Sets the retry budget limiting the number of retries.
+             * The budget can be shared by several policies, e.g. by all models calling the same provider.
+             *
+             * @param retryBudget The retry budget.
+             * @return {@code this}
+             */
+            public Builder retryBudget(RetryBudget retryBudget) {
+                this.retryBudget = retryBudget;
+                return this;
+            }
+
+            /**
+             * Sets the circuit breaker failing fast while the called service is failing.
+             * The circuit breaker can be shared by several policies, e.g. by all models calling the same provider.
+             *
+             * @param circuitBreaker The circuit breaker.
+             * @return {@code this}
+             */
+            public Builder circuitBreaker(CircuitBreaker circuitBreaker) {
+                this.circuitBreaker = circuitBreaker;
+                return this;
+            }
+
             /**
              * Builds a RetryPolicy.
              * @return A RetryPolicy.
              */
             public RetryPolicy build() {
-                return new RetryPolicy(maxAttempts, delayMillis, jitterScale, backoffExp);
+                return new RetryPolicy(this);
             }
         }
 
@@ -109,9 +182,13 @@ public final class RetryUtils {
         private final int delayMillis;
         private final double jitterScale;
         private final double backoffExp;
+        private final Predicate<Throwable> retryIf;
+        private final Function<Throwable, Duration> retryAfter;
+        private final RetryBudget retryBudget;
+        private final CircuitBreaker circuitBreaker;
 
         /**
-         * Construct a RetryPolicy.
+         * Construct a RetryPolicy retrying all exceptions.
          * @param maxAttempts The maximum number of attempts.
          * @param delayMillis The delay in milliseconds.
          * @param jitterScale The jitter scale.
@@ -126,6 +203,21 @@ public final class RetryUtils {
             this.delayMillis = delayMillis;
             this.jitterScale = jitterScale;
             this.backoffExp = backoffExp;
+            this.retryIf = e -> true;
+            this.retryAfter = null;
+            this.retryBudget = null;
+            this.circuitBreaker = null;
+        }
+
+        private RetryPolicy(Builder builder) {
+            this.maxAttempts = builder.maxAttempts;
+            this.delayMillis = builder.delayMillis;
+            this.jitterScale = builder.jitterScale;
+            this.backoffExp = builder.backoffExp;
+            this.retryIf = builder.retryIf;
+            this.retryAfter = builder.retryAfter;
+            this.retryBudget = builder.retryBudget;
+            this.circuitBreaker = builder.circuitBreaker;
         }
 
         /**
@@ -143,22 +235,22 @@ public final class RetryUtils {
          * @return The jitter delay in milliseconds.
          */
         public int jitterDelayMillis(int attempt) {
-            Random rand = new Random();
             double delay = rawDelayMs(attempt);
-            double jitter = delay * jitterScale;
-            return (int) (delay + rand.nextInt((int) jitter));
+            int jitter = (int) (delay * jitterScale);
+            return (int) (delay + (jitter > 0 ? ThreadLocalRandom.current().nextInt(jitter) : 0));
         }
 
         /**
          * This method sleeps for a given attempt.
+         * If the thread is interrupted, it returns early and keeps the interrupt status of the thread.
          * @param attempt The attempt number.
          */
         @JacocoIgnoreCoverageGenerated
         public void sleep(int attempt) {
             try {
                 Thread.sleep(jitterDelayMillis(attempt));
-            } catch (InterruptedException ignored) {
-                // pass
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         }
 
@@ -186,28 +278,432 @@ public final class RetryUtils {
          * @throws RuntimeException if the action fails on all attempts.
          */
         public <T> T withRetry(Callable<T> action, int maxAttempts) {
+            return withRetry(action, maxAttempts, true);
+        }
+
+        /**
+         * This method attempts to execute a given action up to the maximum number of attempts.
+         * Unlike {@link #withRetry(Callable)}, the exception of the last attempt is thrown as is,
+         * rather than wrapped in a RuntimeException, so that callers can still handle it.
+         *
+         * @param action The action to be executed.
+         * @param <T> The type of the result of the action.
+         * @return The result of the action if it is successful.
+         */
+        public <T> T execute(Supplier<T> action) {
+            ensureNotNull(action, "action");
+            return withRetry(action::get, maxAttempts, false);
+        }
+
+        private <T> T withRetry(Callable<T> action, int maxAttempts, boolean wrap) {
             int attempt = 1;
             while (true) {
+                acquirePermission();
                 try {
-                    return action.call();
+                    T result = action.call();
+                    onSuccess();
+                    return result;
                 } catch (Exception e) {
-                    if (attempt >= maxAttempts) {
-                        throw new RuntimeException(e);
+                    long delay = onFailure(e, attempt, maxAttempts);
+                    if (delay == NO_RETRY) {
+                        throw wrap || !(e instanceof RuntimeException) ? new RuntimeException(e) : (RuntimeException) e;
                     }
 
-                    log.warn(format("Exception was thrown on attempt %s of %s", attempt, maxAttempts), e);
-
-                    sleep(attempt);
+                    try {
+                        Thread.sleep(delay);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        RuntimeException exception = wrap || !(e instanceof RuntimeException)
+                                ? new RuntimeException(e)
+                                : (RuntimeException) e;
+                        exception.addSuppressed(interrupted);
+                        throw exception;
+                    }
                 }
                 attempt++;
             }
         }
+
+        /**
+         * This method attempts to execute a given asynchronous action up to the maximum number of attempts,
+         * without blocking any thread while waiting before the next attempt.
+         * The attempts are scheduled on a shared daemon thread, and executed by the action
+         * (the action should not block).
+         *
+         * @param action The action to be executed, returning a future of its result.
+         * @param <T> The type of the result of the action.
+         * @return A future completed with the result of the first successful attempt,
+         * or completed exceptionally with the exception of the last attempt.
+         */
+        public <T> CompletableFuture<T> withRetryAsync(Supplier<CompletableFuture<T>> action) {
+            return withRetryAsync(action, DefaultScheduler.INSTANCE);
+        }
+
+        /**
+         * This method attempts to execute a given asynchronous action up to the maximum number of attempts,
+         * without blocking any thread while waiting before the next attempt.
+         *
+         * @param action The action to be executed, returning a future of its result.
+         * @param scheduler The scheduler used to schedule the attempts after the first one.
+         * @param <T> The type of the result of the action.
+         * @return A future completed with the result of the first successful attempt,
+         * or completed exceptionally with the exception of the last attempt.
+         */
+        public <T> CompletableFuture<T> withRetryAsync(Supplier<CompletableFuture<T>> action,
+                                                       ScheduledExecutorService scheduler) {
+            ensureNotNull(action, "action");
+            ensureNotNull(scheduler, "scheduler");
+            CompletableFuture<T> result = new CompletableFuture<>();
+            attemptAsync(action, scheduler, 1, result);
+            return result;
+        }
+
+        private <T> void attemptAsync(Supplier<CompletableFuture<T>> action,
+                                      ScheduledExecutorService scheduler,
+                                      int attempt,
+                                      CompletableFuture<T> result) {
+            if (result.isDone()) {
+                return; // cancelled
+            }
+
+            CompletableFuture<T> future;
+            try {
+                acquirePermission();
+                future = action.get();
+            } catch (CircuitBreakerOpenException e) {
+                result.completeExceptionally(e);
+                return;
+            } catch (Exception e) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+            }
+
+            future.whenComplete((value, error) -> {
+                if (error == null) {
+                    onSuccess();
+                    result.complete(value);
+                    return;
+                }
+
+                Throwable cause = unwrap(error);
+                long delay = onFailure(cause, attempt, maxAttempts);
+                if (delay == NO_RETRY) {
+                    result.completeExceptionally(cause);
+                    return;
+                }
+
+                try {
+                    scheduler.schedule(() -> attemptAsync(action, scheduler, attempt + 1, result), delay, MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    cause.addSuppressed(e);
+                    result.completeExceptionally(cause);
+                }
+            });
+        }
+
+        private void acquirePermission() {
+            if (circuitBreaker != null) {
+                circuitBreaker.acquirePermission();
+            }
+        }
+
+        private void onSuccess() {
+            if (circuitBreaker != null) {
+                circuitBreaker.onSuccess();
+            }
+            if (retryBudget != null) {
+                retryBudget.onSuccess();
+            }
+        }
+
+        /**
+         * Records a failed attempt and decides whether to retry.
+         *
+         * @return the delay in milliseconds before the next attempt, or {@link #NO_RETRY}.
+         */
+        private long onFailure(Throwable e, int attempt, int maxAttempts) {
+            boolean retryable = retryIf.test(e);
+            if (circuitBreaker != null) {
+                if (retryable) {
+                    circuitBreaker.onFailure();
+                } else {
+                    // the service answered, the request itself is wrong
+                    circuitBreaker.onSuccess();
+                }
+            }
+
+            if (!retryable || attempt >= maxAttempts) {
+                return NO_RETRY;
+            }
+            if (retryBudget != null && !retryBudget.tryAcquire()) {
+                log.warn(format("Exception was thrown on attempt %s of %s, retry budget is exhausted", attempt, maxAttempts), e);
+                return NO_RETRY;
+            }
+
+            log.warn(format("Exception was thrown on attempt %s of %s", attempt, maxAttempts), e);
+
+            Duration requestedDelay = retryAfter == null ? null : retryAfter.apply(e);
+            if (requestedDelay != null && !requestedDelay.isNegative()) {
+                return requestedDelay.toMillis();
+            }
+            return jitterDelayMillis(attempt);
+        }
+
+        private static final long NO_RETRY = -1;
+
+        private static Throwable unwrap(Throwable error) {
+            if ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+                return error.getCause();
+            }
+            return error;
+        }
+
+        private static class DefaultScheduler {
+
+            private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "langchain4j-retry-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
     }
 
     /**
-     * Default retry policy used by {@link #withRetry(Callable)}.
+     * A retry budget, limiting the retries to a fraction of the successful calls,
+     * so that retries do not multiply the load on a service that is failing.
+     * <p>
+     * The budget is a bucket of tokens: each retry takes one token, and each successful call
+     * adds {@code tokensPerSuccess} tokens, up to {@code maxTokens}.
+     * When the bucket is empty, failed calls are not retried.
+     * The bucket is initially full.
+     */
+    public static final class RetryBudget {
+
+        private final double maxTokens;
+        private final double tokensPerSuccess;
+        private double tokens;
+
+        /**
+         * Construct a RetryBudget.
+         * @param maxTokens The maximum number of tokens, i.e. of retries in a burst.
+         * @param tokensPerSuccess The number of tokens added by each successful call,
+         *                         e.g. 0.1 allows one retry for 10 successful calls.
+         */
+        public RetryBudget(int maxTokens, double tokensPerSuccess) {
+            this.maxTokens = ensureGreaterThanZero(maxTokens, "maxTokens");
+            ensureTrue(tokensPerSuccess > 0, "tokensPerSuccess must be greater than zero");
+            this.tokensPerSuccess = tokensPerSuccess;
+            this.tokens = maxTokens;
+        }
+
+        /**
+         * Takes a token for a retry.
+         * @return {@code true} if the retry is allowed.
+         */
+        public synchronized boolean tryAcquire() {
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        /**
+         * Adds tokens for a successful call.
+         */
+        public synchronized void onSuccess() {
+            tokens = Math.min(maxTokens, tokens + tokensPerSuccess);
+        }
+
+        /**
+         * @return The number of tokens currently available.
+         */
+        public synchronized double availableTokens() {
+            return tokens;
+        }
+    }
+
+    /**
+     * A circuit breaker, failing fast while the called service is failing.
+     * <p>
+     * The circuit opens after {@code failureThreshold} consecutive failures: calls then fail immediately
+     * with a {@link CircuitBreakerOpenException}. After {@code openDuration}, a single trial call is let through:
+     * the circuit closes if it succeeds, and opens again if it fails.
+     */
+    public static final class CircuitBreaker {
+
+        private enum State {
+            CLOSED, OPEN, HALF_OPEN
+        }
+
+        private final int failureThreshold;
+        private final long openDurationNanos;
+        private final LongSupplier nanoTime;
+
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long stateChangedAt;
+
+        /**
+         * Construct a CircuitBreaker.
+         * @param failureThreshold The number of consecutive failures opening the circuit.
+         * @param openDuration How long the circuit stays open before a trial call is let through.
+         */
+        public CircuitBreaker(int failureThreshold, Duration openDuration) {
+            this(failureThreshold, openDuration, System::nanoTime);
+        }
+
+        CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoTime) {
+            this.failureThreshold = ensureGreaterThanZero(failureThreshold, "failureThreshold");
+            ensureNotNull(openDuration, "openDuration");
+            ensureTrue(!openDuration.isNegative() && !openDuration.isZero(), "openDuration must be positive");
+            this.openDurationNanos = openDuration.toNanos();
+            this.nanoTime = nanoTime;
+        }
+
+        /**
+         * Checks that a call is permitted.
+         * @throws CircuitBreakerOpenException if the circuit is open.
+         */
+        public synchronized void acquirePermission() {
+            if (state == State.CLOSED) {
+                return;
+            }
+            long now = nanoTime.getAsLong();
+            if (now - stateChangedAt < openDurationNanos) {
+                throw new CircuitBreakerOpenException(state == State.OPEN
+                        ? "Circuit breaker is open, the call is not permitted"
+                        : "Circuit breaker is half-open and a trial call is in progress, the call is not permitted");
+            }
+            // let a trial call through (again, if the previous trial call never completed)
+            state = State.HALF_OPEN;
+            stateChangedAt = now;
+        }
+
+        /**
+         * Records a successful call, closing the circuit.
+         */
+        public synchronized void onSuccess() {
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+        }
+
+        /**
+         * Records a failed call, opening the circuit if the failure threshold is reached
+         * or if the call was the trial call.
+         */
+        public synchronized void onFailure() {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                state = State.OPEN;
+                stateChangedAt = nanoTime.getAsLong();
+                consecutiveFailures = 0;
+            }
+        }
+
+        /**
+         * @return {@code true} if calls are currently rejected.
+         */
+        public synchronized boolean isOpen() {
+            return state != State.CLOSED && nanoTime.getAsLong() - stateChangedAt < openDurationNanos;
+        }
+    }
+
+    /**
+     * Thrown when a call is not permitted by an open {@link CircuitBreaker}.
+     */
+    public static class CircuitBreakerOpenException extends RuntimeException {
+
+        /**
+         * Construct a CircuitBreakerOpenException.
+         * @param message The message.
+         */
+        public CircuitBreakerOpenException(String message) {
+            super(message);
+        }
+    }
+
+    private static final int MAX_CAUSE_DEPTH = 10;
+
+    private static final ClassValue<Method> STATUS_CODE_METHOD = new ClassValue<Method>() {
+
+        @Override
+        protected Method computeValue(Class<?> type) {
+            for (String name : new String[]{"statusCode", "code", "getStatusCode"}) {
+                try {
+                    Method method = type.getMethod(name);
+                    if (method.getReturnType() == int.class || method.getReturnType() == Integer.class) {
+                        try {
+                            // the method is public, but the exception class might not be
+                            method.setAccessible(true);
+                        } catch (RuntimeException ignored) {
+                        }
+                        return method;
+                    }
+                } catch (NoSuchMethodException ignored) {
+                }
+            }
+            return null;
+        }
+    };
+
+    /**
+     * The default classification of exceptions for retries, see {@link RetryPolicy.Builder#retryIf(Predicate)}.
+     * <p>
+     * An exception carrying an HTTP status code (itself or one of its causes) is retried for
+     * 408 (Request Timeout), 429 (Too Many Requests) and 5xx (server errors), but not for the other 4xx status codes
+     * (e.g. invalid request, authentication failure, unknown model), as the same request would fail again.
+     * The status code is read from a public {@code statusCode()}, {@code code()} or {@code getStatusCode()} method
+     * returning an int, as exposed by the HTTP exceptions of most model providers.
+     * <p>
+     * Other exceptions, e.g. timeouts and connection failures, are retried.
+     *
+     * @param e The exception thrown by an attempt.
+     * @return {@code true} if the attempt is worth retrying.
+     */
+    public static boolean isRetryable(Throwable e) {
+        Integer statusCode = httpStatusCode(e);
+        if (statusCode == null || statusCode < 400 || statusCode >= 500) {
+            return true;
+        }
+        return statusCode == 408 || statusCode == 429;
+    }
+
+    private static Integer httpStatusCode(Throwable e) {
+        Throwable cause = e;
+        for (int depth = 0; cause != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            Method method = STATUS_CODE_METHOD.get(cause.getClass());
+            if (method != null) {
+                try {
+                    Object statusCode = method.invoke(cause);
+                    if (statusCode instanceof Integer && (Integer) statusCode >= 100 && (Integer) statusCode <= 599) {
+                        return (Integer) statusCode;
+                    }
+                } catch (ReflectiveOperationException | RuntimeException ignored) {
+                }
+            }
+            cause = cause.getCause();
+        }
+        return null;
+    }
+
+    /**
+     * Default retry policy used by {@link #withRetry(Callable)}, retrying all exceptions.
      */
     public static final RetryPolicy DEFAULT_RETRY_POLICY = retryPolicyBuilder()
+            .maxAttempts(3)
+            .delayMillis(500)
+            .jitterScale(0.2)
+            .backoffExp(1.5)
+            .retryIf(e -> true)
+            .build();
+
+    /**
+     * Default retry policy of the retrying model decorators, e.g. {@code RetryingChatLanguageModel}.
+     * Same as {@link #DEFAULT_RETRY_POLICY}, but only retries the exceptions classified as retryable
+     * by {@link #isRetryable(Throwable)}.
+     */
+    public static final RetryPolicy DEFAULT_CLASSIFYING_RETRY_POLICY = retryPolicyBuilder()
             .maxAttempts(3)
             .delayMillis(500)
             .jitterScale(0.2)
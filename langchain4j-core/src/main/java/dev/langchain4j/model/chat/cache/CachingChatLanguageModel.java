@@ -0,0 +1,129 @@
+package dev.langchain4j.model.chat.cache;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ResponseFormat;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Set;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.util.Collections.emptyList;
+
+/**
+ * A {@link ChatLanguageModel} that returns responses from a {@link ChatResponseCache} when possible,
+ * and otherwise calls another {@code ChatLanguageModel} and caches its response.
+ * <br>
+ * Requests made through {@link #chat(ChatRequest)} are cached separately for each {@link ResponseFormat}.
+ * Requests that force the execution of a specific tool are not cached.
+ * <br>
+ * The cache never fails a request: if looking up a response fails (e.g. the embedding model
+ * or the embedding store of the cache is unavailable), the request is treated as a miss,
+ * and if caching the response fails, the response is returned anyway. Both failures are logged.
+ */
+public class CachingChatLanguageModel implements ChatLanguageModel {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingChatLanguageModel.class);
+
+    private final ChatLanguageModel delegate;
+    private final ChatResponseCache cache;
+
+    public CachingChatLanguageModel(ChatLanguageModel delegate, ChatResponseCache cache) {
+        this.delegate = ensureNotNull(delegate, "delegate");
+        this.cache = ensureNotNull(cache, "cache");
+    }
+
+    /**
+     * @return the model whose responses are cached.
+     */
+    public ChatLanguageModel delegate() {
+        return delegate;
+    }
+
+    public ChatResponseCache cache() {
+        return cache;
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        ChatResponseCache.Lookup lookup = lookup(messages, emptyList(), null);
+        if (lookup != null && lookup.response() != null) {
+            return lookup.response();
+        }
+        Response<AiMessage> response = delegate.generate(messages);
+        put(lookup, response);
+        return response;
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        ChatResponseCache.Lookup lookup = lookup(messages, toolSpecifications, null);
+        if (lookup != null && lookup.response() != null) {
+            return lookup.response();
+        }
+        Response<AiMessage> response = delegate.generate(messages, toolSpecifications);
+        put(lookup, response);
+        return response;
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, ToolSpecification toolSpecification) {
+        return delegate.generate(messages, toolSpecification);
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest request) {
+        ChatResponseCache.Lookup lookup =
+                lookup(request.messages(), request.toolSpecifications(), request.responseFormat());
+        if (lookup != null && lookup.response() != null) {
+            Response<AiMessage> cached = lookup.response();
+            return ChatResponse.builder()
+                    .aiMessage(cached.content())
+                    .tokenUsage(cached.tokenUsage())
+                    .finishReason(cached.finishReason())
+                    .build();
+        }
+        ChatResponse response = delegate.chat(request);
+        put(lookup, Response.from(response.aiMessage(), response.tokenUsage(), response.finishReason()));
+        return response;
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return delegate.supportedCapabilities();
+    }
+
+    /**
+     * @return the lookup, or {@code null} if it failed.
+     */
+    private ChatResponseCache.Lookup lookup(List<ChatMessage> messages,
+                                            List<ToolSpecification> toolSpecifications,
+                                            ResponseFormat responseFormat) {
+        try {
+            return cache.lookup(messages, toolSpecifications, responseFormat);
+        } catch (Exception e) {
+            log.warn("Failed to look up the response in the cache, calling the model", e);
+            return null;
+        }
+    }
+
+    private static void put(ChatResponseCache.Lookup lookup, Response<AiMessage> response) {
+        if (lookup == null) {
+            return;
+        }
+        try {
+            lookup.put(response);
+        } catch (Exception e) {
+            // the response was received, failing to cache it must not fail the request
+            log.warn("Failed to cache the response", e);
+        }
+    }
+}
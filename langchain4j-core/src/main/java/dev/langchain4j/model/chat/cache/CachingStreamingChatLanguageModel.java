@@ -0,0 +1,133 @@
+package dev.langchain4j.model.chat.cache;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.util.Collections.emptyList;
+
+/**
+ * A {@link StreamingChatLanguageModel} that returns responses from a {@link ChatResponseCache} when possible,
+ * and otherwise calls another {@code StreamingChatLanguageModel} and caches its complete response.
+ * <br>
+ * A cached textual response is replayed to the {@link StreamingResponseHandler} on the calling thread:
+ * its whole text is passed to {@link StreamingResponseHandler#onNext(String)} at once,
+ * followed by {@link StreamingResponseHandler#onComplete(Response)}.
+ * <br>
+ * Requests that force the execution of a specific tool are not cached.
+ * <br>
+ * The cache never fails a request: if looking up a response fails (e.g. the embedding model
+ * or the embedding store of the cache is unavailable), the request is treated as a miss,
+ * and if caching the response fails, the response is completed anyway. Both failures are logged.
+ */
+public class CachingStreamingChatLanguageModel implements StreamingChatLanguageModel {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingStreamingChatLanguageModel.class);
+
+    private final StreamingChatLanguageModel delegate;
+    private final ChatResponseCache cache;
+
+    public CachingStreamingChatLanguageModel(StreamingChatLanguageModel delegate, ChatResponseCache cache) {
+        this.delegate = ensureNotNull(delegate, "delegate");
+        this.cache = ensureNotNull(cache, "cache");
+    }
+
+    /**
+     * @return the model whose responses are cached.
+     */
+    public StreamingChatLanguageModel delegate() {
+        return delegate;
+    }
+
+    public ChatResponseCache cache() {
+        return cache;
+    }
+
+    @Override
+    public void generate(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) {
+        ChatResponseCache.Lookup lookup = lookup(messages, emptyList());
+        if (lookup != null && lookup.response() != null) {
+            replay(lookup.response(), handler);
+        } else {
+            delegate.generate(messages, caching(lookup, handler));
+        }
+    }
+
+    @Override
+    public void generate(List<ChatMessage> messages,
+                         List<ToolSpecification> toolSpecifications,
+                         StreamingResponseHandler<AiMessage> handler) {
+        ChatResponseCache.Lookup lookup = lookup(messages, toolSpecifications);
+        if (lookup != null && lookup.response() != null) {
+            replay(lookup.response(), handler);
+        } else {
+            delegate.generate(messages, toolSpecifications, caching(lookup, handler));
+        }
+    }
+
+    @Override
+    public void generate(List<ChatMessage> messages,
+                         ToolSpecification toolSpecification,
+                         StreamingResponseHandler<AiMessage> handler) {
+        delegate.generate(messages, toolSpecification, handler);
+    }
+
+    /**
+     * @return the lookup, or {@code null} if it failed.
+     */
+    private ChatResponseCache.Lookup lookup(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        try {
+            return cache.lookup(messages, toolSpecifications);
+        } catch (Exception e) {
+            log.warn("Failed to look up the response in the cache, calling the model", e);
+            return null;
+        }
+    }
+
+    private static void replay(Response<AiMessage> response, StreamingResponseHandler<AiMessage> handler) {
+        String text = response.content().text();
+        if (text != null && !text.isEmpty()) {
+            handler.onNext(text);
+        }
+        handler.onComplete(response);
+    }
+
+    private static StreamingResponseHandler<AiMessage> caching(ChatResponseCache.Lookup lookup,
+                                                               StreamingResponseHandler<AiMessage> handler) {
+        if (lookup == null) {
+            return handler;
+        }
+        return new StreamingResponseHandler<AiMessage>() {
+
+            @Override
+            public void onNext(String token) {
+                handler.onNext(token);
+            }
+
+            @Override
+            public void onComplete(Response<AiMessage> response) {
+                try {
+                    lookup.put(response);
+                } catch (Exception e) {
+                    // the response was received, failing to cache it must not fail the request
+                    log.warn("Failed to cache the response", e);
+                }
+                handler.onComplete(response);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                handler.onError(error);
+            }
+        };
+    }
+}
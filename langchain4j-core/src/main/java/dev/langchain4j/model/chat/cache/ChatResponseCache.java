@@ -0,0 +1,420 @@
+package dev.langchain4j.model.chat.cache;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.internal.Json;
+import dev.langchain4j.model.chat.request.ResponseFormat;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static dev.langchain4j.data.document.Metadata.metadata;
+import static dev.langchain4j.data.message.ChatMessageSerializer.messagesToJson;
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+import static dev.langchain4j.internal.Utils.generateUUIDFrom;
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.Utils.isNullOrEmpty;
+import static dev.langchain4j.internal.ValidationUtils.ensureBetween;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+
+/**
+ * A cache of responses of a chat model, used by {@link CachingChatLanguageModel}
+ * and {@link CachingStreamingChatLanguageModel}. The same cache can be shared by several models
+ * only if they would produce interchangeable responses.
+ * <br>
+ * Responses are looked up by a hash of all messages and tool specifications sent to the model,
+ * and of the requested {@link ResponseFormat}, if any.
+ * At most {@link Builder#maxSize(Integer)} responses are kept, evicting the least recently used ones,
+ * and each response expires after {@link Builder#ttl(Duration)}, if specified.
+ * <br>
+ * Optionally, when an {@link EmbeddingModel} and an {@link EmbeddingStore} are specified, responses are also looked up
+ * by similarity: if the last message is a {@link UserMessage} whose embedding is similar enough
+ * (see {@link Builder#minScore(Double)}) to the one of a cached request, and all previous messages
+ * and tool specifications are the same as in that request, the cached response is returned.
+ * Only textual responses (without tool execution requests) are found by similarity.
+ */
+public class ChatResponseCache {
+
+    private static final int DEFAULT_MAX_SIZE = 1_000;
+    private static final double DEFAULT_MIN_SCORE = 0.95;
+    private static final String KEY_METADATA_KEY = "cache_key";
+    private static final String CONTEXT_METADATA_KEY = "cache_context";
+
+    private final Map<String, CachedResponse> responses;
+    private final Long ttlNanos;
+    private final EmbeddingModel embeddingModel;
+    private final EmbeddingStore<TextSegment> embeddingStore;
+    private final double minScore;
+
+    private final List<String> evictedEmbeddingIds = new ArrayList<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    private static class CachedResponse {
+
+        private final Response<AiMessage> response;
+        private final long createdAtNanos;
+        private final String embeddingId;
+
+        CachedResponse(Response<AiMessage> response, long createdAtNanos, String embeddingId) {
+            this.response = response;
+            this.createdAtNanos = createdAtNanos;
+            this.embeddingId = embeddingId;
+        }
+    }
+
+    /**
+     * Creates an instance of a {@code ChatResponseCache}.
+     *
+     * @param maxSize        The maximum number of cached responses. Optional, defaults to 1 000.
+     * @param ttl            The time after which a cached response expires. Optional, responses do not expire by default.
+     * @param embeddingModel The {@link EmbeddingModel} used to embed the last user message. Optional.
+     * @param embeddingStore The {@link EmbeddingStore} used to look up similar user messages.
+     *                       Mandatory if an {@code embeddingModel} is specified.
+     * @param minScore       The minimum similarity score of a similar user message. Optional, defaults to 0.95.
+     */
+    public ChatResponseCache(Integer maxSize,
+                             Duration ttl,
+                             EmbeddingModel embeddingModel,
+                             EmbeddingStore<TextSegment> embeddingStore,
+                             Double minScore) {
+        int maxResponses = ensureGreaterThanZero(getOrDefault(maxSize, DEFAULT_MAX_SIZE), "maxSize");
+        this.responses = new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                if (size() <= maxResponses) {
+                    return false;
+                }
+                if (eldest.getValue().embeddingId != null) {
+                    evictedEmbeddingIds.add(eldest.getValue().embeddingId);
+                }
+                return true;
+            }
+        };
+        if (ttl != null && (ttl.isNegative() || ttl.isZero())) {
+            throw illegalArgument("ttl must be positive, but is: %s", ttl);
+        }
+        this.ttlNanos = ttl == null ? null : ttl.toNanos();
+        this.embeddingModel = embeddingModel;
+        this.embeddingStore = embeddingModel == null ? embeddingStore : ensureNotNull(embeddingStore, "embeddingStore");
+        this.minScore = ensureBetween(getOrDefault(minScore, DEFAULT_MIN_SCORE), 0, 1, "minScore");
+    }
+
+    /**
+     * Looks up the response to the specified request.
+     *
+     * @param messages           The messages sent to the model.
+     * @param toolSpecifications The tool specifications sent to the model. Can be empty.
+     * @return The cached response, or {@code null} if there is none.
+     */
+    public Response<AiMessage> get(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        return lookup(messages, toolSpecifications, null).response();
+    }
+
+    /**
+     * Looks up the response to the specified request. On a miss, the response of the model can then be cached
+     * with {@link Lookup#put(Response)}, which reuses the embedding of the last user message computed by the lookup.
+     *
+     * @param messages           The messages sent to the model.
+     * @param toolSpecifications The tool specifications sent to the model. Can be empty.
+     * @return The lookup, holding the cached response, if any.
+     */
+    public Lookup lookup(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        return lookup(messages, toolSpecifications, null);
+    }
+
+    /**
+     * Looks up the response to the specified request, like {@link #lookup(List, List)}.
+     * Responses to requests with different response formats are cached separately.
+     *
+     * @param messages           The messages sent to the model.
+     * @param toolSpecifications The tool specifications sent to the model. Can be empty.
+     * @param responseFormat     The format of the response requested from the model. Can be {@code null}.
+     * @return The lookup, holding the cached response, if any.
+     */
+    public Lookup lookup(List<ChatMessage> messages,
+                         List<ToolSpecification> toolSpecifications,
+                         ResponseFormat responseFormat) {
+        String key = key(messages, toolSpecifications, responseFormat);
+        Embedding embedding = null;
+        Response<AiMessage> response = get(key);
+        if (response == null && isSemantic(messages)) {
+            embedding = embeddingModel.embed(lastUserMessage(messages)).content();
+            response = getSimilar(embedding, messages, toolSpecifications, responseFormat);
+        }
+        (response == null ? missCount : hitCount).incrementAndGet();
+        return new Lookup(new ArrayList<>(messages), toolSpecifications, responseFormat, key, embedding, response);
+    }
+
+    /**
+     * Caches the response to the specified request.
+     *
+     * @param messages           The messages sent to the model.
+     * @param toolSpecifications The tool specifications sent to the model. Can be empty.
+     * @param response           The response of the model.
+     */
+    public void put(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications, Response<AiMessage> response) {
+        put(key(messages, toolSpecifications, null), messages, toolSpecifications, null, null, response);
+    }
+
+    private void put(String key,
+                     List<ChatMessage> messages,
+                     List<ToolSpecification> toolSpecifications,
+                     ResponseFormat responseFormat,
+                     Embedding embedding,
+                     Response<AiMessage> response) {
+        String embeddingId = null;
+        if (isSemantic(messages) && !response.content().hasToolExecutionRequests()) {
+            if (embedding == null) {
+                embedding = embeddingModel.embed(lastUserMessage(messages)).content();
+            }
+            TextSegment segment = TextSegment.from(lastUserMessage(messages), metadata(KEY_METADATA_KEY, key)
+                    .put(CONTEXT_METADATA_KEY, contextKey(messages, toolSpecifications, responseFormat)));
+            embeddingId = embeddingStore.add(embedding, segment);
+        }
+        CachedResponse previous;
+        synchronized (responses) {
+            previous = responses.put(key, new CachedResponse(response, System.nanoTime(), embeddingId));
+            if (previous != null && previous.embeddingId != null) {
+                evictedEmbeddingIds.add(previous.embeddingId);
+            }
+        }
+        removeEvictedEmbeddings();
+    }
+
+    /**
+     * Removes all cached responses.
+     */
+    public void clear() {
+        synchronized (responses) {
+            for (CachedResponse cachedResponse : responses.values()) {
+                if (cachedResponse.embeddingId != null) {
+                    evictedEmbeddingIds.add(cachedResponse.embeddingId);
+                }
+            }
+            responses.clear();
+        }
+        removeEvictedEmbeddings();
+    }
+
+    /**
+     * @return the number of requests whose response was found in the cache.
+     */
+    public long hitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of requests whose response was not found in the cache.
+     */
+    public long missCount() {
+        return missCount.get();
+    }
+
+    private Response<AiMessage> get(String key) {
+        CachedResponse cachedResponse;
+        synchronized (responses) {
+            cachedResponse = responses.get(key);
+            if (cachedResponse == null) {
+                return null;
+            }
+            if (ttlNanos == null || System.nanoTime() - cachedResponse.createdAtNanos < ttlNanos) {
+                return cachedResponse.response;
+            }
+            responses.remove(key);
+            if (cachedResponse.embeddingId != null) {
+                evictedEmbeddingIds.add(cachedResponse.embeddingId);
+            }
+        }
+        removeEvictedEmbeddings();
+        return null;
+    }
+
+    private Response<AiMessage> getSimilar(Embedding embedding,
+                                           List<ChatMessage> messages,
+                                           List<ToolSpecification> toolSpecifications,
+                                           ResponseFormat responseFormat) {
+        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                .queryEmbedding(embedding)
+                .maxResults(1)
+                .minScore(minScore)
+                .filter(metadataKey(CONTEXT_METADATA_KEY).isEqualTo(
+                        contextKey(messages, toolSpecifications, responseFormat)))
+                .build();
+        List<EmbeddingMatch<TextSegment>> matches = embeddingStore.search(request).matches();
+        if (matches.isEmpty()) {
+            return null;
+        }
+        return get(matches.get(0).embedded().metadata().getString(KEY_METADATA_KEY));
+    }
+
+    /**
+     * The result of looking up the response to a request, see {@link #lookup(List, List, ResponseFormat)}.
+     */
+    public class Lookup {
+
+        private final List<ChatMessage> messages;
+        private final List<ToolSpecification> toolSpecifications;
+        private final ResponseFormat responseFormat;
+        private final String key;
+        private final Embedding embedding;
+        private final Response<AiMessage> response;
+
+        private Lookup(List<ChatMessage> messages,
+                       List<ToolSpecification> toolSpecifications,
+                       ResponseFormat responseFormat,
+                       String key,
+                       Embedding embedding,
+                       Response<AiMessage> response) {
+            this.messages = messages;
+            this.toolSpecifications = toolSpecifications;
+            this.responseFormat = responseFormat;
+            this.key = key;
+            this.embedding = embedding;
+            this.response = response;
+        }
+
+        /**
+         * @return The cached response, or {@code null} if there is none.
+         */
+        public Response<AiMessage> response() {
+            return response;
+        }
+
+        /**
+         * Caches the response to the request that was looked up.
+         *
+         * @param response The response of the model.
+         */
+        public void put(Response<AiMessage> response) {
+            ChatResponseCache.this.put(key, messages, toolSpecifications, responseFormat, embedding, response);
+        }
+    }
+
+    private void removeEvictedEmbeddings() {
+        List<String> embeddingIds;
+        synchronized (responses) {
+            if (evictedEmbeddingIds.isEmpty()) {
+                return;
+            }
+            embeddingIds = new ArrayList<>(evictedEmbeddingIds);
+            evictedEmbeddingIds.clear();
+        }
+        embeddingStore.removeAll(embeddingIds);
+    }
+
+    private boolean isSemantic(List<ChatMessage> messages) {
+        if (embeddingModel == null || messages.isEmpty()) {
+            return false;
+        }
+        ChatMessage lastMessage = messages.get(messages.size() - 1);
+        return lastMessage instanceof UserMessage && ((UserMessage) lastMessage).hasSingleText();
+    }
+
+    private static String lastUserMessage(List<ChatMessage> messages) {
+        return ((UserMessage) messages.get(messages.size() - 1)).singleText();
+    }
+
+    private static String key(List<ChatMessage> messages,
+                              List<ToolSpecification> toolSpecifications,
+                              ResponseFormat responseFormat) {
+        return generateUUIDFrom(messagesToJson(messages)
+                + "\n" + toolsToJson(toolSpecifications) + responseFormatToString(responseFormat));
+    }
+
+    private static String contextKey(List<ChatMessage> messages,
+                                     List<ToolSpecification> toolSpecifications,
+                                     ResponseFormat responseFormat) {
+        return generateUUIDFrom(messagesToJson(messages.subList(0, messages.size() - 1))
+                + "\n" + toolsToJson(toolSpecifications) + responseFormatToString(responseFormat));
+    }
+
+    private static String responseFormatToString(ResponseFormat responseFormat) {
+        // toString() describes the whole JSON schema, while the JSON codec would lose the types of its elements
+        return responseFormat == null ? "" : "\n" + responseFormat;
+    }
+
+    private static String toolsToJson(List<ToolSpecification> toolSpecifications) {
+        return isNullOrEmpty(toolSpecifications) ? "[]" : Json.toJson(toolSpecifications);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private Integer maxSize;
+        private Duration ttl;
+        private EmbeddingModel embeddingModel;
+        private EmbeddingStore<TextSegment> embeddingStore;
+        private Double minScore;
+
+        /**
+         * @param maxSize The maximum number of cached responses. Default: 1 000.
+         * @return builder
+         */
+        public Builder maxSize(Integer maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * @param ttl The time after which a cached response expires. By default, responses do not expire.
+         * @return builder
+         */
+        public Builder ttl(Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+
+        /**
+         * @param embeddingModel The {@link EmbeddingModel} used to look up responses to similar user messages.
+         *                       If none is specified, responses are looked up only by exact requests.
+         * @return builder
+         */
+        public Builder embeddingModel(EmbeddingModel embeddingModel) {
+            this.embeddingModel = embeddingModel;
+            return this;
+        }
+
+        /**
+         * @param embeddingStore The {@link EmbeddingStore} in which the embeddings of cached user messages are kept.
+         *                       It must support filtering by metadata and removal by ids,
+         *                       and it should not be used for anything else.
+         * @return builder
+         */
+        public Builder embeddingStore(EmbeddingStore<TextSegment> embeddingStore) {
+            this.embeddingStore = embeddingStore;
+            return this;
+        }
+
+        /**
+         * @param minScore The minimum similarity score (between 0 and 1) of a similar user message. Default: 0.95.
+         * @return builder
+         */
+        public Builder minScore(Double minScore) {
+            this.minScore = minScore;
+            return this;
+        }
+
+        public ChatResponseCache build() {
+            return new ChatResponseCache(maxSize, ttl, embeddingModel, embeddingStore, minScore);
+        }
+    }
+}
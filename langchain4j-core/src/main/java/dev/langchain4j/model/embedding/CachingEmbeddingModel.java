@@ -0,0 +1,305 @@
+package dev.langchain4j.model.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.output.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+import static dev.langchain4j.internal.Utils.generateUUIDFrom;
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.Utils.randomUUID;
+import static dev.langchain4j.internal.ValidationUtils.ensureEq;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * An {@link EmbeddingModel} that caches the embeddings produced by another {@code EmbeddingModel}.
+ * <br>
+ * Embeddings are cached by model name and text: the metadata of a {@link TextSegment} does not affect its embedding.
+ * They are first looked up in a bounded in-memory cache, which evicts the least recently used embeddings,
+ * and then, optionally, in a directory on disk (see {@link Builder#directory(Path)}),
+ * which keeps embeddings across application restarts.
+ * The disk cache is best effort: an entry that cannot be read (e.g. a corrupted file) is deleted and treated as a miss,
+ * and an entry that cannot be written is skipped. Both are logged, and neither fails the embedding.
+ * <br>
+ * All text segments missing from the cache are embedded with a single call to
+ * {@link EmbeddingModel#embedAll(List)} of the delegate model.
+ * The {@link Response#tokenUsage()} returned by {@link #embedAll(List)} is the one of this call,
+ * i.e. cached embeddings cost no tokens.
+ * <br>
+ * The number of cache hits and misses is reported by {@link #hitCount()} and {@link #missCount()}.
+ */
+public class CachingEmbeddingModel implements EmbeddingModel {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingEmbeddingModel.class);
+
+    private static final int DEFAULT_MAX_SIZE = 10_000;
+
+    private final EmbeddingModel delegate;
+    private final String modelName;
+    private final Map<String, float[]> memoryCache;
+    private final Path directory;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Creates an instance of a {@code CachingEmbeddingModel}.
+     *
+     * @param delegate  The {@link EmbeddingModel} whose embeddings are cached. Mandatory.
+     * @param modelName The name of the delegate model, which is part of the cache key.
+     *                  Mandatory when a directory is specified, since embeddings cached on disk outlive
+     *                  the configuration of the delegate (e.g. the model used by a client of a remote API).
+     *                  Otherwise optional, defaults to the class name of the delegate.
+     * @param maxSize   The maximum number of embeddings cached in memory. Optional, defaults to 10 000.
+     * @param directory The directory in which embeddings are cached on disk. Optional.
+     */
+    public CachingEmbeddingModel(EmbeddingModel delegate, String modelName, Integer maxSize, Path directory) {
+        this.delegate = ensureNotNull(delegate, "delegate");
+        if (directory != null && modelName == null) {
+            throw illegalArgument("modelName must be specified when embeddings are cached in a directory");
+        }
+        this.modelName = ensureNotBlank(getOrDefault(modelName, delegate.getClass().getName()), "modelName");
+        int memoryCacheSize = ensureGreaterThanZero(getOrDefault(maxSize, DEFAULT_MAX_SIZE), "maxSize");
+        this.memoryCache = new LinkedHashMap<String, float[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                return size() > memoryCacheSize;
+            }
+        };
+        this.directory = directory;
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+
+        List<Embedding> embeddings = new ArrayList<>(textSegments.size());
+        Map<String, List<Integer>> missingIndicesByKey = new LinkedHashMap<>();
+        List<TextSegment> missingSegments = new ArrayList<>();
+
+        for (int i = 0; i < textSegments.size(); i++) {
+            TextSegment textSegment = textSegments.get(i);
+            String key = key(textSegment.text());
+            float[] vector = get(key);
+            if (vector != null) {
+                hitCount.incrementAndGet();
+                embeddings.add(Embedding.from(vector.clone()));
+                continue;
+            }
+            missCount.incrementAndGet();
+            embeddings.add(null);
+            List<Integer> indices = missingIndicesByKey.get(key);
+            if (indices == null) {
+                // the same text is embedded only once
+                indices = new ArrayList<>();
+                missingIndicesByKey.put(key, indices);
+                missingSegments.add(textSegment);
+            }
+            indices.add(i);
+        }
+
+        if (missingSegments.isEmpty()) {
+            return Response.from(embeddings);
+        }
+
+        Response<List<Embedding>> response = delegate.embedAll(missingSegments);
+        List<Embedding> missingEmbeddings = response.content();
+        ensureEq(missingEmbeddings.size(), missingSegments.size(),
+                "Expected %s embeddings, but got %s", missingSegments.size(), missingEmbeddings.size());
+
+        int j = 0;
+        for (Map.Entry<String, List<Integer>> missing : missingIndicesByKey.entrySet()) {
+            float[] vector = missingEmbeddings.get(j++).vector();
+            put(missing.getKey(), vector.clone());
+            for (int index : missing.getValue()) {
+                embeddings.set(index, Embedding.from(vector.clone()));
+            }
+        }
+
+        return Response.from(embeddings, response.tokenUsage(), response.finishReason());
+    }
+
+    @Override
+    public int dimension() {
+        return delegate.dimension();
+    }
+
+    /**
+     * @return the number of text segments whose embedding was found in the cache.
+     */
+    public long hitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of text segments whose embedding was not found in the cache.
+     */
+    public long missCount() {
+        return missCount.get();
+    }
+
+    private String key(String text) {
+        return generateUUIDFrom(modelName + "\n" + text);
+    }
+
+    private float[] get(String key) {
+        float[] vector;
+        synchronized (memoryCache) {
+            vector = memoryCache.get(key);
+        }
+        if (vector != null || directory == null) {
+            return vector;
+        }
+        vector = read(directory.resolve(key));
+        if (vector != null) {
+            synchronized (memoryCache) {
+                memoryCache.put(key, vector);
+            }
+        }
+        return vector;
+    }
+
+    private void put(String key, float[] vector) {
+        synchronized (memoryCache) {
+            memoryCache.put(key, vector);
+        }
+        if (directory != null) {
+            write(directory.resolve(key), vector);
+        }
+    }
+
+    /**
+     * Reads an entry (int dimension, float[dimension], big-endian) with a single read, see {@link #write(Path, float[])}.
+     *
+     * @return the vector, or {@code null} if there is no valid entry.
+     */
+    private static float[] read(Path file) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buffer.remaining() < Integer.BYTES
+                    || buffer.remaining() != Integer.BYTES + (long) buffer.getInt(0) * Float.BYTES) {
+                throw new IOException("Corrupted embedding cache entry: " + file);
+            }
+            float[] vector = new float[buffer.getInt()];
+            buffer.asFloatBuffer().get(vector);
+            return vector;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Failed to read the embedding cache entry {}, it is deleted and embedded again", file, e);
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // replaced when the embedding is written again
+            }
+            return null;
+        }
+    }
+
+    private static void write(Path file, float[] vector) {
+        // written to a temporary file first, so that a concurrent or interrupted write never leaves a partial entry
+        Path temporaryFile = file.resolveSibling(file.getFileName() + "." + randomUUID() + ".tmp");
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + vector.length * Float.BYTES);
+            buffer.putInt(vector.length);
+            buffer.asFloatBuffer().put(vector);
+            Files.write(temporaryFile, buffer.array());
+            Files.move(temporaryFile, file, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Failed to write the embedding cache entry {}, it is kept in memory only", file, e);
+            try {
+                Files.deleteIfExists(temporaryFile);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private EmbeddingModel delegate;
+        private String modelName;
+        private Integer maxSize;
+        private Path directory;
+
+        /**
+         * @param delegate The {@link EmbeddingModel} whose embeddings are cached.
+         * @return builder
+         */
+        public Builder delegate(EmbeddingModel delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * @param modelName The name of the delegate model, which is part of the cache key.
+         *                  Mandatory when a {@link #directory(Path)} is specified.
+         *                  Otherwise, default: the class name of the delegate.
+         * @return builder
+         */
+        public Builder modelName(String modelName) {
+            this.modelName = modelName;
+            return this;
+        }
+
+        /**
+         * @param maxSize The maximum number of embeddings cached in memory. Default: 10 000.
+         * @return builder
+         */
+        public Builder maxSize(Integer maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * @param directory The directory in which embeddings are cached on disk, one file per embedding.
+         *                  It is created if it does not exist.
+         * @return builder
+         */
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * @param directory The directory in which embeddings are cached on disk, one file per embedding.
+         *                  It is created if it does not exist.
+         * @return builder
+         */
+        public Builder directory(String directory) {
+            return directory(directory == null ? null : Paths.get(directory));
+        }
+
+        public CachingEmbeddingModel build() {
+            return new CachingEmbeddingModel(delegate, modelName, maxSize, directory);
+        }
+    }
+}
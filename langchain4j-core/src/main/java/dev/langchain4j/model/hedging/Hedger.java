@@ -0,0 +1,192 @@
+package dev.langchain4j.model.hedging;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureTrue;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Executes a call on several models: the first model is called first, and the next model is called
+ * when the running calls did not complete within the hedging delay (hedging), or when a call fails (failover).
+ * The first successful result is returned, and the other calls are cancelled.
+ * <p>
+ * The latency of the successful call is recorded, as well as the time spent by the cancelled calls:
+ * a call cancelled after {@code t} took at least {@code t}, and ignoring it would make the slow calls
+ * (the ones hedging is meant for) disappear from the recorded latencies once the hedging delay is learnt from them.
+ * The latencies of failed calls are not recorded.
+ */
+class Hedger {
+
+    /**
+     * The number of latencies to record before the hedging delay is computed from them.
+     */
+    static final int MIN_SAMPLES = 20;
+
+    private final Duration hedgingDelay;
+    private final LatencyTracker latencyTracker;
+    private final Double hedgingPercentile;
+    private final Executor executor;
+
+    Hedger(Duration hedgingDelay, LatencyTracker latencyTracker, Double hedgingPercentile, Executor executor) {
+        if (hedgingDelay != null) {
+            ensureTrue(!hedgingDelay.isNegative(), "hedgingDelay must not be negative");
+        }
+        if (hedgingPercentile != null) {
+            ensureTrue(hedgingPercentile > 0 && hedgingPercentile < 1, "hedgingPercentile must be between 0 and 1");
+        }
+        this.hedgingDelay = hedgingDelay;
+        this.hedgingPercentile = hedgingPercentile;
+        this.latencyTracker = latencyTracker != null || hedgingPercentile == null ? latencyTracker : new LatencyTracker();
+        this.executor = executor != null ? executor : DefaultExecutor.INSTANCE;
+    }
+
+    /**
+     * @return the delay after which the next model is called, or null if models are only called on failure.
+     */
+    Duration hedgingDelay() {
+        if (hedgingPercentile != null && latencyTracker.sampleCount() >= MIN_SAMPLES) {
+            return latencyTracker.percentile(hedgingPercentile);
+        }
+        return hedgingDelay;
+    }
+
+    <T> T execute(List<Callable<T>> calls) {
+        Duration hedgingDelay = hedgingDelay();
+        CompletionService<T> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<T>> futures = new ArrayList<>(calls.size());
+        List<TimedCall<T>> timedCalls = new ArrayList<>(calls.size());
+        List<Throwable> failures = new ArrayList<>();
+        int running = 0;
+        try {
+            futures.add(completionService.submit(timed(calls.get(0), timedCalls)));
+            running++;
+            while (true) {
+                Future<T> completed;
+                if (hedgingDelay != null && futures.size() < calls.size()) {
+                    completed = completionService.poll(hedgingDelay.toNanos(), NANOSECONDS);
+                    if (completed == null) {
+                        futures.add(completionService.submit(timed(calls.get(futures.size()), timedCalls)));
+                        running++;
+                        continue;
+                    }
+                } else {
+                    completed = completionService.take();
+                }
+                running--;
+
+                try {
+                    return completed.get();
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause());
+                }
+
+                if (futures.size() < calls.size()) {
+                    futures.add(completionService.submit(timed(calls.get(futures.size()), timedCalls)));
+                    running++;
+                } else if (running == 0) {
+                    throw failure(failures);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            // before interrupting them, as the interrupted calls fail
+            for (TimedCall<T> timedCall : timedCalls) {
+                timedCall.cancelled();
+            }
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private <T> Callable<T> timed(Callable<T> call, List<TimedCall<T>> timedCalls) {
+        if (latencyTracker == null) {
+            return call;
+        }
+        TimedCall<T> timedCall = new TimedCall<>(call, latencyTracker);
+        timedCalls.add(timedCall);
+        return timedCall;
+    }
+
+    /**
+     * Records the latency of a call once: when it succeeds, or when it is cancelled while running.
+     */
+    private static class TimedCall<T> implements Callable<T> {
+
+        private final Callable<T> call;
+        private final LatencyTracker latencyTracker;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile long startNanos;
+        private volatile boolean started;
+
+        TimedCall(Callable<T> call, LatencyTracker latencyTracker) {
+            this.call = call;
+            this.latencyTracker = latencyTracker;
+        }
+
+        @Override
+        public T call() throws Exception {
+            startNanos = System.nanoTime();
+            started = true;
+            T result;
+            latencyTracker.enterTimedCall();
+            try {
+                result = call.call();
+            } catch (Exception | Error e) {
+                done.set(true);
+                throw e;
+            } finally {
+                latencyTracker.exitTimedCall();
+            }
+            if (done.compareAndSet(false, true)) {
+                latencyTracker.recordNanos(System.nanoTime() - startNanos);
+            }
+            return result;
+        }
+
+        void cancelled() {
+            if (started && done.compareAndSet(false, true)) {
+                latencyTracker.recordNanos(System.nanoTime() - startNanos);
+            }
+        }
+    }
+
+    private static RuntimeException failure(List<Throwable> failures) {
+        Throwable last = failures.get(failures.size() - 1);
+        RuntimeException failure = last instanceof RuntimeException
+                ? (RuntimeException) last
+                : new RuntimeException(last);
+        for (Throwable previous : failures.subList(0, failures.size() - 1)) {
+            failure.addSuppressed(previous);
+        }
+        return failure;
+    }
+
+    private static class DefaultExecutor {
+
+        private static final Executor INSTANCE = new ThreadPoolExecutor(
+                0, Integer.MAX_VALUE,
+                1, SECONDS,
+                new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "langchain4j-hedging");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+    }
+}
@@ -0,0 +1,189 @@
+package dev.langchain4j.model.hedging;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.Response;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotEmpty;
+import static java.util.Arrays.asList;
+
+/**
+ * A {@link ChatLanguageModel} sending each request to an ordered list of models, e.g. several providers
+ * or several endpoints of the same provider, and returning the first successful response.
+ * <br>
+ * The first model is called first. The next model is called:
+ * <ul>
+ *     <li>when a call fails (failover),</li>
+ *     <li>when the running calls did not respond within the hedging delay (hedging), if configured.</li>
+ * </ul>
+ * The first successful response is returned, and the other calls are cancelled.
+ * When all models fail, the exception of the last failure is thrown, with the other failures suppressed.
+ * <br>
+ * The hedging delay is either fixed (see {@link Builder#hedgingDelay(Duration)}), or a percentile of the latencies
+ * of the recent successful calls (see {@link Builder#hedgingPercentile(Double)}), e.g. the 95th percentile
+ * so that only the slowest 5% of the requests are hedged.
+ * The fixed hedging delay, if any, is used until enough latencies are recorded.
+ * <br>
+ * Calls are executed by the specified {@link Executor}, or by a shared cached thread pool by default.
+ */
+public class HedgingChatLanguageModel implements ChatLanguageModel {
+
+    private final List<ChatLanguageModel> models;
+    private final Hedger hedger;
+
+    /**
+     * Creates an instance of a {@code HedgingChatLanguageModel}.
+     *
+     * @param models            The models to call, in order. Mandatory.
+     * @param hedgingDelay      The delay after which the next model is called. Optional: by default,
+     *                          the next model is only called when a call fails.
+     * @param latencyTracker    The tracker recording the latencies of the calls. Optional.
+     * @param hedgingPercentile The percentile of the latencies used as hedging delay, between 0 and 1. Optional.
+     * @param executor          The executor of the calls. Optional.
+     */
+    public HedgingChatLanguageModel(List<ChatLanguageModel> models,
+                                    Duration hedgingDelay,
+                                    LatencyTracker latencyTracker,
+                                    Double hedgingPercentile,
+                                    Executor executor) {
+        this.models = new ArrayList<>(ensureNotEmpty(models, "models"));
+        this.hedger = new Hedger(hedgingDelay, latencyTracker, hedgingPercentile, executor);
+    }
+
+    /**
+     * @return the models to call, in order.
+     */
+    public List<ChatLanguageModel> models() {
+        return new ArrayList<>(models);
+    }
+
+    /**
+     * @return the current delay after which the next model is called,
+     * or null if the next model is only called when a call fails.
+     */
+    public Duration hedgingDelay() {
+        return hedger.hedgingDelay();
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        return execute(model -> model.generate(messages));
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        return execute(model -> model.generate(messages, toolSpecifications));
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, ToolSpecification toolSpecification) {
+        return execute(model -> model.generate(messages, toolSpecification));
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest request) {
+        return execute(model -> model.chat(request));
+    }
+
+    /**
+     * @return the capabilities of the first model.
+     */
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return models.get(0).supportedCapabilities();
+    }
+
+    private <T> T execute(Function<ChatLanguageModel, T> call) {
+        List<Callable<T>> calls = new ArrayList<>(models.size());
+        for (ChatLanguageModel model : models) {
+            calls.add(() -> call.apply(model));
+        }
+        return hedger.execute(calls);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private List<ChatLanguageModel> models;
+        private Duration hedgingDelay;
+        private LatencyTracker latencyTracker;
+        private Double hedgingPercentile;
+        private Executor executor;
+
+        /**
+         * @param models The models to call, in order.
+         * @return builder
+         */
+        public Builder models(List<ChatLanguageModel> models) {
+            this.models = models;
+            return this;
+        }
+
+        /**
+         * @param models The models to call, in order.
+         * @return builder
+         */
+        public Builder models(ChatLanguageModel... models) {
+            return models(asList(models));
+        }
+
+        /**
+         * @param hedgingDelay The delay after which the next model is called if the running calls did not respond.
+         *                     Default: the next model is only called when a call fails.
+         * @return builder
+         */
+        public Builder hedgingDelay(Duration hedgingDelay) {
+            this.hedgingDelay = hedgingDelay;
+            return this;
+        }
+
+        /**
+         * @param latencyTracker The tracker recording the latencies of the calls, which can be shared with other models.
+         *                       Default: a new tracker, if a hedging percentile is configured.
+         * @return builder
+         */
+        public Builder latencyTracker(LatencyTracker latencyTracker) {
+            this.latencyTracker = latencyTracker;
+            return this;
+        }
+
+        /**
+         * @param hedgingPercentile The percentile of the recent latencies used as hedging delay, e.g. 0.95.
+         *                          Default: none, the hedging delay is fixed.
+         * @return builder
+         */
+        public Builder hedgingPercentile(Double hedgingPercentile) {
+            this.hedgingPercentile = hedgingPercentile;
+            return this;
+        }
+
+        /**
+         * @param executor The executor of the calls. Default: a shared cached thread pool.
+         * @return builder
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public HedgingChatLanguageModel build() {
+            return new HedgingChatLanguageModel(models, hedgingDelay, latencyTracker, hedgingPercentile, executor);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package dev.langchain4j.model.hedging;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotEmpty;
+import static java.util.Arrays.asList;
+
+/**
+ * An {@link EmbeddingModel} sending each request to an ordered list of models, and returning the first successful
+ * response. The models must produce compatible embeddings, e.g. be several endpoints serving the same model.
+ * <br>
+ * Models are called in order, on failure and after the hedging delay,
+ * as described in {@link HedgingChatLanguageModel}.
+ */
+public class HedgingEmbeddingModel implements EmbeddingModel {
+
+    private final List<EmbeddingModel> models;
+    private final Hedger hedger;
+
+    /**
+     * Creates an instance of a {@code HedgingEmbeddingModel}.
+     *
+     * @param models            The models to call, in order. Mandatory.
+     * @param hedgingDelay      The delay after which the next model is called. Optional: by default,
+     *                          the next model is only called when a call fails.
+     * @param latencyTracker    The tracker recording the latencies of the calls. Optional.
+     * @param hedgingPercentile The percentile of the latencies used as hedging delay, between 0 and 1. Optional.
+     * @param executor          The executor of the calls. Optional.
+     */
+    public HedgingEmbeddingModel(List<EmbeddingModel> models,
+                                 Duration hedgingDelay,
+                                 LatencyTracker latencyTracker,
+                                 Double hedgingPercentile,
+                                 Executor executor) {
+        this.models = new ArrayList<>(ensureNotEmpty(models, "models"));
+        this.hedger = new Hedger(hedgingDelay, latencyTracker, hedgingPercentile, executor);
+    }
+
+    /**
+     * @return the models to call, in order.
+     */
+    public List<EmbeddingModel> models() {
+        return new ArrayList<>(models);
+    }
+
+    /**
+     * @return the current delay after which the next model is called,
+     * or null if the next model is only called when a call fails.
+     */
+    public Duration hedgingDelay() {
+        return hedger.hedgingDelay();
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        List<Callable<Response<List<Embedding>>>> calls = new ArrayList<>(models.size());
+        for (EmbeddingModel model : models) {
+            calls.add(() -> model.embedAll(textSegments));
+        }
+        return hedger.execute(calls);
+    }
+
+    /**
+     * @return the dimension of the first model.
+     */
+    @Override
+    public int dimension() {
+        return models.get(0).dimension();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private List<EmbeddingModel> models;
+        private Duration hedgingDelay;
+        private LatencyTracker latencyTracker;
+        private Double hedgingPercentile;
+        private Executor executor;
+
+        /**
+         * @param models The models to call, in order.
+         * @return builder
+         */
+        public Builder models(List<EmbeddingModel> models) {
+            this.models = models;
+            return this;
+        }
+
+        /**
+         * @param models The models to call, in order.
+         * @return builder
+         */
+        public Builder models(EmbeddingModel... models) {
+            return models(asList(models));
+        }
+
+        /**
+         * @param hedgingDelay The delay after which the next model is called if the running calls did not respond.
+         *                     Default: the next model is only called when a call fails.
+         * @return builder
+         */
+        public Builder hedgingDelay(Duration hedgingDelay) {
+            this.hedgingDelay = hedgingDelay;
+            return this;
+        }
+
+        /**
+         * @param latencyTracker The tracker recording the latencies of the calls, which can be shared with other models.
+         *                       Default: a new tracker, if a hedging percentile is configured.
+         * @return builder
+         */
+        public Builder latencyTracker(LatencyTracker latencyTracker) {
+            this.latencyTracker = latencyTracker;
+            return this;
+        }
+
+        /**
+         * @param hedgingPercentile The percentile of the recent latencies used as hedging delay, e.g. 0.95.
+         *                          Default: none, the hedging delay is fixed.
+         * @return builder
+         */
+        public Builder hedgingPercentile(Double hedgingPercentile) {
+            this.hedgingPercentile = hedgingPercentile;
+            return this;
+        }
+
+        /**
+         * @param executor The executor of the calls. Default: a shared cached thread pool.
+         * @return builder
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public HedgingEmbeddingModel build() {
+            return new HedgingEmbeddingModel(models, hedgingDelay, latencyTracker, hedgingPercentile, executor);
+        }
+    }
+}
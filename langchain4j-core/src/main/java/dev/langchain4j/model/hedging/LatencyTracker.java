@@ -0,0 +1,115 @@
+package dev.langchain4j.model.hedging;
+
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelRequestContext;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureBetween;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * Keeps the latencies of the most recent successful model calls, to compute latency percentiles.
+ * <br>
+ * Latencies are recorded by {@link HedgingChatLanguageModel} and {@link HedgingEmbeddingModel}
+ * for the calls they make, including the calls they cancel (for the time they ran).
+ * A {@code LatencyTracker} is also a {@link ChatModelListener}:
+ * it can be registered as a listener of a chat model to record the latencies of all its calls.
+ * <br>
+ * A tracker can be both given to a hedging model and registered as a listener of the models it calls:
+ * the calls made by the hedging model are then recorded once, by the hedging model,
+ * and the listener records only the calls made directly to the models.
+ */
+public class LatencyTracker implements ChatModelListener {
+
+    private static final int DEFAULT_WINDOW_SIZE = 100;
+    private static final Object START_NANOS = new Object();
+
+    private final long[] latencies;
+    private int next;
+    private int count;
+
+    /**
+     * Whether the current thread is in a call timed by a hedging model.
+     */
+    private final ThreadLocal<Boolean> inTimedCall = new ThreadLocal<>();
+
+    public LatencyTracker() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param windowSize The number of most recent latencies kept. Default: 100.
+     */
+    public LatencyTracker(int windowSize) {
+        this.latencies = new long[ensureGreaterThanZero(windowSize, "windowSize")];
+    }
+
+    /**
+     * Records the latency of a successful call.
+     *
+     * @param latency The latency.
+     */
+    public void record(Duration latency) {
+        recordNanos(ensureNotNull(latency, "latency").toNanos());
+    }
+
+    synchronized void recordNanos(long latencyNanos) {
+        latencies[next] = latencyNanos;
+        next = (next + 1) % latencies.length;
+        count = Math.min(count + 1, latencies.length);
+    }
+
+    /**
+     * @return the number of latencies currently kept.
+     */
+    public synchronized int sampleCount() {
+        return count;
+    }
+
+    /**
+     * @param percentile The percentile, between 0 and 1, e.g. 0.95 for the 95th percentile.
+     * @return the percentile of the latencies currently kept, or null if none was recorded yet.
+     */
+    public Duration percentile(double percentile) {
+        ensureBetween(percentile, 0, 1, "percentile");
+        long[] sorted;
+        synchronized (this) {
+            if (count == 0) {
+                return null;
+            }
+            sorted = Arrays.copyOf(latencies, count);
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return Duration.ofNanos(sorted[Math.max(0, index)]);
+    }
+
+    void enterTimedCall() {
+        inTimedCall.set(Boolean.TRUE);
+    }
+
+    void exitTimedCall() {
+        inTimedCall.remove();
+    }
+
+    @Override
+    public void onRequest(ChatModelRequestContext requestContext) {
+        if (inTimedCall.get() != null) {
+            // recorded by the hedging model
+            return;
+        }
+        requestContext.attributes().put(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void onResponse(ChatModelResponseContext responseContext) {
+        Object startNanos = responseContext.attributes().get(START_NANOS);
+        if (startNanos instanceof Long) {
+            recordNanos(System.nanoTime() - (Long) startNanos);
+        }
+    }
+}
@@ -2,7 +2,10 @@ package dev.langchain4j.model.input;
 
 import dev.langchain4j.spi.prompt.PromptTemplateFactory;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
@@ -13,42 +16,114 @@ import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
 
 class DefaultPromptTemplateFactory implements PromptTemplateFactory {
 
+    private static final int MAX_CACHED_TEMPLATES = 256;
+
+    /**
+     * Compiled templates, by template text. Only templates with variables are cached:
+     * templates without variables are often one-off texts (e.g. user messages), and they are cheap to compile.
+     */
+    private final Map<String, DefaultTemplate> cache = new LinkedHashMap<String, DefaultTemplate>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, DefaultTemplate> eldest) {
+            return size() > MAX_CACHED_TEMPLATES;
+        }
+    };
+
     @Override
     public DefaultTemplate create(PromptTemplateFactory.Input input) {
-        return new DefaultTemplate(input.getTemplate());
+        String template = input.getTemplate();
+        DefaultTemplate compiled;
+        synchronized (cache) {
+            compiled = cache.get(template);
+        }
+        if (compiled == null) {
+            compiled = new DefaultTemplate(template);
+            if (compiled.hasVariables()) {
+                synchronized (cache) {
+                    cache.put(template, compiled);
+                }
+            }
+        }
+        return compiled;
     }
 
+    /**
+     * A template compiled into the literal texts between its variables, and rendered in a single pass.
+     * Values are inserted as is, i.e. a value containing {{variable}} is not rendered again.
+     */
     static class DefaultTemplate implements Template {
 
         @SuppressWarnings("RegExpRedundantEscape")
         private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\{\\{(.+?)\\}\\}");
 
         private final String template;
+
+        /**
+         * The literal texts before, between and after the variables. There is one more literal than variables.
+         */
+        private final String[] literals;
+        /**
+         * The variables, in the order they appear in the template (a variable appears as many times as it is used).
+         */
+        private final String[] variables;
         private final Set<String> allVariables;
+        private final int literalsLength;
 
         public DefaultTemplate(String template) {
             this.template = ensureNotBlank(template, "template");
-            this.allVariables = extractVariables(template);
-        }
 
-        private static Set<String> extractVariables(String template) {
-            Set<String> variables = new HashSet<>();
+            List<String> literals = new ArrayList<>();
+            List<String> variables = new ArrayList<>();
+            int literalsLength = 0;
+            int literalStart = 0;
             Matcher matcher = VARIABLE_PATTERN.matcher(template);
             while (matcher.find()) {
+                String literal = template.substring(literalStart, matcher.start());
+                literals.add(literal);
+                literalsLength += literal.length();
                 variables.add(matcher.group(1));
+                literalStart = matcher.end();
             }
-            return variables;
+            String lastLiteral = template.substring(literalStart);
+            literals.add(lastLiteral);
+            literalsLength += lastLiteral.length();
+
+            this.literals = literals.toArray(new String[0]);
+            this.variables = variables.toArray(new String[0]);
+            this.allVariables = new LinkedHashSet<>(variables);
+            this.literalsLength = literalsLength;
+        }
+
+        boolean hasVariables() {
+            return variables.length > 0;
         }
 
         public String render(Map<String, Object> variables) {
             ensureAllVariablesProvided(variables);
+            ensureNoNullValues(variables);
 
-            String result = template;
-            for (Map.Entry<String, Object> entry : variables.entrySet()) {
-                result = replaceAll(result, entry.getKey(), entry.getValue());
+            if (this.variables.length == 0) {
+                return template;
+            }
+
+            String[] values = new String[this.variables.length];
+            int length = literalsLength;
+            for (int i = 0; i < values.length; i++) {
+                String variable = this.variables[i];
+                String value = variables.get(variable).toString();
+                if (value == null) {
+                    throw illegalArgument("Value for the variable '%s' is null", variable);
+                }
+                values[i] = value;
+                length += value.length();
             }
 
-            return result;
+            StringBuilder result = new StringBuilder(length);
+            for (int i = 0; i < values.length; i++) {
+                result.append(literals[i]).append(values[i]);
+            }
+            result.append(literals[values.length]);
+            return result.toString();
         }
 
         private void ensureAllVariablesProvided(Map<String, Object> providedVariables) {
@@ -59,15 +134,12 @@ class DefaultPromptTemplateFactory implements PromptTemplateFactory {
             }
         }
 
-        private static String replaceAll(String template, String variable, Object value) {
-            if (value == null || value.toString() == null) {
-                throw illegalArgument("Value for the variable '%s' is null", variable);
+        private static void ensureNoNullValues(Map<String, Object> providedVariables) {
+            for (Map.Entry<String, Object> entry : providedVariables.entrySet()) {
+                if (entry.getValue() == null) {
+                    throw illegalArgument("Value for the variable '%s' is null", entry.getKey());
+                }
             }
-            return template.replace(inDoubleCurlyBrackets(variable), value.toString());
-        }
-
-        private static String inDoubleCurlyBrackets(String variable) {
-            return "{{" + variable + "}}";
         }
     }
 }
@@ -0,0 +1,11 @@
+package dev.langchain4j.model.ratelimit;
+
+/**
+ * Thrown when a request waited longer than the maximum wait time of a {@link RateLimiter}.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,117 @@
+package dev.langchain4j.model.ratelimit;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.Tokenizer;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.TokenCountEstimator;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * A {@link ChatLanguageModel} that sends the requests of another {@code ChatLanguageModel}
+ * within the limits of a {@link RateLimiter}, waiting for its turn when needed.
+ * <br>
+ * The tokens of a request are estimated with the specified {@link Tokenizer} or, if none is specified,
+ * with the delegate model itself if it is a {@link TokenCountEstimator}.
+ * Otherwise, only the token usage reported in the responses is counted.
+ */
+public class RateLimitedChatLanguageModel implements ChatLanguageModel {
+
+    private final ChatLanguageModel delegate;
+    private final RateLimiter rateLimiter;
+    private final Tokenizer tokenizer;
+
+    public RateLimitedChatLanguageModel(ChatLanguageModel delegate, RateLimiter rateLimiter) {
+        this(delegate, rateLimiter, null);
+    }
+
+    /**
+     * @param delegate    The model whose requests are rate limited. Mandatory.
+     * @param rateLimiter The rate limiter, usually shared by all the models of a provider account. Mandatory.
+     * @param tokenizer   The tokenizer estimating the tokens of a request. Optional.
+     */
+    public RateLimitedChatLanguageModel(ChatLanguageModel delegate, RateLimiter rateLimiter, Tokenizer tokenizer) {
+        this.delegate = ensureNotNull(delegate, "delegate");
+        this.rateLimiter = ensureNotNull(rateLimiter, "rateLimiter");
+        this.tokenizer = tokenizer;
+    }
+
+    /**
+     * @return the model whose requests are rate limited.
+     */
+    public ChatLanguageModel delegate() {
+        return delegate;
+    }
+
+    public RateLimiter rateLimiter() {
+        return rateLimiter;
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        return generate(messages, () -> delegate.generate(messages));
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        return generate(messages, () -> delegate.generate(messages, toolSpecifications));
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, ToolSpecification toolSpecification) {
+        return generate(messages, () -> delegate.generate(messages, toolSpecification));
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest request) {
+        RateLimiter.Permit permit = rateLimiter.acquire(estimateTokenCount(request.messages(), delegate, tokenizer));
+        ChatResponse response = null;
+        try {
+            response = delegate.chat(request);
+            return response;
+        } finally {
+            permit.release(response == null ? null : totalTokenCount(response.tokenUsage()));
+        }
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return delegate.supportedCapabilities();
+    }
+
+    private Response<AiMessage> generate(List<ChatMessage> messages, Supplier<Response<AiMessage>> generate) {
+        RateLimiter.Permit permit = rateLimiter.acquire(estimateTokenCount(messages, delegate, tokenizer));
+        Response<AiMessage> response = null;
+        try {
+            response = generate.get();
+            return response;
+        } finally {
+            permit.release(response == null ? null : totalTokenCount(response.tokenUsage()));
+        }
+    }
+
+    static int estimateTokenCount(List<ChatMessage> messages, Object delegate, Tokenizer tokenizer) {
+        if (tokenizer != null) {
+            return tokenizer.estimateTokenCountInMessages(messages);
+        }
+        if (delegate instanceof TokenCountEstimator) {
+            return ((TokenCountEstimator) delegate).estimateTokenCount(messages);
+        }
+        return 0;
+    }
+
+    static Integer totalTokenCount(TokenUsage tokenUsage) {
+        return tokenUsage == null ? null : tokenUsage.totalTokenCount();
+    }
+}
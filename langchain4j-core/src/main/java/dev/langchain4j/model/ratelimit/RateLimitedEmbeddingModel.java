@@ -0,0 +1,84 @@
+package dev.langchain4j.model.ratelimit;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.Tokenizer;
+import dev.langchain4j.model.chat.TokenCountEstimator;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static dev.langchain4j.model.ratelimit.RateLimitedChatLanguageModel.totalTokenCount;
+
+/**
+ * An {@link EmbeddingModel} that sends the requests of another {@code EmbeddingModel}
+ * within the limits of a {@link RateLimiter}, waiting for its turn when needed.
+ * <br>
+ * The tokens of a request are estimated with the specified {@link Tokenizer} or, if none is specified,
+ * with the delegate model itself if it is a {@link TokenCountEstimator}.
+ * Otherwise, only the token usage reported in the responses is counted.
+ */
+public class RateLimitedEmbeddingModel implements EmbeddingModel {
+
+    private final EmbeddingModel delegate;
+    private final RateLimiter rateLimiter;
+    private final Tokenizer tokenizer;
+
+    public RateLimitedEmbeddingModel(EmbeddingModel delegate, RateLimiter rateLimiter) {
+        this(delegate, rateLimiter, null);
+    }
+
+    /**
+     * @param delegate    The model whose requests are rate limited. Mandatory.
+     * @param rateLimiter The rate limiter, usually shared by all the models of a provider account. Mandatory.
+     * @param tokenizer   The tokenizer estimating the tokens of a request. Optional.
+     */
+    public RateLimitedEmbeddingModel(EmbeddingModel delegate, RateLimiter rateLimiter, Tokenizer tokenizer) {
+        this.delegate = ensureNotNull(delegate, "delegate");
+        this.rateLimiter = ensureNotNull(rateLimiter, "rateLimiter");
+        this.tokenizer = tokenizer;
+    }
+
+    /**
+     * @return the model whose requests are rate limited.
+     */
+    public EmbeddingModel delegate() {
+        return delegate;
+    }
+
+    public RateLimiter rateLimiter() {
+        return rateLimiter;
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        RateLimiter.Permit permit = rateLimiter.acquire(estimateTokenCount(textSegments));
+        Response<List<Embedding>> response = null;
+        try {
+            response = delegate.embedAll(textSegments);
+            return response;
+        } finally {
+            permit.release(response == null ? null : totalTokenCount(response.tokenUsage()));
+        }
+    }
+
+    @Override
+    public int dimension() {
+        return delegate.dimension();
+    }
+
+    private int estimateTokenCount(List<TextSegment> textSegments) {
+        if (tokenizer == null && !(delegate instanceof TokenCountEstimator)) {
+            return 0;
+        }
+        int tokenCount = 0;
+        for (TextSegment textSegment : textSegments) {
+            tokenCount += tokenizer != null
+                    ? tokenizer.estimateTokenCountInText(textSegment.text())
+                    : ((TokenCountEstimator) delegate).estimateTokenCount(textSegment);
+        }
+        return tokenCount;
+    }
+}
@@ -0,0 +1,132 @@
+package dev.langchain4j.model.ratelimit;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.Tokenizer;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.chat.TokenCountEstimator;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static dev.langchain4j.model.ratelimit.RateLimitedChatLanguageModel.estimateTokenCount;
+import static dev.langchain4j.model.ratelimit.RateLimitedChatLanguageModel.totalTokenCount;
+
+/**
+ * A {@link StreamingChatLanguageModel} that sends the requests of another {@code StreamingChatLanguageModel}
+ * within the limits of a {@link RateLimiter}, waiting for its turn when needed.
+ * A request is in flight until its response is complete or fails.
+ * <br>
+ * The tokens of a request are estimated with the specified {@link Tokenizer} or, if none is specified,
+ * with the delegate model itself if it is a {@link TokenCountEstimator}.
+ * Otherwise, only the token usage reported in the responses is counted.
+ */
+public class RateLimitedStreamingChatLanguageModel implements StreamingChatLanguageModel {
+
+    private final StreamingChatLanguageModel delegate;
+    private final RateLimiter rateLimiter;
+    private final Tokenizer tokenizer;
+
+    public RateLimitedStreamingChatLanguageModel(StreamingChatLanguageModel delegate, RateLimiter rateLimiter) {
+        this(delegate, rateLimiter, null);
+    }
+
+    /**
+     * @param delegate    The model whose requests are rate limited. Mandatory.
+     * @param rateLimiter The rate limiter, usually shared by all the models of a provider account. Mandatory.
+     * @param tokenizer   The tokenizer estimating the tokens of a request. Optional.
+     */
+    public RateLimitedStreamingChatLanguageModel(StreamingChatLanguageModel delegate,
+                                                 RateLimiter rateLimiter,
+                                                 Tokenizer tokenizer) {
+        this.delegate = ensureNotNull(delegate, "delegate");
+        this.rateLimiter = ensureNotNull(rateLimiter, "rateLimiter");
+        this.tokenizer = tokenizer;
+    }
+
+    /**
+     * @return the model whose requests are rate limited.
+     */
+    public StreamingChatLanguageModel delegate() {
+        return delegate;
+    }
+
+    public RateLimiter rateLimiter() {
+        return rateLimiter;
+    }
+
+    @Override
+    public void generate(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) {
+        RateLimiter.Permit permit = acquire(messages);
+        try {
+            delegate.generate(messages, new ReleasingHandler(handler, permit));
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void generate(List<ChatMessage> messages,
+                         List<ToolSpecification> toolSpecifications,
+                         StreamingResponseHandler<AiMessage> handler) {
+        RateLimiter.Permit permit = acquire(messages);
+        try {
+            delegate.generate(messages, toolSpecifications, new ReleasingHandler(handler, permit));
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void generate(List<ChatMessage> messages,
+                         ToolSpecification toolSpecification,
+                         StreamingResponseHandler<AiMessage> handler) {
+        RateLimiter.Permit permit = acquire(messages);
+        try {
+            delegate.generate(messages, toolSpecification, new ReleasingHandler(handler, permit));
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+    }
+
+    private RateLimiter.Permit acquire(List<ChatMessage> messages) {
+        return rateLimiter.acquire(estimateTokenCount(messages, delegate, tokenizer));
+    }
+
+    /**
+     * Releases the permit of the request before notifying the original handler that the response is complete.
+     */
+    private static class ReleasingHandler implements StreamingResponseHandler<AiMessage> {
+
+        private final StreamingResponseHandler<AiMessage> handler;
+        private final RateLimiter.Permit permit;
+
+        ReleasingHandler(StreamingResponseHandler<AiMessage> handler, RateLimiter.Permit permit) {
+            this.handler = handler;
+            this.permit = permit;
+        }
+
+        @Override
+        public void onNext(String token) {
+            handler.onNext(token);
+        }
+
+        @Override
+        public void onComplete(Response<AiMessage> response) {
+            permit.release(totalTokenCount(response.tokenUsage()));
+            handler.onComplete(response);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            permit.release();
+            handler.onError(error);
+        }
+    }
+}
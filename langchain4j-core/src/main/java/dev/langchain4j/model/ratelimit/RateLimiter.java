@@ -0,0 +1,303 @@
+package dev.langchain4j.model.ratelimit;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureTrue;
+
+/**
+ * Limits the rate and the concurrency of the requests sent to a model provider,
+ * so that the provider's quotas are used up without the provider throttling the requests (HTTP 429).
+ * A single instance is meant to be shared by all the models calling the same provider account,
+ * e.g. through {@link RateLimitedChatLanguageModel} and {@link RateLimitedEmbeddingModel}.
+ * <br>
+ * Three limits can be set, all optional:
+ * <ul>
+ *     <li>{@code requestsPerMinute}: the number of requests per minute.</li>
+ *     <li>{@code tokensPerMinute}: the number of tokens per minute.
+ *     The tokens of a request are estimated before it is sent, and corrected with the token usage
+ *     reported by the provider once it completes.</li>
+ *     <li>{@code maxConcurrentRequests}: the number of requests in flight at the same time.</li>
+ * </ul>
+ * The per-minute limits are token buckets, which are initially full and refill continuously,
+ * like the quotas of most providers.
+ * <br>
+ * Requests are admitted in the order they arrive (fair queuing): a large request at the head of the queue
+ * is not starved by smaller requests arriving after it.
+ * Waiting requests fail with a {@link RateLimitExceededException} after {@code maxWaitTime}, if set.
+ */
+public class RateLimiter {
+
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private final Bucket requestBucket;
+    private final Bucket tokenBucket;
+    private final int maxConcurrentRequests;
+    private final Long maxWaitNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Deque<Object> waiting = new ArrayDeque<>();
+    private int inFlightRequests;
+
+    /**
+     * Creates an instance of a {@code RateLimiter}.
+     *
+     * @param requestsPerMinute     The maximum number of requests per minute. Optional, unlimited by default.
+     * @param tokensPerMinute       The maximum number of tokens per minute. Optional, unlimited by default.
+     * @param maxConcurrentRequests The maximum number of requests in flight. Optional, unlimited by default.
+     * @param maxWaitTime           How long a request waits before failing. Optional, forever by default.
+     */
+    public RateLimiter(Integer requestsPerMinute,
+                       Integer tokensPerMinute,
+                       Integer maxConcurrentRequests,
+                       Duration maxWaitTime) {
+        this.requestBucket = requestsPerMinute == null
+                ? null
+                : new Bucket(ensureGreaterThanZero(requestsPerMinute, "requestsPerMinute"));
+        this.tokenBucket = tokensPerMinute == null
+                ? null
+                : new Bucket(ensureGreaterThanZero(tokensPerMinute, "tokensPerMinute"));
+        this.maxConcurrentRequests = maxConcurrentRequests == null
+                ? Integer.MAX_VALUE
+                : ensureGreaterThanZero(maxConcurrentRequests, "maxConcurrentRequests");
+        if (maxWaitTime != null) {
+            ensureTrue(!maxWaitTime.isNegative(), "maxWaitTime must not be negative");
+        }
+        this.maxWaitNanos = maxWaitTime == null ? null : maxWaitTime.toNanos();
+    }
+
+    /**
+     * Waits until a request can be sent, and reserves its share of the limits.
+     * The returned permit must be released when the request completes, successfully or not.
+     *
+     * @param estimatedTokenCount The estimated number of tokens of the request, 0 if unknown.
+     *                            A request estimated to exceed the tokens per minute is admitted once
+     *                            the token bucket is full.
+     * @return the permit of the request.
+     * @throws RateLimitExceededException if the request waited longer than {@code maxWaitTime}.
+     */
+    public Permit acquire(int estimatedTokenCount) {
+        int tokenCount = Math.max(0, estimatedTokenCount);
+        long start = System.nanoTime();
+        Object waiter = new Object();
+
+        lock.lock();
+        try {
+            waiting.addLast(waiter);
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    long waitNanos = Long.MAX_VALUE;
+                    if (waiting.peekFirst() == waiter && inFlightRequests < maxConcurrentRequests) {
+                        waitNanos = Math.max(
+                                nanosUntilAvailable(requestBucket, 1, now),
+                                nanosUntilAvailable(tokenBucket, tokenCount, now)
+                        );
+                        if (waitNanos == 0) {
+                            consume(requestBucket, 1);
+                            int reservedTokenCount = consume(tokenBucket, tokenCount);
+                            inFlightRequests++;
+                            return new Permit(reservedTokenCount);
+                        }
+                    }
+
+                    if (maxWaitNanos != null) {
+                        long remainingNanos = maxWaitNanos - (now - start);
+                        if (remainingNanos <= 0) {
+                            throw new RateLimitExceededException(String.format(
+                                    "The request could not be sent within %s ms", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos)));
+                        }
+                        waitNanos = Math.min(waitNanos, remainingNanos);
+                    }
+
+                    if (waitNanos == Long.MAX_VALUE) {
+                        changed.await();
+                    } else {
+                        changed.awaitNanos(waitNanos);
+                    }
+                }
+            } finally {
+                waiting.remove(waiter);
+                changed.signalAll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of requests in flight, i.e. whose permit is not released yet.
+     */
+    public int inFlightRequests() {
+        lock.lock();
+        try {
+            return inFlightRequests;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of requests waiting for a permit.
+     */
+    public int waitingRequests() {
+        lock.lock();
+        try {
+            return waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Permit permit, Integer actualTokenCount) {
+        lock.lock();
+        try {
+            inFlightRequests--;
+            if (tokenBucket != null && actualTokenCount != null) {
+                // the estimate was reserved, the provider knows better
+                tokenBucket.available += permit.reservedTokenCount - actualTokenCount;
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long nanosUntilAvailable(Bucket bucket, int amount, long now) {
+        return bucket == null ? 0 : bucket.nanosUntilAvailable(amount, now);
+    }
+
+    private static int consume(Bucket bucket, int amount) {
+        if (bucket == null) {
+            return 0;
+        }
+        int consumed = (int) Math.min(amount, bucket.capacity);
+        bucket.available -= consumed;
+        return consumed;
+    }
+
+    /**
+     * A token bucket refilling continuously at {@code capacity} per minute.
+     * The available amount can be negative, when more tokens were used than estimated.
+     */
+    private static class Bucket {
+
+        final double capacity;
+        final double refillPerNano;
+        double available;
+        long lastRefill;
+
+        Bucket(int perMinute) {
+            this.capacity = perMinute;
+            this.refillPerNano = (double) perMinute / NANOS_PER_MINUTE;
+            this.available = perMinute;
+            this.lastRefill = System.nanoTime();
+        }
+
+        long nanosUntilAvailable(int amount, long now) {
+            available = Math.min(capacity, available + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+            double missing = Math.min(amount, capacity) - available;
+            return missing <= 0 ? 0 : Math.max(1, (long) Math.ceil(missing / refillPerNano));
+        }
+    }
+
+    /**
+     * The permission to send a request, obtained with {@link #acquire(int)}.
+     */
+    public class Permit {
+
+        private final int reservedTokenCount;
+        private boolean released;
+
+        private Permit(int reservedTokenCount) {
+            this.reservedTokenCount = reservedTokenCount;
+        }
+
+        /**
+         * Releases the permit when the number of tokens used by the request is unknown,
+         * e.g. when the request failed. The estimated number of tokens is kept.
+         */
+        public void release() {
+            release(null);
+        }
+
+        /**
+         * Releases the permit, correcting the estimated number of tokens with the actual one.
+         * Releasing a permit more than once has no effect.
+         *
+         * @param actualTokenCount The number of tokens used by the request, as reported by the provider, or null.
+         */
+        public void release(Integer actualTokenCount) {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            RateLimiter.this.release(this, actualTokenCount);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private Integer requestsPerMinute;
+        private Integer tokensPerMinute;
+        private Integer maxConcurrentRequests;
+        private Duration maxWaitTime;
+
+        /**
+         * @param requestsPerMinute The maximum number of requests per minute. Default: unlimited.
+         * @return builder
+         */
+        public Builder requestsPerMinute(Integer requestsPerMinute) {
+            this.requestsPerMinute = requestsPerMinute;
+            return this;
+        }
+
+        /**
+         * @param tokensPerMinute The maximum number of tokens (input and output) per minute. Default: unlimited.
+         * @return builder
+         */
+        public Builder tokensPerMinute(Integer tokensPerMinute) {
+            this.tokensPerMinute = tokensPerMinute;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrentRequests The maximum number of requests in flight at the same time. Default: unlimited.
+         * @return builder
+         */
+        public Builder maxConcurrentRequests(Integer maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            return this;
+        }
+
+        /**
+         * @param maxWaitTime How long a request waits for its turn before failing
+         *                    with a {@link RateLimitExceededException}. Default: forever.
+         * @return builder
+         */
+        public Builder maxWaitTime(Duration maxWaitTime) {
+            this.maxWaitTime = maxWaitTime;
+            return this;
+        }
+
+        public RateLimiter build() {
+            return new RateLimiter(requestsPerMinute, tokensPerMinute, maxConcurrentRequests, maxWaitTime);
+        }
+    }
+}
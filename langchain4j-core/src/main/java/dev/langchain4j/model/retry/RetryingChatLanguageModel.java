@@ -0,0 +1,84 @@
+package dev.langchain4j.model.retry;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.internal.RetryUtils;
+import dev.langchain4j.internal.RetryUtils.RetryPolicy;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+import java.util.Set;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * A {@link ChatLanguageModel} that retries the failed requests of another {@code ChatLanguageModel}
+ * according to a {@link RetryPolicy}.
+ * <br>
+ * The policy decides which failures are retried (by default, see {@link RetryUtils#isRetryable(Throwable)}),
+ * how long to wait between attempts, and can limit retries with a retry budget and a circuit breaker,
+ * usually shared by all the models calling the same provider.
+ * The exception of the last attempt is thrown as is.
+ * <br>
+ * The delegate should not retry by itself (e.g. {@code maxRetries} set to 1), otherwise the attempts multiply.
+ */
+public class RetryingChatLanguageModel implements ChatLanguageModel {
+
+    private final ChatLanguageModel delegate;
+    private final RetryPolicy retryPolicy;
+
+    public RetryingChatLanguageModel(ChatLanguageModel delegate) {
+        this(delegate, null);
+    }
+
+    /**
+     * @param delegate    The model whose requests are retried. Mandatory.
+     * @param retryPolicy The retry policy. Optional, defaults to {@link RetryUtils#DEFAULT_CLASSIFYING_RETRY_POLICY}.
+     */
+    public RetryingChatLanguageModel(ChatLanguageModel delegate, RetryPolicy retryPolicy) {
+        this.delegate = ensureNotNull(delegate, "delegate");
+        this.retryPolicy = getOrDefault(retryPolicy, RetryUtils.DEFAULT_CLASSIFYING_RETRY_POLICY);
+    }
+
+    /**
+     * @return the model whose requests are retried.
+     */
+    public ChatLanguageModel delegate() {
+        return delegate;
+    }
+
+    public RetryPolicy retryPolicy() {
+        return retryPolicy;
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        return retryPolicy.execute(() -> delegate.generate(messages));
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        return retryPolicy.execute(() -> delegate.generate(messages, toolSpecifications));
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, ToolSpecification toolSpecification) {
+        return retryPolicy.execute(() -> delegate.generate(messages, toolSpecification));
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest request) {
+        return retryPolicy.execute(() -> delegate.chat(request));
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return delegate.supportedCapabilities();
+    }
+}
@@ -0,0 +1,57 @@
+package dev.langchain4j.model.retry;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.internal.RetryUtils;
+import dev.langchain4j.internal.RetryUtils.RetryPolicy;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * An {@link EmbeddingModel} that retries the failed requests of another {@code EmbeddingModel}
+ * according to a {@link RetryPolicy}, see {@link RetryingChatLanguageModel}.
+ */
+public class RetryingEmbeddingModel implements EmbeddingModel {
+
+    private final EmbeddingModel delegate;
+    private final RetryPolicy retryPolicy;
+
+    public RetryingEmbeddingModel(EmbeddingModel delegate) {
+        this(delegate, null);
+    }
+
+    /**
+     * @param delegate    The model whose requests are retried. Mandatory.
+     * @param retryPolicy The retry policy. Optional, defaults to {@link RetryUtils#DEFAULT_CLASSIFYING_RETRY_POLICY}.
+     */
+    public RetryingEmbeddingModel(EmbeddingModel delegate, RetryPolicy retryPolicy) {
+        this.delegate = ensureNotNull(delegate, "delegate");
+        this.retryPolicy = getOrDefault(retryPolicy, RetryUtils.DEFAULT_CLASSIFYING_RETRY_POLICY);
+    }
+
+    /**
+     * @return the model whose requests are retried.
+     */
+    public EmbeddingModel delegate() {
+        return delegate;
+    }
+
+    public RetryPolicy retryPolicy() {
+        return retryPolicy;
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        return retryPolicy.execute(() -> delegate.embedAll(textSegments));
+    }
+
+    @Override
+    public int dimension() {
+        return delegate.dimension();
+    }
+}
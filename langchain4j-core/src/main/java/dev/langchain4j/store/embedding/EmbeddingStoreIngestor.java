@@ -3,20 +3,42 @@ package dev.langchain4j.store.embedding;
 import dev.langchain4j.data.document.Document;
 import dev.langchain4j.data.document.DocumentSplitter;
 import dev.langchain4j.data.document.DocumentTransformer;
+import dev.langchain4j.data.document.Metadata;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.data.segment.TextSegmentTransformer;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.spi.data.document.splitter.DocumentSplitterFactory;
 import dev.langchain4j.spi.model.embedding.EmbeddingModelFactory;
+import dev.langchain4j.internal.RetryUtils;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+import static dev.langchain4j.internal.Utils.generateUUIDFrom;
 import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 import static dev.langchain4j.spi.ServiceHelper.loadFactories;
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
@@ -46,16 +68,51 @@ import static java.util.stream.Collectors.toList;
  * <br>
  * Including a document title or a short summary in each {@code TextSegment} is a common technique
  * to improve the quality of similarity searches.
+ * <br>
+ * <br>
+ * By default, all documents are processed at once: all segments are embedded with a single call to the
+ * {@code EmbeddingModel} and stored with a single call to the {@code EmbeddingStore}.
+ * Large corpora can instead be ingested in a pipeline (see {@link Builder#batchSize(Integer)}):
+ * documents are split one by one, and segments are embedded and stored in batches, optionally concurrently
+ * (see {@link Builder#executor(Executor)}), while the following documents are being split.
+ * Documents can also be ingested lazily from an {@link Iterator} or a {@link Stream}
+ * (e.g. {@code FileSystemDocumentLoader.streamDocumentsRecursively(...)}), in which case memory usage
+ * does not depend on the size of the corpus.
+ * Each batch can be retried (see {@link Builder#maxAttempts(Integer)}), and failed batches can either stop
+ * the ingestion or be reported in the {@link IngestionResult} (see {@link Builder#continueOnFailure(Boolean)}).
+ * <br>
+ * <br>
+ * When an {@link IngestionManifest} is specified (see {@link Builder#manifest(IngestionManifest)}),
+ * documents are ingested incrementally: documents that have not changed since the previous ingestion are skipped,
+ * only new or changed segments of changed documents are embedded, and segments that are not part
+ * of a changed document anymore are removed from the {@code EmbeddingStore}.
+ * Documents that have been deleted from the corpus can be removed as well
+ * (see {@link Builder#removeMissingDocuments(Boolean)}).
  */
 @Slf4j
 public class EmbeddingStoreIngestor {
 
+    private static final int DEFAULT_BATCH_SIZE = 128;
+    private static final int DEFAULT_MAX_CONCURRENCY = 4;
+    private static final String DEFAULT_DOCUMENT_ID_METADATA_KEY = "document_id";
+    private static final String CONTENT_HASH_METADATA_KEY = "content_hash";
+
     private final DocumentTransformer documentTransformer;
     private final DocumentSplitter documentSplitter;
     private final TextSegmentTransformer textSegmentTransformer;
     private final EmbeddingModel embeddingModel;
     private final EmbeddingStore<TextSegment> embeddingStore;
 
+    private final boolean pipelined;
+    private final int batchSize;
+    private final Executor executor;
+    private final int maxConcurrency;
+    private final int maxAttempts;
+    private final boolean continueOnFailure;
+    private final IngestionManifest manifest;
+    private final String documentIdKey;
+    private final boolean removeMissingDocuments;
+
     /**
      * Creates an instance of an {@code EmbeddingStoreIngestor}.
      *
@@ -72,14 +129,38 @@ public class EmbeddingStoreIngestor {
                                   TextSegmentTransformer textSegmentTransformer,
                                   EmbeddingModel embeddingModel,
                                   EmbeddingStore<TextSegment> embeddingStore) {
-        this.documentTransformer = documentTransformer;
-        this.documentSplitter = getOrDefault(documentSplitter, EmbeddingStoreIngestor::loadDocumentSplitter);
-        this.textSegmentTransformer = textSegmentTransformer;
+        this(new Builder()
+                .documentTransformer(documentTransformer)
+                .documentSplitter(documentSplitter)
+                .textSegmentTransformer(textSegmentTransformer)
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore));
+    }
+
+    private EmbeddingStoreIngestor(Builder builder) {
+        this.documentTransformer = builder.documentTransformer;
+        this.documentSplitter = getOrDefault(builder.documentSplitter, EmbeddingStoreIngestor::loadDocumentSplitter);
+        this.textSegmentTransformer = builder.textSegmentTransformer;
         this.embeddingModel = ensureNotNull(
-                getOrDefault(embeddingModel, EmbeddingStoreIngestor::loadEmbeddingModel),
+                getOrDefault(builder.embeddingModel, EmbeddingStoreIngestor::loadEmbeddingModel),
                 "embeddingModel"
         );
-        this.embeddingStore = ensureNotNull(embeddingStore, "embeddingStore");
+        this.embeddingStore = ensureNotNull(builder.embeddingStore, "embeddingStore");
+
+        this.pipelined = builder.batchSize != null || builder.executor != null || builder.manifest != null;
+        this.batchSize = ensureGreaterThanZero(getOrDefault(builder.batchSize, DEFAULT_BATCH_SIZE), "batchSize");
+        this.executor = builder.executor;
+        this.maxConcurrency = ensureGreaterThanZero(
+                getOrDefault(builder.maxConcurrency, DEFAULT_MAX_CONCURRENCY), "maxConcurrency");
+        this.maxAttempts = ensureGreaterThanZero(getOrDefault(builder.maxAttempts, 1), "maxAttempts");
+        this.continueOnFailure = getOrDefault(builder.continueOnFailure, false);
+        this.manifest = builder.manifest;
+        this.documentIdKey = ensureNotBlank(
+                getOrDefault(builder.documentIdKey, DEFAULT_DOCUMENT_ID_METADATA_KEY), "documentIdKey");
+        this.removeMissingDocuments = getOrDefault(builder.removeMissingDocuments, false);
+        if (removeMissingDocuments && manifest == null) {
+            throw illegalArgument("removeMissingDocuments requires a manifest");
+        }
     }
 
     private static DocumentSplitter loadDocumentSplitter() {
@@ -145,9 +226,10 @@ public class EmbeddingStoreIngestor {
      * during the creation of this {@code EmbeddingStoreIngestor}.
      *
      * @param document the document to ingest.
+     * @see #ingestWithResult(Document)
      */
     public void ingest(Document document) {
-        ingest(singletonList(document));
+        ingestWithResult(document);
     }
 
     /**
@@ -155,9 +237,10 @@ public class EmbeddingStoreIngestor {
      * during the creation of this {@code EmbeddingStoreIngestor}.
      *
      * @param documents the documents to ingest.
+     * @see #ingestWithResult(Document...)
      */
     public void ingest(Document... documents) {
-        ingest(asList(documents));
+        ingestWithResult(documents);
     }
 
     /**
@@ -165,9 +248,49 @@ public class EmbeddingStoreIngestor {
      * during the creation of this {@code EmbeddingStoreIngestor}.
      *
      * @param documents the documents to ingest.
+     * @see #ingestWithResult(List)
      */
     public void ingest(List<Document> documents) {
+        ingestWithResult(documents);
+    }
+
+    /**
+     * Ingests a specified document like {@link #ingest(Document)}, and reports the result of the ingestion.
+     *
+     * @param document the document to ingest.
+     * @return the result of the ingestion.
+     */
+    public IngestionResult ingestWithResult(Document document) {
+        return ingestWithResult(singletonList(document));
+    }
+
+    /**
+     * Ingests specified documents like {@link #ingest(Document...)}, and reports the result of the ingestion.
+     *
+     * @param documents the documents to ingest.
+     * @return the result of the ingestion.
+     */
+    public IngestionResult ingestWithResult(Document... documents) {
+        return ingestWithResult(asList(documents));
+    }
+
+    /**
+     * Ingests specified documents into an {@link EmbeddingStore} that was specified
+     * during the creation of this {@code EmbeddingStoreIngestor}, and reports the result of the ingestion.
+     * <br>
+     * Unless {@link Builder#continueOnFailure(Boolean)} is enabled, the first batch that fails
+     * (after {@link Builder#maxAttempts(Integer)} attempts) stops the ingestion and its exception is rethrown.
+     * Batches stored before the failure are not removed from the {@code EmbeddingStore}.
+     *
+     * @param documents the documents to ingest.
+     * @return the result of the ingestion.
+     */
+    public IngestionResult ingestWithResult(List<Document> documents) {
+        if (pipelined) {
+            return ingestInBatches(documents.iterator());
+        }
 
+        long startNanos = System.nanoTime();
         log.debug("Starting to ingest {} documents", documents.size());
 
         if (documentTransformer != null) {
@@ -188,15 +311,378 @@ public class EmbeddingStoreIngestor {
             log.debug("Text segments were transformed into {} text segments", documents.size());
         }
 
-        // TODO handle failures, parallelize
-        log.debug("Starting to embed {} text segments", segments.size());
-        List<Embedding> embeddings = embeddingModel.embedAll(segments).content();
-        log.debug("Finished embedding {} text segments", segments.size());
+        Pipeline pipeline = new Pipeline(null);
+        pipeline.submit(segments, null);
+        return pipeline.awaitResult(documents.size(), startNanos);
+    }
+
+    /**
+     * Ingests documents produced by the specified iterator into an {@link EmbeddingStore} that was specified
+     * during the creation of this {@code EmbeddingStoreIngestor}.
+     * <br>
+     * Documents are pulled from the iterator one at a time, and their segments are embedded and stored in batches
+     * (see {@link Builder#batchSize(Integer)}), so that memory usage does not depend on the number of documents:
+     * at most one document and {@link Builder#maxConcurrency(Integer)} batches are held at a time.
+     * This is the case even if neither a batch size nor an executor was specified.
+     *
+     * @param documents the documents to ingest.
+     * @return the result of the ingestion.
+     */
+    public IngestionResult ingest(Iterator<Document> documents) {
+        return ingestInBatches(ensureNotNull(documents, "documents"));
+    }
+
+    /**
+     * Ingests documents from the specified stream into an {@link EmbeddingStore} that was specified
+     * during the creation of this {@code EmbeddingStoreIngestor}.
+     * <br>
+     * The stream is consumed lazily, as described in {@link #ingest(Iterator)}.
+     * It is not closed by this method.
+     *
+     * @param documents the documents to ingest.
+     * @return the result of the ingestion.
+     */
+    public IngestionResult ingest(Stream<Document> documents) {
+        return ingest(ensureNotNull(documents, "documents").iterator());
+    }
+
+    private IngestionResult ingestInBatches(Iterator<Document> documents) {
+
+        long startNanos = System.nanoTime();
+        log.debug("Starting to ingest documents in batches of {} text segments", batchSize);
+
+        Pipeline pipeline = new Pipeline(executor);
+        Set<String> ingestedDocumentIds = removeMissingDocuments ? new HashSet<>() : null;
+        int documentCount = 0;
+        while (documents.hasNext() && !pipeline.hasFailed()) {
+            Document document = documents.next();
+            documentCount++;
+            if (manifest == null) {
+                for (TextSegment segment : toSegments(document)) {
+                    pipeline.add(segment, null);
+                }
+            } else {
+                String documentId = ingestIncrementally(document, pipeline);
+                if (ingestedDocumentIds != null) {
+                    ingestedDocumentIds.add(documentId);
+                }
+            }
+        }
+        if (!pipeline.hasFailed()) {
+            pipeline.flush();
+        }
+
+        // throws if the ingestion was stopped by a failure, in which case not all documents were seen
+        IngestionResult result = pipeline.awaitResult(documentCount, startNanos);
+        if (ingestedDocumentIds != null) {
+            removeMissingDocuments(ingestedDocumentIds);
+        }
+        return result;
+    }
+
+    /**
+     * Removes the documents recorded in the manifest that were not part of a complete ingestion.
+     */
+    private void removeMissingDocuments(Set<String> ingestedDocumentIds) {
+        Set<String> missingDocumentIds = new HashSet<>(manifest.documentIds());
+        missingDocumentIds.removeAll(ingestedDocumentIds);
+        if (missingDocumentIds.isEmpty()) {
+            return;
+        }
+        log.debug("Removing {} documents that were not ingested anymore from the embedding store",
+                missingDocumentIds.size());
+        embeddingStore.removeAll(metadataKey(documentIdKey).isIn(missingDocumentIds));
+        missingDocumentIds.forEach(manifest::remove);
+    }
+
+    /**
+     * @return the ID of the document.
+     */
+    private String ingestIncrementally(Document document, Pipeline pipeline) {
+
+        String documentId = document.metadata().getString(documentIdKey);
+        if (documentId == null) {
+            throw illegalArgument("Document has no '%s' metadata entry, which is required for incremental ingestion",
+                    documentIdKey);
+        }
+        String documentHash = hash(document.text(), document.metadata());
+        IngestionManifest.Entry previous = manifest.get(documentId);
+        if (previous != null && previous.documentHash().equals(documentHash)) {
+            log.debug("Document '{}' has not changed since the previous ingestion", documentId);
+            pipeline.skip(previous.segmentHashes().size());
+            return documentId;
+        }
+
+        Set<String> segmentHashes = new LinkedHashSet<>();
+        List<TextSegment> changedSegments = new ArrayList<>();
+        for (TextSegment segment : toSegments(document)) {
+            String segmentHash = hash(segment.text(), segment.metadata());
+            if (!segmentHashes.add(segmentHash)) {
+                continue; // the same segment is stored only once per document
+            }
+            if (previous != null && previous.segmentHashes().contains(segmentHash)) {
+                pipeline.skip(1);
+                continue;
+            }
+            segment.metadata()
+                    .put(documentIdKey, documentId)
+                    .put(CONTENT_HASH_METADATA_KEY, segmentHash);
+            changedSegments.add(segment);
+        }
+
+        Set<String> staleSegmentHashes = new HashSet<>();
+        if (previous != null) {
+            staleSegmentHashes.addAll(previous.segmentHashes());
+            staleSegmentHashes.removeAll(segmentHashes);
+        }
+        log.debug("Document '{}' has {} new or changed text segments and {} stale text segments",
+                documentId, changedSegments.size(), staleSegmentHashes.size());
+
+        PendingDocument pendingDocument = new PendingDocument(documentId,
+                new IngestionManifest.Entry(documentHash, segmentHashes), staleSegmentHashes, changedSegments.size());
+        for (TextSegment segment : changedSegments) {
+            pipeline.add(segment, pendingDocument);
+        }
+        pipeline.seal(pendingDocument);
+        return documentId;
+    }
+
+    private List<TextSegment> toSegments(Document document) {
+        if (documentTransformer != null) {
+            document = documentTransformer.transform(document);
+            if (document == null) {
+                return Collections.emptyList();
+            }
+        }
+        List<TextSegment> segments = documentSplitter != null
+                ? documentSplitter.split(document)
+                : singletonList(document.toTextSegment());
+        if (textSegmentTransformer != null) {
+            segments = textSegmentTransformer.transformAll(segments);
+        }
+        return segments;
+    }
+
+    private static String hash(String text, Metadata metadata) {
+        Map<String, Object> sortedMetadata = new TreeMap<>(metadata.toMap());
+        sortedMetadata.remove(CONTENT_HASH_METADATA_KEY);
+        return generateUUIDFrom(text + "\n" + sortedMetadata);
+    }
+
+    /**
+     * A document, ingested incrementally, whose new or changed text segments are being embedded and stored.
+     * Once all of them are stored, stale text segments of the document are removed from the {@link EmbeddingStore}
+     * and the document is recorded in the {@link IngestionManifest}.
+     */
+    private static class PendingDocument {
+
+        private final String id;
+        private final IngestionManifest.Entry entry;
+        private final Set<String> staleSegmentHashes;
+        private int pendingSegments;
+        private boolean sealed;
+        private boolean failed;
+
+        PendingDocument(String id, IngestionManifest.Entry entry, Set<String> staleSegmentHashes, int pendingSegments) {
+            this.id = id;
+            this.entry = entry;
+            this.staleSegmentHashes = staleSegmentHashes;
+            this.pendingSegments = pendingSegments;
+        }
+
+        boolean isComplete() {
+            return sealed && pendingSegments == 0 && !failed;
+        }
+    }
+
+    /**
+     * Embeds and stores batches of text segments, either on the calling thread or on an {@link Executor},
+     * keeping at most {@link #maxConcurrency} batches in flight: submitting a batch blocks until a slot is free.
+     */
+    private class Pipeline {
+
+        private final Executor executor;
+        private final Semaphore slots = new Semaphore(maxConcurrency);
+
+        private List<TextSegment> batch = new ArrayList<>();
+        private List<PendingDocument> batchDocuments = new ArrayList<>();
+
+        private final List<IngestionResult.FailedBatch> failedBatches = new ArrayList<>();
+        private RuntimeException failure;
+        private Error error;
+        private int batchCount;
+        private int segmentCount;
+        private int skippedSegmentCount;
+        private TokenUsage tokenUsage;
+
+        Pipeline(Executor executor) {
+            this.executor = executor;
+        }
+
+        /**
+         * Adds a text segment to the current batch, submitting the batch when it is full.
+         *
+         * @param segment  the text segment.
+         * @param document the document that the segment belongs to, if ingested incrementally, otherwise {@code null}.
+         */
+        void add(TextSegment segment, PendingDocument document) {
+            batch.add(segment);
+            batchDocuments.add(document);
+            if (batch.size() == batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!batch.isEmpty()) {
+                submit(batch, batchDocuments);
+                batch = new ArrayList<>();
+                batchDocuments = new ArrayList<>();
+            }
+        }
+
+        synchronized void skip(int segmentCount) {
+            skippedSegmentCount += segmentCount;
+        }
+
+        /**
+         * Marks that all text segments of the document have been added.
+         */
+        void seal(PendingDocument document) {
+            synchronized (this) {
+                document.sealed = true;
+                if (!document.isComplete()) {
+                    return;
+                }
+            }
+            complete(document);
+        }
+
+        void submit(List<TextSegment> segments, List<PendingDocument> documents) {
+            synchronized (this) {
+                batchCount++;
+            }
+            if (executor == null) {
+                process(segments, documents);
+                return;
+            }
+            slots.acquireUninterruptibly();
+            try {
+                executor.execute(() -> {
+                    try {
+                        process(segments, documents);
+                    } catch (Error e) {
+                        onError(e);
+                    } finally {
+                        slots.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                // e.g. the executor rejected the task
+                slots.release();
+                onFailure(segments, documents, e);
+            }
+        }
+
+        synchronized boolean hasFailed() {
+            return failure != null || error != null;
+        }
+
+        private void process(List<TextSegment> segments, List<PendingDocument> documents) {
+            List<PendingDocument> completedDocuments = new ArrayList<>();
+            try {
+                log.debug("Starting to embed {} text segments", segments.size());
+                Response<List<Embedding>> response = withRetries(() -> embeddingModel.embedAll(segments));
+                log.debug("Finished embedding {} text segments", segments.size());
+
+                log.debug("Starting to store {} text segments into the embedding store", segments.size());
+                withRetries(() -> embeddingStore.addAll(response.content(), segments));
+                log.debug("Finished storing {} text segments into the embedding store", segments.size());
+
+                synchronized (this) {
+                    segmentCount += segments.size();
+                    tokenUsage = TokenUsage.sum(tokenUsage, response.tokenUsage());
+                    if (documents != null) {
+                        for (PendingDocument document : documents) {
+                            if (document != null && --document.pendingSegments == 0 && document.isComplete()) {
+                                completedDocuments.add(document);
+                            }
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                onFailure(segments, documents, e);
+            }
+            completedDocuments.forEach(this::complete);
+        }
+
+        private void complete(PendingDocument document) {
+            try {
+                if (!document.staleSegmentHashes.isEmpty()) {
+                    log.debug("Removing {} stale text segments of document '{}' from the embedding store",
+                            document.staleSegmentHashes.size(), document.id);
+                    embeddingStore.removeAll(metadataKey(documentIdKey).isEqualTo(document.id)
+                            .and(metadataKey(CONTENT_HASH_METADATA_KEY).isIn(document.staleSegmentHashes)));
+                }
+                manifest.put(document.id, document.entry);
+            } catch (RuntimeException e) {
+                log.warn("Failed to complete the ingestion of document '{}'", document.id, e);
+                synchronized (this) {
+                    if (!continueOnFailure && failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+        }
+
+        private synchronized void onFailure(List<TextSegment> segments,
+                                            List<PendingDocument> documents,
+                                            RuntimeException e) {
+            log.warn("Failed to ingest a batch of {} text segments", segments.size(), e);
+            failedBatches.add(new IngestionResult.FailedBatch(segments, e));
+            if (documents != null) {
+                for (PendingDocument document : documents) {
+                    if (document != null) {
+                        document.failed = true;
+                    }
+                }
+            }
+            if (!continueOnFailure && failure == null) {
+                failure = e;
+            }
+        }
+
+        private synchronized void onError(Error e) {
+            if (error == null) {
+                error = e;
+            }
+        }
+
+        IngestionResult awaitResult(int documentCount, long startNanos) {
+            // waits for the batches in flight
+            slots.acquireUninterruptibly(maxConcurrency);
+            slots.release(maxConcurrency);
+            synchronized (this) {
+                if (error != null) {
+                    throw error;
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+                Duration duration = Duration.ofNanos(System.nanoTime() - startNanos);
+                log.debug("Finished ingesting {} documents into {} text segments ({} unchanged) in {}",
+                        documentCount, segmentCount, skippedSegmentCount, duration);
+                return new IngestionResult(documentCount, segmentCount, skippedSegmentCount, batchCount,
+                        new ArrayList<>(failedBatches), tokenUsage, duration);
+            }
+        }
+    }
 
-        // TODO handle failures, parallelize
-        log.debug("Starting to store {} text segments into the embedding store", segments.size());
-        embeddingStore.addAll(embeddings, segments);
-        log.debug("Finished storing {} text segments into the embedding store", segments.size());
+    private <T> T withRetries(Supplier<T> action) {
+        if (maxAttempts == 1) {
+            return action.get();
+        }
+        return RetryUtils.withRetry(action::get, maxAttempts);
     }
 
     /**
@@ -218,6 +704,14 @@ public class EmbeddingStoreIngestor {
         private TextSegmentTransformer textSegmentTransformer;
         private EmbeddingModel embeddingModel;
         private EmbeddingStore<TextSegment> embeddingStore;
+        private Integer batchSize;
+        private Executor executor;
+        private Integer maxConcurrency;
+        private Integer maxAttempts;
+        private Boolean continueOnFailure;
+        private IngestionManifest manifest;
+        private String documentIdKey;
+        private Boolean removeMissingDocuments;
 
         /**
          * Creates a new EmbeddingStoreIngestor builder.
@@ -284,19 +778,138 @@ public class EmbeddingStoreIngestor {
             return this;
         }
 
+        /**
+         * Sets the maximum number of text segments embedded with a single call to the embedding model
+         * and stored with a single call to the embedding store. Optional.
+         * <br>
+         * When specified, documents are split one by one and their segments are embedded and stored in batches,
+         * so that the whole corpus does not need to be held in memory in order to be embedded.
+         * If neither the batch size nor an {@link #executor(Executor)} is specified,
+         * all segments of a {@code List} of documents are embedded and stored at once.
+         * Documents ingested from an {@link Iterator} or a {@link Stream} are always processed in batches.
+         *
+         * @param batchSize the batch size. Default: 128.
+         * @return {@code this}
+         */
+        public Builder batchSize(Integer batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Sets the executor used to embed and store batches concurrently. Optional.
+         * If none is specified, batches are embedded and stored one after another on the calling thread.
+         * While batches are being processed, the calling thread keeps splitting the following documents.
+         *
+         * @param executor the executor.
+         * @return {@code this}
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of batches processed concurrently on the {@link #executor(Executor)}.
+         * When this number is reached, splitting of the following documents waits until a batch is done.
+         *
+         * @param maxConcurrency the maximum number of batches in flight. Default: 4.
+         * @return {@code this}
+         */
+        public Builder maxConcurrency(Integer maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of attempts to embed and to store each batch.
+         *
+         * @param maxAttempts the maximum number of attempts. Default: 1 (no retries).
+         * @return {@code this}
+         */
+        public Builder maxAttempts(Integer maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Sets whether the ingestion continues when a batch fails.
+         * If enabled, failed batches are reported in {@link IngestionResult#failedBatches()}.
+         * Otherwise, the first failure stops the ingestion and is rethrown.
+         *
+         * @param continueOnFailure whether to continue when a batch fails. Default: false.
+         * @return {@code this}
+         */
+        public Builder continueOnFailure(Boolean continueOnFailure) {
+            this.continueOnFailure = continueOnFailure;
+            return this;
+        }
+
+        /**
+         * Sets the manifest used to ingest documents incrementally. Optional.
+         * <br>
+         * When specified, each document must have a unique ID in its {@link Metadata}
+         * (see {@link #documentIdKey(String)}). For each document, a hash of its text and metadata is compared with
+         * the one recorded in the manifest during the previous ingestion: unchanged documents are skipped
+         * without being split. Changed documents are split, and only the segments whose hash (of text and metadata)
+         * is not recorded in the manifest are embedded and stored. Each stored segment gets the document ID
+         * and a {@code content_hash} metadata entry. Once all new segments of a document are stored,
+         * the segments that are not part of the document anymore are removed from the embedding store
+         * using {@link EmbeddingStore#removeAll(dev.langchain4j.store.embedding.filter.Filter)},
+         * and the document is recorded in the manifest.
+         * <br>
+         * Please note that splitters add the position of a segment to its metadata ({@code index}),
+         * so segments that follow a change within a document are considered changed as well.
+         *
+         * @param manifest the manifest.
+         * @return {@code this}
+         */
+        public Builder manifest(IngestionManifest manifest) {
+            this.manifest = manifest;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Metadata} key holding the unique ID of a document,
+         * used when ingesting documents incrementally (see {@link #manifest(IngestionManifest)}).
+         *
+         * @param documentIdKey the metadata key. Default: {@code document_id}.
+         * @return {@code this}
+         */
+        public Builder documentIdKey(String documentIdKey) {
+            this.documentIdKey = documentIdKey;
+            return this;
+        }
+
+        /**
+         * Sets whether each ingestion covers the whole corpus, when ingesting documents incrementally
+         * (see {@link #manifest(IngestionManifest)}). Optional.
+         * <br>
+         * If enabled, once all documents of an ingestion have been processed without stopping on a failure,
+         * the documents recorded in the manifest that were not part of this ingestion (e.g. deleted files)
+         * are removed from the embedding store, using
+         * {@link EmbeddingStore#removeAll(dev.langchain4j.store.embedding.filter.Filter)} on the document ID,
+         * and from the manifest.
+         * Ingesting only a part of the corpus, e.g. a single document, then removes all the other documents.
+         * <br>
+         * If disabled, documents that are not ingested anymore are kept in the embedding store and in the manifest,
+         * until they are removed explicitly.
+         *
+         * @param removeMissingDocuments whether to remove the documents missing from an ingestion. Default: false.
+         * @return {@code this}
+         */
+        public Builder removeMissingDocuments(Boolean removeMissingDocuments) {
+            this.removeMissingDocuments = removeMissingDocuments;
+            return this;
+        }
+
         /**
          * Builds the EmbeddingStoreIngestor.
          *
          * @return the EmbeddingStoreIngestor.
          */
         public EmbeddingStoreIngestor build() {
-            return new EmbeddingStoreIngestor(
-                    documentTransformer,
-                    documentSplitter,
-                    textSegmentTransformer,
-                    embeddingModel,
-                    embeddingStore
-            );
+            return new EmbeddingStoreIngestor(this);
         }
     }
 }
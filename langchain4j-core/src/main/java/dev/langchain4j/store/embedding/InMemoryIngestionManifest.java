@@ -0,0 +1,74 @@
+package dev.langchain4j.store.embedding;
+
+import dev.langchain4j.internal.Json;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
+
+/**
+ * Implementation of {@link IngestionManifest} that keeps entries in-memory.
+ * <p>
+ * The manifest can be persisted with {@link #serializeToJson()} and restored with {@link #fromJson(String)},
+ * together with the {@link EmbeddingStore} it describes.
+ */
+public class InMemoryIngestionManifest implements IngestionManifest {
+
+    private final Map<String, Entry> entriesByDocumentId = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new {@link InMemoryIngestionManifest}.
+     */
+    public InMemoryIngestionManifest() {
+    }
+
+    @Override
+    public Entry get(String documentId) {
+        return entriesByDocumentId.get(documentId);
+    }
+
+    @Override
+    public void put(String documentId, Entry entry) {
+        entriesByDocumentId.put(documentId, entry);
+    }
+
+    @Override
+    public void remove(String documentId) {
+        entriesByDocumentId.remove(documentId);
+    }
+
+    @Override
+    public Set<String> documentIds() {
+        return new HashSet<>(entriesByDocumentId.keySet());
+    }
+
+    public String serializeToJson() {
+        return Json.toJson(this);
+    }
+
+    public static InMemoryIngestionManifest fromJson(String json) {
+        InMemoryIngestionManifest deserialized = Json.fromJson(ensureNotBlank(json, "json"), InMemoryIngestionManifest.class);
+        // the JSON codec replaces the concurrent map with a map that is not thread-safe,
+        // while the manifest is updated concurrently during ingestion
+        InMemoryIngestionManifest manifest = new InMemoryIngestionManifest();
+        if (deserialized.entriesByDocumentId != null) {
+            manifest.entriesByDocumentId.putAll(deserialized.entriesByDocumentId);
+        }
+        return manifest;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return entriesByDocumentId.equals(((InMemoryIngestionManifest) o).entriesByDocumentId);
+    }
+
+    @Override
+    public int hashCode() {
+        return entriesByDocumentId.hashCode();
+    }
+}
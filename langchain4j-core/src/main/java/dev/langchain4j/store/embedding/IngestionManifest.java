@@ -0,0 +1,101 @@
+package dev.langchain4j.store.embedding;
+
+import java.util.Set;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * Records which documents, and which text segments of these documents, have been ingested into an {@link EmbeddingStore}.
+ * Used by an {@link EmbeddingStoreIngestor} to re-ingest only the documents and segments that have changed
+ * since the previous ingestion (see {@link EmbeddingStoreIngestor.Builder#manifest(IngestionManifest)}).
+ * <br>
+ * The manifest must be kept in sync with the {@code EmbeddingStore}: when the store is cleared, so must be the manifest.
+ * <br>
+ * Currently, the only implementation available is {@link InMemoryIngestionManifest}.
+ * You can implement this interface to keep the manifest in any storage of your choice.
+ */
+public interface IngestionManifest {
+
+    /**
+     * Retrieves the entry recorded for a specified document.
+     *
+     * @param documentId The ID of the document.
+     * @return The entry recorded for the document, or {@code null} if the document has not been ingested yet.
+     */
+    Entry get(String documentId);
+
+    /**
+     * Records the entry of a specified document, after all its text segments have been stored.
+     *
+     * @param documentId The ID of the document.
+     * @param entry      The entry of the document.
+     */
+    void put(String documentId, Entry entry);
+
+    /**
+     * Removes the entry recorded for a specified document.
+     *
+     * @param documentId The ID of the document.
+     */
+    void remove(String documentId);
+
+    /**
+     * Retrieves the IDs of all recorded documents.
+     * Used to find the documents that are not part of an ingestion anymore
+     * (see {@link EmbeddingStoreIngestor.Builder#removeMissingDocuments(Boolean)}).
+     *
+     * @return The IDs of the recorded documents. Changes made to the manifest afterwards are not reflected.
+     */
+    Set<String> documentIds();
+
+    /**
+     * The content hashes of an ingested document and of its text segments.
+     */
+    class Entry {
+
+        private final String documentHash;
+        private final Set<String> segmentHashes;
+
+        public Entry(String documentHash, Set<String> segmentHashes) {
+            this.documentHash = ensureNotBlank(documentHash, "documentHash");
+            this.segmentHashes = unmodifiableSet(ensureNotNull(segmentHashes, "segmentHashes"));
+        }
+
+        /**
+         * @return The hash of the text and metadata of the document, before it was transformed and split.
+         */
+        public String documentHash() {
+            return documentHash;
+        }
+
+        /**
+         * @return The hashes of the text and metadata of the stored text segments of the document.
+         */
+        public Set<String> segmentHashes() {
+            return segmentHashes;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Entry that = (Entry) o;
+            return documentHash.equals(that.documentHash) && segmentHashes.equals(that.segmentHashes);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * documentHash.hashCode() + segmentHashes.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "Entry {" +
+                    " documentHash = \"" + documentHash + "\"" +
+                    ", segmentHashes = " + segmentHashes +
+                    " }";
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package dev.langchain4j.store.embedding;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.output.TokenUsage;
+
+import java.time.Duration;
+import java.util.List;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Represents a result of an ingestion performed by an {@link EmbeddingStoreIngestor}.
+ */
+public class IngestionResult {
+
+    private final int documentCount;
+    private final int segmentCount;
+    private final int skippedSegmentCount;
+    private final int batchCount;
+    private final List<FailedBatch> failedBatches;
+    private final TokenUsage tokenUsage;
+    private final Duration duration;
+
+    /**
+     * Creates an instance of an {@code IngestionResult}.
+     *
+     * @param documentCount       The number of ingested documents.
+     * @param segmentCount        The number of text segments that were embedded and stored successfully.
+     * @param skippedSegmentCount The number of text segments that were not embedded because they did not change
+     *                            since the previous ingestion (see {@link IngestionManifest}).
+     * @param batchCount          The number of batches, including the failed ones.
+     * @param failedBatches       The batches that could not be embedded or stored.
+     * @param tokenUsage          The total token usage of the embedding model, or {@code null} if it did not report any.
+     * @param duration            The time it took to ingest the documents.
+     */
+    public IngestionResult(int documentCount,
+                           int segmentCount,
+                           int skippedSegmentCount,
+                           int batchCount,
+                           List<FailedBatch> failedBatches,
+                           TokenUsage tokenUsage,
+                           Duration duration) {
+        this.documentCount = documentCount;
+        this.segmentCount = segmentCount;
+        this.skippedSegmentCount = skippedSegmentCount;
+        this.batchCount = batchCount;
+        this.failedBatches = unmodifiableList(ensureNotNull(failedBatches, "failedBatches"));
+        this.tokenUsage = tokenUsage;
+        this.duration = ensureNotNull(duration, "duration");
+    }
+
+    public int documentCount() {
+        return documentCount;
+    }
+
+    public int segmentCount() {
+        return segmentCount;
+    }
+
+    public int skippedSegmentCount() {
+        return skippedSegmentCount;
+    }
+
+    public int batchCount() {
+        return batchCount;
+    }
+
+    public List<FailedBatch> failedBatches() {
+        return failedBatches;
+    }
+
+    public TokenUsage tokenUsage() {
+        return tokenUsage;
+    }
+
+    public Duration duration() {
+        return duration;
+    }
+
+    /**
+     * @return the number of text segments embedded and stored successfully per second.
+     */
+    public double segmentsPerSecond() {
+        long nanos = duration.toNanos();
+        return nanos == 0 ? 0 : segmentCount * 1_000_000_000.0 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "IngestionResult {" +
+                " documentCount = " + documentCount +
+                ", segmentCount = " + segmentCount +
+                ", skippedSegmentCount = " + skippedSegmentCount +
+                ", batchCount = " + batchCount +
+                ", failedBatches = " + failedBatches.size() +
+                ", tokenUsage = " + tokenUsage +
+                ", duration = " + duration +
+                " }";
+    }
+
+    /**
+     * A batch of text segments that could not be embedded or stored, even after retries.
+     */
+    public static class FailedBatch {
+
+        private final List<TextSegment> segments;
+        private final Exception exception;
+
+        public FailedBatch(List<TextSegment> segments, Exception exception) {
+            this.segments = ensureNotNull(segments, "segments");
+            this.exception = ensureNotNull(exception, "exception");
+        }
+
+        public List<TextSegment> segments() {
+            return segments;
+        }
+
+        public Exception exception() {
+            return exception;
+        }
+
+        @Override
+        public String toString() {
+            return "FailedBatch {" +
+                    " segments = " + segments.size() +
+                    ", exception = " + exception +
+                    " }";
+        }
+    }
+}
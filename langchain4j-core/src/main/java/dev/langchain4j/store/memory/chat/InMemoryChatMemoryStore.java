@@ -12,7 +12,7 @@ import java.util.concurrent.ConcurrentHashMap;
  * <p>
  * This storage mechanism is transient and does not persist data across application restarts.
  */
-public class InMemoryChatMemoryStore implements ChatMemoryStore {
+public class InMemoryChatMemoryStore implements IncrementalChatMemoryStore {
     private final Map<Object, List<ChatMessage>> messagesByMemoryId = new ConcurrentHashMap<>();
 
     /**
@@ -22,12 +22,39 @@ public class InMemoryChatMemoryStore implements ChatMemoryStore {
 
     @Override
     public List<ChatMessage> getMessages(Object memoryId) {
-        return messagesByMemoryId.computeIfAbsent(memoryId, ignored -> new ArrayList<>());
+        List<ChatMessage> messages = messagesByMemoryId.get(memoryId);
+        if (messages == null) {
+            return new ArrayList<>();
+        }
+        synchronized (messages) {
+            return new ArrayList<>(messages);
+        }
     }
 
     @Override
     public void updateMessages(Object memoryId, List<ChatMessage> messages) {
-        messagesByMemoryId.put(memoryId, messages);
+        messagesByMemoryId.put(memoryId, new ArrayList<>(messages));
+    }
+
+    @Override
+    public void appendMessages(Object memoryId, List<ChatMessage> messages) {
+        List<ChatMessage> storedMessages = messagesByMemoryId.computeIfAbsent(memoryId, ignored -> new ArrayList<>());
+        synchronized (storedMessages) {
+            storedMessages.addAll(messages);
+        }
+    }
+
+    @Override
+    public void removeMessages(Object memoryId, int fromIndex, int count) {
+        List<ChatMessage> storedMessages = messagesByMemoryId.get(memoryId);
+        if (storedMessages == null) {
+            return;
+        }
+        synchronized (storedMessages) {
+            int from = Math.min(fromIndex, storedMessages.size());
+            int to = Math.min(fromIndex + count, storedMessages.size());
+            storedMessages.subList(from, to).clear();
+        }
     }
 
     @Override
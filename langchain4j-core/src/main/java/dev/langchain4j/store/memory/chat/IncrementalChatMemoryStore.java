@@ -0,0 +1,48 @@
+package dev.langchain4j.store.memory.chat;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.memory.ChatMemory;
+
+import java.util.List;
+
+/**
+ * A {@link ChatMemoryStore} that can update the messages of a chat memory incrementally,
+ * instead of replacing all of them with {@link #updateMessages(Object, List)}.
+ * <br>
+ * A {@link ChatMemory} typically adds a message at the end and evicts the oldest ones (after the system message, if any)
+ * on each turn: with an {@code IncrementalChatMemoryStore}, it writes only these changes,
+ * so the cost of a turn does not grow with the number of messages in the memory.
+ * <br>
+ * {@link InMemoryChatMemoryStore} is an {@code IncrementalChatMemoryStore}.
+ */
+public interface IncrementalChatMemoryStore extends ChatMemoryStore {
+
+    /**
+     * Appends messages at the end of a specified chat memory.
+     *
+     * @param memoryId The ID of the chat memory.
+     * @param messages The messages to append, in order.
+     */
+    void appendMessages(Object memoryId, List<ChatMessage> messages);
+
+    /**
+     * Removes a range of messages from a specified chat memory, e.g. the oldest ones.
+     * Messages beyond the last message are ignored.
+     *
+     * @param memoryId  The ID of the chat memory.
+     * @param fromIndex The index of the first message to remove, in the list returned by {@link #getMessages(Object)}.
+     * @param count     The number of messages to remove.
+     */
+    void removeMessages(Object memoryId, int fromIndex, int count);
+
+    /**
+     * Whether {@link #appendMessages(Object, List)} and {@link #removeMessages(Object, int, int)} are cheaper
+     * than {@link #updateMessages(Object, List)}, e.g. {@code false} when the store has to rewrite all the messages
+     * anyway, in its current configuration. A {@link ChatMemory} only writes the changes when it is {@code true}.
+     *
+     * @return {@code true} by default.
+     */
+    default boolean supportsIncrementalUpdates() {
+        return true;
+    }
+}
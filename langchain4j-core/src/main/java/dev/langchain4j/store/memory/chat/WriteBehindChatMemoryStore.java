@@ -0,0 +1,338 @@
+package dev.langchain4j.store.memory.chat;
+
+import dev.langchain4j.data.message.ChatMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static dev.langchain4j.internal.ValidationUtils.ensureTrue;
+
+/**
+ * A {@link ChatMemoryStore} that keeps the messages of the chat memories in memory
+ * and writes them to another (usually persistent) {@link ChatMemoryStore} asynchronously.
+ * <p>
+ * A chat turn updates a chat memory several times (system message, user message, AI message, tool results):
+ * the updates of a chat memory are coalesced, and only its latest state is written,
+ * at most {@code flushInterval} after the first update that was not written yet.
+ * All the chat memories updated in the meantime are written by the same flush.
+ * A write that fails is logged, and retried by the next flush.
+ * If the scheduler rejects a flush (e.g. it is shut down), the update is written synchronously.
+ * <p>
+ * Up to {@code maxPendingWrites} chat memories can have updates that are not written yet.
+ * Beyond that, an update of another chat memory first writes the pending updates in the calling thread
+ * (back-pressure), and fails if they still cannot be written, e.g. because the other store is unavailable:
+ * the memory used by the pending updates is bounded.
+ * <p>
+ * The messages read are served from memory, and are read from the other store only the first time.
+ * This store must therefore be the only writer of the chat memories it holds.
+ * Up to {@code maxCachedMemories} chat memories are kept in memory:
+ * beyond that, the least recently used chat memories that are already written are forgotten.
+ * <p>
+ * Updates that are not written yet are lost if the application stops:
+ * {@link #close()} (or {@link #flush()}) must be called on shutdown.
+ * <p>
+ * The latest state of a chat memory is always written with {@link ChatMemoryStore#updateMessages(Object, List)}
+ * (or {@link ChatMemoryStore#deleteMessages(Object)}), as several updates are coalesced into one write:
+ * an {@link IncrementalChatMemoryStore} used as the other store does not write only the changes.
+ */
+public class WriteBehindChatMemoryStore implements ChatMemoryStore, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindChatMemoryStore.class);
+
+    private final ChatMemoryStore delegate;
+    private final long flushIntervalNanos;
+    private final int maxCachedMemories;
+    private final int maxPendingWrites;
+    private final ScheduledExecutorService scheduler;
+
+    private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Object, Entry> dirtyEntries = new LinkedHashMap<>();
+    private boolean flushScheduled;
+    private boolean closed;
+
+    /**
+     * Serializes the flushes, so that an older state of a chat memory is never written after a newer one.
+     */
+    private final Object flushLock = new Object();
+
+    private static class Entry {
+
+        /**
+         * The messages, or null if they are deleted.
+         */
+        List<ChatMessage> messages;
+        long version;
+
+        Entry(List<ChatMessage> messages) {
+            this.messages = messages;
+        }
+    }
+
+    public WriteBehindChatMemoryStore(ChatMemoryStore delegate,
+                                      Duration flushInterval,
+                                      Integer maxCachedMemories,
+                                      Integer maxPendingWrites,
+                                      ScheduledExecutorService scheduler) {
+        this.delegate = ensureNotNull(delegate, "delegate");
+        flushInterval = getOrDefault(flushInterval, Duration.ofSeconds(1));
+        ensureTrue(!flushInterval.isNegative(), "flushInterval must not be negative");
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.maxCachedMemories = ensureGreaterThanZero(getOrDefault(maxCachedMemories, 10_000), "maxCachedMemories");
+        this.maxPendingWrites = ensureGreaterThanZero(getOrDefault(maxPendingWrites, 10_000), "maxPendingWrites");
+        this.scheduler = getOrDefault(scheduler, DefaultScheduler.INSTANCE);
+    }
+
+    @Override
+    public List<ChatMessage> getMessages(Object memoryId) {
+        synchronized (this) {
+            Entry entry = entries.get(memoryId);
+            if (entry != null) {
+                return entry.messages == null ? new ArrayList<>() : new ArrayList<>(entry.messages);
+            }
+        }
+
+        List<ChatMessage> messages = new ArrayList<>(delegate.getMessages(memoryId));
+
+        synchronized (this) {
+            Entry entry = entries.get(memoryId);
+            if (entry == null) {
+                // not updated while it was being read
+                entries.put(memoryId, new Entry(new ArrayList<>(messages)));
+                evictCleanEntries();
+                return messages;
+            }
+            return entry.messages == null ? new ArrayList<>() : new ArrayList<>(entry.messages);
+        }
+    }
+
+    @Override
+    public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+        write(memoryId, new ArrayList<>(messages));
+    }
+
+    @Override
+    public void deleteMessages(Object memoryId) {
+        write(memoryId, null);
+    }
+
+    private void write(Object memoryId, List<ChatMessage> messages) {
+        boolean writeThrough;
+        boolean flushed = false;
+        while (true) {
+            synchronized (this) {
+                if (dirtyEntries.size() < maxPendingWrites || dirtyEntries.containsKey(memoryId)) {
+                    Entry entry = entries.get(memoryId);
+                    if (entry == null) {
+                        entry = new Entry(messages);
+                        entries.put(memoryId, entry);
+                    } else {
+                        entry.messages = messages;
+                    }
+                    entry.version++;
+                    dirtyEntries.put(memoryId, entry);
+                    writeThrough = closed || !flushScheduled && !scheduleFlush();
+                    evictCleanEntries();
+                    break;
+                }
+            }
+            if (flushed) {
+                throw new IllegalStateException(String.format(
+                        "%s chat memories have updates that cannot be written, the update of the chat memory '%s' is rejected",
+                        maxPendingWrites, memoryId));
+            }
+            flush();
+            flushed = true;
+        }
+        if (writeThrough) {
+            flush();
+        }
+    }
+
+    /**
+     * Must be called while holding the lock on this store.
+     *
+     * @return false if the scheduler rejected the flush.
+     */
+    private boolean scheduleFlush() {
+        try {
+            scheduler.schedule(this::scheduledFlush, flushIntervalNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            log.warn("Failed to schedule a flush, the updates are written synchronously", e);
+            return false;
+        }
+        flushScheduled = true;
+        return true;
+    }
+
+    private void scheduledFlush() {
+        synchronized (this) {
+            flushScheduled = false;
+        }
+        flush();
+    }
+
+    /**
+     * Writes all the updates that are not written yet to the other store, in the calling thread.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            Map<Object, List<ChatMessage>> batch = new LinkedHashMap<>();
+            Map<Object, Long> versions = new LinkedHashMap<>();
+            synchronized (this) {
+                for (Map.Entry<Object, Entry> dirtyEntry : dirtyEntries.entrySet()) {
+                    Entry entry = dirtyEntry.getValue();
+                    batch.put(dirtyEntry.getKey(), entry.messages == null ? null : new ArrayList<>(entry.messages));
+                    versions.put(dirtyEntry.getKey(), entry.version);
+                }
+            }
+
+            boolean failed = false;
+            for (Map.Entry<Object, List<ChatMessage>> update : batch.entrySet()) {
+                Object memoryId = update.getKey();
+                try {
+                    if (update.getValue() == null || update.getValue().isEmpty()) {
+                        delegate.deleteMessages(memoryId);
+                    } else {
+                        delegate.updateMessages(memoryId, update.getValue());
+                    }
+                } catch (Exception e) {
+                    log.warn("Failed to write the messages of the chat memory '{}', they will be written by the next flush",
+                            memoryId, e);
+                    failed = true;
+                    continue;
+                }
+                synchronized (this) {
+                    Entry entry = dirtyEntries.get(memoryId);
+                    if (entry != null && entry.version == versions.get(memoryId)) {
+                        // not updated while it was being written
+                        dirtyEntries.remove(memoryId);
+                    }
+                }
+            }
+
+            synchronized (this) {
+                evictCleanEntries();
+                if (failed && !closed && !flushScheduled) {
+                    // if rejected, the failed writes are retried by the next update
+                    scheduleFlush();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes all the updates that are not written yet to the other store.
+     * Subsequent updates are written synchronously.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+    }
+
+    /**
+     * @return the number of chat memories whose updates are not written yet.
+     */
+    public synchronized int pendingWrites() {
+        return dirtyEntries.size();
+    }
+
+    private void evictCleanEntries() {
+        Iterator<Map.Entry<Object, Entry>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxCachedMemories && iterator.hasNext()) {
+            Map.Entry<Object, Entry> entry = iterator.next();
+            if (!dirtyEntries.containsKey(entry.getKey())) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class DefaultScheduler {
+
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "langchain4j-chat-memory-store-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private ChatMemoryStore delegate;
+        private Duration flushInterval;
+        private Integer maxCachedMemories;
+        private Integer maxPendingWrites;
+        private ScheduledExecutorService scheduler;
+
+        /**
+         * @param delegate The store the messages are written to, e.g. a persistent store.
+         * @return builder
+         */
+        public Builder delegate(ChatMemoryStore delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * @param flushInterval How long an update can wait before it is written. Default: 1 second.
+         * @return builder
+         */
+        public Builder flushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+            return this;
+        }
+
+        /**
+         * @param maxCachedMemories The maximum number of chat memories kept in memory once written. Default: 10000.
+         * @return builder
+         */
+        public Builder maxCachedMemories(Integer maxCachedMemories) {
+            this.maxCachedMemories = maxCachedMemories;
+            return this;
+        }
+
+        /**
+         * @param maxPendingWrites The maximum number of chat memories with updates that are not written yet.
+         *                         Beyond that, updates are written synchronously, and rejected if they cannot be.
+         *                         Default: 10000.
+         * @return builder
+         */
+        public Builder maxPendingWrites(Integer maxPendingWrites) {
+            this.maxPendingWrites = maxPendingWrites;
+            return this;
+        }
+
+        /**
+         * @param scheduler The scheduler running the flushes.
+         *                  Default: a single daemon thread shared by all {@code WriteBehindChatMemoryStore}s.
+         * @return builder
+         */
+        public Builder scheduler(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        public WriteBehindChatMemoryStore build() {
+            return new WriteBehindChatMemoryStore(delegate, flushInterval, maxCachedMemories, maxPendingWrites, scheduler);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package dev.langchain4j.benchmark;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * A minimal harness for the {@code *Benchmark} classes of the test sources.
+ * <p>
+ * Surefire only runs the {@code *Test} classes, so benchmarks are not run by {@code mvn test}.
+ * A benchmark is run explicitly, e.g.:
+ * <pre>
+ * mvn -pl langchain4j-core test -Dtest=PromptTemplateRenderBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * </pre>
+ * An operation is warmed up, then timed over several rounds, and the median round is reported.
+ * This is good enough to compare implementations and to check how a cost scales on the same machine,
+ * not to publish absolute numbers.
+ */
+public class Benchmark {
+
+    private static final long WARMUP_NANOS = MILLISECONDS.toNanos(1_000);
+    private static final long ROUND_NANOS = MILLISECONDS.toNanos(200);
+    private static final int ROUNDS = 5;
+
+    /**
+     * Keeps the results of the operations, so that the JIT compiler cannot eliminate them.
+     */
+    private static volatile Object sink;
+
+    /**
+     * Measures an operation, and prints the result.
+     *
+     * @param name      The name of the operation.
+     * @param operation The operation.
+     * @return the median time of an operation, in nanoseconds.
+     */
+    public static double nanosPerOperation(String name, Supplier<?> operation) {
+        long operationsPerRound = warmUp(operation);
+        double[] rounds = new double[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (long i = 0; i < operationsPerRound; i++) {
+                sink = operation.get();
+            }
+            rounds[round] = (double) (System.nanoTime() - start) / operationsPerRound;
+        }
+        Arrays.sort(rounds);
+        double median = rounds[ROUNDS / 2];
+        System.out.printf("%-60s %s/op%n", name, format(median));
+        return median;
+    }
+
+    /**
+     * @return the number of operations run in a round.
+     */
+    private static long warmUp(Supplier<?> operation) {
+        long start = System.nanoTime();
+        long operations = 0;
+        long elapsed;
+        do {
+            sink = operation.get();
+            operations++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < WARMUP_NANOS);
+        return Math.max(1, operations * ROUND_NANOS / elapsed);
+    }
+
+    /**
+     * Measures an operation that is too long to be repeated (e.g. building an index), and prints the result.
+     *
+     * @param name      The name of the operation.
+     * @param operation The operation.
+     * @param <T>       The type of the result of the operation.
+     * @return the result of the operation.
+     */
+    public static <T> T once(String name, Supplier<T> operation) {
+        long start = System.nanoTime();
+        T result = operation.get();
+        System.out.printf("%-60s %s%n", name, format(System.nanoTime() - start));
+        return result;
+    }
+
+    private static String format(double nanos) {
+        if (nanos < 10_000) {
+            return String.format("%.1f ns", nanos);
+        }
+        if (nanos < 10_000_000) {
+            return String.format("%.1f us", nanos / 1_000);
+        }
+        return String.format("%.1f ms", nanos / 1_000_000);
+    }
+}
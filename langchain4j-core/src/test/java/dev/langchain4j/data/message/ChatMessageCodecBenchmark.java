@@ -0,0 +1,87 @@
+package dev.langchain4j.data.message;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.benchmark.Benchmark;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compares {@link DefaultChatMessageBinaryCodec} with the JSON serialization of {@link ChatMessageSerializer}
+ * and {@link ChatMessageDeserializer}: time to serialize and deserialize a conversation, and size of the result.
+ * <p>
+ * Run with:
+ * <pre>
+ * mvn -pl langchain4j-core test -Dtest=ChatMessageCodecBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * </pre>
+ */
+class ChatMessageCodecBenchmark {
+
+    private static final int TURNS = 20;
+    private static final int IMAGE_SIZE = 100_000;
+
+    Random random = new Random(1);
+
+    @Test
+    void text_conversation() {
+        compare("text", conversation(null));
+    }
+
+    @Test
+    void conversation_with_image() {
+        byte[] image = new byte[IMAGE_SIZE];
+        random.nextBytes(image);
+        compare("image", conversation(ImageContent.from(Base64.getEncoder().encodeToString(image), "image/png")));
+    }
+
+    private static void compare(String name, List<ChatMessage> messages) {
+        ChatMessageBinaryCodec binary = new DefaultChatMessageBinaryCodec();
+        ChatMessageBinaryCodec compressing = new DefaultChatMessageBinaryCodec(1_024);
+
+        byte[] json = ChatMessageSerializer.messagesToJson(messages).getBytes(UTF_8);
+        byte[] bytes = binary.messagesToBytes(messages);
+        byte[] compressed = compressing.messagesToBytes(messages);
+        System.out.printf("%s conversation size: JSON %s bytes, binary %s bytes, compressed binary %s bytes%n",
+                name, json.length, bytes.length, compressed.length);
+
+        Benchmark.nanosPerOperation(name + ", JSON serialization",
+                () -> ChatMessageSerializer.messagesToJson(messages).getBytes(UTF_8));
+        Benchmark.nanosPerOperation(name + ", binary serialization", () -> binary.messagesToBytes(messages));
+        Benchmark.nanosPerOperation(name + ", compressed binary serialization", () -> compressing.messagesToBytes(messages));
+        Benchmark.nanosPerOperation(name + ", JSON deserialization",
+                () -> ChatMessageDeserializer.messagesFromJson(new String(json, UTF_8)));
+        Benchmark.nanosPerOperation(name + ", binary deserialization", () -> binary.messagesFromBytes(bytes));
+        Benchmark.nanosPerOperation(name + ", compressed binary deserialization", () -> binary.messagesFromBytes(compressed));
+    }
+
+    /**
+     * @param image The image sent with the first user message, if any.
+     */
+    private static List<ChatMessage> conversation(ImageContent image) {
+        List<ChatMessage> messages = new ArrayList<>();
+        messages.add(SystemMessage.from("You are a helpful assistant. Answer the questions of the user concisely."));
+        for (int i = 0; i < TURNS; i++) {
+            String question = "What is the weather like in city number " + i + " today, and should I take an umbrella?";
+            if (i == 0 && image != null) {
+                messages.add(UserMessage.from(TextContent.from(question), image));
+            } else {
+                messages.add(UserMessage.from(question));
+            }
+            ToolExecutionRequest request = ToolExecutionRequest.builder()
+                    .id("call_" + i)
+                    .name("getWeather")
+                    .arguments("{\"city\":\"city number " + i + "\",\"unit\":\"celsius\"}")
+                    .build();
+            messages.add(AiMessage.from(request));
+            messages.add(ToolExecutionResultMessage.from(request, "{\"temperature\":21,\"rain\":0.2}"));
+            messages.add(AiMessage.from("It is 21 degrees in city number " + i
+                    + " with a 20% chance of rain, so an umbrella is not necessary."));
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,143 @@
+package dev.langchain4j.data.message;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static dev.langchain4j.data.message.ChatMessageSerializer.messagesToJson;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Arrays.copyOf;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DefaultChatMessageBinaryCodecTest {
+
+    private final ChatMessageBinaryCodec codec = new DefaultChatMessageBinaryCodec();
+
+    @ParameterizedTest
+    @MethodSource
+    void should_serialize_and_deserialize_chat_message(ChatMessage message) {
+
+        byte[] bytes = codec.messageToBytes(message);
+        assertThat(DefaultChatMessageBinaryCodec.isBinary(bytes)).isTrue();
+
+        ChatMessage deserializedMessage = codec.messageFromBytes(bytes);
+        assertThat(deserializedMessage).isEqualTo(message);
+    }
+
+    static Stream<ChatMessage> should_serialize_and_deserialize_chat_message() {
+        return Stream.of(
+                SystemMessage.from("hello"),
+                UserMessage.from("hello"),
+                UserMessage.from("Klaus", "hello"),
+                UserMessage.from(ImageContent.from("http://image.url")),
+                UserMessage.from(ImageContent.from("aGVsbG8=", "image/png", ImageContent.DetailLevel.HIGH)),
+                UserMessage.from(AudioContent.from("bXAz", "audio/mp3")),
+                UserMessage.from(VideoContent.from("bXA0", "video/mp4")),
+                UserMessage.from(PdfFileContent.from("cGRm", "application/pdf")),
+                UserMessage.from(TextFileContent.from("dGV4dA==", "text/plain")),
+                UserMessage.from(ImageContent.from("not base64!", "image/png")),
+                UserMessage.from(TextContent.from("Gr\u00fc\u00df Gott \uD83D\uDC4B"), ImageContent.from("http://image.url")),
+                AiMessage.from("hello"),
+                AiMessage.from(ToolExecutionRequest.builder()
+                        .name("weather")
+                        .arguments("{\"city\": \"Munich\"}")
+                        .build()),
+                AiMessage.from("Let me check", asList(
+                        ToolExecutionRequest.builder().id("1").name("weather").arguments("{}").build(),
+                        ToolExecutionRequest.builder().id("2").name("time").arguments("{}").build())),
+                ToolExecutionResultMessage.from("12345", "weather", "sunny")
+        );
+    }
+
+    @Test
+    void should_serialize_and_deserialize_list_of_chat_messages() {
+
+        List<ChatMessage> messages = asList(
+                SystemMessage.from("Be polite"),
+                UserMessage.from("hello"),
+                AiMessage.from("Hi! How can I help you?"));
+
+        assertThat(codec.messagesFromBytes(codec.messagesToBytes(messages))).isEqualTo(messages);
+        assertThat(codec.messagesFromBytes(codec.messageToBytes(messages.get(1)))).containsExactly(messages.get(1));
+    }
+
+    @Test
+    void should_write_media_as_raw_bytes() {
+
+        byte[] image = new byte[3000];
+        new Random(0).nextBytes(image);
+        List<ChatMessage> messages = asList(
+                UserMessage.from(TextContent.from("What is in this image?"),
+                        ImageContent.from(Base64.getEncoder().encodeToString(image), "image/png")));
+
+        byte[] bytes = codec.messagesToBytes(messages);
+
+        assertThat(bytes.length).isLessThan(image.length + 100);
+        assertThat(bytes.length).isLessThan(messagesToJson(messages).getBytes(UTF_8).length * 3 / 4);
+        assertThat(codec.messagesFromBytes(bytes)).isEqualTo(messages);
+    }
+
+    @Test
+    void should_compress_messages_above_threshold() {
+
+        ChatMessageBinaryCodec compressingCodec = new DefaultChatMessageBinaryCodec(100);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            text.append("The quick brown fox jumps over the lazy dog. ");
+        }
+        List<ChatMessage> small = asList(UserMessage.from("hello"));
+        List<ChatMessage> large = asList(UserMessage.from(text.toString()), AiMessage.from(text.toString()));
+
+        assertThat(compressingCodec.messagesToBytes(small)).isEqualTo(codec.messagesToBytes(small));
+
+        byte[] compressed = compressingCodec.messagesToBytes(large);
+        assertThat(compressed.length).isLessThan(codec.messagesToBytes(large).length / 10);
+        assertThat(codec.messagesFromBytes(compressed)).isEqualTo(large);
+    }
+
+    @Test
+    void should_fail_to_deserialize_invalid_bytes() {
+
+        assertThatThrownBy(() -> codec.messagesFromBytes("[]".getBytes(UTF_8)))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The bytes are not chat message(s) serialized by DefaultChatMessageBinaryCodec");
+
+        byte[] bytes = codec.messageToBytes(UserMessage.from("hello"));
+        bytes[1] = 99;
+        assertThatThrownBy(() -> codec.messageFromBytes(bytes))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unsupported version of the chat message format: 99");
+
+        byte[] truncated = codec.messageToBytes(UserMessage.from("hello"));
+        assertThatThrownBy(() -> codec.messageFromBytes(copyOf(truncated, truncated.length - 1)))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Truncated chat message(s)");
+    }
+
+    @Test
+    void should_fail_to_deserialize_sizes_larger_than_bytes() {
+
+        byte[] list = {(byte) 0xB1, 1, 2, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        assertThatThrownBy(() -> codec.messagesFromBytes(list))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Truncated chat message(s)");
+
+        byte[] contents = {(byte) 0xB1, 1, 0, 2, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        assertThatThrownBy(() -> codec.messageFromBytes(contents))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Truncated chat message(s)");
+
+        byte[] compressed = {(byte) 0xB1, 1, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0x78, 0x01};
+        assertThatThrownBy(() -> codec.messageFromBytes(compressed))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Corrupted chat message(s)");
+    }
+}
@@ -2,8 +2,15 @@ package dev.langchain4j.internal;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
@@ -138,4 +145,227 @@ class RetryUtilsTest {
         verify(mockAction, times(1)).call();
         verifyNoMoreInteractions(mockAction);
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_not_retry_non_retryable_exception() throws Exception {
+        @SuppressWarnings("unchecked")
+        Callable<String> mockAction = mock(Callable.class);
+        when(mockAction.call()).thenThrow(new IllegalArgumentException("invalid request"));
+
+        RetryUtils.RetryPolicy policy = RetryUtils.retryPolicyBuilder()
+                .delayMillis(100)
+                .retryIf(e -> !(e instanceof IllegalArgumentException))
+                .build();
+
+        assertThatThrownBy(() -> policy.withRetry(mockAction, 3))
+                .hasCauseExactlyInstanceOf(IllegalArgumentException.class);
+        verify(mockAction).call();
+        verifyNoMoreInteractions(mockAction);
+    }
+
+    @Test
+    void should_wait_for_delay_requested_by_server() throws Exception {
+        @SuppressWarnings("unchecked")
+        Callable<String> mockAction = mock(Callable.class);
+        when(mockAction.call())
+                .thenThrow(new RuntimeException("rate limited"))
+                .thenReturn("Success");
+
+        RetryUtils.RetryPolicy policy = RetryUtils.retryPolicyBuilder()
+                .delayMillis(1)
+                .retryAfter(e -> Duration.ofMillis(200))
+                .build();
+
+        long startTime = System.currentTimeMillis();
+        String result = policy.withRetry(mockAction, 3);
+        long duration = System.currentTimeMillis() - startTime;
+
+        assertThat(result).isEqualTo("Success");
+        assertThat(duration).isGreaterThanOrEqualTo(200);
+    }
+
+    @Test
+    void should_stop_retrying_when_retry_budget_is_exhausted() throws Exception {
+        @SuppressWarnings("unchecked")
+        Callable<String> mockAction = mock(Callable.class);
+        when(mockAction.call()).thenThrow(new RuntimeException());
+
+        RetryUtils.RetryBudget retryBudget = new RetryUtils.RetryBudget(2, 0.5);
+        RetryUtils.RetryPolicy policy = RetryUtils.retryPolicyBuilder()
+                .delayMillis(1)
+                .retryBudget(retryBudget)
+                .build();
+
+        assertThatThrownBy(() -> policy.withRetry(mockAction, 5))
+                .isInstanceOf(RuntimeException.class);
+        verify(mockAction, times(3)).call();
+        assertThat(retryBudget.tryAcquire()).isFalse();
+
+        retryBudget.onSuccess();
+        retryBudget.onSuccess();
+        assertThat(retryBudget.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void should_fail_fast_while_circuit_is_open() throws Exception {
+        AtomicLong nanoTime = new AtomicLong();
+        RetryUtils.CircuitBreaker circuitBreaker =
+                new RetryUtils.CircuitBreaker(2, Duration.ofSeconds(10), nanoTime::get);
+        RetryUtils.RetryPolicy policy = RetryUtils.retryPolicyBuilder()
+                .delayMillis(1)
+                .circuitBreaker(circuitBreaker)
+                .build();
+
+        @SuppressWarnings("unchecked")
+        Callable<String> failingAction = mock(Callable.class);
+        when(failingAction.call()).thenThrow(new RuntimeException("service unavailable"));
+
+        assertThatThrownBy(() -> policy.withRetry(failingAction, 2))
+                .hasMessageContaining("service unavailable");
+        verify(failingAction, times(2)).call();
+        assertThat(circuitBreaker.isOpen()).isTrue();
+
+        assertThatThrownBy(() -> policy.withRetry(failingAction, 2))
+                .isExactlyInstanceOf(RetryUtils.CircuitBreakerOpenException.class);
+        verify(failingAction, times(2)).call();
+
+        // after the open duration, a trial call closes the circuit
+        nanoTime.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertThat(policy.withRetry(() -> "Success", 2)).isEqualTo("Success");
+        assertThat(circuitBreaker.isOpen()).isFalse();
+    }
+
+    @Test
+    void should_reopen_circuit_when_trial_call_fails() {
+        AtomicLong nanoTime = new AtomicLong();
+        RetryUtils.CircuitBreaker circuitBreaker =
+                new RetryUtils.CircuitBreaker(1, Duration.ofSeconds(10), nanoTime::get);
+
+        circuitBreaker.onFailure();
+        assertThat(circuitBreaker.isOpen()).isTrue();
+
+        nanoTime.addAndGet(Duration.ofSeconds(10).toNanos());
+        circuitBreaker.acquirePermission();
+        assertThatThrownBy(circuitBreaker::acquirePermission)
+                .isExactlyInstanceOf(RetryUtils.CircuitBreakerOpenException.class);
+
+        circuitBreaker.onFailure();
+        assertThat(circuitBreaker.isOpen()).isTrue();
+        assertThatThrownBy(circuitBreaker::acquirePermission)
+                .isExactlyInstanceOf(RetryUtils.CircuitBreakerOpenException.class);
+    }
+
+    @Test
+    void should_retry_asynchronously() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        Supplier<CompletableFuture<String>> action = () -> {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            if (attempts.incrementAndGet() < 3) {
+                future.completeExceptionally(new RuntimeException("attempt " + attempts.get()));
+            } else {
+                future.complete("Success");
+            }
+            return future;
+        };
+
+        RetryUtils.RetryPolicy policy = RetryUtils.retryPolicyBuilder()
+                .delayMillis(10)
+                .build();
+
+        assertThat(policy.withRetryAsync(action).get(10, SECONDS)).isEqualTo("Success");
+        assertThat(attempts).hasValue(3);
+
+        attempts.set(-10);
+        assertThatThrownBy(() -> policy.withRetryAsync(action).get(10, SECONDS))
+                .isExactlyInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("attempt -7");
+    }
+
+    @Test
+    void should_stop_retrying_when_interrupted() throws Exception {
+        @SuppressWarnings("unchecked")
+        Callable<String> mockAction = mock(Callable.class);
+        when(mockAction.call()).thenThrow(new RuntimeException());
+
+        RetryUtils.RetryPolicy policy = RetryUtils.retryPolicyBuilder()
+                .delayMillis(10_000)
+                .build();
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> policy.withRetry(mockAction, 3))
+                    .isInstanceOf(RuntimeException.class);
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+        verify(mockAction).call();
+    }
+
+    static class HttpException extends RuntimeException {
+
+        private final int statusCode;
+
+        HttpException(int statusCode) {
+            super("status code " + statusCode);
+            this.statusCode = statusCode;
+        }
+
+        public int statusCode() {
+            return statusCode;
+        }
+    }
+
+    @Test
+    void should_retry_only_transient_http_errors_by_default() {
+        assertThat(RetryUtils.isRetryable(new HttpException(400))).isFalse();
+        assertThat(RetryUtils.isRetryable(new HttpException(401))).isFalse();
+        assertThat(RetryUtils.isRetryable(new HttpException(404))).isFalse();
+        assertThat(RetryUtils.isRetryable(new RuntimeException(new HttpException(403)))).isFalse();
+
+        assertThat(RetryUtils.isRetryable(new HttpException(408))).isTrue();
+        assertThat(RetryUtils.isRetryable(new HttpException(429))).isTrue();
+        assertThat(RetryUtils.isRetryable(new HttpException(500))).isTrue();
+        assertThat(RetryUtils.isRetryable(new HttpException(503))).isTrue();
+        assertThat(RetryUtils.isRetryable(new RuntimeException("connection reset"))).isTrue();
+    }
+
+    @Test
+    void should_retry_all_exceptions_with_default_and_legacy_policies() {
+        AtomicInteger attempts = new AtomicInteger();
+        Callable<String> action = () -> {
+            if (attempts.incrementAndGet() < 2) {
+                throw new HttpException(400);
+            }
+            return "Success";
+        };
+
+        assertThat(RetryUtils.withRetry(action, 2)).isEqualTo("Success");
+        assertThat(attempts).hasValue(2);
+
+        attempts.set(0);
+        assertThat(new RetryUtils.RetryPolicy(2, 10, 0.2, 1.5).withRetry(action)).isEqualTo("Success");
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    void should_throw_exception_of_last_attempt_as_is() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        RetryUtils.RetryPolicy policy = RetryUtils.retryPolicyBuilder()
+                .delayMillis(10)
+                .build();
+
+        assertThatThrownBy(() -> policy.execute(() -> {
+            attempts.incrementAndGet();
+            throw new HttpException(400);
+        })).isExactlyInstanceOf(HttpException.class);
+        assertThat(attempts).hasValue(1);
+
+        assertThatThrownBy(() -> policy.execute(() -> {
+            attempts.incrementAndGet();
+            throw new HttpException(503);
+        })).isExactlyInstanceOf(HttpException.class);
+        assertThat(attempts).hasValue(4);
+    }
+}
@@ -0,0 +1,197 @@
+package dev.langchain4j.model.chat.cache;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.chat.TestStreamingResponseHandler;
+import dev.langchain4j.model.chat.mock.ChatModelMock;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ResponseFormat;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static dev.langchain4j.model.chat.request.ResponseFormatType.JSON;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingChatLanguageModelTest {
+
+    static final List<ChatMessage> MESSAGES = singletonList(UserMessage.from("What is the capital of Germany?"));
+
+    @Test
+    void should_call_model_only_on_cache_miss() {
+
+        // given
+        ChatLanguageModel delegate = spy(ChatModelMock.thatAlwaysResponds("Berlin"));
+        ChatResponseCache cache = ChatResponseCache.builder().build();
+        ChatLanguageModel model = new CachingChatLanguageModel(delegate, cache);
+
+        // when
+        Response<AiMessage> first = model.generate(MESSAGES);
+        Response<AiMessage> second = model.generate(MESSAGES);
+
+        // then
+        assertThat(second).isEqualTo(first);
+        assertThat(second.content().text()).isEqualTo("Berlin");
+        verify(delegate, times(1)).generate(MESSAGES);
+        assertThat(cache.hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_replay_cached_response_to_streaming_handler() {
+
+        // given
+        StreamingChatLanguageModel delegate = mock(StreamingChatLanguageModel.class);
+        doAnswer(invocation -> {
+            StreamingResponseHandler<AiMessage> handler = invocation.getArgument(1);
+            handler.onNext("Ber");
+            handler.onNext("lin");
+            handler.onComplete(Response.from(AiMessage.from("Berlin")));
+            return null;
+        }).when(delegate).generate(anyList(), any(StreamingResponseHandler.class));
+
+        StreamingChatLanguageModel model = new CachingStreamingChatLanguageModel(delegate, ChatResponseCache.builder().build());
+        TestStreamingResponseHandler<AiMessage> first = new TestStreamingResponseHandler<>();
+        model.generate(MESSAGES, first);
+
+        // when
+        TestStreamingResponseHandler<AiMessage> second = new TestStreamingResponseHandler<>();
+        model.generate(MESSAGES, second);
+
+        // then
+        assertThat(second.get()).isEqualTo(first.get());
+        verify(delegate, times(1)).generate(anyList(), any(StreamingResponseHandler.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_complete_streaming_response_when_caching_it_fails() {
+
+        // given
+        StreamingChatLanguageModel delegate = mock(StreamingChatLanguageModel.class);
+        doAnswer(invocation -> {
+            StreamingResponseHandler<AiMessage> handler = invocation.getArgument(1);
+            handler.onNext("Berlin");
+            handler.onComplete(Response.from(AiMessage.from("Berlin")));
+            return null;
+        }).when(delegate).generate(anyList(), any(StreamingResponseHandler.class));
+
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embed(any(String.class))).thenReturn(Response.from(Embedding.from(new float[]{1, 0})));
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+        when(embeddingStore.search(any())).thenReturn(new EmbeddingSearchResult<>(emptyList()));
+        when(embeddingStore.add(any(Embedding.class), any(TextSegment.class))).thenThrow(new RuntimeException("Unavailable"));
+
+        ChatResponseCache cache = ChatResponseCache.builder()
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .build();
+        StreamingChatLanguageModel model = new CachingStreamingChatLanguageModel(delegate, cache);
+
+        // when
+        TestStreamingResponseHandler<AiMessage> handler = new TestStreamingResponseHandler<>();
+        model.generate(MESSAGES, handler);
+
+        // then
+        assertThat(handler.get().content().text()).isEqualTo("Berlin");
+    }
+
+    @Test
+    void should_call_model_when_cache_lookup_fails() {
+
+        // given
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embed(any(String.class))).thenThrow(new RuntimeException("Unavailable"));
+        @SuppressWarnings("unchecked")
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+
+        ChatResponseCache cache = ChatResponseCache.builder()
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .build();
+        ChatLanguageModel model = new CachingChatLanguageModel(ChatModelMock.thatAlwaysResponds("Berlin"), cache);
+
+        // when
+        Response<AiMessage> response = model.generate(MESSAGES);
+
+        // then
+        assertThat(response.content().text()).isEqualTo("Berlin");
+    }
+
+    @Test
+    void should_return_response_when_caching_it_fails() {
+
+        // given
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embed(any(String.class))).thenReturn(Response.from(Embedding.from(new float[]{1, 0})));
+        @SuppressWarnings("unchecked")
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+        when(embeddingStore.search(any())).thenReturn(new EmbeddingSearchResult<>(emptyList()));
+        when(embeddingStore.add(any(Embedding.class), any(TextSegment.class))).thenThrow(new RuntimeException("Unavailable"));
+
+        ChatResponseCache cache = ChatResponseCache.builder()
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .build();
+        ChatLanguageModel model = new CachingChatLanguageModel(ChatModelMock.thatAlwaysResponds("Berlin"), cache);
+
+        // when
+        Response<AiMessage> response = model.generate(MESSAGES);
+
+        // then
+        assertThat(response.content().text()).isEqualTo("Berlin");
+    }
+
+    @Test
+    void should_cache_chat_requests_by_response_format() {
+
+        // given
+        ChatLanguageModel delegate = mock(ChatLanguageModel.class);
+        when(delegate.chat(any())).thenAnswer(invocation -> ChatResponse.builder()
+                .aiMessage(AiMessage.from(((ChatRequest) invocation.getArgument(0)).responseFormat() == null
+                        ? "Berlin"
+                        : "{\"city\":\"Berlin\"}"))
+                .build());
+        ChatLanguageModel model = new CachingChatLanguageModel(delegate, ChatResponseCache.builder().build());
+
+        ChatRequest textRequest = ChatRequest.builder()
+                .messages(MESSAGES)
+                .build();
+        ChatRequest jsonRequest = ChatRequest.builder()
+                .messages(MESSAGES)
+                .responseFormat(ResponseFormat.builder().type(JSON).build())
+                .build();
+        model.chat(textRequest);
+        model.chat(jsonRequest);
+
+        // when
+        ChatResponse text = model.chat(textRequest);
+        ChatResponse json = model.chat(jsonRequest);
+
+        // then
+        assertThat(text.aiMessage().text()).isEqualTo("Berlin");
+        assertThat(json.aiMessage().text()).isEqualTo("{\"city\":\"Berlin\"}");
+        verify(delegate, times(2)).chat(any());
+    }
+}
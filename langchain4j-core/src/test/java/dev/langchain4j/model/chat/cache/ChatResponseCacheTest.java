@@ -0,0 +1,173 @@
+package dev.langchain4j.model.chat.cache;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatResponseCacheTest {
+
+    static final Response<AiMessage> RESPONSE = Response.from(AiMessage.from("Berlin"));
+
+    @Test
+    void should_find_response_to_same_messages() {
+
+        // given
+        ChatResponseCache cache = ChatResponseCache.builder().build();
+        cache.put(messages("What is the capital of Germany?"), emptyList(), RESPONSE);
+
+        // when-then
+        assertThat(cache.get(messages("What is the capital of Germany?"), emptyList())).isEqualTo(RESPONSE);
+        assertThat(cache.get(messages("What is the capital of France?"), emptyList())).isNull();
+        assertThat(cache.get(singletonList(UserMessage.from("What is the capital of Germany?")), emptyList())).isNull();
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(2);
+    }
+
+    @Test
+    void should_evict_least_recently_used_responses() {
+
+        // given
+        ChatResponseCache cache = ChatResponseCache.builder()
+                .maxSize(2)
+                .build();
+        cache.put(messages("first"), emptyList(), RESPONSE);
+        cache.put(messages("second"), emptyList(), RESPONSE);
+        cache.get(messages("first"), emptyList());
+
+        // when
+        cache.put(messages("third"), emptyList(), RESPONSE);
+
+        // then
+        assertThat(cache.get(messages("first"), emptyList())).isNotNull();
+        assertThat(cache.get(messages("second"), emptyList())).isNull();
+        assertThat(cache.get(messages("third"), emptyList())).isNotNull();
+    }
+
+    @Test
+    void should_expire_responses() {
+
+        // given
+        ChatResponseCache cache = ChatResponseCache.builder()
+                .ttl(Duration.ofNanos(1))
+                .build();
+
+        // when
+        cache.put(messages("What is the capital of Germany?"), emptyList(), RESPONSE);
+
+        // then
+        assertThat(cache.get(messages("What is the capital of Germany?"), emptyList())).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_find_response_to_similar_user_message() {
+
+        // given
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embed(any(String.class))).thenReturn(Response.from(Embedding.from(new float[]{1, 0})));
+
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+        ArgumentCaptor<TextSegment> cachedSegment = ArgumentCaptor.forClass(TextSegment.class);
+        when(embeddingStore.add(any(Embedding.class), cachedSegment.capture())).thenReturn("embedding-id");
+
+        ChatResponseCache cache = ChatResponseCache.builder()
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .minScore(0.9)
+                .build();
+        cache.put(messages("What is the capital of Germany?"), emptyList(), RESPONSE);
+
+        when(embeddingStore.search(any())).thenReturn(new EmbeddingSearchResult<>(singletonList(
+                new EmbeddingMatch<>(0.97, "embedding-id", null, cachedSegment.getValue()))));
+
+        // when
+        Response<AiMessage> response = cache.get(messages("Which city is the capital of Germany?"), emptyList());
+
+        // then
+        assertThat(response).isEqualTo(RESPONSE);
+        ArgumentCaptor<EmbeddingSearchRequest> searchRequest = ArgumentCaptor.forClass(EmbeddingSearchRequest.class);
+        verify(embeddingStore).search(searchRequest.capture());
+        assertThat(searchRequest.getValue().minScore()).isEqualTo(0.9);
+        assertThat(searchRequest.getValue().filter().test(cachedSegment.getValue().metadata())).isTrue();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_remove_embeddings_of_evicted_responses() {
+
+        // given
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embed(any(String.class))).thenReturn(Response.from(Embedding.from(new float[]{1, 0})));
+
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+        when(embeddingStore.add(any(Embedding.class), any(TextSegment.class))).thenReturn("first-id", "second-id");
+
+        ChatResponseCache cache = ChatResponseCache.builder()
+                .maxSize(1)
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .build();
+
+        // when
+        cache.put(messages("first"), emptyList(), RESPONSE);
+        cache.put(messages("second"), emptyList(), RESPONSE);
+
+        // then
+        verify(embeddingStore).removeAll(singletonList("first-id"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_embed_user_message_once_on_miss() {
+
+        // given
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embed(any(String.class))).thenReturn(Response.from(Embedding.from(new float[]{1, 0})));
+
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+        when(embeddingStore.search(any())).thenReturn(new EmbeddingSearchResult<>(emptyList()));
+
+        ChatResponseCache cache = ChatResponseCache.builder()
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .build();
+
+        // when
+        ChatResponseCache.Lookup lookup = cache.lookup(messages("What is the capital of Germany?"), emptyList());
+        lookup.put(RESPONSE);
+
+        // then
+        assertThat(lookup.response()).isNull();
+        verify(embeddingModel, times(1)).embed(any(String.class));
+        verify(embeddingStore).add(any(Embedding.class), any(TextSegment.class));
+        assertThat(cache.get(messages("What is the capital of Germany?"), emptyList())).isEqualTo(RESPONSE);
+    }
+
+    private static List<ChatMessage> messages(String userMessage) {
+        return asList(SystemMessage.from("You are a geography teacher"), UserMessage.from(userMessage));
+    }
+}
@@ -0,0 +1,229 @@
+package dev.langchain4j.model.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+
+class CachingEmbeddingModelTest implements WithAssertions {
+
+    static class CountingEmbeddingModel implements EmbeddingModel {
+
+        final List<List<String>> calls = new ArrayList<>();
+
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+            calls.add(textSegments.stream().map(TextSegment::text).collect(toList()));
+            List<Embedding> embeddings = textSegments.stream()
+                    .map(segment -> Embedding.from(new float[]{segment.text().length(), segment.text().hashCode()}))
+                    .collect(toList());
+            return Response.from(embeddings, new TokenUsage(textSegments.size()));
+        }
+    }
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void should_embed_only_cache_misses_in_a_single_call() {
+
+        // given
+        CountingEmbeddingModel delegate = new CountingEmbeddingModel();
+        CachingEmbeddingModel model = CachingEmbeddingModel.builder()
+                .delegate(delegate)
+                .build();
+        model.embed("cached");
+
+        // when
+        Response<List<Embedding>> response = model.embedAll(asList(
+                TextSegment.from("first"),
+                TextSegment.from("cached"),
+                TextSegment.from("second"),
+                TextSegment.from("first")
+        ));
+
+        // then
+        assertThat(delegate.calls).containsExactly(asList("cached"), asList("first", "second"));
+        assertThat(response.content()).isEqualTo(new CountingEmbeddingModel().embedAll(asList(
+                TextSegment.from("first"),
+                TextSegment.from("cached"),
+                TextSegment.from("second"),
+                TextSegment.from("first")
+        )).content());
+        assertThat(response.tokenUsage()).isEqualTo(new TokenUsage(2));
+        assertThat(model.hitCount()).isEqualTo(1);
+        assertThat(model.missCount()).isEqualTo(4);
+    }
+
+    @Test
+    void should_not_call_delegate_when_all_embeddings_are_cached() {
+
+        // given
+        CountingEmbeddingModel delegate = new CountingEmbeddingModel();
+        CachingEmbeddingModel model = CachingEmbeddingModel.builder()
+                .delegate(delegate)
+                .build();
+        Embedding embedding = model.embed("text").content();
+
+        // when
+        Response<Embedding> response = model.embed("text");
+
+        // then
+        assertThat(response.content()).isEqualTo(embedding);
+        assertThat(response.tokenUsage()).isNull();
+        assertThat(delegate.calls).hasSize(1);
+    }
+
+    @Test
+    void should_evict_least_recently_used_embeddings() {
+
+        // given
+        CountingEmbeddingModel delegate = new CountingEmbeddingModel();
+        CachingEmbeddingModel model = CachingEmbeddingModel.builder()
+                .delegate(delegate)
+                .maxSize(2)
+                .build();
+        model.embed("first");
+        model.embed("second");
+        model.embed("first");
+
+        // when
+        model.embed("third");
+        model.embed("first");
+        model.embed("second");
+
+        // then
+        assertThat(delegate.calls).containsExactly(
+                asList("first"), asList("second"), asList("third"), asList("second"));
+    }
+
+    @Test
+    void should_keep_embeddings_on_disk() {
+
+        // given
+        CountingEmbeddingModel delegate = new CountingEmbeddingModel();
+        Embedding embedding = CachingEmbeddingModel.builder()
+                .delegate(delegate)
+                .modelName("model")
+                .directory(directory)
+                .build()
+                .embed("text")
+                .content();
+
+        // when
+        CachingEmbeddingModel restarted = CachingEmbeddingModel.builder()
+                .delegate(delegate)
+                .modelName("model")
+                .directory(directory)
+                .build();
+
+        // then
+        assertThat(restarted.embed("text").content()).isEqualTo(embedding);
+        assertThat(restarted.hitCount()).isEqualTo(1);
+        assertThat(delegate.calls).hasSize(1);
+
+        CachingEmbeddingModel otherModel = CachingEmbeddingModel.builder()
+                .delegate(delegate)
+                .modelName("other")
+                .directory(directory)
+                .build();
+        otherModel.embed("text");
+        assertThat(delegate.calls).hasSize(2);
+    }
+
+    @Test
+    void should_embed_again_when_entry_on_disk_is_corrupted() throws IOException {
+
+        // given
+        CountingEmbeddingModel delegate = new CountingEmbeddingModel();
+        Embedding embedding = CachingEmbeddingModel.builder()
+                .delegate(delegate)
+                .modelName("model")
+                .directory(directory)
+                .build()
+                .embed("text")
+                .content();
+        Path entry;
+        try (Stream<Path> files = Files.list(directory)) {
+            entry = files.findFirst().get();
+        }
+        Files.write(entry, new byte[]{0, 0, 1});
+
+        CachingEmbeddingModel restarted = CachingEmbeddingModel.builder()
+                .delegate(delegate)
+                .modelName("model")
+                .directory(directory)
+                .build();
+
+        // when
+        Response<Embedding> response = restarted.embed("text");
+
+        // then
+        assertThat(response.content()).isEqualTo(embedding);
+        assertThat(restarted.missCount()).isEqualTo(1);
+        assertThat(delegate.calls).hasSize(2);
+        assertThat(Files.size(entry)).isEqualTo(Integer.BYTES + 2L * Float.BYTES);
+    }
+
+    @Test
+    void should_embed_when_directory_cannot_be_used() throws IOException {
+
+        // given
+        CountingEmbeddingModel delegate = new CountingEmbeddingModel();
+        CachingEmbeddingModel model = CachingEmbeddingModel.builder()
+                .delegate(delegate)
+                .modelName("model")
+                .directory(directory.resolve("cache"))
+                .build();
+        // entries can neither be read nor written anymore
+        Files.delete(directory.resolve("cache"));
+        Files.createFile(directory.resolve("cache"));
+
+        // when
+        Embedding embedding = model.embed("text").content();
+
+        // then
+        assertThat(embedding.vector()[0]).isEqualTo(4f);
+        assertThat(model.embed("text").content()).isEqualTo(embedding);
+        assertThat(delegate.calls).hasSize(1);
+    }
+
+    @Test
+    void should_require_model_name_when_embeddings_are_cached_on_disk() {
+
+        assertThatThrownBy(() -> CachingEmbeddingModel.builder()
+                .delegate(new CountingEmbeddingModel())
+                .directory(directory)
+                .build())
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("modelName");
+    }
+
+    @Test
+    void should_not_share_cached_vectors() {
+
+        // given
+        CachingEmbeddingModel model = CachingEmbeddingModel.builder()
+                .delegate(new CountingEmbeddingModel())
+                .build();
+
+        // when
+        model.embed("text").content().normalize();
+
+        // then
+        assertThat(model.embed("text").content().vector()[0]).isEqualTo(4f);
+    }
+}
@@ -0,0 +1,211 @@
+package dev.langchain4j.model.hedging;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelRequest;
+import dev.langchain4j.model.chat.listener.ChatModelRequestContext;
+import dev.langchain4j.model.chat.listener.ChatModelResponse;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+import dev.langchain4j.model.output.Response;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mockito.Mockito.mock;
+
+class HedgingChatLanguageModelTest implements WithAssertions {
+
+    static class TestModel implements ChatLanguageModel {
+
+        final String answer;
+        final long delayMillis;
+        final RuntimeException error;
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch interrupted = new CountDownLatch(1);
+
+        TestModel(String answer, long delayMillis, RuntimeException error) {
+            this.answer = answer;
+            this.delayMillis = delayMillis;
+            this.error = error;
+        }
+
+        @Override
+        public Response<AiMessage> generate(List<ChatMessage> messages) {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new RuntimeException(e);
+            }
+            if (error != null) {
+                throw error;
+            }
+            return Response.from(AiMessage.from(answer));
+        }
+    }
+
+    @Test
+    void should_fail_over_to_next_model() {
+
+        // given
+        TestModel failing = new TestModel(null, 0, new RuntimeException("provider unavailable"));
+        TestModel working = new TestModel("second", 0, null);
+        ChatLanguageModel model = HedgingChatLanguageModel.builder()
+                .models(failing, working)
+                .build();
+
+        // when
+        String answer = model.generate("hello");
+
+        // then
+        assertThat(answer).isEqualTo("second");
+        assertThat(failing.calls).hasValue(1);
+        assertThat(working.calls).hasValue(1);
+    }
+
+    @Test
+    void should_not_call_next_model_when_first_one_succeeds() {
+
+        // given
+        TestModel first = new TestModel("first", 0, null);
+        TestModel second = new TestModel("second", 0, null);
+        ChatLanguageModel model = HedgingChatLanguageModel.builder()
+                .models(first, second)
+                .hedgingDelay(Duration.ofSeconds(10))
+                .build();
+
+        // when-then
+        assertThat(model.generate("hello")).isEqualTo("first");
+        assertThat(second.calls).hasValue(0);
+    }
+
+    @Test
+    void should_hedge_slow_request_and_cancel_it() throws Exception {
+
+        // given
+        TestModel slow = new TestModel("slow", 10_000, null);
+        TestModel fast = new TestModel("fast", 0, null);
+        ChatLanguageModel model = HedgingChatLanguageModel.builder()
+                .models(slow, fast)
+                .hedgingDelay(Duration.ofMillis(50))
+                .build();
+
+        // when
+        long start = System.nanoTime();
+        String answer = model.generate("hello");
+
+        // then
+        assertThat(answer).isEqualTo("fast");
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(5_000L);
+        assertThat(slow.interrupted.await(10, SECONDS)).isTrue();
+    }
+
+    @Test
+    void should_throw_last_failure_when_all_models_fail() {
+
+        // given
+        ChatLanguageModel model = HedgingChatLanguageModel.builder()
+                .models(
+                        new TestModel(null, 0, new RuntimeException("first failure")),
+                        new TestModel(null, 0, new IllegalStateException("second failure"))
+                )
+                .build();
+
+        // when-then
+        assertThatThrownBy(() -> model.generate("hello"))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessage("second failure")
+                .satisfies(e -> assertThat(e.getSuppressed()).extracting(Throwable::getMessage)
+                        .containsExactly("first failure"));
+    }
+
+    @Test
+    void should_learn_hedging_delay_from_latencies() {
+
+        // given
+        LatencyTracker latencyTracker = new LatencyTracker();
+        HedgingChatLanguageModel model = HedgingChatLanguageModel.builder()
+                .models(new TestModel("first", 0, null), new TestModel("second", 0, null))
+                .hedgingDelay(Duration.ofSeconds(1))
+                .latencyTracker(latencyTracker)
+                .hedgingPercentile(0.9)
+                .build();
+        assertThat(model.hedgingDelay()).isEqualTo(Duration.ofSeconds(1));
+
+        // when
+        for (int i = 1; i <= 20; i++) {
+            latencyTracker.record(Duration.ofMillis(i * 10));
+        }
+
+        // then
+        assertThat(model.hedgingDelay()).isEqualTo(Duration.ofMillis(180));
+    }
+
+    @Test
+    void should_record_latency_of_cancelled_calls() {
+
+        // given
+        LatencyTracker latencyTracker = new LatencyTracker();
+        ChatLanguageModel model = HedgingChatLanguageModel.builder()
+                .models(new TestModel("first", 5_000, null), new TestModel("second", 0, null))
+                .hedgingDelay(Duration.ofMillis(100))
+                .latencyTracker(latencyTracker)
+                .build();
+
+        // when
+        String answer = model.generate("hello");
+
+        // then
+        assertThat(answer).isEqualTo("second");
+        assertThat(latencyTracker.sampleCount()).isEqualTo(2);
+        assertThat(latencyTracker.percentile(1)).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    void should_record_latency_once_when_tracker_is_also_listener_of_called_model() {
+
+        // given
+        LatencyTracker latencyTracker = new LatencyTracker();
+        TestModel listenedModel = new TestModel("first", 0, null) {
+
+            @Override
+            public Response<AiMessage> generate(List<ChatMessage> messages) {
+                notifyListener(latencyTracker);
+                return super.generate(messages);
+            }
+        };
+        ChatLanguageModel model = HedgingChatLanguageModel.builder()
+                .models(listenedModel, new TestModel("second", 0, null))
+                .latencyTracker(latencyTracker)
+                .build();
+
+        // when
+        model.generate("hello");
+
+        // then
+        assertThat(latencyTracker.sampleCount()).isEqualTo(1);
+
+        // when
+        listenedModel.generate("hello");
+
+        // then
+        assertThat(latencyTracker.sampleCount()).isEqualTo(2);
+    }
+
+    private static void notifyListener(ChatModelListener listener) {
+        Map<Object, Object> attributes = new HashMap<>();
+        ChatModelRequest request = mock(ChatModelRequest.class);
+        listener.onRequest(new ChatModelRequestContext(request, attributes));
+        listener.onResponse(new ChatModelResponseContext(mock(ChatModelResponse.class), request, attributes));
+    }
+}
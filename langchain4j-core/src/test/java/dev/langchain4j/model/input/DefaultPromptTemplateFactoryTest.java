@@ -0,0 +1,53 @@
+package dev.langchain4j.model.input;
+
+import dev.langchain4j.model.input.DefaultPromptTemplateFactory.DefaultTemplate;
+import dev.langchain4j.spi.prompt.PromptTemplateFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DefaultPromptTemplateFactoryTest {
+
+    private final DefaultPromptTemplateFactory factory = new DefaultPromptTemplateFactory();
+
+    @Test
+    void should_reuse_compiled_template_with_same_text() {
+
+        DefaultTemplate template = factory.create(input("Hello {{name}}!"));
+
+        assertThat(factory.create(input("Hello {{name}}!"))).isSameAs(template);
+        assertThat(factory.create(input("Hello {{other}}!"))).isNotSameAs(template);
+    }
+
+    @Test
+    void should_not_cache_templates_without_variables() {
+
+        DefaultTemplate template = factory.create(input("Hello world!"));
+
+        assertThat(factory.create(input("Hello world!"))).isNotSameAs(template);
+    }
+
+    @Test
+    void should_render_variables_at_start_and_end_of_template() {
+
+        // given
+        DefaultTemplate template = factory.create(input("{{greeting}}, {{name}}"));
+
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("greeting", "Hello");
+        variables.put("name", 42);
+
+        // when
+        String rendered = template.render(variables);
+
+        // then
+        assertThat(rendered).isEqualTo("Hello, 42");
+    }
+
+    private static PromptTemplateFactory.Input input(String template) {
+        return () -> template;
+    }
+}
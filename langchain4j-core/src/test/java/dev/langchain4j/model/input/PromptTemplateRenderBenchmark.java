@@ -0,0 +1,56 @@
+package dev.langchain4j.model.input;
+
+import dev.langchain4j.benchmark.Benchmark;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Measures the rendering of a small prompt template, and of a large RAG prompt template with many variables.
+ * <p>
+ * Run with:
+ * <pre>
+ * mvn -pl langchain4j-core test -Dtest=PromptTemplateRenderBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * </pre>
+ */
+class PromptTemplateRenderBenchmark {
+
+    private static final int RAG_VARIABLES = 50;
+    private static final int RAG_VARIABLE_LENGTH = 2_000;
+
+    @Test
+    void render() {
+        String smallTemplate = "Tell me a {{adjective}} joke about {{content}}";
+        Map<String, Object> smallVariables = new HashMap<>();
+        smallVariables.put("adjective", "funny");
+        smallVariables.put("content", "computers");
+
+        StringBuilder ragTemplate = new StringBuilder("Answer the question using the following information:\n");
+        Map<String, Object> ragVariables = new HashMap<>();
+        for (int i = 0; i < RAG_VARIABLES; i++) {
+            ragTemplate.append("Source ").append(i).append(": {{source").append(i).append("}}\n");
+            ragVariables.put("source" + i, repeat((char) ('a' + i % 26), RAG_VARIABLE_LENGTH));
+        }
+        ragTemplate.append("Question: {{question}}");
+        ragVariables.put("question", "What is the answer?");
+
+        PromptTemplate small = PromptTemplate.from(smallTemplate);
+        PromptTemplate rag = PromptTemplate.from(ragTemplate.toString());
+        String ragTemplateText = ragTemplate.toString();
+
+        Benchmark.nanosPerOperation("small template, apply", () -> small.apply(smallVariables));
+        Benchmark.nanosPerOperation("small template, from + apply", () -> PromptTemplate.from(smallTemplate).apply(smallVariables));
+        Benchmark.nanosPerOperation("RAG template (" + RAG_VARIABLES + " variables), apply", () -> rag.apply(ragVariables));
+        Benchmark.nanosPerOperation("RAG template (" + RAG_VARIABLES + " variables), from + apply",
+                () -> PromptTemplate.from(ragTemplateText).apply(ragVariables));
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder sb = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
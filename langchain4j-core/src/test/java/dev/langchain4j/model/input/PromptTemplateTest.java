@@ -91,6 +91,23 @@ class PromptTemplateTest {
         assertThat(prompt.text()).isEqualTo("My name is Klaus, call me Klaus.");
     }
 
+    @Test
+    void should_not_render_variables_contained_in_values() {
+
+        // given
+        PromptTemplate promptTemplate = PromptTemplate.from("Context: {{context}}\nQuestion: {{question}}");
+
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("context", "Answer {{question}}");
+        variables.put("question", "What is the capital of Germany?");
+
+        // when
+        Prompt prompt = promptTemplate.apply(variables);
+
+        // then
+        assertThat(prompt.text()).isEqualTo("Context: Answer {{question}}\nQuestion: What is the capital of Germany?");
+    }
+
     @Test
     void should_fail_when_value_is_missing() {
 
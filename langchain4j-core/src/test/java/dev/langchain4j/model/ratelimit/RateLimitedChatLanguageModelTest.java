@@ -0,0 +1,118 @@
+package dev.langchain4j.model.ratelimit;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.chat.TokenCountEstimator;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static dev.langchain4j.data.message.UserMessage.userMessage;
+import static java.util.Collections.singletonList;
+
+class RateLimitedChatLanguageModelTest implements WithAssertions {
+
+    static class EstimatingChatModel implements ChatLanguageModel, TokenCountEstimator {
+
+        final List<Integer> estimates = new ArrayList<>();
+
+        @Override
+        public Response<AiMessage> generate(List<ChatMessage> messages) {
+            if (messages.size() > 1) {
+                throw new IllegalStateException("too many messages");
+            }
+            return Response.from(AiMessage.from("answer"), new TokenUsage(100, 20));
+        }
+
+        @Override
+        public int estimateTokenCount(List<ChatMessage> messages) {
+            int estimate = 300 * messages.size();
+            estimates.add(estimate);
+            return estimate;
+        }
+    }
+
+    @Test
+    void should_estimate_tokens_with_delegate_and_release_permit() {
+
+        // given
+        EstimatingChatModel delegate = new EstimatingChatModel();
+        RateLimiter rateLimiter = RateLimiter.builder()
+                .tokensPerMinute(600)
+                .maxConcurrentRequests(1)
+                .build();
+        ChatLanguageModel model = new RateLimitedChatLanguageModel(delegate, rateLimiter);
+
+        // when
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            // each request reserves 300 tokens, but uses 120: the third one would wait without the correction
+            assertThat(model.generate("question")).isEqualTo("answer");
+        }
+
+        // then
+        assertThat(delegate.estimates).containsExactly(300, 300, 300);
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(1_000L);
+        assertThat(rateLimiter.inFlightRequests()).isZero();
+    }
+
+    @Test
+    void should_release_permit_when_request_fails() {
+
+        // given
+        RateLimiter rateLimiter = RateLimiter.builder()
+                .maxConcurrentRequests(1)
+                .build();
+        ChatLanguageModel model = new RateLimitedChatLanguageModel(new EstimatingChatModel(), rateLimiter);
+
+        // when-then
+        assertThatThrownBy(() -> model.generate(userMessage("first"), userMessage("second")))
+                .hasMessage("too many messages");
+        assertThat(rateLimiter.inFlightRequests()).isZero();
+    }
+
+    @Test
+    void should_keep_streaming_request_in_flight_until_response_is_complete() {
+
+        // given
+        AtomicReference<StreamingResponseHandler<AiMessage>> pendingHandler = new AtomicReference<>();
+        StreamingChatLanguageModel delegate = (messages, handler) -> pendingHandler.set(handler);
+        RateLimiter rateLimiter = RateLimiter.builder()
+                .maxConcurrentRequests(1)
+                .build();
+        StreamingChatLanguageModel model = new RateLimitedStreamingChatLanguageModel(delegate, rateLimiter);
+        AtomicReference<Response<AiMessage>> completed = new AtomicReference<>();
+
+        // when
+        model.generate(singletonList(userMessage("question")), new StreamingResponseHandler<AiMessage>() {
+
+            @Override
+            public void onNext(String token) {
+            }
+
+            @Override
+            public void onComplete(Response<AiMessage> response) {
+                completed.set(response);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+            }
+        });
+
+        // then
+        assertThat(rateLimiter.inFlightRequests()).isEqualTo(1);
+
+        pendingHandler.get().onComplete(Response.from(AiMessage.from("answer")));
+        assertThat(completed.get().content().text()).isEqualTo("answer");
+        assertThat(rateLimiter.inFlightRequests()).isZero();
+    }
+}
@@ -0,0 +1,146 @@
+package dev.langchain4j.model.ratelimit;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+class RateLimiterTest implements WithAssertions {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void should_limit_concurrent_requests() throws Exception {
+
+        // given
+        RateLimiter rateLimiter = RateLimiter.builder()
+                .maxConcurrentRequests(2)
+                .build();
+        RateLimiter.Permit first = rateLimiter.acquire(0);
+        RateLimiter.Permit second = rateLimiter.acquire(0);
+
+        // when
+        Future<RateLimiter.Permit> third = executor.submit(() -> rateLimiter.acquire(0));
+        awaitWaitingRequests(rateLimiter, 1);
+
+        // then
+        assertThat(third).isNotDone();
+        assertThat(rateLimiter.inFlightRequests()).isEqualTo(2);
+
+        first.release();
+        first.release();
+        assertThat(third.get(10, SECONDS)).isNotNull();
+        assertThat(rateLimiter.inFlightRequests()).isEqualTo(2);
+
+        second.release();
+        assertThat(rateLimiter.inFlightRequests()).isEqualTo(1);
+    }
+
+    @Test
+    void should_admit_requests_in_arrival_order() throws Exception {
+
+        // given
+        RateLimiter rateLimiter = RateLimiter.builder()
+                .maxConcurrentRequests(1)
+                .build();
+        RateLimiter.Permit permit = rateLimiter.acquire(0);
+        List<Integer> admitted = new CopyOnWriteArrayList<>();
+        BlockingQueue<RateLimiter.Permit> permits = new LinkedBlockingQueue<>();
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            int request = i;
+            executor.submit(() -> {
+                RateLimiter.Permit requestPermit = rateLimiter.acquire(0);
+                admitted.add(request);
+                permits.add(requestPermit);
+            });
+            awaitWaitingRequests(rateLimiter, i + 1);
+        }
+        permit.release();
+        for (int i = 0; i < 5; i++) {
+            RateLimiter.Permit requestPermit = permits.poll(10, SECONDS);
+            // the request is in flight, the next ones wait for its permit
+            assertThat(admitted).hasSize(i + 1);
+            requestPermit.release();
+        }
+
+        // then
+        assertThat(admitted).containsExactly(0, 1, 2, 3, 4);
+    }
+
+    @Test
+    void should_wait_for_tokens_to_refill() {
+
+        // given
+        RateLimiter rateLimiter = RateLimiter.builder()
+                .tokensPerMinute(600) // 10 tokens per second
+                .build();
+        rateLimiter.acquire(600).release();
+
+        // when
+        long start = System.nanoTime();
+        rateLimiter.acquire(5).release();
+        long waitedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // then
+        assertThat(waitedMillis).isBetween(400L, 5_000L);
+    }
+
+    @Test
+    void should_correct_estimated_tokens_with_actual_tokens() {
+
+        // given
+        RateLimiter rateLimiter = RateLimiter.builder()
+                .tokensPerMinute(600)
+                .build();
+
+        // when
+        rateLimiter.acquire(600).release(10);
+
+        // then
+        long start = System.nanoTime();
+        rateLimiter.acquire(500).release();
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(400L);
+    }
+
+    @Test
+    void should_fail_when_waiting_longer_than_max_wait_time() {
+
+        // given
+        RateLimiter rateLimiter = RateLimiter.builder()
+                .requestsPerMinute(1)
+                .maxWaitTime(Duration.ofMillis(100))
+                .build();
+        rateLimiter.acquire(0).release();
+
+        // when-then
+        assertThatThrownBy(() -> rateLimiter.acquire(0))
+                .isExactlyInstanceOf(RateLimitExceededException.class)
+                .hasMessage("The request could not be sent within 100 ms");
+        assertThat(rateLimiter.waitingRequests()).isZero();
+    }
+
+    private static void awaitWaitingRequests(RateLimiter rateLimiter, int waitingRequests) throws InterruptedException {
+        long deadline = System.nanoTime() + SECONDS.toNanos(10);
+        while (rateLimiter.waitingRequests() != waitingRequests && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(rateLimiter.waitingRequests()).isEqualTo(waitingRequests);
+    }
+}
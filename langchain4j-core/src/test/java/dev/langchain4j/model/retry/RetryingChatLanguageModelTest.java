@@ -0,0 +1,127 @@
+package dev.langchain4j.model.retry;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.internal.RetryUtils;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.singletonList;
+
+class RetryingChatLanguageModelTest implements WithAssertions {
+
+    static class HttpException extends RuntimeException {
+
+        private final int statusCode;
+
+        HttpException(int statusCode) {
+            super("status code " + statusCode);
+            this.statusCode = statusCode;
+        }
+
+        public int statusCode() {
+            return statusCode;
+        }
+    }
+
+    static final RetryUtils.RetryPolicy RETRY_POLICY = RetryUtils.retryPolicyBuilder()
+            .maxAttempts(3)
+            .delayMillis(10)
+            .build();
+
+    @Test
+    void should_retry_transient_failures() {
+
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+        ChatLanguageModel delegate = new ChatLanguageModel() {
+
+            @Override
+            public Response<AiMessage> generate(List<ChatMessage> messages) {
+                if (attempts.incrementAndGet() < 3) {
+                    throw new HttpException(429);
+                }
+                return Response.from(AiMessage.from("answer"));
+            }
+        };
+        ChatLanguageModel model = new RetryingChatLanguageModel(delegate, RETRY_POLICY);
+
+        // when
+        String answer = model.generate("question");
+
+        // then
+        assertThat(answer).isEqualTo("answer");
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void should_not_retry_invalid_request() {
+
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+        ChatLanguageModel delegate = new ChatLanguageModel() {
+
+            @Override
+            public Response<AiMessage> generate(List<ChatMessage> messages) {
+                attempts.incrementAndGet();
+                throw new HttpException(400);
+            }
+        };
+        ChatLanguageModel model = new RetryingChatLanguageModel(delegate, RETRY_POLICY);
+
+        // when-then
+        assertThatThrownBy(() -> model.generate("question"))
+                .isExactlyInstanceOf(HttpException.class)
+                .hasMessage("status code 400");
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void should_not_retry_invalid_request_by_default() {
+
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+        ChatLanguageModel delegate = new ChatLanguageModel() {
+
+            @Override
+            public Response<AiMessage> generate(List<ChatMessage> messages) {
+                attempts.incrementAndGet();
+                throw new HttpException(401);
+            }
+        };
+        ChatLanguageModel model = new RetryingChatLanguageModel(delegate);
+
+        // when-then
+        assertThatThrownBy(() -> model.generate("question"))
+                .isExactlyInstanceOf(HttpException.class);
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void should_retry_embedding_requests() {
+
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+        EmbeddingModel delegate = textSegments -> {
+            if (attempts.incrementAndGet() < 2) {
+                throw new HttpException(503);
+            }
+            return Response.from(singletonList(Embedding.from(new float[]{1, 2})));
+        };
+        EmbeddingModel model = new RetryingEmbeddingModel(delegate, RETRY_POLICY);
+
+        // when
+        Embedding embedding = model.embed("text").content();
+
+        // then
+        assertThat(embedding.vector()).containsExactly(1, 2);
+        assertThat(attempts).hasValue(2);
+    }
+}
@@ -9,11 +9,23 @@ import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.data.segment.TextSegmentTransformer;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import dev.langchain4j.store.embedding.filter.Filter;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
 
 import static dev.langchain4j.data.segment.TextSegment.textSegment;
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 class EmbeddingStoreIngestorTest {
@@ -199,4 +211,390 @@ class EmbeddingStoreIngestorTest {
         verify(embeddingStore).addAll(singletonList(expectedEmbedding), singletonList(expectedTextSegment));
         verifyNoMoreInteractions(embeddingStore);
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_embed_and_store_segments_in_batches() {
+
+        // given
+        List<Document> documents = asList(
+                Document.from("First sentence. Second sentence."),
+                Document.from("Third sentence.")
+        );
+
+        DocumentSplitter documentSplitter = mock(DocumentSplitter.class);
+        when(documentSplitter.split(documents.get(0)))
+                .thenReturn(asList(textSegment("First sentence."), textSegment("Second sentence.")));
+        when(documentSplitter.split(documents.get(1)))
+                .thenReturn(singletonList(textSegment("Third sentence.")));
+
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embedAll(asList(textSegment("First sentence."), textSegment("Second sentence."))))
+                .thenReturn(Response.from(asList(Embedding.from(new float[]{1}), Embedding.from(new float[]{2})),
+                        new TokenUsage(4)));
+        when(embeddingModel.embedAll(singletonList(textSegment("Third sentence."))))
+                .thenReturn(Response.from(singletonList(Embedding.from(new float[]{3})), new TokenUsage(2)));
+
+        @SuppressWarnings("unchecked")
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+
+        EmbeddingStoreIngestor ingestor = EmbeddingStoreIngestor.builder()
+                .documentSplitter(documentSplitter)
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .batchSize(2)
+                .build();
+
+        // when
+        IngestionResult result = ingestor.ingestWithResult(documents);
+
+        // then
+        verify(documentSplitter).split(documents.get(0));
+        verify(documentSplitter).split(documents.get(1));
+        verifyNoMoreInteractions(documentSplitter);
+
+        verify(embeddingStore).addAll(
+                asList(Embedding.from(new float[]{1}), Embedding.from(new float[]{2})),
+                asList(textSegment("First sentence."), textSegment("Second sentence.")));
+        verify(embeddingStore).addAll(
+                singletonList(Embedding.from(new float[]{3})),
+                singletonList(textSegment("Third sentence.")));
+        verifyNoMoreInteractions(embeddingStore);
+
+        assertThat(result.documentCount()).isEqualTo(2);
+        assertThat(result.segmentCount()).isEqualTo(3);
+        assertThat(result.batchCount()).isEqualTo(2);
+        assertThat(result.failedBatches()).isEmpty();
+        assertThat(result.tokenUsage()).isEqualTo(new TokenUsage(6));
+    }
+
+    @Test
+    void should_embed_and_store_batches_concurrently() {
+
+        // given
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embedAll(any()))
+                .thenAnswer(invocation -> Response.from(singletonList(Embedding.from(new float[]{1}))));
+
+        @SuppressWarnings("unchecked")
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        EmbeddingStoreIngestor ingestor = EmbeddingStoreIngestor.builder()
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .batchSize(1)
+                .executor(executor)
+                .maxConcurrency(2)
+                .build();
+
+        try {
+            // when
+            IngestionResult result = ingestor.ingestWithResult(
+                    Document.from("first"), Document.from("second"), Document.from("third"));
+
+            // then
+            verify(embeddingModel, times(3)).embedAll(any());
+            verify(embeddingStore, times(3)).addAll(any(), any());
+            assertThat(result.segmentCount()).isEqualTo(3);
+            assertThat(result.batchCount()).isEqualTo(3);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void should_retry_failed_batch() {
+
+        // given
+        TextSegment segment = TextSegment.from("Some text", Metadata.from("index", "0"));
+        Embedding embedding = Embedding.from(new float[]{1});
+
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embedAll(singletonList(segment)))
+                .thenThrow(new RuntimeException("Temporary failure"))
+                .thenReturn(Response.from(singletonList(embedding)));
+
+        @SuppressWarnings("unchecked")
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+
+        EmbeddingStoreIngestor ingestor = EmbeddingStoreIngestor.builder()
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .batchSize(10)
+                .maxAttempts(2)
+                .build();
+
+        // when
+        IngestionResult result = ingestor.ingestWithResult(Document.from("Some text"));
+
+        // then
+        verify(embeddingModel, times(2)).embedAll(singletonList(segment));
+        verify(embeddingStore).addAll(singletonList(embedding), singletonList(segment));
+        assertThat(result.failedBatches()).isEmpty();
+    }
+
+    @Test
+    void should_report_failed_batches_when_continuing_on_failure() {
+
+        // given
+        TextSegment failing = TextSegment.from("failing", Metadata.from("index", "0"));
+        TextSegment succeeding = TextSegment.from("succeeding", Metadata.from("index", "0"));
+        RuntimeException exception = new RuntimeException("Permanent failure");
+
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embedAll(singletonList(failing))).thenThrow(exception);
+        when(embeddingModel.embedAll(singletonList(succeeding)))
+                .thenReturn(Response.from(singletonList(Embedding.from(new float[]{1}))));
+
+        @SuppressWarnings("unchecked")
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+
+        EmbeddingStoreIngestor ingestor = EmbeddingStoreIngestor.builder()
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .batchSize(1)
+                .continueOnFailure(true)
+                .build();
+
+        // when
+        IngestionResult result = ingestor.ingestWithResult(Document.from("failing"), Document.from("succeeding"));
+
+        // then
+        assertThat(result.segmentCount()).isEqualTo(1);
+        assertThat(result.batchCount()).isEqualTo(2);
+        assertThat(result.failedBatches()).hasSize(1);
+        assertThat(result.failedBatches().get(0).segments()).containsExactly(failing);
+        assertThat(result.failedBatches().get(0).exception()).isSameAs(exception);
+        verify(embeddingStore).addAll(singletonList(Embedding.from(new float[]{1})), singletonList(succeeding));
+        verifyNoMoreInteractions(embeddingStore);
+    }
+
+    @Test
+    void should_stop_at_first_failed_batch() {
+
+        // given
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embedAll(any())).thenThrow(new IllegalStateException("Permanent failure"));
+
+        @SuppressWarnings("unchecked")
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+
+        EmbeddingStoreIngestor ingestor = EmbeddingStoreIngestor.builder()
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .batchSize(1)
+                .build();
+
+        // when-then
+        assertThatThrownBy(() -> ingestor.ingest(Document.from("first"), Document.from("second")))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessage("Permanent failure");
+        verify(embeddingModel, times(1)).embedAll(any());
+        verifyNoInteractions(embeddingStore);
+    }
+
+    @Test
+    void should_ingest_documents_lazily_from_stream() {
+
+        // given
+        Document first = Document.from("first");
+        Document second = Document.from("second");
+
+        DocumentSplitter documentSplitter = mock(DocumentSplitter.class);
+        when(documentSplitter.split(any()))
+                .thenAnswer(invocation -> singletonList(invocation.<Document>getArgument(0).toTextSegment()));
+
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embedAll(any()))
+                .thenAnswer(invocation -> Response.from(singletonList(Embedding.from(new float[]{1}))));
+
+        @SuppressWarnings("unchecked")
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+
+        EmbeddingStoreIngestor ingestor = EmbeddingStoreIngestor.builder()
+                .documentSplitter(documentSplitter)
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .batchSize(1)
+                .build();
+
+        // when
+        IngestionResult result = ingestor.ingest(Stream.of(first, second));
+
+        // then
+        InOrder inOrder = inOrder(documentSplitter, embeddingStore);
+        inOrder.verify(documentSplitter).split(first);
+        inOrder.verify(embeddingStore).addAll(any(), eq(singletonList(first.toTextSegment())));
+        inOrder.verify(documentSplitter).split(second);
+        inOrder.verify(embeddingStore).addAll(any(), eq(singletonList(second.toTextSegment())));
+        assertThat(result.documentCount()).isEqualTo(2);
+        assertThat(result.segmentCount()).isEqualTo(2);
+    }
+
+    @Test
+    void should_ingest_only_changed_documents_and_segments() {
+
+        // given
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embedAll(any())).thenAnswer(invocation -> {
+            List<TextSegment> segments = invocation.getArgument(0);
+            return Response.from(segments.stream()
+                    .map(segment -> Embedding.from(new float[]{segment.text().length()}))
+                    .collect(toList()));
+        });
+
+        @SuppressWarnings("unchecked")
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+
+        IngestionManifest manifest = new InMemoryIngestionManifest();
+        EmbeddingStoreIngestor ingestor = EmbeddingStoreIngestor.builder()
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .manifest(manifest)
+                .build();
+
+        Document unchanged = Document.from("unchanged", Metadata.from("document_id", "1"));
+        Document changed = Document.from("before", Metadata.from("document_id", "2"));
+        ingestor.ingest(unchanged, changed);
+        IngestionManifest.Entry unchangedEntry = manifest.get("1");
+        IngestionManifest.Entry changedEntry = manifest.get("2");
+        clearInvocations(embeddingModel, embeddingStore);
+
+        // when
+        IngestionResult result = ingestor.ingestWithResult(
+                unchanged,
+                Document.from("after", Metadata.from("document_id", "2")));
+
+        // then
+        assertThat(result.segmentCount()).isEqualTo(1);
+        assertThat(result.skippedSegmentCount()).isEqualTo(1);
+
+        verify(embeddingModel).embedAll(argThat(segments -> segments.size() == 1
+                && segments.get(0).text().equals("after")
+                && segments.get(0).metadata().getString("document_id").equals("2")
+                && segments.get(0).metadata().containsKey("content_hash")));
+        verify(embeddingStore).addAll(any(), any());
+        verify(embeddingStore).removeAll(any(Filter.class));
+        verifyNoMoreInteractions(embeddingStore);
+
+        assertThat(manifest.get("1")).isEqualTo(unchangedEntry);
+        assertThat(manifest.get("2")).isNotEqualTo(changedEntry);
+        assertThat(manifest.get("2").segmentHashes()).hasSize(1);
+    }
+
+    @Test
+    void should_remove_documents_missing_from_ingestion() {
+
+        // given
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embedAll(any())).thenAnswer(invocation -> {
+            List<TextSegment> segments = invocation.getArgument(0);
+            return Response.from(segments.stream()
+                    .map(segment -> Embedding.from(new float[]{segment.text().length()}))
+                    .collect(toList()));
+        });
+
+        @SuppressWarnings("unchecked")
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+
+        IngestionManifest manifest = new InMemoryIngestionManifest();
+        EmbeddingStoreIngestor ingestor = EmbeddingStoreIngestor.builder()
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .manifest(manifest)
+                .removeMissingDocuments(true)
+                .build();
+
+        Document first = Document.from("first", Metadata.from("document_id", "1"));
+        Document second = Document.from("second", Metadata.from("document_id", "2"));
+        Document third = Document.from("third", Metadata.from("document_id", "3"));
+        ingestor.ingest(first, second, third);
+        clearInvocations(embeddingModel, embeddingStore);
+
+        // when
+        ingestor.ingest(first, third);
+
+        // then
+        verifyNoInteractions(embeddingModel);
+        verify(embeddingStore).removeAll(metadataKey("document_id").isIn(singletonList("2")));
+        verifyNoMoreInteractions(embeddingStore);
+        assertThat(manifest.documentIds()).containsExactlyInAnyOrder("1", "3");
+    }
+
+    @Test
+    void should_keep_documents_missing_from_ingestion_by_default() {
+
+        // given
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embedAll(any())).thenAnswer(invocation -> {
+            List<TextSegment> segments = invocation.getArgument(0);
+            return Response.from(segments.stream()
+                    .map(segment -> Embedding.from(new float[]{segment.text().length()}))
+                    .collect(toList()));
+        });
+
+        @SuppressWarnings("unchecked")
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+
+        IngestionManifest manifest = new InMemoryIngestionManifest();
+        EmbeddingStoreIngestor ingestor = EmbeddingStoreIngestor.builder()
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .manifest(manifest)
+                .build();
+
+        Document first = Document.from("first", Metadata.from("document_id", "1"));
+        ingestor.ingest(first, Document.from("second", Metadata.from("document_id", "2")));
+        clearInvocations(embeddingModel, embeddingStore);
+
+        // when
+        ingestor.ingest(first);
+
+        // then
+        verifyNoInteractions(embeddingStore);
+        assertThat(manifest.documentIds()).containsExactlyInAnyOrder("1", "2");
+    }
+
+    @Test
+    void should_not_record_document_in_manifest_when_its_segments_fail() {
+
+        // given
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embedAll(any())).thenThrow(new RuntimeException("Permanent failure"));
+
+        @SuppressWarnings("unchecked")
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+
+        IngestionManifest manifest = new InMemoryIngestionManifest();
+        EmbeddingStoreIngestor ingestor = EmbeddingStoreIngestor.builder()
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .manifest(manifest)
+                .continueOnFailure(true)
+                .build();
+
+        // when
+        IngestionResult result = ingestor.ingestWithResult(Document.from("text", Metadata.from("document_id", "1")));
+
+        // then
+        assertThat(result.failedBatches()).hasSize(1);
+        assertThat(manifest.get("1")).isNull();
+    }
+
+    @Test
+    void should_fail_incremental_ingestion_of_document_without_id() {
+
+        // given
+        EmbeddingStoreIngestor ingestor = EmbeddingStoreIngestor.builder()
+                .embeddingModel(mock(EmbeddingModel.class))
+                .embeddingStore(mock(EmbeddingStore.class))
+                .manifest(new InMemoryIngestionManifest())
+                .documentIdKey("file_name")
+                .build();
+
+        // when-then
+        assertThatThrownBy(() -> ingestor.ingest(Document.from("text")))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("'file_name'");
+    }
+}
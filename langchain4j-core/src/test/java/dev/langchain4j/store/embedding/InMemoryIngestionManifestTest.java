@@ -0,0 +1,101 @@
+package dev.langchain4j.store.embedding;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InMemoryIngestionManifestTest {
+
+    @Test
+    void should_serialize_to_and_deserialize_from_json() {
+
+        // given
+        InMemoryIngestionManifest manifest = new InMemoryIngestionManifest();
+        manifest.put("1", new IngestionManifest.Entry("hash", new LinkedHashSet<>(asList("first", "second"))));
+        manifest.put("2", new IngestionManifest.Entry("other hash", new LinkedHashSet<>()));
+
+        // when
+        String json = manifest.serializeToJson();
+        InMemoryIngestionManifest deserialized = InMemoryIngestionManifest.fromJson(json);
+
+        // then
+        assertThat(deserialized).isEqualTo(manifest);
+        assertThat(deserialized.get("1").segmentHashes()).containsExactly("first", "second");
+    }
+
+    @Test
+    void should_record_documents_ingested_concurrently_in_deserialized_manifest() {
+
+        // given
+        InMemoryIngestionManifest manifest = InMemoryIngestionManifest.fromJson(
+                new InMemoryIngestionManifest().serializeToJson());
+
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embedAll(any())).thenAnswer(invocation -> {
+            List<TextSegment> segments = invocation.getArgument(0);
+            return Response.from(segments.stream()
+                    .map(segment -> Embedding.from(new float[]{segment.text().length()}))
+                    .collect(toList()));
+        });
+
+        @SuppressWarnings("unchecked")
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        EmbeddingStoreIngestor ingestor = EmbeddingStoreIngestor.builder()
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .manifest(manifest)
+                .batchSize(1)
+                .executor(executor)
+                .maxConcurrency(8)
+                .build();
+
+        List<Document> documents = IntStream.range(0, 1_000)
+                .mapToObj(i -> Document.from("text " + i, Metadata.from("document_id", String.valueOf(i))))
+                .collect(toList());
+
+        try {
+            // when
+            ingestor.ingest(documents);
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(manifest.get(String.valueOf(i))).isNotNull();
+        }
+    }
+
+    @Test
+    void should_remove_entry() {
+
+        // given
+        InMemoryIngestionManifest manifest = new InMemoryIngestionManifest();
+        manifest.put("1", new IngestionManifest.Entry("hash", new LinkedHashSet<>()));
+
+        // when
+        manifest.remove("1");
+
+        // then
+        assertThat(manifest.get("1")).isNull();
+    }
+}
@@ -28,4 +28,30 @@ class InMemoryChatMemoryStoreTest implements WithAssertions {
 
         assertThat(store.getMessages("foo")).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_append_and_remove_messages() {
+        InMemoryChatMemoryStore store = new InMemoryChatMemoryStore();
+
+        store.appendMessages("foo", Arrays.asList(new UserMessage("1"), new AiMessage("2")));
+        store.appendMessages("foo", Arrays.asList(new UserMessage("3"), new AiMessage("4")));
+
+        assertThat(store.getMessages("foo")).containsExactly(
+                new UserMessage("1"),
+                new AiMessage("2"),
+                new UserMessage("3"),
+                new AiMessage("4"));
+
+        store.removeMessages("foo", 1, 2);
+
+        assertThat(store.getMessages("foo")).containsExactly(
+                new UserMessage("1"),
+                new AiMessage("4"));
+
+        store.removeMessages("foo", 1, 10);
+        store.removeMessages("bar", 0, 1);
+
+        assertThat(store.getMessages("foo")).containsExactly(new UserMessage("1"));
+        assertThat(store.getMessages("bar")).isEmpty();
+    }
+}
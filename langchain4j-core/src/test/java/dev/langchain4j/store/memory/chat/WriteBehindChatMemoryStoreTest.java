@@ -0,0 +1,227 @@
+package dev.langchain4j.store.memory.chat;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+
+class WriteBehindChatMemoryStoreTest implements WithAssertions {
+
+    static class CountingChatMemoryStore extends InMemoryChatMemoryStore {
+
+        final AtomicInteger reads = new AtomicInteger();
+        final AtomicInteger writes = new AtomicInteger();
+
+        @Override
+        public List<ChatMessage> getMessages(Object memoryId) {
+            reads.incrementAndGet();
+            return super.getMessages(memoryId);
+        }
+
+        @Override
+        public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+            writes.incrementAndGet();
+            super.updateMessages(memoryId, messages);
+        }
+
+        @Override
+        public void deleteMessages(Object memoryId) {
+            writes.incrementAndGet();
+            super.deleteMessages(memoryId);
+        }
+    }
+
+    @Test
+    void should_coalesce_updates_of_a_chat_memory() {
+
+        // given
+        CountingChatMemoryStore delegate = new CountingChatMemoryStore();
+        delegate.updateMessages("foo", singletonList(UserMessage.from("1")));
+        WriteBehindChatMemoryStore store = WriteBehindChatMemoryStore.builder()
+                .delegate(delegate)
+                .flushInterval(Duration.ofMinutes(1))
+                .build();
+
+        // when
+        assertThat(store.getMessages("foo")).containsExactly(UserMessage.from("1"));
+        store.updateMessages("foo", asList(UserMessage.from("1"), AiMessage.from("2")));
+        store.updateMessages("foo", asList(UserMessage.from("1"), AiMessage.from("2"), UserMessage.from("3")));
+        store.updateMessages("bar", singletonList(UserMessage.from("4")));
+
+        // then
+        assertThat(store.getMessages("foo"))
+                .containsExactly(UserMessage.from("1"), AiMessage.from("2"), UserMessage.from("3"));
+        assertThat(store.pendingWrites()).isEqualTo(2);
+        assertThat(delegate.reads).hasValue(1);
+        assertThat(delegate.writes).hasValue(1);
+
+        // when
+        store.flush();
+
+        // then
+        assertThat(store.pendingWrites()).isZero();
+        assertThat(delegate.writes).hasValue(3);
+        assertThat(delegate.getMessages("foo"))
+                .containsExactly(UserMessage.from("1"), AiMessage.from("2"), UserMessage.from("3"));
+        assertThat(delegate.getMessages("bar")).containsExactly(UserMessage.from("4"));
+    }
+
+    @Test
+    void should_flush_after_flush_interval() throws Exception {
+
+        // given
+        CountingChatMemoryStore delegate = new CountingChatMemoryStore();
+        WriteBehindChatMemoryStore store = WriteBehindChatMemoryStore.builder()
+                .delegate(delegate)
+                .flushInterval(Duration.ofMillis(10))
+                .build();
+
+        // when
+        store.updateMessages("foo", singletonList(UserMessage.from("1")));
+        store.deleteMessages("foo");
+
+        // then
+        assertThat(store.getMessages("foo")).isEmpty();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (store.pendingWrites() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(store.pendingWrites()).isZero();
+        assertThat(delegate.writes).hasValue(1);
+    }
+
+    @Test
+    void should_retry_failed_writes_and_write_through_once_closed() {
+
+        // given
+        AtomicInteger failures = new AtomicInteger(1);
+        InMemoryChatMemoryStore delegate = new InMemoryChatMemoryStore() {
+
+            @Override
+            public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+                if (failures.getAndDecrement() > 0) {
+                    throw new RuntimeException("unavailable");
+                }
+                super.updateMessages(memoryId, messages);
+            }
+        };
+        WriteBehindChatMemoryStore store = WriteBehindChatMemoryStore.builder()
+                .delegate(delegate)
+                .flushInterval(Duration.ofMinutes(1))
+                .build();
+        store.updateMessages("foo", singletonList(UserMessage.from("1")));
+
+        // when
+        store.flush();
+
+        // then
+        assertThat(store.pendingWrites()).isEqualTo(1);
+        assertThat(delegate.getMessages("foo")).isEmpty();
+
+        // when
+        store.close();
+        store.updateMessages("bar", singletonList(UserMessage.from("2")));
+
+        // then
+        assertThat(store.pendingWrites()).isZero();
+        assertThat(delegate.getMessages("foo")).containsExactly(UserMessage.from("1"));
+        assertThat(delegate.getMessages("bar")).containsExactly(UserMessage.from("2"));
+    }
+
+    @Test
+    void should_forget_written_chat_memories_beyond_max_cached_memories() {
+
+        // given
+        CountingChatMemoryStore delegate = new CountingChatMemoryStore();
+        WriteBehindChatMemoryStore store = WriteBehindChatMemoryStore.builder()
+                .delegate(delegate)
+                .flushInterval(Duration.ofMinutes(1))
+                .maxCachedMemories(1)
+                .build();
+        store.updateMessages("foo", singletonList(UserMessage.from("1")));
+        store.updateMessages("bar", singletonList(UserMessage.from("2")));
+
+        // when
+        store.flush();
+
+        // then "foo" is read again, "bar" is not
+        assertThat(store.getMessages("bar")).containsExactly(UserMessage.from("2"));
+        assertThat(delegate.reads).hasValue(0);
+        assertThat(store.getMessages("foo")).containsExactly(UserMessage.from("1"));
+        assertThat(delegate.reads).hasValue(1);
+    }
+
+    @Test
+    void should_write_through_when_scheduler_rejects_flush() {
+
+        // given
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.shutdown();
+        CountingChatMemoryStore delegate = new CountingChatMemoryStore();
+        WriteBehindChatMemoryStore store = WriteBehindChatMemoryStore.builder()
+                .delegate(delegate)
+                .flushInterval(Duration.ofMinutes(1))
+                .scheduler(scheduler)
+                .build();
+
+        // when
+        store.updateMessages("foo", singletonList(UserMessage.from("1")));
+        store.updateMessages("foo", singletonList(UserMessage.from("2")));
+
+        // then
+        assertThat(store.pendingWrites()).isZero();
+        assertThat(delegate.writes).hasValue(2);
+        assertThat(delegate.getMessages("foo")).containsExactly(UserMessage.from("2"));
+    }
+
+    @Test
+    void should_reject_updates_of_other_chat_memories_beyond_max_pending_writes() {
+
+        // given
+        AtomicBoolean unavailable = new AtomicBoolean(true);
+        InMemoryChatMemoryStore delegate = new InMemoryChatMemoryStore() {
+
+            @Override
+            public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+                if (unavailable.get()) {
+                    throw new RuntimeException("unavailable");
+                }
+                super.updateMessages(memoryId, messages);
+            }
+        };
+        WriteBehindChatMemoryStore store = WriteBehindChatMemoryStore.builder()
+                .delegate(delegate)
+                .flushInterval(Duration.ofMinutes(1))
+                .maxPendingWrites(2)
+                .build();
+        store.updateMessages("foo", singletonList(UserMessage.from("1")));
+        store.updateMessages("bar", singletonList(UserMessage.from("2")));
+
+        // when-then
+        assertThatThrownBy(() -> store.updateMessages("baz", singletonList(UserMessage.from("3"))))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("'baz'");
+        store.updateMessages("foo", singletonList(UserMessage.from("4")));
+        assertThat(store.pendingWrites()).isEqualTo(2);
+
+        // when
+        unavailable.set(false);
+        store.updateMessages("baz", singletonList(UserMessage.from("3")));
+
+        // then
+        assertThat(store.pendingWrites()).isEqualTo(1);
+        assertThat(delegate.getMessages("foo")).containsExactly(UserMessage.from("4"));
+        assertThat(delegate.getMessages("bar")).containsExactly(UserMessage.from("2"));
+    }
+}
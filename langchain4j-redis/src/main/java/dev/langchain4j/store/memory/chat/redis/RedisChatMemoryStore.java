@@ -1,24 +1,83 @@
 package dev.langchain4j.store.memory.chat.redis;
 
 import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ChatMessageBinaryCodec;
 import dev.langchain4j.data.message.ChatMessageDeserializer;
 import dev.langchain4j.data.message.ChatMessageSerializer;
-import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import dev.langchain4j.data.message.DefaultChatMessageBinaryCodec;
+import dev.langchain4j.store.memory.chat.IncrementalChatMemoryStore;
 import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.exceptions.JedisDataException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import static dev.langchain4j.internal.Utils.getOrDefault;
 import static dev.langchain4j.internal.ValidationUtils.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
 
-public class RedisChatMemoryStore implements ChatMemoryStore {
+/**
+ * Stores the messages of each chat memory in Redis.
+ * <br>
+ * By default, the messages of a chat memory are stored as a single value (a JSON array),
+ * which is rewritten on each update: this is the layout written by previous versions.
+ * With {@link Builder#listLayout(Boolean)}, they are stored in a Redis list instead, one message per element,
+ * so that messages can be appended and evicted without rewriting the whole memory.
+ * Chat memories only write their changes with the list layout (see {@link #supportsIncrementalUpdates()}):
+ * with a single value, appending or removing messages reads and rewrites the whole value anyway.
+ * Memories are read in both layouts, whatever the layout configured, and are converted to the layout configured
+ * the first time they are updated. As previous versions only read single values, the list layout should be enabled
+ * once all the instances sharing the Redis database are upgraded: memories converted to lists cannot be read by
+ * previous versions (they can be read by this version with the list layout disabled, which converts them back).
+ * <br>
+ * Messages are written as JSON by default, or in binary with the {@link ChatMessageBinaryCodec} configured
+ * (e.g. {@link DefaultChatMessageBinaryCodec}), which is faster and more compact, especially for images and audio.
+ * JSON and the bytes written by {@link DefaultChatMessageBinaryCodec} are read whatever the codec configured,
+ * so the codec can be changed without migrating the memories.
+ * Like the list layout, a codec should only be configured once all the instances are upgraded.
+ */
+public class RedisChatMemoryStore implements IncrementalChatMemoryStore {
+
+    private static final byte[] REPLACE_SCRIPT = (
+            "redis.call('DEL', KEYS[1]) " +
+            "for i = 1, #ARGV do redis.call('RPUSH', KEYS[1], ARGV[i]) end " +
+            "return #ARGV").getBytes(UTF_8);
+
+    private static final byte[] REMOVE_SCRIPT = (
+            "local from = tonumber(ARGV[1]) " +
+            "local count = tonumber(ARGV[2]) " +
+            "local head = {} " +
+            "if from > 0 then head = redis.call('LRANGE', KEYS[1], 0, from - 1) end " +
+            "redis.call('LTRIM', KEYS[1], from + count, -1) " +
+            "for i = #head, 1, -1 do redis.call('LPUSH', KEYS[1], head[i]) end " +
+            "return #head").getBytes(UTF_8);
+
+    private static final ChatMessageBinaryCodec DEFAULT_BINARY_CODEC = new DefaultChatMessageBinaryCodec();
 
     private final JedisPooled client;
+    private final ChatMessageBinaryCodec codec;
+    private final boolean listLayout;
 
     public RedisChatMemoryStore(String host,
                                 Integer port,
                                 String user,
                                 String password) {
+        this(host, port, user, password, null, null);
+    }
+
+    /**
+     * @param codec      The codec writing the messages, or null to write them as JSON.
+     * @param listLayout Whether to store the messages of a chat memory in a Redis list, or null to store them
+     *                   as a single value.
+     */
+    public RedisChatMemoryStore(String host,
+                                Integer port,
+                                String user,
+                                String password,
+                                ChatMessageBinaryCodec codec,
+                                Boolean listLayout) {
         String finalHost = ensureNotBlank(host, "host");
         int finalPort = ensureNotNull(port, "port");
         if (user != null) {
@@ -28,26 +87,189 @@ public class RedisChatMemoryStore implements ChatMemoryStore {
         } else {
             this.client = new JedisPooled(finalHost, finalPort);
         }
+        this.codec = codec;
+        this.listLayout = getOrDefault(listLayout, false);
     }
 
     @Override
     public List<ChatMessage> getMessages(Object memoryId) {
-        String json = client.get(toMemoryIdString(memoryId));
-        return json == null ? new ArrayList<>() : ChatMessageDeserializer.messagesFromJson(json);
+        byte[] key = toKey(memoryId);
+        return listLayout ? getListMessages(key) : getValueMessages(key);
     }
 
     @Override
     public void updateMessages(Object memoryId, List<ChatMessage> messages) {
-        String json = ChatMessageSerializer.messagesToJson(ensureNotEmpty(messages, "messages"));
-        String res = client.set(toMemoryIdString(memoryId), json);
-        if (!"OK".equals(res)) {
-            throw new RedisChatMemoryStoreException("Set memory error, msg=" + res);
+        ensureNotEmpty(messages, "messages");
+        byte[] key = toKey(memoryId);
+        if (listLayout) {
+            replace(key, messages);
+        } else {
+            set(key, toValue(messages));
+        }
+    }
+
+    @Override
+    public void appendMessages(Object memoryId, List<ChatMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        byte[] key = toKey(memoryId);
+        if (!listLayout) {
+            List<ChatMessage> updated = getValueMessages(key);
+            updated.addAll(messages);
+            set(key, toValue(updated));
+            return;
+        }
+        byte[][] elements = toBytes(messages).toArray(new byte[0][]);
+        try {
+            client.rpush(key, elements);
+        } catch (JedisDataException e) {
+            if (!isWrongType(e)) {
+                throw e;
+            }
+            convertToList(key);
+            client.rpush(key, elements);
         }
     }
 
+    @Override
+    public void removeMessages(Object memoryId, int fromIndex, int count) {
+        if (count <= 0) {
+            return;
+        }
+        byte[] key = toKey(memoryId);
+        if (!listLayout) {
+            List<ChatMessage> updated = getValueMessages(key);
+            updated.subList(Math.min(fromIndex, updated.size()), Math.min(fromIndex + count, updated.size())).clear();
+            if (updated.isEmpty()) {
+                client.del(key);
+            } else {
+                set(key, toValue(updated));
+            }
+            return;
+        }
+        List<byte[]> args = Arrays.asList(
+                String.valueOf(fromIndex).getBytes(UTF_8),
+                String.valueOf(count).getBytes(UTF_8));
+        try {
+            client.eval(REMOVE_SCRIPT, singletonList(key), args);
+        } catch (JedisDataException e) {
+            if (!isWrongType(e)) {
+                throw e;
+            }
+            convertToList(key);
+            client.eval(REMOVE_SCRIPT, singletonList(key), args);
+        }
+    }
+
+    /**
+     * @return {@code true} with the list layout only.
+     */
+    @Override
+    public boolean supportsIncrementalUpdates() {
+        return listLayout;
+    }
+
     @Override
     public void deleteMessages(Object memoryId) {
-        client.del(toMemoryIdString(memoryId));
+        client.del(toKey(memoryId));
+    }
+
+    private void set(byte[] key, byte[] value) {
+        String res = client.set(key, value);
+        if (!"OK".equals(res)) {
+            throw new RedisChatMemoryStoreException("Set memory error, msg=" + res);
+        }
+    }
+
+    private void replace(byte[] key, List<ChatMessage> messages) {
+        client.eval(REPLACE_SCRIPT, singletonList(key), toBytes(messages));
+    }
+
+    private List<ChatMessage> getListMessages(byte[] key) {
+        List<byte[]> elements;
+        try {
+            elements = client.lrange(key, 0, -1);
+        } catch (JedisDataException e) {
+            if (!isWrongType(e)) {
+                throw e;
+            }
+            return fromValue(client.get(key));
+        }
+        List<ChatMessage> messages = new ArrayList<>(elements.size());
+        for (byte[] element : elements) {
+            messages.add(fromBytes(element));
+        }
+        return messages;
+    }
+
+    private List<ChatMessage> getValueMessages(byte[] key) {
+        try {
+            return fromValue(client.get(key));
+        } catch (JedisDataException e) {
+            if (!isWrongType(e)) {
+                throw e;
+            }
+            return getListMessages(key);
+        }
+    }
+
+    private void convertToList(byte[] key) {
+        List<ChatMessage> messages = fromValue(client.get(key));
+        if (messages.isEmpty()) {
+            client.del(key);
+        } else {
+            replace(key, messages);
+        }
+    }
+
+    private byte[] toValue(List<ChatMessage> messages) {
+        return codec == null
+                ? ChatMessageSerializer.messagesToJson(messages).getBytes(UTF_8)
+                : codec.messagesToBytes(messages);
+    }
+
+    private List<ChatMessage> fromValue(byte[] value) {
+        if (value == null) {
+            return new ArrayList<>();
+        }
+        if (value.length > 0 && value[0] == '[') {
+            return ChatMessageDeserializer.messagesFromJson(new String(value, UTF_8));
+        }
+        return new ArrayList<>(binaryCodecOf(value).messagesFromBytes(value));
+    }
+
+    private List<byte[]> toBytes(List<ChatMessage> messages) {
+        List<byte[]> elements = new ArrayList<>(messages.size());
+        for (ChatMessage message : messages) {
+            elements.add(codec == null
+                    ? ChatMessageSerializer.messageToJson(message).getBytes(UTF_8)
+                    : codec.messageToBytes(message));
+        }
+        return elements;
+    }
+
+    private ChatMessage fromBytes(byte[] element) {
+        if (element.length > 0 && element[0] == '{') {
+            return ChatMessageDeserializer.messageFromJson(new String(element, UTF_8));
+        }
+        return binaryCodecOf(element).messageFromBytes(element);
+    }
+
+    /**
+     * Bytes written by a {@link DefaultChatMessageBinaryCodec} are read by it, even if another codec is configured,
+     * so that the codec can be changed without migrating the memories.
+     */
+    private ChatMessageBinaryCodec binaryCodecOf(byte[] bytes) {
+        return codec == null || DefaultChatMessageBinaryCodec.isBinary(bytes) ? DEFAULT_BINARY_CODEC : codec;
+    }
+
+    private static boolean isWrongType(JedisDataException e) {
+        return e.getMessage() != null && e.getMessage().contains("WRONGTYPE");
+    }
+
+    private static byte[] toKey(Object memoryId) {
+        return toMemoryIdString(memoryId).getBytes(UTF_8);
     }
 
     private static String toMemoryIdString(Object memoryId) {
@@ -68,6 +290,8 @@ public class RedisChatMemoryStore implements ChatMemoryStore {
         private Integer port;
         private String user;
         private String password;
+        private ChatMessageBinaryCodec codec;
+        private Boolean listLayout;
 
         public Builder host(String host) {
             this.host = host;
@@ -89,8 +313,30 @@ public class RedisChatMemoryStore implements ChatMemoryStore {
             return this;
         }
 
+        /**
+         * @param codec The codec writing the messages, e.g. {@link DefaultChatMessageBinaryCodec}.
+         *              Default: messages are written as JSON.
+         * @return builder
+         */
+        public Builder codec(ChatMessageBinaryCodec codec) {
+            this.codec = codec;
+            return this;
+        }
+
+        /**
+         * @param listLayout Whether to store the messages of a chat memory in a Redis list, one message per element,
+         *                   instead of a single value that is rewritten on each update.
+         *                   Memories stored in a list cannot be read by previous versions.
+         *                   Default: false.
+         * @return builder
+         */
+        public Builder listLayout(Boolean listLayout) {
+            this.listLayout = listLayout;
+            return this;
+        }
+
         public RedisChatMemoryStore build() {
-            return new RedisChatMemoryStore(host, port, user, password);
+            return new RedisChatMemoryStore(host, port, user, password, codec, listLayout);
         }
     }
 }
@@ -1,23 +1,39 @@
 package dev.langchain4j.store.memory.chat.redis;
 
 import com.redis.testcontainers.RedisContainer;
+import dev.langchain4j.data.message.AiMessage;
 import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ChatMessageBinaryCodec;
+import dev.langchain4j.data.message.ChatMessageSerializer;
 import dev.langchain4j.data.message.Content;
+import dev.langchain4j.data.message.DefaultChatMessageBinaryCodec;
 import dev.langchain4j.data.message.ImageContent;
 import dev.langchain4j.data.message.SystemMessage;
 import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPooled;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.redis.testcontainers.RedisStackContainer.DEFAULT_IMAGE_NAME;
 import static com.redis.testcontainers.RedisStackContainer.DEFAULT_TAG;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 
 class RedisChatMemoryStoreIT {
 
@@ -209,4 +225,190 @@ class RedisChatMemoryStoreIT {
                 .isExactlyInstanceOf(IllegalArgumentException.class)
                 .hasMessage("password cannot be null or blank");
     }
+
+    @Test
+    void should_write_messages_with_binary_codec_and_read_both_formats() {
+        // given
+        RedisChatMemoryStore binaryMemoryStore = RedisChatMemoryStore.builder()
+                .port(redis.getFirstMappedPort())
+                .host(redis.getHost())
+                .codec(new DefaultChatMessageBinaryCodec())
+                .listLayout(true)
+                .build();
+        SystemMessage systemMessage = new SystemMessage("You are a large language model working with Langchain4j");
+        UserMessage userMessage = UserMessage.from(ImageContent.from("aGVsbG8=", "image/png"));
+
+        // when
+        memoryStore.updateMessages(userId, singletonList(systemMessage));
+        binaryMemoryStore.appendMessages(userId, singletonList(userMessage));
+
+        // then
+        assertThat(memoryStore.getMessages(userId)).containsExactly(systemMessage, userMessage);
+        assertThat(binaryMemoryStore.getMessages(userId)).containsExactly(systemMessage, userMessage);
+    }
+
+    @Test
+    void should_keep_messages_in_single_json_value_by_default() {
+        // given
+        SystemMessage systemMessage = new SystemMessage("You are a large language model working with Langchain4j");
+        UserMessage userMessage = UserMessage.from("hello");
+
+        // when
+        memoryStore.updateMessages(userId, singletonList(systemMessage));
+        memoryStore.appendMessages(userId, singletonList(userMessage));
+
+        // then
+        try (JedisPooled client = new JedisPooled(redis.getHost(), redis.getFirstMappedPort())) {
+            assertThat(client.type(userId)).isEqualTo("string");
+            assertThat(client.get(userId)).isEqualTo(ChatMessageSerializer.messagesToJson(asList(systemMessage, userMessage)));
+        }
+    }
+
+    @Test
+    void should_read_and_convert_memories_of_other_layout() {
+        // given
+        RedisChatMemoryStore listMemoryStore = RedisChatMemoryStore.builder()
+                .port(redis.getFirstMappedPort())
+                .host(redis.getHost())
+                .listLayout(true)
+                .build();
+        SystemMessage systemMessage = new SystemMessage("You are a large language model working with Langchain4j");
+        UserMessage userMessage = UserMessage.from("hello");
+        AiMessage aiMessage = AiMessage.from("hi");
+        memoryStore.updateMessages(userId, singletonList(systemMessage));
+
+        try (JedisPooled client = new JedisPooled(redis.getHost(), redis.getFirstMappedPort())) {
+
+            // when
+            listMemoryStore.appendMessages(userId, singletonList(userMessage));
+
+            // then
+            assertThat(client.type(userId)).isEqualTo("list");
+            assertThat(memoryStore.getMessages(userId)).containsExactly(systemMessage, userMessage);
+
+            // when
+            memoryStore.appendMessages(userId, singletonList(aiMessage));
+
+            // then
+            assertThat(client.type(userId)).isEqualTo("string");
+            assertThat(listMemoryStore.getMessages(userId)).containsExactly(systemMessage, userMessage, aiMessage);
+        }
+    }
+
+    @Test
+    void should_read_messages_written_by_default_binary_codec_with_other_codec() {
+        // given
+        RedisChatMemoryStore defaultCodecMemoryStore = RedisChatMemoryStore.builder()
+                .port(redis.getFirstMappedPort())
+                .host(redis.getHost())
+                .codec(new DefaultChatMessageBinaryCodec())
+                .listLayout(true)
+                .build();
+        RedisChatMemoryStore otherCodecMemoryStore = RedisChatMemoryStore.builder()
+                .port(redis.getFirstMappedPort())
+                .host(redis.getHost())
+                .codec(new PrefixingCodec())
+                .listLayout(true)
+                .build();
+        SystemMessage systemMessage = new SystemMessage("You are a large language model working with Langchain4j");
+        UserMessage userMessage = UserMessage.from("hello");
+
+        // when
+        defaultCodecMemoryStore.updateMessages(userId, singletonList(systemMessage));
+        otherCodecMemoryStore.appendMessages(userId, singletonList(userMessage));
+
+        // then
+        assertThat(otherCodecMemoryStore.getMessages(userId)).containsExactly(systemMessage, userMessage);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void should_send_few_commands_per_turn_in_both_layouts(boolean listLayout) {
+        // given
+        RedisChatMemoryStore layoutMemoryStore = RedisChatMemoryStore.builder()
+                .port(redis.getFirstMappedPort())
+                .host(redis.getHost())
+                .listLayout(listLayout)
+                .build();
+        ChatMemory chatMemory = MessageWindowChatMemory.builder()
+                .id(userId)
+                .maxMessages(2)
+                .chatMemoryStore(layoutMemoryStore)
+                .build();
+        chatMemory.add(UserMessage.from("first"));
+        chatMemory.add(AiMessage.from("second"));
+
+        try (Jedis client = new Jedis(redis.getHost(), redis.getFirstMappedPort())) {
+            client.configResetStat();
+
+            // when
+            chatMemory.add(UserMessage.from("third"));
+
+            // then
+            if (listLayout) {
+                // the evicted message is removed by a script, whose commands are counted too
+                assertThat(commandCalls(client)).containsOnly(
+                        entry("lrange", 1), entry("rpush", 1), entry("eval", 1), entry("ltrim", 1));
+            } else {
+                // the single value is read and rewritten once, not once per change
+                assertThat(commandCalls(client)).containsOnly(entry("get", 1), entry("set", 1));
+            }
+            assertThat(chatMemory.messages()).containsExactly(AiMessage.from("second"), UserMessage.from("third"));
+        }
+    }
+
+    /**
+     * The number of calls of each command since the statistics were reset,
+     * except the commands of the test itself and of connection setup.
+     */
+    private static Map<String, Integer> commandCalls(Jedis client) {
+        Map<String, Integer> commandCalls = new HashMap<>();
+        for (String line : client.info("commandstats").split("\r?\n")) {
+            if (!line.startsWith("cmdstat_")) {
+                continue;
+            }
+            String command = line.substring("cmdstat_".length(), line.indexOf(':'));
+            if (command.startsWith("config") || command.startsWith("info") || command.startsWith("client")) {
+                continue;
+            }
+            int callsStart = line.indexOf("calls=") + "calls=".length();
+            commandCalls.put(command, Integer.parseInt(line.substring(callsStart, line.indexOf(',', callsStart))));
+        }
+        return commandCalls;
+    }
+
+    /**
+     * Writes the bytes of {@link DefaultChatMessageBinaryCodec} after a byte of its own.
+     */
+    static class PrefixingCodec implements ChatMessageBinaryCodec {
+
+        private final ChatMessageBinaryCodec codec = new DefaultChatMessageBinaryCodec();
+
+        @Override
+        public ChatMessage messageFromBytes(byte[] bytes) {
+            return codec.messageFromBytes(Arrays.copyOfRange(bytes, 1, bytes.length));
+        }
+
+        @Override
+        public List<ChatMessage> messagesFromBytes(byte[] bytes) {
+            return codec.messagesFromBytes(Arrays.copyOfRange(bytes, 1, bytes.length));
+        }
+
+        @Override
+        public byte[] messageToBytes(ChatMessage message) {
+            return prefixed(codec.messageToBytes(message));
+        }
+
+        @Override
+        public byte[] messagesToBytes(List<ChatMessage> messages) {
+            return prefixed(codec.messagesToBytes(messages));
+        }
+
+        private static byte[] prefixed(byte[] bytes) {
+            byte[] prefixed = new byte[bytes.length + 1];
+            prefixed[0] = 1;
+            System.arraycopy(bytes, 0, prefixed, 1, bytes.length);
+            return prefixed;
+        }
+    }
 }
@@ -14,9 +14,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Stream;
 
 import static dev.langchain4j.data.document.source.FileSystemSource.from;
@@ -25,6 +25,7 @@ import static dev.langchain4j.internal.Utils.getOrDefault;
 import static dev.langchain4j.spi.ServiceHelper.loadFactories;
 import static java.nio.file.Files.isDirectory;
 import static java.nio.file.Files.isRegularFile;
+import static java.util.stream.Collectors.toList;
 
 public class FileSystemDocumentLoader {
 
@@ -469,13 +470,99 @@ public class FileSystemDocumentLoader {
         return loadDocumentsRecursively(directoryPath, pathMatcher, DEFAULT_DOCUMENT_PARSER);
     }
 
+    /**
+     * Recursively loads matching {@link Document}s from the specified directory and its subdirectories, lazily.
+     * <br>
+     * Unlike {@link #loadDocumentsRecursively(Path, PathMatcher, DocumentParser)}, files are loaded and parsed
+     * one at a time, as the returned stream is consumed, so that the whole directory does not need to fit in memory.
+     * The returned stream can be ingested with {@code EmbeddingStoreIngestor.ingest(Stream)}.
+     * <br>
+     * The returned stream holds an open directory and must be closed, e.g. with a try-with-resources statement.
+     * <br>
+     * The files are parsed using the specified {@link DocumentParser}.
+     * <br>
+     * Skips any {@code Document}s that fail to load.
+     *
+     * @param directoryPath  The path to the directory with files.
+     * @param pathMatcher    Only files whose paths match the provided {@link PathMatcher} will be loaded.
+     *                       See {@link #loadDocumentsRecursively(Path, PathMatcher, DocumentParser)} for details.
+     * @param documentParser The parser to be used for parsing text from each file.
+     * @return stream of documents
+     * @throws IllegalArgumentException If specified path is not a directory.
+     */
+    public static Stream<Document> streamDocumentsRecursively(Path directoryPath,
+                                                              PathMatcher pathMatcher,
+                                                              DocumentParser documentParser) {
+        if (!isDirectory(directoryPath)) {
+            throw illegalArgument("'%s' is not a directory", directoryPath);
+        }
+
+        try {
+            return documents(Files.walk(directoryPath), pathMatcher, directoryPath, documentParser);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Recursively loads matching {@link Document}s from the specified directory and its subdirectories, lazily.
+     * <br>
+     * The files are parsed using the default {@link DocumentParser}.
+     * The default {@code DocumentParser} is loaded through SPI (see {@link DocumentParserFactory}).
+     * If no {@code DocumentParserFactory} is available in the classpath, a {@link TextDocumentParser} is used.
+     * <br>
+     * See {@link #streamDocumentsRecursively(Path, PathMatcher, DocumentParser)} for details.
+     *
+     * @param directoryPath The path to the directory with files.
+     * @param pathMatcher   Only files whose paths match the provided {@link PathMatcher} will be loaded.
+     * @return stream of documents
+     * @throws IllegalArgumentException If specified path is not a directory.
+     */
+    public static Stream<Document> streamDocumentsRecursively(Path directoryPath, PathMatcher pathMatcher) {
+        return streamDocumentsRecursively(directoryPath, pathMatcher, DEFAULT_DOCUMENT_PARSER);
+    }
+
+    /**
+     * Recursively loads all {@link Document}s from the specified directory and its subdirectories, lazily.
+     * <br>
+     * See {@link #streamDocumentsRecursively(Path, PathMatcher, DocumentParser)} for details.
+     *
+     * @param directoryPath  The path to the directory with files.
+     * @param documentParser The parser to be used for parsing text from each file.
+     * @return stream of documents
+     * @throws IllegalArgumentException If specified path is not a directory.
+     */
+    public static Stream<Document> streamDocumentsRecursively(Path directoryPath, DocumentParser documentParser) {
+        return streamDocumentsRecursively(directoryPath, (path) -> true, documentParser);
+    }
+
+    /**
+     * Recursively loads all {@link Document}s from the specified directory and its subdirectories, lazily.
+     * <br>
+     * The files are parsed using the default {@link DocumentParser}.
+     * <br>
+     * See {@link #streamDocumentsRecursively(Path, PathMatcher, DocumentParser)} for details.
+     *
+     * @param directoryPath The path to the directory with files.
+     * @return stream of documents
+     * @throws IllegalArgumentException If specified path is not a directory.
+     */
+    public static Stream<Document> streamDocumentsRecursively(Path directoryPath) {
+        return streamDocumentsRecursively(directoryPath, DEFAULT_DOCUMENT_PARSER);
+    }
+
     private static List<Document> loadDocuments(Stream<Path> pathStream,
                                                 PathMatcher pathMatcher,
                                                 Path pathMatcherRoot,
                                                 DocumentParser documentParser) {
-        List<Document> documents = new ArrayList<>();
+        return documents(pathStream, pathMatcher, pathMatcherRoot, documentParser).collect(toList());
+    }
 
-        pathStream
+    private static Stream<Document> documents(Stream<Path> pathStream,
+                                              PathMatcher pathMatcher,
+                                              Path pathMatcherRoot,
+                                              DocumentParser documentParser) {
+        return pathStream
                 .filter(Files::isRegularFile)
                 // converting absolute path into relative before using pathMatcher
                 // because patterns defined in pathMatcher are relative to pathMatcherRoot (directoryPath)
@@ -483,19 +570,19 @@ public class FileSystemDocumentLoader {
                 .filter(pathMatcher::matches)
                 // converting relative path back into absolute before loading document
                 .map(pathMatcherRoot::resolve)
-                .forEach(file -> {
+                .map(file -> {
                     try {
-                        Document document = loadDocument(file, documentParser);
-                        documents.add(document);
+                        return loadDocument(file, documentParser);
                     } catch (BlankDocumentException ignored) {
                         // blank/empty documents are ignored
+                        return null;
                     } catch (Exception e) {
                         String message = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
                         log.warn("Failed to load '{}': {}", file, message);
+                        return null;
                     }
-                });
-
-        return documents;
+                })
+                .filter(Objects::nonNull);
     }
 
     private static DocumentParser loadDocumentParser() {
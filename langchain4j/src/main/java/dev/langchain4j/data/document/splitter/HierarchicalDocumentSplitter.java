@@ -114,13 +114,30 @@ public abstract class HierarchicalDocumentSplitter implements DocumentSplitter {
 
         String[] parts = split(document.text());
         String overlap = null;
-        for (String part : parts) {
-            int partSize = segmentBuilder.sizeOf(part);
+        // the last iteration checks the size of the last segment
+        for (int i = 0; i <= parts.length; i++) {
+            String part = null;
+            int partSize = 0;
+            if (i < parts.length) {
+                part = parts[i];
+                partSize = segmentBuilder.sizeOf(part);
+
+                if (segmentBuilder.hasSpaceFor(partSize)) {
+                    // The part fits in the current segment, so we append it.
+                    segmentBuilder.append(part, partSize);
+                    continue;
+                }
+            }
 
-            if (segmentBuilder.hasSpaceFor(partSize)) {
-                // The part fits in the current segment, so we append it.
-                segmentBuilder.append(part);
-                continue;
+            // The size of the segment can be larger than the sum of the sizes of its parts (e.g. with a tokenizer):
+            // the parts appended last are moved to the next segment if the current segment is too large.
+            int removedParts = segmentBuilder.isNotEmpty() ? segmentBuilder.removeTextsBeyondMaxSize() : 0;
+            if (removedParts > 0) {
+                i -= removedParts;
+                part = parts[i];
+                partSize = segmentBuilder.sizeOf(part);
+            } else if (i == parts.length) {
+                break;
             }
 
             if (segmentBuilder.isNotEmpty()) {
@@ -136,7 +153,7 @@ public abstract class HierarchicalDocumentSplitter implements DocumentSplitter {
 
                     if (segmentBuilder.hasSpaceFor(partSize)) {
                         // The part fits in the current segment, so we append it.
-                        segmentBuilder.append(part);
+                        segmentBuilder.append(part, partSize);
                         continue;
                     }
                 }
@@ -155,7 +172,7 @@ public abstract class HierarchicalDocumentSplitter implements DocumentSplitter {
             }
 
             // Delegate the splitting of the part to the sub-splitter.
-            segmentBuilder.append(part);
+            segmentBuilder.append(part, partSize);
             for (TextSegment segment : subSplitter.split(Document.from(segmentBuilder.toString()))) {
                 segments.add(createSegment(segment.text(), document, index.getAndIncrement()));
             }
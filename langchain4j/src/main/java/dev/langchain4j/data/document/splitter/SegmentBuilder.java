@@ -1,5 +1,7 @@
 package dev.langchain4j.data.document.splitter;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Function;
 
 import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
@@ -7,14 +9,29 @@ import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 
 /**
  * Segment builder utility class for HierarchicalDocumentSplitter.
+ * <p>
+ * The size of the segment is tracked incrementally, as the sum of the sizes of its texts and separators,
+ * so that each text is measured only once. This is the exact size when measuring characters.
+ * When measuring tokens, it is usually a bit larger than the size of the whole segment:
+ * the size of the whole segment is measured only when the segment seems to have no space left
+ * (or when {@link #getSize()} is called), and used from then on.
+ * <p>
+ * Some tokenizers are not additive: the size of a segment can then be larger than the sum of the sizes
+ * of its texts and separators, and the segment can exceed the maximum size once measured as a whole.
+ * {@link #removeTextsBeyondMaxSize()} corrects it before the segment is used.
  */
 class SegmentBuilder {
     private final int maxSegmentSize;
     private final Function<String, Integer> sizeFunction;
     private final String joinSeparator;
     private final int joinSeparatorSize;
-    private String segment = "";
+    private final StringBuilder segment = new StringBuilder();
     private int segmentSize = 0;
+    private boolean segmentSizeExact = true;
+    /**
+     * The positions in the segment of the texts appended after the first one (including their separator).
+     */
+    private final List<Integer> appendedTextStarts = new ArrayList<>();
 
     /**
      * Creates a new instance of {@link SegmentBuilder}.
@@ -34,6 +51,7 @@ class SegmentBuilder {
      * @return The current size of the segment.
      */
     public int getSize() {
+        measureSegment();
         return segmentSize;
     }
 
@@ -43,11 +61,7 @@ class SegmentBuilder {
      * @return {@code true} if the provided text can be added to the current segment.
      */
     public boolean hasSpaceFor(String text) {
-        int totalSize = sizeOf(text);
-        if (isNotEmpty()) {
-            totalSize += segmentSize + joinSeparatorSize;
-        }
-        return totalSize <= maxSegmentSize;
+        return hasSpaceFor(sizeOf(text));
     }
 
     /**
@@ -56,6 +70,17 @@ class SegmentBuilder {
      * @return {@code true} if the provided size can be added to the current segment.
      */
     public boolean hasSpaceFor(int size) {
+        if (fits(size)) {
+            return true;
+        }
+        if (segmentSizeExact) {
+            return false;
+        }
+        measureSegment();
+        return fits(size);
+    }
+
+    private boolean fits(int size) {
         int totalSize = size;
         if (isNotEmpty()) {
             totalSize += segmentSize + joinSeparatorSize;
@@ -63,6 +88,13 @@ class SegmentBuilder {
         return totalSize <= maxSegmentSize;
     }
 
+    private void measureSegment() {
+        if (!segmentSizeExact) {
+            segmentSize = sizeOf(segment.toString());
+            segmentSizeExact = true;
+        }
+    }
+
     /**
      * Returns the size of the provided text (as returned by the {@code sizeFunction}).
      * @param text The text to check.
@@ -77,11 +109,23 @@ class SegmentBuilder {
      * @param text The text to append.
      */
     public void append(String text) {
+        append(text, sizeOf(text));
+    }
+
+    /**
+     * Appends the provided text to the current segment.
+     * @param text The text to append.
+     * @param size The size of the text (as returned by the {@code sizeFunction}).
+     */
+    public void append(String text, int size) {
         if (isNotEmpty()) {
-            segment += joinSeparator;
+            appendedTextStarts.add(segment.length());
+            segment.append(joinSeparator);
+            addSize(size);
+        } else {
+            segmentSize = size;
         }
-        segment += text;
-        segmentSize = sizeOf(segment);
+        segment.append(text);
     }
 
     /**
@@ -89,12 +133,38 @@ class SegmentBuilder {
      * @param text The text to prepend.
      */
     public void prepend(String text) {
+        int size = sizeOf(text);
         if (isNotEmpty()) {
-            segment = text + joinSeparator + segment;
+            segment.insert(0, joinSeparator).insert(0, text);
+            int shift = text.length() + joinSeparator.length();
+            for (int i = 0; i < appendedTextStarts.size(); i++) {
+                appendedTextStarts.set(i, appendedTextStarts.get(i) + shift);
+            }
+            addSize(size);
         } else {
-            segment = text;
+            segment.append(text);
+            segmentSize = size;
+        }
+    }
+
+    private void addSize(int size) {
+        segmentSize += joinSeparatorSize + size;
+        segmentSizeExact = false;
+    }
+
+    /**
+     * Measures the whole segment, and removes the texts appended last while it is larger than the maximum size.
+     * The first text of the segment is never removed.
+     * @return The number of texts removed, which have to be added to the next segment.
+     */
+    public int removeTextsBeyondMaxSize() {
+        int removed = 0;
+        while (!appendedTextStarts.isEmpty() && getSize() > maxSegmentSize) {
+            segment.setLength(appendedTextStarts.remove(appendedTextStarts.size() - 1));
+            segmentSizeExact = false;
+            removed++;
         }
-        segmentSize = sizeOf(segment);
+        return removed;
     }
 
     /**
@@ -102,19 +172,21 @@ class SegmentBuilder {
      * @return {@code true} if the current segment is not empty.
      */
     public boolean isNotEmpty() {
-        return !segment.isEmpty();
+        return segment.length() > 0;
     }
 
     @Override
     public String toString() {
-        return segment.trim();
+        return segment.toString().trim();
     }
 
     /**
      * Resets the current segment.
      */
     public void reset() {
-        segment = "";
+        segment.setLength(0);
         segmentSize = 0;
+        segmentSizeExact = true;
+        appendedTextStarts.clear();
     }
 }
@@ -0,0 +1,323 @@
+package dev.langchain4j.memory.chat;
+
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import dev.langchain4j.store.memory.chat.InMemoryChatMemoryStore;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * A bounded registry of the {@link ChatMemory} instances obtained from a {@link ChatMemoryProvider},
+ * which keeps the chat memories of active users/conversations in memory and evicts the others.
+ * <p>
+ * A chat memory is evicted when one of the following limits, if configured, is exceeded:
+ * <ul>
+ * <li>{@link Builder#maxSize(Integer)}: the least recently used chat memory is evicted.</li>
+ * <li>{@link Builder#maxTotalMessages(Integer)}: the least recently used chat memories are evicted
+ * until the total number of messages they hold fits. The number of messages of a chat memory is counted
+ * each time it is retrieved from the registry.</li>
+ * <li>{@link Builder#idleTimeout(Duration)}: a chat memory that was not retrieved for this long is evicted.</li>
+ * </ul>
+ * The most recently retrieved chat memory is never evicted because of the limits above.
+ * <p>
+ * An evicted chat memory is passed to the {@link Builder#evictionListener(Consumer)}, if configured,
+ * and the next retrieval for the same ID obtains a new instance from the {@link ChatMemoryProvider}.
+ * {@link MessageWindowChatMemory} and {@link TokenWindowChatMemory} write every change to their {@link ChatMemoryStore},
+ * so nothing is lost on eviction, as long as the new instance uses the same store.
+ * This is not the case with the default {@link InMemoryChatMemoryStore}, which is created per chat memory:
+ * a shared (usually persistent) store must be configured in the chat memories provided.
+ * The registry does not flush anything on eviction: if the store buffers its writes
+ * (e.g. {@link dev.langchain4j.store.memory.chat.WriteBehindChatMemoryStore}), the messages of an evicted
+ * chat memory are written whenever the store flushes, and {@link Builder#evictionListener(Consumer)} can be used
+ * to flush them earlier.
+ * <p>
+ * Chat memories are obtained from the {@link ChatMemoryProvider} outside the lock of the registry,
+ * so a slow provider does not block the retrieval of other chat memories. When the same missing chat memory
+ * is retrieved concurrently, the provider can be called more than once, and only one of the instances is kept.
+ * <p>
+ * The number of retrievals that found a chat memory in the registry, that did not, and the number of evictions
+ * are reported by {@link #hitCount()}, {@link #missCount()} and {@link #evictionCount()}.
+ */
+public class ChatMemoryRegistry {
+
+    private final ChatMemoryProvider chatMemoryProvider;
+    private final Integer maxSize;
+    private final Integer maxTotalMessages;
+    private final Long idleTimeoutNanos;
+    private final Consumer<ChatMemory> evictionListener;
+
+    private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalMessages;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private static class Entry {
+
+        final ChatMemory chatMemory;
+        long lastAccessNanos;
+        int messageCount;
+
+        Entry(ChatMemory chatMemory, long lastAccessNanos) {
+            this.chatMemory = chatMemory;
+            this.lastAccessNanos = lastAccessNanos;
+        }
+    }
+
+    private ChatMemoryRegistry(Builder builder) {
+        this.chatMemoryProvider = ensureNotNull(builder.chatMemoryProvider, "chatMemoryProvider");
+        this.maxSize = builder.maxSize == null ? null : ensureGreaterThanZero(builder.maxSize, "maxSize");
+        this.maxTotalMessages = builder.maxTotalMessages == null
+                ? null : ensureGreaterThanZero(builder.maxTotalMessages, "maxTotalMessages");
+        Duration idleTimeout = builder.idleTimeout;
+        if (idleTimeout != null && (idleTimeout.isNegative() || idleTimeout.isZero())) {
+            throw illegalArgument("idleTimeout must be positive, but is: %s", idleTimeout);
+        }
+        this.idleTimeoutNanos = idleTimeout == null ? null : idleTimeout.toNanos();
+        this.evictionListener = builder.evictionListener;
+    }
+
+    /**
+     * Retrieves the chat memory with the specified ID,
+     * obtaining it from the {@link ChatMemoryProvider} if it is not in the registry.
+     *
+     * @param memoryId The ID of the chat memory.
+     * @return the chat memory.
+     */
+    public ChatMemory get(Object memoryId) {
+        List<ChatMemory> evicted = new ArrayList<>();
+        Entry entry;
+        synchronized (entries) {
+            long now = System.nanoTime();
+            evictIdle(now, evicted);
+            entry = entries.get(memoryId);
+            if (entry != null) {
+                hitCount.incrementAndGet();
+                entry.lastAccessNanos = now;
+            }
+        }
+
+        if (entry == null) {
+            missCount.incrementAndGet();
+            // obtained outside the lock, as it might read from the ChatMemoryStore
+            ChatMemory chatMemory = chatMemoryProvider.get(memoryId);
+            synchronized (entries) {
+                long now = System.nanoTime();
+                entry = entries.get(memoryId);
+                if (entry != null) {
+                    // obtained concurrently by another retrieval, which is kept
+                    entry.lastAccessNanos = now;
+                } else {
+                    entry = new Entry(chatMemory, now);
+                    entries.put(memoryId, entry);
+                    evictExcess(evicted);
+                }
+            }
+        }
+
+        if (maxTotalMessages != null) {
+            // counted outside the lock, as it might read from the ChatMemoryStore
+            int messageCount = entry.chatMemory.messages().size();
+            synchronized (entries) {
+                if (entries.get(memoryId) == entry) {
+                    totalMessages += messageCount - entry.messageCount;
+                    entry.messageCount = messageCount;
+                    evictExcess(evicted);
+                }
+            }
+        }
+
+        notifyEvicted(evicted);
+        return entry.chatMemory;
+    }
+
+    /**
+     * Evicts the chat memory with the specified ID, if it is in the registry.
+     *
+     * @param memoryId The ID of the chat memory.
+     */
+    public void evict(Object memoryId) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.remove(memoryId);
+            if (entry != null) {
+                totalMessages -= entry.messageCount;
+                evictionCount.incrementAndGet();
+            }
+        }
+        if (entry != null && evictionListener != null) {
+            evictionListener.accept(entry.chatMemory);
+        }
+    }
+
+    /**
+     * Evicts all chat memories.
+     */
+    public void evictAll() {
+        List<ChatMemory> evicted = new ArrayList<>();
+        synchronized (entries) {
+            for (Entry entry : entries.values()) {
+                evicted.add(entry.chatMemory);
+            }
+            entries.clear();
+            totalMessages = 0;
+            evictionCount.addAndGet(evicted.size());
+        }
+        notifyEvicted(evicted);
+    }
+
+    /**
+     * @return the number of chat memories currently in the registry.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return the number of retrievals that found the chat memory in the registry.
+     */
+    public long hitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of retrievals that obtained the chat memory from the {@link ChatMemoryProvider}.
+     */
+    public long missCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the number of chat memories evicted from the registry.
+     */
+    public long evictionCount() {
+        return evictionCount.get();
+    }
+
+    private void evictIdle(long now, List<ChatMemory> evicted) {
+        if (idleTimeoutNanos == null) {
+            return;
+        }
+        // entries are in access order, so the idle ones are at the beginning
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (now - entry.lastAccessNanos < idleTimeoutNanos) {
+                break;
+            }
+            iterator.remove();
+            evicted(entry, evicted);
+        }
+    }
+
+    private void evictExcess(List<ChatMemory> evicted) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > 1 && (exceedsMaxSize() || exceedsMaxTotalMessages())) {
+            Entry entry = iterator.next();
+            iterator.remove();
+            evicted(entry, evicted);
+        }
+    }
+
+    private boolean exceedsMaxSize() {
+        return maxSize != null && entries.size() > maxSize;
+    }
+
+    private boolean exceedsMaxTotalMessages() {
+        return maxTotalMessages != null && totalMessages > maxTotalMessages;
+    }
+
+    private void evicted(Entry entry, List<ChatMemory> evicted) {
+        totalMessages -= entry.messageCount;
+        evictionCount.incrementAndGet();
+        evicted.add(entry.chatMemory);
+    }
+
+    private void notifyEvicted(List<ChatMemory> evicted) {
+        if (evictionListener == null) {
+            return;
+        }
+        for (ChatMemory chatMemory : evicted) {
+            evictionListener.accept(chatMemory);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private ChatMemoryProvider chatMemoryProvider;
+        private Integer maxSize;
+        private Integer maxTotalMessages;
+        private Duration idleTimeout;
+        private Consumer<ChatMemory> evictionListener;
+
+        /**
+         * @param chatMemoryProvider The provider of a {@link ChatMemory} for each ID missing from the registry.
+         * @return builder
+         */
+        public Builder chatMemoryProvider(ChatMemoryProvider chatMemoryProvider) {
+            this.chatMemoryProvider = chatMemoryProvider;
+            return this;
+        }
+
+        /**
+         * @param maxSize The maximum number of chat memories in the registry.
+         *                If not provided, the number of chat memories is not limited.
+         * @return builder
+         */
+        public Builder maxSize(Integer maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * @param maxTotalMessages The maximum total number of messages held by the chat memories in the registry.
+         *                         If not provided, the number of messages is not limited.
+         * @return builder
+         */
+        public Builder maxTotalMessages(Integer maxTotalMessages) {
+            this.maxTotalMessages = maxTotalMessages;
+            return this;
+        }
+
+        /**
+         * @param idleTimeout The time after which a chat memory that was not retrieved is evicted.
+         *                    If not provided, chat memories are not evicted because of inactivity.
+         * @return builder
+         */
+        public Builder idleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        /**
+         * @param evictionListener Called with each evicted chat memory, e.g. to flush its state.
+         *                         It is called outside the lock of the registry.
+         * @return builder
+         */
+        public Builder evictionListener(Consumer<ChatMemory> evictionListener) {
+            this.evictionListener = evictionListener;
+            return this;
+        }
+
+        public ChatMemoryRegistry build() {
+            return new ChatMemoryRegistry(this);
+        }
+    }
+}
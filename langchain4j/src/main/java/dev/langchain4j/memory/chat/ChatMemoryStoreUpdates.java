@@ -0,0 +1,78 @@
+package dev.langchain4j.memory.chat;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import dev.langchain4j.store.memory.chat.IncrementalChatMemoryStore;
+
+import java.util.List;
+
+/**
+ * Writes the new state of a chat memory to its {@link ChatMemoryStore}.
+ */
+class ChatMemoryStoreUpdates {
+
+    private ChatMemoryStoreUpdates() {
+    }
+
+    /**
+     * Writes the new messages of a chat memory. When the store is an {@link IncrementalChatMemoryStore}
+     * {@linkplain IncrementalChatMemoryStore#supportsIncrementalUpdates() supporting incremental updates}
+     * and the new messages are the stored ones with a range of messages removed and messages appended
+     * (the usual outcome of adding a message to a memory), only these changes are written.
+     * Otherwise, all messages are replaced.
+     *
+     * @param store          The store.
+     * @param memoryId       The ID of the chat memory.
+     * @param storedMessages The messages currently stored.
+     * @param messages       The new messages.
+     */
+    static void updateMessages(ChatMemoryStore store,
+                               Object memoryId,
+                               List<ChatMessage> storedMessages,
+                               List<ChatMessage> messages) {
+        if (!(store instanceof IncrementalChatMemoryStore)
+                || !((IncrementalChatMemoryStore) store).supportsIncrementalUpdates()) {
+            store.updateMessages(memoryId, messages);
+            return;
+        }
+        IncrementalChatMemoryStore incrementalStore = (IncrementalChatMemoryStore) store;
+
+        int commonPrefix = 0;
+        while (commonPrefix < storedMessages.size()
+                && commonPrefix < messages.size()
+                && storedMessages.get(commonPrefix).equals(messages.get(commonPrefix))) {
+            commonPrefix++;
+        }
+
+        for (int removed = 0; commonPrefix + removed <= storedMessages.size(); removed++) {
+            int retained = storedMessages.size() - commonPrefix - removed;
+            if (commonPrefix + retained > messages.size()) {
+                continue;
+            }
+            if (rangeEquals(storedMessages, commonPrefix + removed, messages, commonPrefix, retained)) {
+                // appended messages are written first: if the removal fails, the memory is only longer than it should be
+                List<ChatMessage> appended = messages.subList(commonPrefix + retained, messages.size());
+                if (!appended.isEmpty()) {
+                    incrementalStore.appendMessages(memoryId, appended);
+                }
+                if (removed > 0) {
+                    incrementalStore.removeMessages(memoryId, commonPrefix, removed);
+                }
+                return;
+            }
+        }
+
+        store.updateMessages(memoryId, messages);
+    }
+
+    private static boolean rangeEquals(List<ChatMessage> messages1, int from1,
+                                       List<ChatMessage> messages2, int from2,
+                                       int length) {
+        for (int i = 0; i < length; i++) {
+            if (!messages1.get(from1 + i).equals(messages2.get(from2 + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
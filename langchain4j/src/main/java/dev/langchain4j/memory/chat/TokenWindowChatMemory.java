@@ -12,12 +12,17 @@ import dev.langchain4j.store.memory.chat.InMemoryChatMemoryStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.util.Collections.emptyList;
 
 /**
  * This chat memory operates as a sliding window of {@link #maxTokens} tokens.
@@ -35,6 +40,12 @@ import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
  * to avoid problems with some LLM providers (such as OpenAI)
  * that prohibit sending orphan {@code ToolExecutionResultMessage}(s) in the request.
  * <p>
+ * The token count of each message is estimated once and cached by this chat memory.
+ * The cache is keyed by message equality, so it also applies to the copies of the messages
+ * returned by a {@link ChatMemoryStore} that serializes them.
+ * The token count of the messages is the sum of their token counts,
+ * plus the fixed overhead of a request estimated by the {@link Tokenizer} for no messages.
+ * <p>
  * The state of chat memory is stored in {@link ChatMemoryStore} ({@link InMemoryChatMemoryStore} is used by default).
  */
 public class TokenWindowChatMemory implements ChatMemory {
@@ -46,6 +57,9 @@ public class TokenWindowChatMemory implements ChatMemory {
     private final Tokenizer tokenizer;
     private final ChatMemoryStore store;
 
+    private final Map<ChatMessage, Integer> tokenCountCache = new ConcurrentHashMap<>();
+    private volatile Integer tokenCountOverhead;
+
     private TokenWindowChatMemory(Builder builder) {
         this.id = ensureNotNull(builder.id, "id");
         this.maxTokens = ensureGreaterThanZero(builder.maxTokens, "maxTokens");
@@ -60,7 +74,9 @@ public class TokenWindowChatMemory implements ChatMemory {
 
     @Override
     public void add(ChatMessage message) {
-        List<ChatMessage> messages = messages();
+        List<ChatMessage> storedMessages = store.getMessages(id);
+        List<ChatMessage> messages = new ArrayList<>(storedMessages);
+        ensureCapacity(messages);
         if (message instanceof SystemMessage) {
             Optional<SystemMessage> maybeSystemMessage = findSystemMessage(messages);
             if (maybeSystemMessage.isPresent()) {
@@ -72,8 +88,8 @@ public class TokenWindowChatMemory implements ChatMemory {
             }
         }
         messages.add(message);
-        ensureCapacity(messages, maxTokens, tokenizer);
-        store.updateMessages(id, messages);
+        ensureCapacity(messages);
+        ChatMemoryStoreUpdates.updateMessages(store, id, storedMessages, messages);
     }
 
     private static Optional<SystemMessage> findSystemMessage(List<ChatMessage> messages) {
@@ -86,13 +102,16 @@ public class TokenWindowChatMemory implements ChatMemory {
     @Override
     public List<ChatMessage> messages() {
         List<ChatMessage> messages = new LinkedList<>(store.getMessages(id));
-        ensureCapacity(messages, maxTokens, tokenizer);
+        ensureCapacity(messages);
         return messages;
     }
 
-    private static void ensureCapacity(List<ChatMessage> messages, int maxTokens, Tokenizer tokenizer) {
+    private void ensureCapacity(List<ChatMessage> messages) {
 
-        int currentTokenCount = tokenizer.estimateTokenCountInMessages(messages);
+        int currentTokenCount = tokenCountOverhead();
+        for (ChatMessage message : messages) {
+            currentTokenCount += estimateTokenCount(message);
+        }
         while (currentTokenCount > maxTokens) {
 
             int messageToEvictIndex = 0;
@@ -101,7 +120,7 @@ public class TokenWindowChatMemory implements ChatMemory {
             }
 
             ChatMessage evictedMessage = messages.remove(messageToEvictIndex);
-            int tokenCountOfEvictedMessage = tokenizer.estimateTokenCountInMessage(evictedMessage);
+            int tokenCountOfEvictedMessage = estimateTokenCount(evictedMessage);
             log.trace("Evicting the following message ({} tokens) to comply with the capacity requirement: {}",
                     tokenCountOfEvictedMessage, evictedMessage);
             currentTokenCount -= tokenCountOfEvictedMessage;
@@ -113,15 +132,39 @@ public class TokenWindowChatMemory implements ChatMemory {
                     // so we have to automatically evict orphan ToolExecutionResultMessage(s) if AiMessage was evicted
                     ChatMessage orphanToolExecutionResultMessage = messages.remove(messageToEvictIndex);
                     log.trace("Evicting orphan {}", orphanToolExecutionResultMessage);
-                    currentTokenCount -= tokenizer.estimateTokenCountInMessage(orphanToolExecutionResultMessage);
+                    currentTokenCount -= estimateTokenCount(orphanToolExecutionResultMessage);
                 }
             }
         }
+
+        if (tokenCountCache.size() > 2 * messages.size()) {
+            // forget evicted messages, only once the cache doubled so that pruning is amortized
+            tokenCountCache.keySet().retainAll(new HashSet<>(messages));
+        }
+    }
+
+    private int estimateTokenCount(ChatMessage message) {
+        Integer tokenCount = tokenCountCache.get(message);
+        if (tokenCount == null) {
+            tokenCount = tokenizer.estimateTokenCountInMessage(message);
+            tokenCountCache.put(message, tokenCount);
+        }
+        return tokenCount;
+    }
+
+    private int tokenCountOverhead() {
+        Integer tokenCountOverhead = this.tokenCountOverhead;
+        if (tokenCountOverhead == null) {
+            tokenCountOverhead = tokenizer.estimateTokenCountInMessages(emptyList());
+            this.tokenCountOverhead = tokenCountOverhead;
+        }
+        return tokenCountOverhead;
     }
 
     @Override
     public void clear() {
         store.deleteMessages(id);
+        tokenCountCache.clear();
     }
 
     public static Builder builder() {
@@ -3,21 +3,32 @@ package dev.langchain4j.service;
 import dev.langchain4j.agent.tool.ToolSpecification;
 import dev.langchain4j.memory.ChatMemory;
 import dev.langchain4j.memory.chat.ChatMemoryProvider;
+import dev.langchain4j.memory.chat.ChatMemoryRegistry;
 import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.chat.cache.CachingChatLanguageModel;
+import dev.langchain4j.model.chat.cache.CachingStreamingChatLanguageModel;
 import dev.langchain4j.model.moderation.ModerationModel;
 import dev.langchain4j.rag.RetrievalAugmentor;
 import dev.langchain4j.service.tool.ToolExecutor;
 import dev.langchain4j.service.tool.ToolProvider;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 public class AiServiceContext {
 
     private static final Function<Object, Optional<String>> DEFAULT_MESSAGE_PROVIDER = x -> Optional.empty();
+    private static final Predicate<Object> NEVER = x -> false;
 
     public final Class<?> aiServiceClass;
 
@@ -26,26 +37,84 @@ public class AiServiceContext {
 
     public Map</* id */ Object, ChatMemory> chatMemories;
     public ChatMemoryProvider chatMemoryProvider;
+    public ChatMemoryRegistry chatMemoryRegistry;
 
     public ModerationModel moderationModel;
 
     public List<ToolSpecification> toolSpecifications;
     public Map<String, ToolExecutor> toolExecutors;
     public ToolProvider toolProvider;
+    public Executor toolExecutionExecutor;
+    public Duration toolExecutionTimeout;
+    public Executor streamingToolExecutionExecutor;
 
     public RetrievalAugmentor retrievalAugmentor;
 
     public Function<Object, Optional<String>> systemMessageProvider = DEFAULT_MESSAGE_PROVIDER;
 
+    public Predicate<Object> responseCacheBypass = NEVER;
+
     public AiServiceContext(Class<?> aiServiceClass) {
         this.aiServiceClass = aiServiceClass;
     }
 
     public boolean hasChatMemory() {
-        return chatMemories != null;
+        return chatMemories != null || chatMemoryRegistry != null;
     }
 
     public ChatMemory chatMemory(Object memoryId) {
+        if (chatMemoryRegistry != null) {
+            return chatMemoryRegistry.get(memoryId);
+        }
         return chatMemories.computeIfAbsent(memoryId, ignored -> chatMemoryProvider.get(memoryId));
     }
+
+    /**
+     * @return the executor of the tools requested by a streaming chat model, and of the subsequent request to the model.
+     * If none is configured, a shared modified (keepAliveTime is 1 second instead of 60 seconds, daemon threads)
+     * {@link java.util.concurrent.Executors#newCachedThreadPool()} is used. It is unbounded: it starts a thread
+     * for each tool execution that finds no idle thread, so the number of its threads follows the number
+     * of concurrent streams that execute tools.
+     */
+    public Executor streamingToolExecutionExecutor() {
+        return streamingToolExecutionExecutor != null
+                ? streamingToolExecutionExecutor
+                : DefaultStreamingToolExecutionExecutor.INSTANCE;
+    }
+
+    private static class DefaultStreamingToolExecutionExecutor {
+
+        private static final Executor INSTANCE = new ThreadPoolExecutor(
+                0, Integer.MAX_VALUE,
+                1, SECONDS,
+                new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "langchain4j-streaming-tool-execution");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+    }
+
+    /**
+     * @return the chat model to use for the specified chat memory,
+     * which bypasses the response cache if configured so (see {@link #responseCacheBypass}).
+     */
+    public ChatLanguageModel chatModel(Object memoryId) {
+        if (chatModel instanceof CachingChatLanguageModel && responseCacheBypass.test(memoryId)) {
+            return ((CachingChatLanguageModel) chatModel).delegate();
+        }
+        return chatModel;
+    }
+
+    /**
+     * @return the streaming chat model to use for the specified chat memory,
+     * which bypasses the response cache if configured so (see {@link #responseCacheBypass}).
+     */
+    public StreamingChatLanguageModel streamingChatModel(Object memoryId) {
+        if (streamingChatModel instanceof CachingStreamingChatLanguageModel && responseCacheBypass.test(memoryId)) {
+            return ((CachingStreamingChatLanguageModel) streamingChatModel).delegate();
+        }
+        return streamingChatModel;
+    }
 }
@@ -15,6 +15,7 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Consumer;
 
 import static dev.langchain4j.internal.Utils.copyIfNotNull;
@@ -76,32 +77,19 @@ class AiServiceStreamingResponseHandler implements StreamingResponseHandler<AiMe
         addToMemory(aiMessage);
 
         if (aiMessage.hasToolExecutionRequests()) {
-            for (ToolExecutionRequest toolExecutionRequest : aiMessage.toolExecutionRequests()) {
-                String toolName = toolExecutionRequest.name();
-                ToolExecutor toolExecutor = toolExecutors.get(toolName);
-                String toolExecutionResult = toolExecutor.execute(toolExecutionRequest, memoryId);
-                ToolExecutionResultMessage toolExecutionResultMessage = ToolExecutionResultMessage.from(
-                        toolExecutionRequest,
-                        toolExecutionResult
-                );
-                addToMemory(toolExecutionResultMessage);
+            // tools can be slow, so they are not executed in the thread that delivered the response,
+            // which is usually a thread shared by all the streams of the HTTP client of the model
+            try {
+                context.streamingToolExecutionExecutor().execute(() -> {
+                    try {
+                        executeToolsAndContinue(aiMessage, response.tokenUsage());
+                    } catch (Exception e) {
+                        onError(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                onError(e);
             }
-
-            context.streamingChatModel.generate(
-                    messagesToSend(memoryId),
-                    toolSpecifications,
-                    new AiServiceStreamingResponseHandler(
-                            context,
-                            memoryId,
-                            tokenHandler,
-                            completionHandler,
-                            errorHandler,
-                            temporaryMemory,
-                            TokenUsage.sum(tokenUsage, response.tokenUsage()),
-                            toolSpecifications,
-                            toolExecutors
-                    )
-            );
         } else {
             if (completionHandler != null) {
                 completionHandler.accept(Response.from(
@@ -113,6 +101,35 @@ class AiServiceStreamingResponseHandler implements StreamingResponseHandler<AiMe
         }
     }
 
+    private void executeToolsAndContinue(AiMessage aiMessage, TokenUsage responseTokenUsage) {
+        List<ToolExecutionRequest> toolExecutionRequests = aiMessage.toolExecutionRequests();
+        List<String> toolExecutionResults = ToolExecutions.execute(
+                context, toolExecutors, toolExecutionRequests, memoryId);
+        for (int i = 0; i < toolExecutionRequests.size(); i++) {
+            ToolExecutionResultMessage toolExecutionResultMessage = ToolExecutionResultMessage.from(
+                    toolExecutionRequests.get(i),
+                    toolExecutionResults.get(i)
+            );
+            addToMemory(toolExecutionResultMessage);
+        }
+
+        context.streamingChatModel(memoryId).generate(
+                messagesToSend(memoryId),
+                toolSpecifications,
+                new AiServiceStreamingResponseHandler(
+                        context,
+                        memoryId,
+                        tokenHandler,
+                        completionHandler,
+                        errorHandler,
+                        temporaryMemory,
+                        TokenUsage.sum(tokenUsage, responseTokenUsage),
+                        toolSpecifications,
+                        toolExecutors
+                )
+        );
+    }
+
     private void addToMemory(ChatMessage chatMessage) {
         if (context.hasChatMemory()) {
             context.chatMemory(memoryId).add(chatMessage);
@@ -111,9 +111,9 @@ public class AiServiceTokenStream implements TokenStream {
         }
 
         if (isNullOrEmpty(toolSpecifications)) {
-            context.streamingChatModel.generate(messages, handler);
+            context.streamingChatModel(memoryId).generate(messages, handler);
         } else {
-            context.streamingChatModel.generate(messages, toolSpecifications, handler);
+            context.streamingChatModel(memoryId).generate(messages, toolSpecifications, handler);
         }
     }
 
@@ -8,8 +8,11 @@ import dev.langchain4j.data.message.ToolExecutionResultMessage;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.memory.ChatMemory;
 import dev.langchain4j.memory.chat.ChatMemoryProvider;
+import dev.langchain4j.memory.chat.ChatMemoryRegistry;
 import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.chat.cache.CachingChatLanguageModel;
+import dev.langchain4j.model.chat.cache.CachingStreamingChatLanguageModel;
 import dev.langchain4j.model.input.structured.StructuredPrompt;
 import dev.langchain4j.model.moderation.Moderation;
 import dev.langchain4j.model.moderation.ModerationModel;
@@ -26,14 +29,19 @@ import dev.langchain4j.service.tool.ToolProvider;
 import dev.langchain4j.spi.services.AiServicesFactory;
 
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 import static dev.langchain4j.agent.tool.ToolSpecifications.toolSpecificationFrom;
 import static dev.langchain4j.exception.IllegalConfigurationException.illegalConfiguration;
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 import static dev.langchain4j.spi.ServiceHelper.loadFactories;
 import static java.util.Arrays.asList;
@@ -210,6 +218,24 @@ public abstract class AiServices<T> {
         return this;
     }
 
+    /**
+     * Configures the chat memories for which the response cache is bypassed, e.g. because their conversations
+     * are personal or time-sensitive. Applies only when the configured chat model is a
+     * {@link CachingChatLanguageModel} or a {@link CachingStreamingChatLanguageModel}:
+     * for matching chat memories, the model that they decorate is called directly, and its responses are not cached.
+     *
+     * @param memoryIdPredicate A {@link Predicate} that accepts a chat memory ID
+     *                          (a value of a method parameter annotated with @{@link MemoryId})
+     *                          and returns {@code true} if the response cache must be bypassed.
+     *                          If there is no parameter annotated with {@code @MemoryId},
+     *                          the value of memory ID is "default".
+     * @return builder
+     */
+    public AiServices<T> responseCacheBypass(Predicate<Object> memoryIdPredicate) {
+        context.responseCacheBypass = ensureNotNull(memoryIdPredicate, "memoryIdPredicate");
+        return this;
+    }
+
     /**
      * Configures the system message provider, which provides a system message to be used each time an AI service is invoked.
      * <br>
@@ -249,6 +275,7 @@ public abstract class AiServices<T> {
     public AiServices<T> chatMemory(ChatMemory chatMemory) {
         context.chatMemories = new ConcurrentHashMap<>();
         context.chatMemories.put(DEFAULT, chatMemory);
+        context.chatMemoryRegistry = null;
         return this;
     }
 
@@ -275,6 +302,30 @@ public abstract class AiServices<T> {
     public AiServices<T> chatMemoryProvider(ChatMemoryProvider chatMemoryProvider) {
         context.chatMemories = new ConcurrentHashMap<>();
         context.chatMemoryProvider = chatMemoryProvider;
+        context.chatMemoryRegistry = null;
+        return this;
+    }
+
+    /**
+     * Configures the chat memory registry, which provides a dedicated instance of {@link ChatMemory} for each user/conversation,
+     * like {@link #chatMemoryProvider(ChatMemoryProvider)} does, but keeps only a bounded number of them in memory.
+     * This is useful for long-running services with many distinct memory IDs,
+     * which would otherwise keep the chat memory of every user/conversation ever seen.
+     * <p>
+     * Evicted chat memories are obtained again from the {@link ChatMemoryProvider} of the registry when needed,
+     * so they should be backed by a shared {@link dev.langchain4j.store.memory.chat.ChatMemoryStore}.
+     * <p>
+     * Either a {@link ChatMemory}, a {@link ChatMemoryProvider} or a {@link ChatMemoryRegistry} can be configured,
+     * but not several of them simultaneously.
+     *
+     * @param chatMemoryRegistry The registry of a {@link ChatMemory} for each user/conversation.
+     * @return builder
+     * @see ChatMemoryRegistry
+     */
+    public AiServices<T> chatMemoryRegistry(ChatMemoryRegistry chatMemoryRegistry) {
+        context.chatMemories = null;
+        context.chatMemoryProvider = null;
+        context.chatMemoryRegistry = ensureNotNull(chatMemoryRegistry, "chatMemoryRegistry");
         return this;
     }
 
@@ -386,6 +437,69 @@ public abstract class AiServices<T> {
         return this;
     }
 
+    /**
+     * Configures the AI Service to execute the tools requested in a single response of the LLM concurrently,
+     * instead of one after another, so that the duration of the execution is bounded by the slowest tool.
+     * The results are still sent to the LLM (and added to the chat memory) in the order of the requests.
+     * <p>
+     * The tools are executed in a virtual thread per execution when running on Java 21 or newer,
+     * otherwise in a modified (keepAliveTime is 1 second instead of 60 seconds) {@link Executors#newCachedThreadPool()}.
+     * Use {@link #executeToolsConcurrently(Executor)} to provide a custom {@link Executor}.
+     *
+     * @return builder
+     */
+    public AiServices<T> executeToolsConcurrently() {
+        return executeToolsConcurrently(ToolExecutions.createDefaultExecutor());
+    }
+
+    /**
+     * Configures the AI Service to execute the tools requested in a single response of the LLM concurrently,
+     * using the specified {@link Executor}. See {@link #executeToolsConcurrently()} for more details.
+     *
+     * @param executor The executor of the tools.
+     * @return builder
+     */
+    public AiServices<T> executeToolsConcurrently(Executor executor) {
+        context.toolExecutionExecutor = ensureNotNull(executor, "executor");
+        return this;
+    }
+
+    /**
+     * Configures the maximum duration of a tool execution when tools are executed concurrently
+     * (see {@link #executeToolsConcurrently()}).
+     * When a tool does not complete in time, its result sent to the LLM is a message saying that it timed out.
+     *
+     * @param timeout The maximum duration of a tool execution. By default, tool executions do not time out.
+     * @return builder
+     */
+    public AiServices<T> toolExecutionTimeout(Duration timeout) {
+        if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+            throw illegalArgument("timeout must be positive, but is: %s", timeout);
+        }
+        context.toolExecutionTimeout = timeout;
+        return this;
+    }
+
+    /**
+     * Configures the executor of the tools requested by a {@link StreamingChatLanguageModel}.
+     * <p>
+     * The tools, and the subsequent request to the model with their results, are not executed in the thread
+     * that delivered the response of the model, which is usually shared by all the streams of its HTTP client:
+     * a slow tool would stall the other streams.
+     * By default, a shared modified (keepAliveTime is 1 second instead of 60 seconds, daemon threads)
+     * {@link Executors#newCachedThreadPool()} is used. It is unbounded: each concurrent tool execution gets a thread,
+     * so a burst of streams requesting tools starts as many threads.
+     * To limit the number of concurrent tool executions, provide a bounded executor,
+     * e.g. {@link Executors#newFixedThreadPool(int)}.
+     *
+     * @param executor The executor of the tools requested by a streaming chat model.
+     * @return builder
+     */
+    public AiServices<T> streamingToolExecutionExecutor(Executor executor) {
+        context.streamingToolExecutionExecutor = ensureNotNull(executor, "executor");
+        return this;
+    }
+
     /**
      * Deprecated. Use {@link #contentRetriever(ContentRetriever)}
      * (e.g. {@link EmbeddingStoreContentRetriever}) instead.
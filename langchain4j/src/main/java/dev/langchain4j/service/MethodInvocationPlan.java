@@ -0,0 +1,313 @@
+package dev.langchain4j.service;
+
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.request.json.JsonSchema;
+import dev.langchain4j.model.input.Prompt;
+import dev.langchain4j.model.input.PromptTemplate;
+import dev.langchain4j.model.input.structured.StructuredPrompt;
+import dev.langchain4j.model.input.structured.StructuredPromptProcessor;
+import dev.langchain4j.service.output.ServiceOutputParser;
+
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Scanner;
+import java.util.function.Function;
+
+import static dev.langchain4j.exception.IllegalConfigurationException.illegalConfiguration;
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+import static dev.langchain4j.service.output.JsonSchemas.jsonSchemaFrom;
+
+/**
+ * Everything an AI Service needs to know about one of its methods, resolved once from the method's signature
+ * and annotations: which parameters hold the memory ID, the user name and the template variables,
+ * the system and user message templates (read from resources and parsed once),
+ * and, lazily, the JSON schema and the output format instructions of the return type.
+ * <p>
+ * A plan only depends on the method, so it can be cached and shared by all invocations of the method.
+ */
+class MethodInvocationPlan {
+
+    private static final int NONE = -1;
+
+    private final String methodName;
+    private final Type returnType;
+    private final boolean moderated;
+
+    private final int memoryIdIndex;
+    private final String memoryIdParameterName;
+    private final int userNameIndex;
+    private final List<String> variableNames = new ArrayList<>();
+    private final List<Integer> variableIndices = new ArrayList<>();
+    private final int itIndex;
+
+    private final Template systemMessageTemplate;
+    private final Template userMessageTemplate;
+    private final int userMessageIndex;
+
+    private volatile Optional<JsonSchema> jsonSchema;
+    private volatile String outputFormatInstructions;
+
+    /**
+     * A template known before the method is invoked, i.e. one defined in an annotation of the method.
+     */
+    private static class Template {
+
+        final PromptTemplate promptTemplate;
+        final boolean containsIt;
+
+        Template(String template) {
+            this.promptTemplate = PromptTemplate.from(template);
+            this.containsIt = template.contains("{{it}}");
+        }
+    }
+
+    private MethodInvocationPlan(Method method) {
+        this.methodName = method.getName();
+        this.returnType = method.getGenericReturnType();
+        this.moderated = method.isAnnotationPresent(Moderate.class);
+
+        Parameter[] parameters = method.getParameters();
+
+        int memoryIdIndex = NONE;
+        int userNameIndex = NONE;
+        int userMessageParameterIndex = NONE;
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            if (memoryIdIndex == NONE && parameter.isAnnotationPresent(MemoryId.class)) {
+                memoryIdIndex = i;
+            }
+            if (userNameIndex == NONE && parameter.isAnnotationPresent(UserName.class)) {
+                userNameIndex = i;
+            }
+            if (userMessageParameterIndex == NONE
+                    && parameter.isAnnotationPresent(dev.langchain4j.service.UserMessage.class)) {
+                userMessageParameterIndex = i;
+            }
+            V v = parameter.getAnnotation(V.class);
+            if (v != null) {
+                variableNames.add(v.value());
+                variableIndices.add(i);
+            }
+        }
+        this.memoryIdIndex = memoryIdIndex;
+        this.memoryIdParameterName = memoryIdIndex == NONE ? null : parameters[memoryIdIndex].getName();
+        this.userNameIndex = userNameIndex;
+        this.itIndex = findIndexOfVariableIt(parameters);
+
+        dev.langchain4j.service.SystemMessage systemMessage = method.getAnnotation(dev.langchain4j.service.SystemMessage.class);
+        this.systemMessageTemplate = systemMessage == null
+                ? null
+                : new Template(getTemplate(method, "System", systemMessage.fromResource(), systemMessage.value(), systemMessage.delimiter()));
+
+        dev.langchain4j.service.UserMessage userMessage = method.getAnnotation(dev.langchain4j.service.UserMessage.class);
+        if (userMessage != null) {
+            String template = getTemplate(method, "User", userMessage.fromResource(), userMessage.value(), userMessage.delimiter());
+            if (userMessageParameterIndex != NONE) {
+                throw illegalConfiguration(
+                        "Error: The method '%s' has multiple @UserMessage annotations. Please use only one.",
+                        methodName
+                );
+            }
+            this.userMessageTemplate = new Template(template);
+            this.userMessageIndex = NONE;
+        } else if (userMessageParameterIndex != NONE) {
+            this.userMessageTemplate = null;
+            this.userMessageIndex = userMessageParameterIndex;
+        } else if (parameters.length == 1 && parameters[0].getAnnotations().length == 0) {
+            this.userMessageTemplate = null;
+            this.userMessageIndex = 0;
+        } else {
+            throw illegalConfiguration("Error: The method '%s' does not have a user message defined.", methodName);
+        }
+    }
+
+    /**
+     * Creates a plan for the specified method of an AI Service.
+     *
+     * @param method The method of an AI Service.
+     * @return the plan.
+     * @throws dev.langchain4j.exception.IllegalConfigurationException if the method is not a valid AI Service method.
+     */
+    static MethodInvocationPlan from(Method method) {
+        DefaultAiServices.validateParameters(method);
+        return new MethodInvocationPlan(method);
+    }
+
+    Type returnType() {
+        return returnType;
+    }
+
+    boolean isModerated() {
+        return moderated;
+    }
+
+    Optional<Object> findMemoryId(Object[] args) {
+        if (memoryIdIndex == NONE) {
+            return Optional.empty();
+        }
+        Object memoryId = args[memoryIdIndex];
+        if (memoryId == null) {
+            throw illegalArgument(
+                    "The value of parameter '%s' annotated with @MemoryId in method '%s' must not be null",
+                    memoryIdParameterName, methodName
+            );
+        }
+        return Optional.of(memoryId);
+    }
+
+    Optional<SystemMessage> prepareSystemMessage(Object memoryId,
+                                                 Object[] args,
+                                                 Function<Object, Optional<String>> systemMessageProvider) {
+        if (systemMessageTemplate != null) {
+            return Optional.of(apply(systemMessageTemplate.promptTemplate, systemMessageTemplate.containsIt, args)
+                    .toSystemMessage());
+        }
+        return systemMessageProvider.apply(memoryId)
+                .map(template -> apply(PromptTemplate.from(template), template.contains("{{it}}"), args)
+                        .toSystemMessage());
+    }
+
+    UserMessage prepareUserMessage(Object[] args) {
+        Prompt prompt;
+        if (userMessageTemplate != null) {
+            prompt = apply(userMessageTemplate.promptTemplate, userMessageTemplate.containsIt, args);
+        } else {
+            String template = toString(args[userMessageIndex]);
+            prompt = apply(PromptTemplate.from(template), template.contains("{{it}}"), args);
+        }
+
+        if (userNameIndex != NONE) {
+            return UserMessage.from(args[userNameIndex].toString(), prompt.text());
+        }
+        return prompt.toUserMessage();
+    }
+
+    /**
+     * @return the JSON schema of the return type, computed on first use.
+     */
+    Optional<JsonSchema> jsonSchema() {
+        Optional<JsonSchema> jsonSchema = this.jsonSchema;
+        if (jsonSchema == null) {
+            jsonSchema = jsonSchemaFrom(returnType);
+            this.jsonSchema = jsonSchema;
+        }
+        return jsonSchema;
+    }
+
+    /**
+     * @return the output format instructions of the return type, computed on first use.
+     */
+    String outputFormatInstructions(ServiceOutputParser serviceOutputParser) {
+        String outputFormatInstructions = this.outputFormatInstructions;
+        if (outputFormatInstructions == null) {
+            outputFormatInstructions = serviceOutputParser.outputFormatInstructions(returnType);
+            this.outputFormatInstructions = outputFormatInstructions;
+        }
+        return outputFormatInstructions;
+    }
+
+    private Prompt apply(PromptTemplate promptTemplate, boolean containsIt, Object[] args) {
+        Map<String, Object> variables = new HashMap<>();
+        for (int i = 0; i < variableIndices.size(); i++) {
+            variables.put(variableNames.get(i), args[variableIndices.get(i)]);
+        }
+        if (containsIt && !variables.containsKey("it")) {
+            if (itIndex == NONE) {
+                throw illegalConfiguration("Error: cannot find the value of the prompt template variable \"{{it}}\".");
+            }
+            variables.put("it", toString(args[itIndex]));
+        }
+        return promptTemplate.apply(variables);
+    }
+
+    private static int findIndexOfVariableIt(Parameter[] parameters) {
+        if (parameters.length == 1) {
+            Parameter parameter = parameters[0];
+            if (!parameter.isAnnotationPresent(MemoryId.class)
+                    && !parameter.isAnnotationPresent(dev.langchain4j.service.UserMessage.class)
+                    && !parameter.isAnnotationPresent(UserName.class)
+                    && (!parameter.isAnnotationPresent(V.class) || isAnnotatedWithIt(parameter))) {
+                return 0;
+            }
+        }
+
+        for (int i = 0; i < parameters.length; i++) {
+            if (isAnnotatedWithIt(parameters[i])) {
+                return i;
+            }
+        }
+
+        return NONE;
+    }
+
+    private static boolean isAnnotatedWithIt(Parameter parameter) {
+        V annotation = parameter.getAnnotation(V.class);
+        return annotation != null && "it".equals(annotation.value());
+    }
+
+    private static String getTemplate(Method method, String type, String resource, String[] value, String delimiter) {
+        String messageTemplate;
+        if (!resource.trim().isEmpty()) {
+            messageTemplate = getResourceText(method.getDeclaringClass(), resource);
+            if (messageTemplate == null) {
+                throw illegalConfiguration("@%sMessage's resource '%s' not found", type, resource);
+            }
+        } else {
+            messageTemplate = String.join(delimiter, value);
+        }
+        if (messageTemplate.trim().isEmpty()) {
+            throw illegalConfiguration("@%sMessage's template cannot be empty", type);
+        }
+        return messageTemplate;
+    }
+
+    private static String getResourceText(Class<?> clazz, String resource) {
+        InputStream inputStream = clazz.getResourceAsStream(resource);
+        if (inputStream == null) {
+            inputStream = clazz.getResourceAsStream("/" + resource);
+        }
+        return getText(inputStream);
+    }
+
+    private static String getText(InputStream inputStream) {
+        if (inputStream == null) {
+            return null;
+        }
+        try (Scanner scanner = new Scanner(inputStream);
+             Scanner s = scanner.useDelimiter("\\A")) {
+            return s.hasNext() ? s.next() : "";
+        }
+    }
+
+    private static String toString(Object arg) {
+        if (arg.getClass().isArray()) {
+            return arrayToString(arg);
+        } else if (arg.getClass().isAnnotationPresent(StructuredPrompt.class)) {
+            return StructuredPromptProcessor.toPrompt(arg).text();
+        } else {
+            return arg.toString();
+        }
+    }
+
+    private static String arrayToString(Object arg) {
+        StringBuilder sb = new StringBuilder("[");
+        int length = Array.getLength(arg);
+        for (int i = 0; i < length; i++) {
+            sb.append(toString(Array.get(arg, i)));
+            if (i < length - 1) {
+                sb.append(", ");
+            }
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+}
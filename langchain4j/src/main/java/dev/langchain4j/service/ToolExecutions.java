@@ -0,0 +1,126 @@
+package dev.langchain4j.service;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.service.tool.ToolExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Executes the tool execution requests of an {@link dev.langchain4j.data.message.AiMessage}:
+ * one after another by default, or concurrently if an {@link AiServiceContext#toolExecutionExecutor} is configured.
+ * <p>
+ * When a tool execution times out, the thread executing it is interrupted. A tool that does not respond
+ * to interruption keeps running, and its result is ignored.
+ */
+class ToolExecutions {
+
+    private static final Logger log = LoggerFactory.getLogger(ToolExecutions.class);
+
+    private ToolExecutions() {
+    }
+
+    /**
+     * @return the results of the tool executions, in the order of the requests.
+     */
+    static List<String> execute(AiServiceContext context,
+                                Map<String, ToolExecutor> toolExecutors,
+                                List<ToolExecutionRequest> toolExecutionRequests,
+                                Object memoryId) {
+
+        Executor executor = context.toolExecutionExecutor;
+        Duration timeout = context.toolExecutionTimeout;
+
+        List<String> results = new ArrayList<>(toolExecutionRequests.size());
+        if (executor == null || (toolExecutionRequests.size() == 1 && timeout == null)) {
+            for (ToolExecutionRequest toolExecutionRequest : toolExecutionRequests) {
+                results.add(execute(toolExecutors, toolExecutionRequest, memoryId));
+            }
+            return results;
+        }
+
+        // unlike a CompletableFuture, a FutureTask interrupts the thread executing it when it is cancelled,
+        // so that a tool that timed out does not keep holding a thread of the executor
+        List<FutureTask<String>> futures = new ArrayList<>(toolExecutionRequests.size());
+        for (ToolExecutionRequest toolExecutionRequest : toolExecutionRequests) {
+            FutureTask<String> future = new FutureTask<>(() -> execute(toolExecutors, toolExecutionRequest, memoryId));
+            executor.execute(future);
+            futures.add(future);
+        }
+
+        // all tools are started together, so each of them gets the same deadline
+        long deadline = timeout == null ? 0 : System.nanoTime() + timeout.toNanos();
+        for (int i = 0; i < futures.size(); i++) {
+            FutureTask<String> future = futures.get(i);
+            try {
+                results.add(timeout == null
+                        ? future.get()
+                        : future.get(deadline - System.nanoTime(), NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                ToolExecutionRequest toolExecutionRequest = toolExecutionRequests.get(i);
+                log.warn("Execution of tool '{}' timed out after {}", toolExecutionRequest.name(), timeout);
+                results.add(String.format("Execution of tool '%s' timed out after %s ms",
+                        toolExecutionRequest.name(), timeout.toMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                futures.forEach(f -> f.cancel(true));
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new RuntimeException(cause);
+            }
+        }
+        return results;
+    }
+
+    private static String execute(Map<String, ToolExecutor> toolExecutors,
+                                  ToolExecutionRequest toolExecutionRequest,
+                                  Object memoryId) {
+        ToolExecutor toolExecutor = toolExecutors.get(toolExecutionRequest.name());
+        return toolExecutor.execute(toolExecutionRequest, memoryId);
+    }
+
+    /**
+     * @return an executor starting a virtual thread per task when running on Java 21 or newer.
+     * Otherwise, a modified (keepAliveTime is 1 second instead of 60 seconds) {@link Executors#newCachedThreadPool()}.
+     */
+    static Executor createDefaultExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (Executor) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return createCachedThreadPool();
+        }
+    }
+
+    private static ExecutorService createCachedThreadPool() {
+        return new ThreadPoolExecutor(
+                0, Integer.MAX_VALUE,
+                1, SECONDS,
+                new SynchronousQueue<>()
+        );
+    }
+}
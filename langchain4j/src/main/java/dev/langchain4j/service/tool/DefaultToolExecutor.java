@@ -8,8 +8,11 @@ import dev.langchain4j.internal.Json;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -21,21 +24,48 @@ public class DefaultToolExecutor implements ToolExecutor {
 
     private static final Logger log = LoggerFactory.getLogger(DefaultToolExecutor.class);
 
-    private final Object object;
+    private static final MethodHandle TOOL_METHOD_EXCEPTION;
+
+    static {
+        try {
+            TOOL_METHOD_EXCEPTION = MethodHandles.lookup().findStatic(DefaultToolExecutor.class,
+                    "throwToolMethodException", MethodType.methodType(Object.class, Exception.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final Method method;
 
+    /**
+     * Everything needed to invoke the method, resolved once: the binding of each parameter,
+     * and a method handle taking the arguments as an array.
+     */
+    private final ParameterBinding[] parameterBindings;
+    private final MethodHandle methodHandle;
+    private final IllegalAccessException methodHandleException;
+
     public DefaultToolExecutor(Object object, Method method) {
-        this.object = Objects.requireNonNull(object, "object");
+        Objects.requireNonNull(object, "object");
         this.method = Objects.requireNonNull(method, "method");
+        this.parameterBindings = parameterBindingsOf(method);
+        MethodHandle methodHandle = null;
+        IllegalAccessException methodHandleException = null;
+        try {
+            methodHandle = methodHandleOf(object, method);
+        } catch (IllegalAccessException e) {
+            methodHandleException = e;
+        }
+        this.methodHandle = methodHandle;
+        this.methodHandleException = methodHandleException;
     }
 
     public DefaultToolExecutor(Object object, ToolExecutionRequest toolExecutionRequest) {
-        this.object = Objects.requireNonNull(object, "object");
-        Objects.requireNonNull(toolExecutionRequest, "toolExecutionRequest");
-        this.method = findMethod(object, toolExecutionRequest);
+        this(object, findMethod(Objects.requireNonNull(object, "object"),
+                Objects.requireNonNull(toolExecutionRequest, "toolExecutionRequest")));
     }
 
-    Method findMethod(Object object, ToolExecutionRequest toolExecutionRequest) {
+    static Method findMethod(Object object, ToolExecutionRequest toolExecutionRequest) {
         String requestedMethodName = toolExecutionRequest.name();
 
         for (Method method : object.getClass().getDeclaredMethods()) {
@@ -55,34 +85,42 @@ public class DefaultToolExecutor implements ToolExecutor {
         // TODO ensure this method never throws exceptions
 
         Map<String, Object> argumentsMap = argumentsAsMap(toolExecutionRequest.arguments());
-        Object[] arguments = prepareArguments(method, argumentsMap, memoryId);
+        Object[] arguments = prepareArguments(parameterBindings, argumentsMap, memoryId);
+        if (methodHandle == null) {
+            throw new RuntimeException(methodHandleException);
+        }
+        ensurePrimitiveArgumentsPresent(arguments);
+
+        Object result;
         try {
-            String result = execute(arguments);
-            log.debug("Tool execution result: {}", result);
-            return result;
-        } catch (IllegalAccessException e) {
-            try {
-                method.setAccessible(true);
-                String result = execute(arguments);
-                log.debug("Tool execution result: {}", result);
-                return result;
-            } catch (IllegalAccessException e2) {
-                throw new RuntimeException(e2);
-            } catch (InvocationTargetException e2) {
-                Throwable cause = e2.getCause();
-                log.error("Error while executing tool", cause);
-                return cause.getMessage();
-            }
-        } catch (InvocationTargetException e) {
-            Throwable cause = e.getCause();
+            result = (Object) methodHandle.invokeExact(arguments);
+        } catch (ToolMethodException e) {
+            Exception cause = e.getCause();
             log.error("Error while executing tool", cause);
             return cause.getMessage();
+        } catch (RuntimeException | Error e) {
+            // not thrown by the tool, or e.g. an OutOfMemoryError, the model cannot do anything about it
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+
+        String text = toText(result);
+        log.debug("Tool execution result: {}", text);
+        return text;
+    }
+
+    private void ensurePrimitiveArgumentsPresent(Object[] arguments) {
+        for (int i = 0; i < arguments.length; i++) {
+            if (arguments[i] == null && parameterBindings[i].type.isPrimitive()) {
+                throw new IllegalArgumentException(String.format(
+                        "Argument \"%s\" is missing, it is required for %s",
+                        parameterBindings[i].name, parameterBindings[i].type.getName()));
+            }
         }
     }
 
-    private String execute(Object[] arguments)
-            throws IllegalAccessException, InvocationTargetException {
-        Object result = method.invoke(object, arguments);
+    private String toText(Object result) {
         Class<?> returnType = method.getReturnType();
         if (returnType == void.class) {
             return "Success";
@@ -93,27 +131,110 @@ public class DefaultToolExecutor implements ToolExecutor {
         }
     }
 
+    /**
+     * Creates a method handle invoking the method on the object, with all arguments passed as a single array.
+     * The method is made accessible once here, rather than after a failing invocation.
+     * Only exceptions thrown by the method itself are wrapped into a {@link ToolMethodException},
+     * so that they can be told apart from the exceptions of the adaptations around it.
+     */
+    private static MethodHandle methodHandleOf(Object object, Method method) throws IllegalAccessException {
+        try {
+            method.setAccessible(true);
+        } catch (RuntimeException e) {
+            // e.g. the method is in a package that is not open, it can still be accessible if public
+        }
+        MethodHandle methodHandle = MethodHandles.lookup().unreflect(method).asFixedArity();
+        if (!Modifier.isStatic(method.getModifiers())) {
+            methodHandle = methodHandle.bindTo(object);
+        }
+        MethodType methodType = methodHandle.type().changeReturnType(Object.class);
+        methodHandle = MethodHandles.catchException(methodHandle.asType(methodType), Exception.class,
+                MethodHandles.dropArguments(TOOL_METHOD_EXCEPTION, 1, methodType.parameterList()));
+        return methodHandle
+                .asSpreader(Object[].class, method.getParameterCount())
+                .asType(MethodType.methodType(Object.class, Object[].class));
+    }
+
+    private static Object throwToolMethodException(Exception e) {
+        throw new ToolMethodException(e);
+    }
+
+    /**
+     * An exception thrown by the tool method, its message is returned to the model as the result of the tool.
+     */
+    private static class ToolMethodException extends RuntimeException {
+
+        ToolMethodException(Exception cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized Exception getCause() {
+            return (Exception) super.getCause();
+        }
+    }
+
+    /**
+     * How to obtain the argument of a parameter of a tool method: either the memory ID,
+     * or the value of the JSON argument with the parameter's name, coerced to the parameter's type.
+     */
+    private static class ParameterBinding {
+
+        final String name;
+        final Class<?> type;
+        final boolean memoryId;
+        final ArgumentCoercer coercer;
+
+        ParameterBinding(Parameter parameter) {
+            this.name = parameter.getName();
+            this.type = parameter.getType();
+            this.memoryId = parameter.isAnnotationPresent(ToolMemoryId.class);
+            this.coercer = memoryId ? null : coercerFor(type);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ArgumentCoercer {
+
+        Object coerce(Object argument, String parameterName);
+    }
+
+    private static ParameterBinding[] parameterBindingsOf(Method method) {
+        Parameter[] parameters = method.getParameters();
+        ParameterBinding[] parameterBindings = new ParameterBinding[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            parameterBindings[i] = new ParameterBinding(parameters[i]);
+        }
+        return parameterBindings;
+    }
+
     static Object[] prepareArguments(
             Method method,
             Map<String, Object> argumentsMap,
             Object memoryId
     ) {
-        Parameter[] parameters = method.getParameters();
-        Object[] arguments = new Object[parameters.length];
+        return prepareArguments(parameterBindingsOf(method), argumentsMap, memoryId);
+    }
 
-        for (int i = 0; i < parameters.length; i++) {
+    private static Object[] prepareArguments(
+            ParameterBinding[] parameterBindings,
+            Map<String, Object> argumentsMap,
+            Object memoryId
+    ) {
+        Object[] arguments = new Object[parameterBindings.length];
 
-            if (parameters[i].isAnnotationPresent(ToolMemoryId.class)) {
+        for (int i = 0; i < parameterBindings.length; i++) {
+            ParameterBinding parameterBinding = parameterBindings[i];
+
+            if (parameterBinding.memoryId) {
                 arguments[i] = memoryId;
                 continue;
             }
 
-            String parameterName = parameters[i].getName();
+            String parameterName = parameterBinding.name;
             if (argumentsMap.containsKey(parameterName)) {
                 Object argument = argumentsMap.get(parameterName);
-                Class<?> parameterType = parameters[i].getType();
-
-                arguments[i] = coerceArgument(argument, parameterName, parameterType);
+                arguments[i] = parameterBinding.coercer.coerce(argument, parameterName);
             }
         }
 
@@ -125,80 +246,98 @@ public class DefaultToolExecutor implements ToolExecutor {
             String parameterName,
             Class<?> parameterType
     ) {
+        return coercerFor(parameterType).coerce(argument, parameterName);
+    }
+
+    private static ArgumentCoercer coercerFor(Class<?> parameterType) {
         if (parameterType == String.class) {
-            return argument.toString();
+            return (argument, parameterName) -> argument.toString();
         }
 
         if (parameterType.isEnum()) {
-            try {
-                @SuppressWarnings({"unchecked", "rawtypes"})
-                Class<Enum> enumClass = (Class<Enum>) parameterType;
-                return Enum.valueOf(enumClass, Objects.requireNonNull(argument.toString()));
-            } catch (Exception|Error e) {
-                throw new IllegalArgumentException(String.format(
-                        "Argument \"%s\" is not a valid enum value for %s: <%s>",
-                        parameterName, parameterType.getName(), argument), e);
-            }
+            return (argument, parameterName) -> {
+                try {
+                    @SuppressWarnings({"unchecked", "rawtypes"})
+                    Class<Enum> enumClass = (Class<Enum>) parameterType;
+                    return Enum.valueOf(enumClass, Objects.requireNonNull(argument.toString()));
+                } catch (Exception|Error e) {
+                    throw new IllegalArgumentException(String.format(
+                            "Argument \"%s\" is not a valid enum value for %s: <%s>",
+                            parameterName, parameterType.getName(), argument), e);
+                }
+            };
         }
 
         if (parameterType == Boolean.class || parameterType == boolean.class) {
-            if (argument instanceof Boolean) {
-                return argument;
-            }
-            throw new IllegalArgumentException(String.format(
-                    "Argument \"%s\" is not convertable to %s, got %s: <%s>",
-                    parameterName, parameterType.getName(), argument.getClass().getName(), argument));
+            return (argument, parameterName) -> {
+                if (argument instanceof Boolean) {
+                    return argument;
+                }
+                throw new IllegalArgumentException(String.format(
+                        "Argument \"%s\" is not convertable to %s, got %s: <%s>",
+                        parameterName, parameterType.getName(), argument.getClass().getName(), argument));
+            };
         }
 
         if (parameterType == Double.class || parameterType == double.class) {
-            return getDoubleValue(argument, parameterName, parameterType);
+            return (argument, parameterName) -> getDoubleValue(argument, parameterName, parameterType);
         }
 
         if (parameterType == Float.class || parameterType == float.class) {
-            double doubleValue = getDoubleValue(argument, parameterName, parameterType);
-            checkBounds(doubleValue, parameterName, parameterType, -Float.MIN_VALUE, Float.MAX_VALUE);
-            return (float) doubleValue;
+            return (argument, parameterName) -> {
+                double doubleValue = getDoubleValue(argument, parameterName, parameterType);
+                checkBounds(doubleValue, parameterName, parameterType, -Float.MIN_VALUE, Float.MAX_VALUE);
+                return (float) doubleValue;
+            };
         }
 
         if (parameterType == BigDecimal.class) {
-            return BigDecimal.valueOf(getDoubleValue(argument, parameterName, parameterType));
+            return (argument, parameterName) ->
+                    BigDecimal.valueOf(getDoubleValue(argument, parameterName, parameterType));
         }
 
         if (parameterType == Integer.class || parameterType == int.class) {
-            return (int) getBoundedLongValue(
+            return (argument, parameterName) -> (int) getBoundedLongValue(
                     argument, parameterName, parameterType, Integer.MIN_VALUE, Integer.MAX_VALUE);
         }
 
         if (parameterType == Long.class || parameterType == long.class) {
-            return getBoundedLongValue(
+            return (argument, parameterName) -> getBoundedLongValue(
                     argument, parameterName, parameterType, Long.MIN_VALUE, Long.MAX_VALUE);
         }
 
         if (parameterType == Short.class || parameterType == short.class) {
-            return (short) getBoundedLongValue(
+            return (argument, parameterName) -> (short) getBoundedLongValue(
                     argument, parameterName, parameterType, Short.MIN_VALUE, Short.MAX_VALUE);
         }
 
         if (parameterType == Byte.class || parameterType == byte.class) {
-            return (byte) getBoundedLongValue(
+            return (argument, parameterName) -> (byte) getBoundedLongValue(
                     argument, parameterName, parameterType, Byte.MIN_VALUE, Byte.MAX_VALUE);
         }
 
         if (parameterType == BigInteger.class) {
-            return BigDecimal.valueOf(
+            return (argument, parameterName) -> BigDecimal.valueOf(
                     getNonFractionalDoubleValue(argument, parameterName, parameterType)).toBigInteger();
         }
 
-        if (parameterType.isArray() && argument instanceof Collection) {
-            Class<?> type = parameterType.getComponentType();
-            if (type == String.class) {
-                return ((Collection<String>) argument).toArray(new String[0]);
-            }
-            // TODO: Consider full type coverage.
+        if (parameterType.isArray() && parameterType.getComponentType() == String.class) {
+            return (argument, parameterName) -> {
+                if (argument instanceof Collection) {
+                    @SuppressWarnings("unchecked")
+                    Collection<String> strings = (Collection<String>) argument;
+                    return strings.toArray(new String[0]);
+                }
+                return fromJson(argument, parameterType);
+            };
         }
+        // TODO: Consider full type coverage of arrays.
 
+        return (argument, parameterName) -> fromJson(argument, parameterType);
+    }
 
-        String result  = Json.toJson(argument);
+    private static Object fromJson(Object argument, Class<?> parameterType) {
+        String result = Json.toJson(argument);
         return Json.fromJson(result, parameterType);
     }
 
@@ -0,0 +1,452 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static dev.langchain4j.internal.Utils.randomUUID;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A compact binary snapshot of an {@link InMemoryEmbeddingStore}. All numbers are little-endian.
+ * <pre>
+ * header:  int magic, int version, int dimension, int count, long recordsOffset
+ * norms:   double[count]             norm of each vector
+ * vectors: float[count * dimension]  vectors, one after another
+ * records: for each entry: string id, int payloadLength, payload
+ * payload: byte kind (0 = nothing embedded, 1 = text segment),
+ *          for text segments: string text, int metadataSize, metadataSize times (string key, byte type, value)
+ * string:  int length, UTF-8 bytes
+ * </pre>
+ * Vectors are written in exactly the layout used by {@link PackedVectors}, so that a snapshot can be loaded
+ * by memory-mapping it. Records of text segments are decoded lazily, when an entry is accessed for the first time.
+ */
+class BinarySnapshot {
+
+    private static final int MAGIC = 0x4C344A45; // "L4JE"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+
+    private static final byte KIND_NONE = 0;
+    private static final byte KIND_TEXT_SEGMENT = 1;
+
+    private static final byte TYPE_STRING = 0;
+    private static final byte TYPE_UUID = 1;
+    private static final byte TYPE_INTEGER = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_FLOAT = 4;
+    private static final byte TYPE_DOUBLE = 5;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final long MAX_REGION_SIZE = 1 << 30;
+
+    private BinarySnapshot() {
+    }
+
+    /**
+     * Provides the data of the entries to write.
+     */
+    interface Source<Embedded> {
+
+        int size();
+
+        int dimension();
+
+        String id(int i);
+
+        double norm(int i);
+
+        float[] vector(int i);
+
+        Embedded embedded(int i);
+    }
+
+    /**
+     * The loaded entries, with vectors mapped into memory.
+     */
+    static class Loaded {
+
+        final int dimension;
+        final int count;
+        final List<FloatBuffer> chunks;
+        final double[] norms;
+        final List<InMemoryEmbeddingStore.Entry<TextSegment>> entries;
+
+        Loaded(int dimension,
+               int count,
+               List<FloatBuffer> chunks,
+               double[] norms,
+               List<InMemoryEmbeddingStore.Entry<TextSegment>> entries) {
+            this.dimension = dimension;
+            this.count = count;
+            this.chunks = chunks;
+            this.norms = norms;
+            this.entries = entries;
+        }
+    }
+
+    static boolean isBinarySnapshot(Path filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) == -1) {
+                    return false;
+                }
+            }
+            buffer.flip();
+            return buffer.getInt() == MAGIC;
+        }
+    }
+
+    /**
+     * Writes a snapshot to a temporary file next to the given file, forces it to the storage device,
+     * and then moves it over the given file.
+     * The content of an existing file is never modified: it can be the file a store was loaded from,
+     * whose vectors and records are still mapped into memory and read while writing.
+     * An interrupted write never leaves a partial snapshot either.
+     */
+    static void write(Path filePath, Source<?> source) throws IOException {
+        Path temporaryFile = filePath.resolveSibling(filePath.getFileName() + "." + randomUUID() + ".tmp");
+        try {
+            write(temporaryFile, source, true);
+            Files.move(temporaryFile, filePath, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(temporaryFile);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @param sync whether to force the written file to the storage device before returning.
+     */
+    static void write(Path filePath, Source<?> source, boolean sync) throws IOException {
+        int count = source.size();
+        int dimension = source.dimension();
+        long normsOffset = HEADER_SIZE;
+        long vectorsOffset = normsOffset + (long) count * Double.BYTES;
+        long recordsOffset = vectorsOffset + (long) count * dimension * Float.BYTES;
+
+        try (FileChannel channel = FileChannel.open(filePath, CREATE, TRUNCATE_EXISTING, WRITE);
+             Writer writer = new Writer(channel)) {
+
+            writer.putInt(MAGIC);
+            writer.putInt(VERSION);
+            writer.putInt(dimension);
+            writer.putInt(count);
+            writer.putLong(recordsOffset);
+
+            for (int i = 0; i < count; i++) {
+                writer.putDouble(source.norm(i));
+            }
+            for (int i = 0; i < count; i++) {
+                for (float value : source.vector(i)) {
+                    writer.putFloat(value);
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                writer.putString(source.id(i));
+                byte[] payload = encodePayload(source.embedded(i));
+                writer.putInt(payload.length);
+                writer.put(payload);
+            }
+            writer.flush();
+            if (sync) {
+                channel.force(true);
+            }
+        }
+    }
+
+    static Loaded load(Path filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, READ)) {
+
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not an embedding store snapshot: " + filePath);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported embedding store snapshot version: " + version);
+            }
+            int dimension = header.getInt();
+            int count = header.getInt();
+            long recordsOffset = header.getLong();
+            long vectorsOffset = HEADER_SIZE + (long) count * Double.BYTES;
+
+            double[] norms = new double[count];
+            if (count > 0) {
+                DoubleBuffer mappedNorms = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, (long) count * Double.BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .asDoubleBuffer();
+                mappedNorms.get(norms);
+            }
+
+            // mapped chunks are read-only, PackedVectors copies a chunk before reusing any of its slots
+            List<FloatBuffer> chunks = new ArrayList<>();
+            if (count > 0 && dimension > 0) {
+                int slotsPerChunk = PackedVectors.slotsPerChunk(dimension);
+                for (int firstSlot = 0; firstSlot < count; firstSlot += slotsPerChunk) {
+                    int slots = Math.min(slotsPerChunk, count - firstSlot);
+                    long offset = vectorsOffset + (long) firstSlot * dimension * Float.BYTES;
+                    chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) slots * dimension * Float.BYTES)
+                            .order(ByteOrder.LITTLE_ENDIAN)
+                            .asFloatBuffer());
+                }
+            }
+
+            MappedRecords records = new MappedRecords(channel, recordsOffset, channel.size() - recordsOffset);
+            List<InMemoryEmbeddingStore.Entry<TextSegment>> entries = new ArrayList<>(count);
+            long position = 0;
+            for (int i = 0; i < count; i++) {
+                int idLength = records.getInt(position);
+                String id = new String(records.getBytes(position + 4, idLength), UTF_8);
+                position += 4 + idLength;
+                int payloadLength = records.getInt(position);
+                long payloadPosition = position + 4;
+                position = payloadPosition + payloadLength;
+
+                InMemoryEmbeddingStore.Entry<TextSegment> entry = InMemoryEmbeddingStore.Entry.packed(id, null);
+                entry.slot = i;
+                entry.lazyEmbedded = () -> decodePayload(records.getBytes(payloadPosition, payloadLength));
+                entries.add(entry);
+            }
+
+            return new Loaded(dimension, count, chunks, norms, entries);
+        }
+    }
+
+    static byte[] encodePayload(Object embedded) {
+        if (embedded == null) {
+            return new byte[]{KIND_NONE};
+        }
+        if (!(embedded instanceof TextSegment)) {
+            throw new UnsupportedOperationException("Only TextSegments are supported in binary snapshots, got: "
+                    + embedded.getClass().getName());
+        }
+        TextSegment segment = (TextSegment) embedded;
+
+        List<byte[]> parts = new ArrayList<>();
+        parts.add(new byte[]{KIND_TEXT_SEGMENT});
+        parts.add(encodeString(segment.text()));
+        Map<String, Object> metadata = segment.metadata().toMap();
+        parts.add(encodeInt(metadata.size()));
+        for (Map.Entry<String, Object> metadataEntry : metadata.entrySet()) {
+            parts.add(encodeString(metadataEntry.getKey()));
+            parts.add(encodeValue(metadataEntry.getValue()));
+        }
+
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        for (byte[] part : parts) {
+            payload.put(part);
+        }
+        return payload.array();
+    }
+
+    private static byte[] encodeValue(Object value) {
+        ByteBuffer buffer;
+        if (value instanceof String) {
+            byte[] string = encodeString((String) value);
+            buffer = ByteBuffer.allocate(1 + string.length).put(TYPE_STRING).put(string);
+        } else if (value instanceof UUID) {
+            UUID uuid = (UUID) value;
+            buffer = ByteBuffer.allocate(17).order(ByteOrder.LITTLE_ENDIAN).put(TYPE_UUID)
+                    .putLong(uuid.getMostSignificantBits())
+                    .putLong(uuid.getLeastSignificantBits());
+        } else if (value instanceof Integer) {
+            buffer = ByteBuffer.allocate(5).order(ByteOrder.LITTLE_ENDIAN).put(TYPE_INTEGER).putInt((Integer) value);
+        } else if (value instanceof Long) {
+            buffer = ByteBuffer.allocate(9).order(ByteOrder.LITTLE_ENDIAN).put(TYPE_LONG).putLong((Long) value);
+        } else if (value instanceof Float) {
+            buffer = ByteBuffer.allocate(5).order(ByteOrder.LITTLE_ENDIAN).put(TYPE_FLOAT).putFloat((Float) value);
+        } else if (value instanceof Double) {
+            buffer = ByteBuffer.allocate(9).order(ByteOrder.LITTLE_ENDIAN).put(TYPE_DOUBLE).putDouble((Double) value);
+        } else {
+            throw new UnsupportedOperationException("Unsupported metadata value type: " + value.getClass().getName());
+        }
+        return buffer.array();
+    }
+
+    private static byte[] encodeString(String string) {
+        byte[] bytes = string.getBytes(UTF_8);
+        return ByteBuffer.allocate(4 + bytes.length).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(bytes.length)
+                .put(bytes)
+                .array();
+    }
+
+    private static byte[] encodeInt(int value) {
+        return ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(value).array();
+    }
+
+    static TextSegment decodePayload(byte[] bytes) {
+        ByteBuffer payload = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (payload.get() == KIND_NONE) {
+            return null;
+        }
+        String text = decodeString(payload);
+        int metadataSize = payload.getInt();
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        for (int i = 0; i < metadataSize; i++) {
+            String key = decodeString(payload);
+            byte type = payload.get();
+            switch (type) {
+                case TYPE_STRING:
+                    metadata.put(key, decodeString(payload));
+                    break;
+                case TYPE_UUID:
+                    metadata.put(key, new UUID(payload.getLong(), payload.getLong()));
+                    break;
+                case TYPE_INTEGER:
+                    metadata.put(key, payload.getInt());
+                    break;
+                case TYPE_LONG:
+                    metadata.put(key, payload.getLong());
+                    break;
+                case TYPE_FLOAT:
+                    metadata.put(key, payload.getFloat());
+                    break;
+                case TYPE_DOUBLE:
+                    metadata.put(key, payload.getDouble());
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown metadata value type: " + type);
+            }
+        }
+        return TextSegment.from(text, Metadata.from(metadata));
+    }
+
+    private static String decodeString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Buffers writes to a file channel.
+     */
+    private static class Writer implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            ensureRemaining(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensureRemaining(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putFloat(float value) throws IOException {
+            ensureRemaining(Float.BYTES);
+            buffer.putFloat(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensureRemaining(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(UTF_8);
+            putInt(bytes.length);
+            put(bytes);
+        }
+
+        void put(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensureRemaining(1);
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        private void ensureRemaining(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    /**
+     * The records section, mapped into memory in regions of at most 1 GB.
+     * Mapped regions stay valid after the channel is closed.
+     */
+    private static class MappedRecords {
+
+        private final List<MappedByteBuffer> regions = new ArrayList<>();
+
+        MappedRecords(FileChannel channel, long offset, long size) throws IOException {
+            for (long regionOffset = 0; regionOffset < size; regionOffset += MAX_REGION_SIZE) {
+                long regionSize = Math.min(MAX_REGION_SIZE, size - regionOffset);
+                regions.add(channel.map(FileChannel.MapMode.READ_ONLY, offset + regionOffset, regionSize));
+            }
+        }
+
+        int getInt(long position) {
+            return ByteBuffer.wrap(getBytes(position, 4)).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        }
+
+        byte[] getBytes(long position, int length) {
+            byte[] bytes = new byte[length];
+            int copied = 0;
+            while (copied < length) {
+                long current = position + copied;
+                ByteBuffer region = regions.get((int) (current / MAX_REGION_SIZE)).duplicate();
+                region.position((int) (current % MAX_REGION_SIZE));
+                int chunk = Math.min(region.remaining(), length - copied);
+                region.get(bytes, copied, chunk);
+                copied += chunk;
+            }
+            return bytes;
+        }
+    }
+}
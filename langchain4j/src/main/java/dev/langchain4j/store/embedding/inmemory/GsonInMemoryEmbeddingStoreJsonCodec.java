@@ -2,10 +2,18 @@ package dev.langchain4j.store.embedding.inmemory;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import dev.langchain4j.data.segment.TextSegment;
 
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.List;
 
 import static com.google.gson.ToNumberPolicy.LONG_OR_DOUBLE;
 
@@ -13,6 +21,7 @@ public class GsonInMemoryEmbeddingStoreJsonCodec implements InMemoryEmbeddingSto
 
     private static final Gson GSON = new GsonBuilder()
             .setObjectToNumberStrategy(LONG_OR_DOUBLE)
+            .registerTypeAdapterFactory(new SegmentedEntriesTypeAdapterFactory())
             .create();
 
     private static final Type TYPE = new TypeToken<InMemoryEmbeddingStore<TextSegment>>() {
@@ -28,4 +37,50 @@ public class GsonInMemoryEmbeddingStoreJsonCodec implements InMemoryEmbeddingSto
         return GSON.toJson(store);
     }
 
+    /**
+     * Reads and writes {@link SegmentedEntries} as a plain JSON array of entries.
+     */
+    private static class SegmentedEntriesTypeAdapterFactory implements TypeAdapterFactory {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (type.getRawType() != SegmentedEntries.class) {
+                return null;
+            }
+            Type embeddedType = type.getType() instanceof ParameterizedType
+                    ? ((ParameterizedType) type.getType()).getActualTypeArguments()[0]
+                    : Object.class;
+            if (!(embeddedType instanceof Class) && !(embeddedType instanceof ParameterizedType)) {
+                // e.g. an unresolved type variable, the embedded object is then written using its runtime type
+                embeddedType = Object.class;
+            }
+            Type entryType = TypeToken.getParameterized(InMemoryEmbeddingStore.Entry.class, embeddedType).getType();
+            TypeAdapter<List<InMemoryEmbeddingStore.Entry<Object>>> listAdapter = (TypeAdapter<List<InMemoryEmbeddingStore.Entry<Object>>>)
+                    gson.getAdapter(TypeToken.getParameterized(List.class, entryType));
+
+            return (TypeAdapter<T>) new TypeAdapter<SegmentedEntries<Object>>() {
+
+                @Override
+                public void write(JsonWriter out, SegmentedEntries<Object> entries) throws IOException {
+                    if (entries == null) {
+                        out.nullValue();
+                        return;
+                    }
+                    listAdapter.write(out, entries.toList());
+                }
+
+                @Override
+                public SegmentedEntries<Object> read(JsonReader in) throws IOException {
+                    SegmentedEntries<Object> entries = new SegmentedEntries<>();
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                        return entries;
+                    }
+                    entries.addAll(listAdapter.read(in));
+                    return entries;
+                }
+            };
+        }
+    }
 }
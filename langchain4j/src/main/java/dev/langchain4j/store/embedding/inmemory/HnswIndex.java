@@ -0,0 +1,482 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+import static dev.langchain4j.store.embedding.CosineSimilarity.EPSILON;
+
+/**
+ * An HNSW (Hierarchical Navigable Small World) graph over normalized vectors.
+ * Similarity between nodes is the dot product of their normalized vectors, i.e. the cosine similarity.
+ * <p>
+ * Removed items are marked as deleted (they keep routing searches through the graph but are never returned)
+ * and the graph is rebuilt from the remaining items once more than half of the nodes are deleted.
+ * <p>
+ * This class is not thread-safe: concurrent searches are fine, but mutations must be externally synchronized.
+ *
+ * @param <T> The type of the item associated with each vector.
+ */
+class HnswIndex<T> {
+
+    private static final int MIN_NODES_TO_REBUILD = 64;
+
+    /**
+     * The state of a layer search, reused by all the searches of a thread (of all indexes).
+     */
+    private static final ThreadLocal<SearchContext> SEARCH_CONTEXT = ThreadLocal.withInitial(SearchContext::new);
+
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final int efSearch;
+    private final double levelMultiplier;
+    private final Random random = new Random(42);
+
+    private final List<Node<T>> nodes = new ArrayList<>();
+    private final Map<String, List<Node<T>>> nodesById = new HashMap<>();
+    private int entryPoint = -1;
+    private int dimension = -1;
+    private int deletedCount;
+
+    HnswIndex(HnswIndexConfig config) {
+        this.m = config.m();
+        this.maxM0 = config.m() * 2;
+        this.efConstruction = config.efConstruction();
+        this.efSearch = config.efSearch();
+        this.levelMultiplier = 1 / Math.log(Math.max(config.m(), 2));
+    }
+
+    void add(String id, float[] vector, T item) {
+        if (dimension == -1) {
+            dimension = vector.length;
+        } else if (dimension != vector.length) {
+            throw illegalArgument("Length of vector (%s) must be equal to the length of indexed vectors (%s)",
+                    vector.length, dimension);
+        }
+        Node<T> node = new Node<>(nodes.size(), id, normalize(vector), item, randomLevel(), m, maxM0);
+        nodes.add(node);
+        nodesById.computeIfAbsent(id, ignored -> new ArrayList<>(1)).add(node);
+        insert(node);
+    }
+
+    /**
+     * Marks the node holding the given item (compared by identity) as deleted.
+     */
+    void remove(String id, T item) {
+        List<Node<T>> candidates = nodesById.get(id);
+        if (candidates == null) {
+            return;
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            Node<T> node = candidates.get(i);
+            if (node.item == item) {
+                node.deleted = true;
+                deletedCount++;
+                candidates.remove(i);
+                if (candidates.isEmpty()) {
+                    nodesById.remove(id);
+                }
+                break;
+            }
+        }
+        if (deletedCount > MIN_NODES_TO_REBUILD && deletedCount * 2 > nodes.size()) {
+            rebuild();
+        }
+    }
+
+    void clear() {
+        nodes.clear();
+        nodesById.clear();
+        entryPoint = -1;
+        dimension = -1;
+        deletedCount = 0;
+    }
+
+    int size() {
+        return nodes.size() - deletedCount;
+    }
+
+    /**
+     * Finds approximately {@code maxResults} items most similar to the query vector.
+     *
+     * @return items ordered from the most to the least similar.
+     */
+    List<T> search(float[] queryVector, int maxResults) {
+        if (entryPoint == -1 || maxResults <= 0) {
+            return Collections.emptyList();
+        }
+        if (dimension != queryVector.length) {
+            throw illegalArgument("Length of query vector (%s) must be equal to the length of indexed vectors (%s)",
+                    queryVector.length, dimension);
+        }
+        float[] query = normalize(queryVector);
+
+        int current = entryPoint;
+        for (int level = nodes.get(entryPoint).level; level > 0; level--) {
+            current = greedyClosest(query, current, level);
+        }
+        List<Candidate> sorted = searchLayer(query, current, Math.max(efSearch, maxResults), 0, true);
+        List<T> items = new ArrayList<>(Math.min(maxResults, sorted.size()));
+        for (int i = 0; i < sorted.size() && items.size() < maxResults; i++) {
+            items.add(nodes.get(sorted.get(i).node).item);
+        }
+        return items;
+    }
+
+    private void insert(Node<T> node) {
+        if (entryPoint == -1) {
+            entryPoint = node.index;
+            return;
+        }
+
+        int topLevel = nodes.get(entryPoint).level;
+        int current = entryPoint;
+        for (int level = topLevel; level > node.level; level--) {
+            current = greedyClosest(node.vector, current, level);
+        }
+
+        for (int level = Math.min(node.level, topLevel); level >= 0; level--) {
+            List<Candidate> candidates = searchLayer(node.vector, current, efConstruction, level, false);
+
+            int[] selected = selectNeighbours(candidates, m);
+            node.setLinks(level, selected, selected.length);
+            for (int neighbour : selected) {
+                link(nodes.get(neighbour), node.index, level);
+            }
+            current = candidates.get(0).node;
+        }
+
+        if (node.level > topLevel) {
+            entryPoint = node.index;
+        }
+    }
+
+    private void link(Node<T> node, int target, int level) {
+        int maxNeighbours = level == 0 ? maxM0 : m;
+        int count = node.linkCounts[level];
+        if (count < maxNeighbours) {
+            node.links[level][count] = target;
+            node.linkCounts[level]++;
+            return;
+        }
+        List<Candidate> candidates = new ArrayList<>(count + 1);
+        candidates.add(new Candidate(target, dot(node.vector, nodes.get(target).vector)));
+        for (int i = 0; i < count; i++) {
+            int link = node.links[level][i];
+            candidates.add(new Candidate(link, dot(node.vector, nodes.get(link).vector)));
+        }
+        candidates.sort(BY_SIMILARITY_DESCENDING);
+        int[] selected = selectNeighbours(candidates, maxNeighbours);
+        node.setLinks(level, selected, selected.length);
+    }
+
+    /**
+     * Selects up to {@code maxNeighbours} candidates (sorted from the most to the least similar)
+     * using the heuristic from the HNSW paper: a candidate is skipped when it is closer to an already
+     * selected neighbour than to the base node, which keeps links spread in different directions.
+     * Skipped candidates fill the remaining slots, if any.
+     */
+    private int[] selectNeighbours(List<Candidate> candidates, int maxNeighbours) {
+        int[] selected = new int[Math.min(maxNeighbours, candidates.size())];
+        int selectedCount = 0;
+        List<Candidate> skipped = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (selectedCount == selected.length) {
+                break;
+            }
+            float[] candidateVector = nodes.get(candidate.node).vector;
+            boolean good = true;
+            for (int i = 0; i < selectedCount; i++) {
+                if (dot(candidateVector, nodes.get(selected[i]).vector) > candidate.similarity) {
+                    good = false;
+                    break;
+                }
+            }
+            if (good) {
+                selected[selectedCount++] = candidate.node;
+            } else {
+                skipped.add(candidate);
+            }
+        }
+        for (int i = 0; i < skipped.size() && selectedCount < selected.length; i++) {
+            selected[selectedCount++] = skipped.get(i).node;
+        }
+        return selected;
+    }
+
+    private int greedyClosest(float[] query, int entry, int level) {
+        int current = entry;
+        double currentSimilarity = dot(query, nodes.get(entry).vector);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            Node<T> node = nodes.get(current);
+            for (int i = 0; i < node.linkCounts[level]; i++) {
+                int neighbour = node.links[level][i];
+                double similarity = dot(query, nodes.get(neighbour).vector);
+                if (similarity > currentSimilarity) {
+                    current = neighbour;
+                    currentSimilarity = similarity;
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * @return the nodes found, ordered from the most to the least similar.
+     */
+    private List<Candidate> searchLayer(float[] query,
+                                        int entry,
+                                        int ef,
+                                        int level,
+                                        boolean skipDeleted) {
+        SearchContext context = SEARCH_CONTEXT.get();
+        context.start(nodes.size());
+        // best candidates first
+        Heap candidates = context.candidates;
+        // worst results first, so they can be evicted cheaply
+        Heap results = context.results;
+
+        double entrySimilarity = dot(query, nodes.get(entry).vector);
+        context.visit(entry);
+        candidates.push(entry, entrySimilarity);
+        if (!skipDeleted || !nodes.get(entry).deleted) {
+            results.push(entry, entrySimilarity);
+        }
+
+        while (!candidates.isEmpty()) {
+            int current = candidates.topNode();
+            double currentSimilarity = candidates.topSimilarity();
+            candidates.pop();
+            if (results.size() >= ef && currentSimilarity < results.topSimilarity()) {
+                break;
+            }
+            Node<T> node = nodes.get(current);
+            for (int i = 0; i < node.linkCounts[level]; i++) {
+                int neighbour = node.links[level][i];
+                if (context.isVisited(neighbour)) {
+                    continue;
+                }
+                context.visit(neighbour);
+                Node<T> neighbourNode = nodes.get(neighbour);
+                double similarity = dot(query, neighbourNode.vector);
+                if (results.size() < ef || similarity > results.topSimilarity()) {
+                    candidates.push(neighbour, similarity);
+                    if (!skipDeleted || !neighbourNode.deleted) {
+                        results.push(neighbour, similarity);
+                        if (results.size() > ef) {
+                            results.pop();
+                        }
+                    }
+                }
+            }
+        }
+
+        Candidate[] sorted = new Candidate[results.size()];
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            sorted[i] = new Candidate(results.topNode(), results.topSimilarity());
+            results.pop();
+        }
+        return Arrays.asList(sorted);
+    }
+
+    private void rebuild() {
+        List<Node<T>> live = new ArrayList<>(size());
+        for (Node<T> node : nodes) {
+            if (!node.deleted) {
+                live.add(node);
+            }
+        }
+        clear();
+        for (Node<T> node : live) {
+            add(node.id, node.vector, node.item);
+        }
+    }
+
+    private int randomLevel() {
+        return (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+    }
+
+    private static double dot(float[] a, float[] b) {
+        float dotProduct = 0;
+        for (int i = 0; i < a.length; i++) {
+            dotProduct += a[i] * b[i];
+        }
+        return dotProduct;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = Math.max(Math.sqrt(dot(vector, vector)), EPSILON);
+        float[] normalized = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = (float) (vector[i] / norm);
+        }
+        return normalized;
+    }
+
+    private static final Comparator<Candidate> BY_SIMILARITY_DESCENDING =
+            (a, b) -> Double.compare(b.similarity, a.similarity);
+
+    private static class Node<T> {
+
+        final int index;
+        final String id;
+        final float[] vector;
+        final T item;
+        final int level;
+        final int[][] links;
+        final int[] linkCounts;
+        boolean deleted;
+
+        Node(int index, String id, float[] vector, T item, int level, int m, int maxM0) {
+            this.index = index;
+            this.id = id;
+            this.vector = vector;
+            this.item = item;
+            this.level = level;
+            this.links = new int[level + 1][];
+            this.linkCounts = new int[level + 1];
+            for (int i = 0; i <= level; i++) {
+                this.links[i] = new int[i == 0 ? maxM0 : m];
+            }
+        }
+
+        void setLinks(int level, int[] newLinks, int count) {
+            System.arraycopy(newLinks, 0, links[level], 0, count);
+            linkCounts[level] = count;
+        }
+    }
+
+    /**
+     * A binary heap of nodes and their similarities, without boxing.
+     */
+    private static class Heap {
+
+        private final boolean mostSimilarFirst;
+        private int[] nodes = new int[64];
+        private double[] similarities = new double[64];
+        private int size;
+
+        Heap(boolean mostSimilarFirst) {
+            this.mostSimilarFirst = mostSimilarFirst;
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int topNode() {
+            return nodes[0];
+        }
+
+        double topSimilarity() {
+            return similarities[0];
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void push(int node, double similarity) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                similarities = Arrays.copyOf(similarities, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!isBefore(similarity, similarities[parent])) {
+                    break;
+                }
+                nodes[i] = nodes[parent];
+                similarities[i] = similarities[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            similarities[i] = similarity;
+        }
+
+        void pop() {
+            int node = nodes[--size];
+            double similarity = similarities[size];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                int right = child + 1;
+                if (right < size && isBefore(similarities[right], similarities[child])) {
+                    child = right;
+                }
+                if (!isBefore(similarities[child], similarity)) {
+                    break;
+                }
+                nodes[i] = nodes[child];
+                similarities[i] = similarities[child];
+                i = child;
+            }
+            nodes[i] = node;
+            similarities[i] = similarity;
+        }
+
+        private boolean isBefore(double similarity, double other) {
+            return mostSimilarFirst ? similarity > other : similarity < other;
+        }
+    }
+
+    /**
+     * The heaps and the visited nodes of a layer search.
+     * Nodes are marked as visited with the number of the current search,
+     * so that the marks do not have to be cleared between searches.
+     */
+    private static class SearchContext {
+
+        final Heap candidates = new Heap(true);
+        final Heap results = new Heap(false);
+        private int[] visitMarks = new int[0];
+        private int search;
+
+        void start(int nodeCount) {
+            candidates.clear();
+            results.clear();
+            if (visitMarks.length < nodeCount) {
+                visitMarks = new int[Math.max(nodeCount, visitMarks.length * 2)];
+            }
+            if (++search == 0) {
+                Arrays.fill(visitMarks, 0);
+                search = 1;
+            }
+        }
+
+        boolean isVisited(int node) {
+            return visitMarks[node] == search;
+        }
+
+        void visit(int node) {
+            visitMarks[node] = search;
+        }
+    }
+
+    private static class Candidate {
+
+        final int node;
+        final double similarity;
+
+        Candidate(int node, double similarity) {
+            this.node = node;
+            this.similarity = similarity;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+
+/**
+ * Configuration of the HNSW (Hierarchical Navigable Small World) index
+ * that can be used by the {@link InMemoryEmbeddingStore} to speed up searches.
+ * <p>
+ * The HNSW index finds approximate nearest neighbours: a search visits only a small part of the graph,
+ * so it scales sub-linearly with the number of stored embeddings, at the cost of possibly missing some of the
+ * best matches. The trade-off between recall and latency can be tuned with the parameters below.
+ * <p>
+ * The recall obtained with given parameters depends on the embeddings. The defaults find almost all the best matches
+ * among embeddings of texts, which are grouped by topic, but vectors spread evenly over many dimensions need a much
+ * higher {@code efSearch}: with 80000 random 128-dimensional vectors, the default {@code efSearch} finds only about
+ * a fifth of the 10 best matches, and an {@code efSearch} of 800 almost all of them.
+ * Inserting is much slower than with a brute force store (about 1 ms per 128-dimensional embedding
+ * with the default {@code efConstruction}), as each embedding is linked to its nearest neighbours in the graph.
+ * <p>
+ * The index keeps its own normalized copy of every vector, in addition to the vectors kept by the store
+ * (whatever the {@link VectorStorage}, including {@link VectorStorage#PACKED} and {@link VectorStorage#PACKED_OFF_HEAP}),
+ * plus up to {@code 2 * m} links per node on the bottom layer: an indexed store holds every vector twice.
+ *
+ * @see <a href="https://arxiv.org/abs/1603.09320">Efficient and robust approximate nearest neighbor search
+ * using Hierarchical Navigable Small World graphs</a>
+ */
+public class HnswIndexConfig {
+
+    private static final int DEFAULT_M = 16;
+    private static final int DEFAULT_EF_CONSTRUCTION = 200;
+    private static final int DEFAULT_EF_SEARCH = 50;
+
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+
+    /**
+     * Creates an instance of an {@code HnswIndexConfig}.
+     *
+     * @param m              The maximum number of links each node keeps per layer (twice as many on the bottom layer).
+     *                       Higher values improve recall and increase memory usage. Default: 16.
+     * @param efConstruction The size of the dynamic candidate list used while inserting new embeddings.
+     *                       Higher values improve the quality of the graph and slow down insertion. Default: 200.
+     * @param efSearch       The size of the dynamic candidate list used while searching.
+     *                       Higher values improve recall and slow down searches.
+     *                       The effective value is never smaller than the requested {@code maxResults}. Default: 50.
+     */
+    public HnswIndexConfig(Integer m, Integer efConstruction, Integer efSearch) {
+        this.m = ensureGreaterThanZero(getOrDefault(m, DEFAULT_M), "m");
+        this.efConstruction = ensureGreaterThanZero(getOrDefault(efConstruction, DEFAULT_EF_CONSTRUCTION), "efConstruction");
+        this.efSearch = ensureGreaterThanZero(getOrDefault(efSearch, DEFAULT_EF_SEARCH), "efSearch");
+    }
+
+    public int m() {
+        return m;
+    }
+
+    public int efConstruction() {
+        return efConstruction;
+    }
+
+    public int efSearch() {
+        return efSearch;
+    }
+
+    public static HnswIndexConfig defaultConfig() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private Integer m;
+        private Integer efConstruction;
+        private Integer efSearch;
+
+        /**
+         * @param m The maximum number of links each node keeps per layer. Default: 16.
+         * @return builder
+         */
+        public Builder m(Integer m) {
+            this.m = m;
+            return this;
+        }
+
+        /**
+         * @param efConstruction The size of the dynamic candidate list used while inserting. Default: 200.
+         * @return builder
+         */
+        public Builder efConstruction(Integer efConstruction) {
+            this.efConstruction = efConstruction;
+            return this;
+        }
+
+        /**
+         * @param efSearch The size of the dynamic candidate list used while searching. Default: 50.
+         * @return builder
+         */
+        public Builder efSearch(Integer efSearch) {
+            this.efSearch = efSearch;
+            return this;
+        }
+
+        public HnswIndexConfig build() {
+            return new HnswIndexConfig(m, efConstruction, efSearch);
+        }
+    }
+}
@@ -12,40 +12,167 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+import static dev.langchain4j.internal.Utils.getOrDefault;
 import static dev.langchain4j.internal.Utils.randomUUID;
 import static dev.langchain4j.internal.ValidationUtils.*;
 import static dev.langchain4j.spi.ServiceHelper.loadFactories;
 import static java.nio.file.StandardOpenOption.CREATE;
 import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static java.util.Comparator.comparingDouble;
+import static java.util.Comparator.comparingLong;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 
 /**
  * An {@link EmbeddingStore} that stores embeddings in memory.
  * <p>
- * Uses a brute force approach by iterating over all embeddings to find the best matches.
+ * By default, uses a brute force approach by iterating over all embeddings to find the best matches.
+ * Optionally, an HNSW index can be enabled (see {@link Builder#hnswIndex(HnswIndexConfig)})
+ * to find approximate best matches in sub-linear time.
+ * Searches with a {@link Filter} always use the brute force approach.
+ * <p>
+ * Vectors can also be packed into contiguous memory, on or off the heap (see {@link VectorStorage}).
+ * <p>
+ * Brute force searches over large stores can be split into partitions that are searched in parallel
+ * (see {@link Builder#parallelSearch(Boolean)}).
  * <p>
  * This store can be persisted using the {@link #serializeToJson()} and {@link #serializeToFile(Path)} methods.
  * <p>
  * It can also be recreated from JSON or a file using the {@link #fromJson(String)} and {@link #fromFile(Path)} methods.
+ * <p>
+ * Large stores can be persisted in a compact binary format using {@link #serializeToBinaryFile(Path)}
+ * and loaded quickly, using memory-mapped I/O, with {@link #fromBinaryFile(Path)}.
+ * <p>
+ * Alternatively, every change can be persisted incrementally as it happens
+ * (see {@link Builder#writeAheadLog(WriteAheadLogConfig)}).
+ * Such a store holds the open log file, and must be closed with {@link #close()} when it is no longer used.
  *
  * @param <Embedded> The class of the object that has been embedded.
  *                   Typically, it is {@link dev.langchain4j.data.segment.TextSegment}.
  */
-public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded> {
+public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded>, AutoCloseable {
+
+    private static final int DEFAULT_PARALLEL_SEARCH_THRESHOLD = 10_000;
 
-    final CopyOnWriteArrayList<Entry<Embedded>> entries;
+    final SegmentedEntries<Embedded> entries;
+
+    private final transient HnswIndex<Entry<Embedded>> index;
+    private final transient PackedVectors<Entry<Embedded>> packedVectors;
+    private final transient ReadWriteLock lock;
+
+    private final transient Executor searchExecutor;
+    private final transient int searchParallelism;
+    private final transient int parallelSearchThreshold;
+
+    private final transient WriteAheadLog writeAheadLog;
 
     public InMemoryEmbeddingStore() {
-        this.entries = new CopyOnWriteArrayList<>();
+        this((HnswIndexConfig) null, null);
+    }
+
+    private InMemoryEmbeddingStore(List<Entry<Embedded>> entries) {
+        this.entries = new SegmentedEntries<>();
+        this.entries.addAll(entries);
+        this.index = null;
+        this.packedVectors = null;
+        this.lock = null;
+        this.searchExecutor = null;
+        this.searchParallelism = 1;
+        this.parallelSearchThreshold = Integer.MAX_VALUE;
+        this.writeAheadLog = null;
+    }
+
+    /**
+     * Creates an instance of an {@code InMemoryEmbeddingStore}.
+     *
+     * @param hnswIndexConfig The configuration of the HNSW index. Optional.
+     *                        If none is specified, searches use the brute force approach.
+     */
+    public InMemoryEmbeddingStore(HnswIndexConfig hnswIndexConfig) {
+        this(hnswIndexConfig, null);
+    }
+
+    /**
+     * Creates an instance of an {@code InMemoryEmbeddingStore}.
+     *
+     * @param hnswIndexConfig The configuration of the HNSW index. Optional.
+     *                        If none is specified, searches use the brute force approach.
+     * @param vectorStorage   The way embedding vectors are kept in memory. Optional.
+     *                        Default: {@link VectorStorage#EMBEDDINGS}.
+     */
+    public InMemoryEmbeddingStore(HnswIndexConfig hnswIndexConfig, VectorStorage vectorStorage) {
+        this(builder().hnswIndex(hnswIndexConfig).vectorStorage(vectorStorage));
     }
 
-    private InMemoryEmbeddingStore(Collection<Entry<Embedded>> entries) {
-        this.entries = new CopyOnWriteArrayList<>(entries);
+    private InMemoryEmbeddingStore(Builder builder) {
+        this(builder, null);
+    }
+
+    private InMemoryEmbeddingStore(Builder builder, PackedVectors<Entry<Embedded>> loadedVectors) {
+        VectorStorage vectorStorage = getOrDefault(builder.vectorStorage, VectorStorage.EMBEDDINGS);
+        this.entries = new SegmentedEntries<>();
+        this.index = builder.hnswIndexConfig == null ? null : new HnswIndex<>(builder.hnswIndexConfig);
+        if (loadedVectors != null) {
+            this.packedVectors = loadedVectors;
+        } else if (vectorStorage == VectorStorage.EMBEDDINGS) {
+            this.packedVectors = null;
+        } else {
+            this.packedVectors = new PackedVectors<>(vectorStorage == VectorStorage.PACKED_OFF_HEAP);
+        }
+        this.lock = index == null && packedVectors == null && builder.writeAheadLogConfig == null
+                ? null
+                : new ReentrantReadWriteLock();
+
+        boolean parallelSearch = getOrDefault(builder.parallelSearch, builder.searchExecutor != null);
+        this.searchExecutor = parallelSearch ? getOrDefault(builder.searchExecutor, ForkJoinPool::commonPool) : null;
+        this.searchParallelism = ensureGreaterThanZero(
+                getOrDefault(builder.searchParallelism, Runtime.getRuntime().availableProcessors()), "searchParallelism");
+        this.parallelSearchThreshold = ensureGreaterThanZero(
+                getOrDefault(builder.parallelSearchThreshold, DEFAULT_PARALLEL_SEARCH_THRESHOLD), "parallelSearchThreshold");
+
+        this.writeAheadLog = builder.writeAheadLogConfig == null ? null : openWriteAheadLog(builder.writeAheadLogConfig);
+    }
+
+    /**
+     * Restores the state of this store from the log directory and opens the log for appending.
+     */
+    @SuppressWarnings("unchecked")
+    private WriteAheadLog openWriteAheadLog(WriteAheadLogConfig config) {
+        try {
+            return WriteAheadLog.open(config, new WriteAheadLog.Target() {
+
+                @Override
+                public void add(List<Entry<TextSegment>> recoveredEntries) {
+                    List<Entry<Embedded>> newEntries = (List<Entry<Embedded>>) (List<?>) recoveredEntries;
+                    ensureSameDimension(newEntries);
+                    addLocked(newEntries);
+                }
+
+                @Override
+                public void remove(Set<String> ids) {
+                    removeLocked(entries.findAll(ids));
+                }
+
+                @Override
+                public void removeAll() {
+                    removeAllLocked();
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     @Override
@@ -68,7 +195,7 @@ public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded
     }
 
     public void add(String id, Embedding embedding, Embedded embedded) {
-        entries.add(new Entry<>(id, embedding, embedded));
+        add(singletonList(new Entry<>(id, embedding, embedded)));
     }
 
     @Override
@@ -96,75 +223,459 @@ public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded
 
     private List<String> add(List<Entry<Embedded>> newEntries) {
 
-        entries.addAll(newEntries);
+        if (lock == null) {
+            entries.addAll(newEntries);
+        } else {
+            long logPosition = -1;
+            WriteAheadLog.Compaction compaction;
+            lock.writeLock().lock();
+            try {
+                ensureSameDimension(newEntries);
+                if (writeAheadLog != null) {
+                    logPosition = writeAheadLog.appendAdd(newEntries);
+                }
+                addLocked(newEntries);
+                compaction = startWriteAheadLogCompactionIfNeeded();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            syncWriteAheadLog(logPosition);
+            completeWriteAheadLogCompaction(compaction);
+        }
 
         return newEntries.stream()
                 .map(entry -> entry.id)
                 .collect(toList());
     }
 
+    /**
+     * Must be called under the write lock.
+     */
+    private void addLocked(List<Entry<Embedded>> newEntries) {
+        List<Entry<Embedded>> storedEntries = packedVectors == null ? newEntries : new ArrayList<>(newEntries.size());
+        for (Entry<Embedded> entry : newEntries) {
+            Entry<Embedded> storedEntry = entry;
+            if (packedVectors != null) {
+                storedEntry = Entry.packed(entry.id, entry.embedded());
+                storedEntry.slot = packedVectors.add(entry.embedding.vector(), storedEntry);
+                storedEntries.add(storedEntry);
+            }
+            if (index != null) {
+                index.add(entry.id, entry.embedding.vector(), storedEntry);
+            }
+        }
+        entries.addAll(storedEntries);
+    }
+
+    /**
+     * The index and packed vectors accept only vectors of the same dimension;
+     * this check makes sure that a batch is either fully added or not at all.
+     */
+    private void ensureSameDimension(List<Entry<Embedded>> newEntries) {
+        Entry<Embedded> storedEntry = entries.any();
+        int dimension = storedEntry == null
+                ? newEntries.isEmpty() ? 0 : newEntries.get(0).embedding.dimension()
+                : embeddingOf(storedEntry).dimension();
+        for (Entry<Embedded> entry : newEntries) {
+            if (entry.embedding.dimension() != dimension) {
+                throw illegalArgument("Length of vector (%s) must be equal to the length of stored vectors (%s)",
+                        entry.embedding.dimension(), dimension);
+            }
+        }
+    }
+
     @Override
     public void removeAll(Collection<String> ids) {
         ensureNotEmpty(ids, "ids");
 
-        entries.removeIf(entry -> ids.contains(entry.id));
+        remove(() -> entries.findAll(ids));
     }
 
     @Override
     public void removeAll(Filter filter) {
         ensureNotNull(filter, "filter");
 
-        entries.removeIf(entry -> {
-            if (entry.embedded instanceof TextSegment) {
-                return filter.test(((TextSegment) entry.embedded).metadata());
-            } else if (entry.embedded == null) {
+        remove(() -> entries.findAll(entry -> {
+            Embedded embedded = entry.embedded();
+            if (embedded instanceof TextSegment) {
+                return filter.test(((TextSegment) embedded).metadata());
+            } else if (embedded == null) {
                 return false;
             } else {
                 throw new UnsupportedOperationException("Not supported yet.");
             }
-        });
+        }));
+    }
+
+    private void remove(Supplier<List<Entry<Embedded>>> entriesToRemove) {
+        if (lock == null) {
+            entries.removeAll(entriesToRemove.get());
+            return;
+        }
+        long logPosition = -1;
+        WriteAheadLog.Compaction compaction;
+        lock.writeLock().lock();
+        try {
+            List<Entry<Embedded>> removed = entriesToRemove.get();
+            if (removed.isEmpty()) {
+                return;
+            }
+            if (writeAheadLog != null) {
+                logPosition = writeAheadLog.appendRemove(removed.stream()
+                        .map(entry -> entry.id)
+                        .collect(toSet()));
+            }
+            removeLocked(removed);
+            compaction = startWriteAheadLogCompactionIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        syncWriteAheadLog(logPosition);
+        completeWriteAheadLogCompaction(compaction);
+    }
+
+    /**
+     * Must be called under the write lock.
+     */
+    private void removeLocked(List<Entry<Embedded>> entriesToRemove) {
+        for (Entry<Embedded> entry : entries.removeAll(entriesToRemove)) {
+            if (index != null) {
+                index.remove(entry.id, entry);
+            }
+            if (packedVectors != null) {
+                packedVectors.remove(entry.slot);
+            }
+        }
     }
 
     @Override
     public void removeAll() {
+        if (lock == null) {
+            entries.clear();
+            return;
+        }
+        long logPosition = -1;
+        WriteAheadLog.Compaction compaction;
+        lock.writeLock().lock();
+        try {
+            if (writeAheadLog != null) {
+                logPosition = writeAheadLog.appendRemoveAll();
+            }
+            removeAllLocked();
+            compaction = startWriteAheadLogCompactionIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        syncWriteAheadLog(logPosition);
+        completeWriteAheadLogCompaction(compaction);
+    }
+
+    /**
+     * Must be called under the write lock.
+     */
+    private void removeAllLocked() {
         entries.clear();
+        if (index != null) {
+            index.clear();
+        }
+        if (packedVectors != null) {
+            packedVectors.clear();
+        }
+    }
+
+    /**
+     * Starts a new log, together with a copy of the entries to write into its snapshot.
+     * Packed vectors are copied, as their slots are reused once the write lock is released.
+     * Must be called under the write lock.
+     *
+     * @return the compaction to complete, or null if none is needed or the new log could not be started.
+     */
+    private WriteAheadLog.Compaction startWriteAheadLogCompactionIfNeeded() {
+        if (writeAheadLog == null || !writeAheadLog.shouldCompact()) {
+            return null;
+        }
+        List<Entry<Embedded>> snapshotEntries = packedVectors == null
+                ? entries.toList()
+                : materialize(entries.toList());
+        return writeAheadLog.startCompaction(snapshotSource(snapshotEntries));
+    }
+
+    /**
+     * Writes the snapshot of a compaction.
+     * Must be called after releasing the write lock, so that the store can be changed in the meantime.
+     */
+    private static void completeWriteAheadLogCompaction(WriteAheadLog.Compaction compaction) {
+        if (compaction != null) {
+            compaction.complete();
+        }
+    }
+
+    /**
+     * Waits until the change logged at the given position is on the storage device.
+     * Must be called after releasing the write lock, so that concurrent changes can be synced together.
+     */
+    private void syncWriteAheadLog(long logPosition) {
+        if (writeAheadLog != null) {
+            writeAheadLog.sync(logPosition);
+        }
+    }
+
+    /**
+     * Closes the write-ahead log, if any (see {@link Builder#writeAheadLog(WriteAheadLogConfig)}).
+     * The store cannot be changed anymore once its log is closed. Stores without a log hold no resources.
+     */
+    @Override
+    public void close() {
+        if (writeAheadLog == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            writeAheadLog.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     @Override
     public EmbeddingSearchResult<Embedded> search(EmbeddingSearchRequest embeddingSearchRequest) {
 
-        Comparator<EmbeddingMatch<Embedded>> comparator = comparingDouble(EmbeddingMatch::score);
-        PriorityQueue<EmbeddingMatch<Embedded>> matches = new PriorityQueue<>(comparator);
+        if (index != null && embeddingSearchRequest.filter() == null) {
+            return searchIndex(embeddingSearchRequest);
+        }
+
+        if (packedVectors == null) {
+            return toSearchResult(scoreEntries(embeddingSearchRequest));
+        }
+        lock.readLock().lock();
+        try {
+            return toSearchResult(scorePackedVectors(embeddingSearchRequest));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private PriorityQueue<ScoredEntry<Embedded>> scoreEntries(EmbeddingSearchRequest embeddingSearchRequest) {
+
+        // iterates over a lock-free view of entries, which can be split without copying
+        Spliterator<Entry<Embedded>> entries = this.entries.spliterator();
+        if (!shouldSearchInParallel(entries.estimateSize())) {
+            return scoreEntries(entries, embeddingSearchRequest);
+        }
+
+        List<Spliterator<Entry<Embedded>>> partitions = new ArrayList<>(singletonList(entries));
+        while (partitions.size() < searchParallelism) {
+            Spliterator<Entry<Embedded>> largest = Collections.max(partitions, comparingLong(Spliterator::estimateSize));
+            Spliterator<Entry<Embedded>> split = largest.trySplit();
+            if (split == null) {
+                break;
+            }
+            partitions.add(split);
+        }
+        return scoreInParallel(partitions.stream()
+                .map(partition -> (Supplier<PriorityQueue<ScoredEntry<Embedded>>>)
+                        () -> scoreEntries(partition, embeddingSearchRequest))
+                .collect(toList()), embeddingSearchRequest.maxResults());
+    }
+
+    private PriorityQueue<ScoredEntry<Embedded>> scoreEntries(Spliterator<Entry<Embedded>> entries,
+                                                             EmbeddingSearchRequest embeddingSearchRequest) {
+
+        PriorityQueue<ScoredEntry<Embedded>> matches = new PriorityQueue<>(BY_SCORE);
 
         Filter filter = embeddingSearchRequest.filter();
 
-        for (Entry<Embedded> entry : entries) {
+        entries.forEachRemaining(entry -> {
 
-            if (filter != null && entry.embedded instanceof TextSegment) {
-                Metadata metadata = ((TextSegment) entry.embedded).metadata();
+            if (filter != null && entry.embedded() instanceof TextSegment) {
+                Metadata metadata = ((TextSegment) entry.embedded()).metadata();
                 if (!filter.test(metadata)) {
-                    continue;
+                    return;
                 }
             }
 
             double cosineSimilarity = CosineSimilarity.between(entry.embedding, embeddingSearchRequest.queryEmbedding());
             double score = RelevanceScore.fromCosineSimilarity(cosineSimilarity);
             if (score >= embeddingSearchRequest.minScore()) {
-                matches.add(new EmbeddingMatch<>(score, entry.id, entry.embedding, entry.embedded));
-                if (matches.size() > embeddingSearchRequest.maxResults()) {
-                    matches.poll();
+                addBounded(matches, new ScoredEntry<>(score, entry), embeddingSearchRequest.maxResults());
+            }
+        });
+
+        return matches;
+    }
+
+    /**
+     * Must be called under the read lock.
+     */
+    private PriorityQueue<ScoredEntry<Embedded>> scorePackedVectors(EmbeddingSearchRequest embeddingSearchRequest) {
+
+        int slotCount = packedVectors.slotCount();
+        if (!shouldSearchInParallel(slotCount)) {
+            return scorePackedVectors(0, slotCount, embeddingSearchRequest);
+        }
+
+        int partitionCount = Math.min(searchParallelism, slotCount);
+        List<Supplier<PriorityQueue<ScoredEntry<Embedded>>>> partitions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            int from = (int) ((long) slotCount * i / partitionCount);
+            int to = (int) ((long) slotCount * (i + 1) / partitionCount);
+            partitions.add(() -> scorePackedVectors(from, to, embeddingSearchRequest));
+        }
+        return scoreInParallel(partitions, embeddingSearchRequest.maxResults());
+    }
+
+    private PriorityQueue<ScoredEntry<Embedded>> scorePackedVectors(int fromSlot,
+                                                                   int toSlot,
+                                                                   EmbeddingSearchRequest embeddingSearchRequest) {
+
+        PriorityQueue<ScoredEntry<Embedded>> matches = new PriorityQueue<>(BY_SCORE);
+
+        Filter filter = embeddingSearchRequest.filter();
+        float[] queryVector = embeddingSearchRequest.queryEmbedding().vector();
+        double queryNorm = PackedVectors.norm(queryVector);
+
+        for (int slot = fromSlot; slot < toSlot; slot++) {
+
+            Entry<Embedded> entry = packedVectors.owner(slot);
+            if (entry == null) {
+                continue;
+            }
+
+            if (filter != null && entry.embedded() instanceof TextSegment) {
+                Metadata metadata = ((TextSegment) entry.embedded()).metadata();
+                if (!filter.test(metadata)) {
+                    continue;
+                }
+            }
+
+            double cosineSimilarity = packedVectors.cosineSimilarity(slot, queryVector, queryNorm);
+            double score = RelevanceScore.fromCosineSimilarity(cosineSimilarity);
+            if (score >= embeddingSearchRequest.minScore()) {
+                addBounded(matches, new ScoredEntry<>(score, entry), embeddingSearchRequest.maxResults());
+            }
+        }
+
+        return matches;
+    }
+
+    private boolean shouldSearchInParallel(long size) {
+        return searchExecutor != null && searchParallelism > 1 && size >= parallelSearchThreshold;
+    }
+
+    /**
+     * Scores each partition on the {@link #searchExecutor} and merges the best matches of all partitions.
+     */
+    private PriorityQueue<ScoredEntry<Embedded>> scoreInParallel(List<Supplier<PriorityQueue<ScoredEntry<Embedded>>>> partitions,
+                                                                 int maxResults) {
+
+        List<CompletableFuture<PriorityQueue<ScoredEntry<Embedded>>>> futures = partitions.stream()
+                .map(partition -> CompletableFuture.supplyAsync(partition, searchExecutor))
+                .collect(toList());
+
+        PriorityQueue<ScoredEntry<Embedded>> matches = new PriorityQueue<>(BY_SCORE);
+        for (CompletableFuture<PriorityQueue<ScoredEntry<Embedded>>> future : futures) {
+            PriorityQueue<ScoredEntry<Embedded>> partitionMatches;
+            try {
+                partitionMatches = future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
                 }
+                throw e;
+            }
+            for (ScoredEntry<Embedded> match : partitionMatches) {
+                addBounded(matches, match, maxResults);
             }
         }
+        return matches;
+    }
 
-        List<EmbeddingMatch<Embedded>> result = new ArrayList<>(matches);
-        result.sort(comparator);
-        Collections.reverse(result);
+    private static <Embedded> void addBounded(PriorityQueue<ScoredEntry<Embedded>> matches,
+                                              ScoredEntry<Embedded> match,
+                                              int maxResults) {
+        matches.add(match);
+        if (matches.size() > maxResults) {
+            matches.poll();
+        }
+    }
 
+    /**
+     * Must be called under the read lock when vectors are packed.
+     */
+    private EmbeddingSearchResult<Embedded> toSearchResult(PriorityQueue<ScoredEntry<Embedded>> matches) {
+
+        List<ScoredEntry<Embedded>> sorted = new ArrayList<>(matches);
+        sorted.sort(BY_SCORE.reversed());
+
+        List<EmbeddingMatch<Embedded>> result = new ArrayList<>(sorted.size());
+        for (ScoredEntry<Embedded> scoredEntry : sorted) {
+            Entry<Embedded> entry = scoredEntry.entry;
+            result.add(new EmbeddingMatch<>(scoredEntry.score, entry.id, embeddingOf(entry), entry.embedded()));
+        }
         return new EmbeddingSearchResult<>(result);
     }
 
+    private EmbeddingSearchResult<Embedded> searchIndex(EmbeddingSearchRequest embeddingSearchRequest) {
+
+        Embedding queryEmbedding = embeddingSearchRequest.queryEmbedding();
+        double queryNorm = PackedVectors.norm(queryEmbedding.vector());
+
+        lock.readLock().lock();
+        try {
+            List<Entry<Embedded>> candidates = index.search(queryEmbedding.vector(), embeddingSearchRequest.maxResults());
+
+            List<EmbeddingMatch<Embedded>> result = new ArrayList<>(candidates.size());
+            for (Entry<Embedded> entry : candidates) {
+                double cosineSimilarity = packedVectors == null
+                        ? CosineSimilarity.between(entry.embedding, queryEmbedding)
+                        : packedVectors.cosineSimilarity(entry.slot, queryEmbedding.vector(), queryNorm);
+                double score = RelevanceScore.fromCosineSimilarity(cosineSimilarity);
+                if (score >= embeddingSearchRequest.minScore()) {
+                    result.add(new EmbeddingMatch<>(score, entry.id, embeddingOf(entry), entry.embedded()));
+                }
+            }
+            result.sort(comparingDouble(EmbeddingMatch<Embedded>::score).reversed());
+
+            return new EmbeddingSearchResult<>(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Must be called under the lock when vectors are packed, as slots of removed entries are reused.
+     */
+    private Embedding embeddingOf(Entry<Embedded> entry) {
+        return entry.embedding != null ? entry.embedding : Embedding.from(packedVectors.vector(entry.slot));
+    }
+
+    /**
+     * @return copies of entries that all hold their {@link Embedding}s.
+     */
+    private List<Entry<Embedded>> materializedEntries() {
+        if (packedVectors == null) {
+            return materialize(entries.toList());
+        }
+        lock.readLock().lock();
+        try {
+            return materialize(entries.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Entry<Embedded>> materialize(List<Entry<Embedded>> entries) {
+        List<Entry<Embedded>> materialized = new ArrayList<>(entries.size());
+        for (Entry<Embedded> entry : entries) {
+            materialized.add(new Entry<>(entry.id, embeddingOf(entry), entry.embedded()));
+        }
+        return materialized;
+    }
+
     public String serializeToJson() {
+        if (packedVectors != null) {
+            return loadCodec().toJson(new InMemoryEmbeddingStore<>(materializedEntries()));
+        }
         return loadCodec().toJson(this);
     }
 
@@ -185,8 +696,115 @@ public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded
         return loadCodec().fromJson(json);
     }
 
+    /**
+     * Writes this store into a file in a compact binary format, see {@link #fromBinaryFile(Path)}.
+     * The file is written in a streaming fashion, without building the whole content in memory.
+     * It is written to a temporary file first, which then replaces the given file:
+     * a store loaded with {@link #fromBinaryFile(Path)} can be written back to the file it was loaded from.
+     * Only stores of {@link TextSegment}s are supported.
+     */
+    public void serializeToBinaryFile(Path filePath) {
+        try {
+            if (packedVectors == null) {
+                BinarySnapshot.write(filePath, snapshotSource(entries.toList()));
+                return;
+            }
+            lock.readLock().lock();
+            try {
+                BinarySnapshot.write(filePath, snapshotSource(entries.toList()));
+            } finally {
+                lock.readLock().unlock();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void serializeToBinaryFile(String filePath) {
+        serializeToBinaryFile(Paths.get(filePath));
+    }
+
+    private BinarySnapshot.Source<Embedded> snapshotSource(List<Entry<Embedded>> entries) {
+        int dimension = entries.isEmpty() ? 0 : embeddingOf(entries.get(0)).dimension();
+        return new BinarySnapshot.Source<Embedded>() {
+
+            @Override
+            public int size() {
+                return entries.size();
+            }
+
+            @Override
+            public int dimension() {
+                return dimension;
+            }
+
+            @Override
+            public String id(int i) {
+                return entries.get(i).id;
+            }
+
+            @Override
+            public double norm(int i) {
+                Entry<Embedded> entry = entries.get(i);
+                return entry.embedding == null
+                        ? packedVectors.norm(entry.slot)
+                        : PackedVectors.norm(entry.embedding.vector());
+            }
+
+            @Override
+            public float[] vector(int i) {
+                float[] vector = embeddingOf(entries.get(i)).vector();
+                if (vector.length != dimension) {
+                    throw illegalArgument("Length of vector (%s) must be equal to the length of stored vectors (%s)",
+                            vector.length, dimension);
+                }
+                return vector;
+            }
+
+            @Override
+            public Embedded embedded(int i) {
+                return entries.get(i).embedded();
+            }
+        };
+    }
+
+    /**
+     * Loads a store written by {@link #serializeToBinaryFile(Path)}.
+     * <p>
+     * The file is memory-mapped: vectors are not copied onto the heap
+     * (the loaded store uses {@link VectorStorage#PACKED}),
+     * and {@link TextSegment}s are decoded only when they are accessed for the first time.
+     * The file must not be modified while the store is in use.
+     */
+    public static InMemoryEmbeddingStore<TextSegment> fromBinaryFile(Path filePath) {
+        try {
+            BinarySnapshot.Loaded loaded = BinarySnapshot.load(filePath);
+            PackedVectors<Entry<TextSegment>> packedVectors = new PackedVectors<>(
+                    false, loaded.dimension, loaded.chunks, loaded.norms, loaded.entries);
+            InMemoryEmbeddingStore<TextSegment> store =
+                    new InMemoryEmbeddingStore<>(builder().vectorStorage(VectorStorage.PACKED), packedVectors);
+            store.entries.addAll(loaded.entries);
+            return store;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static InMemoryEmbeddingStore<TextSegment> fromBinaryFile(String filePath) {
+        return fromBinaryFile(Paths.get(filePath));
+    }
+
+    /**
+     * Loads a store from a file written either by {@link #serializeToFile(Path)}
+     * or by {@link #serializeToBinaryFile(Path)}; the format is detected automatically.
+     * <p>
+     * To migrate a JSON file to the binary format, load it and write it with {@link #serializeToBinaryFile(Path)}.
+     */
     public static InMemoryEmbeddingStore<TextSegment> fromFile(Path filePath) {
         try {
+            if (BinarySnapshot.isBinarySnapshot(filePath)) {
+                return fromBinaryFile(filePath);
+            }
             String json = new String(Files.readAllBytes(filePath));
             return fromJson(json);
         } catch (IOException e) {
@@ -201,12 +819,13 @@ public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded
     /**
      * Merges given {@code InMemoryEmbeddingStore}s into a single {@code InMemoryEmbeddingStore},
      * copying all entries from each store.
+     * The resulting store does not use an HNSW index and keeps {@link Embedding} objects.
      */
     public static <Embedded> InMemoryEmbeddingStore<Embedded> merge(Collection<InMemoryEmbeddingStore<Embedded>> stores) {
         ensureNotNull(stores, "stores");
         List<Entry<Embedded>> entries = new ArrayList<>();
         for (InMemoryEmbeddingStore<Embedded> store : stores) {
-            entries.addAll(store.entries);
+            entries.addAll(store.materializedEntries());
         }
         return new InMemoryEmbeddingStore<>(entries);
     }
@@ -220,12 +839,33 @@ public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded
         return merge(asList(first, second));
     }
 
-    private static class Entry<Embedded> {
+    static class Entry<Embedded> {
 
         String id;
         Embedding embedding;
         Embedded embedded;
 
+        /**
+         * The slot in {@link PackedVectors} holding the vector of this entry,
+         * when the entry does not hold an {@link Embedding} itself.
+         */
+        transient int slot = -1;
+
+        /**
+         * Loads the embedded object on first access, e.g. from a memory-mapped {@link BinarySnapshot}.
+         */
+        transient volatile Supplier<Embedded> lazyEmbedded;
+
+        /**
+         * The position of this entry in {@link SegmentedEntries}, or -1 if it is not stored.
+         */
+        transient int position = -1;
+
+        /**
+         * The next stored entry with the same id, see {@link SegmentedEntries}.
+         */
+        transient Entry<Embedded> nextWithSameId;
+
         Entry(String id, Embedding embedding) {
             this(id, embedding, null);
         }
@@ -236,6 +876,25 @@ public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded
             this.embedded = embedded;
         }
 
+        private Entry(String id, Embedded embedded) {
+            this.id = ensureNotBlank(id, "id");
+            this.embedded = embedded;
+        }
+
+        static <Embedded> Entry<Embedded> packed(String id, Embedded embedded) {
+            return new Entry<>(id, embedded);
+        }
+
+        Embedded embedded() {
+            Supplier<Embedded> lazyEmbedded = this.lazyEmbedded;
+            if (lazyEmbedded != null) {
+                // concurrent callers may both load it, which is harmless
+                embedded = lazyEmbedded.get();
+                this.lazyEmbedded = null;
+            }
+            return embedded;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -243,12 +902,114 @@ public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded
             Entry<?> that = (Entry<?>) o;
             return Objects.equals(this.id, that.id)
                     && Objects.equals(this.embedding, that.embedding)
-                    && Objects.equals(this.embedded, that.embedded);
+                    && Objects.equals(this.embedded(), that.embedded());
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(id, embedding, embedded);
+            return Objects.hash(id, embedding, embedded());
+        }
+    }
+
+    private static final Comparator<ScoredEntry<?>> BY_SCORE = comparingDouble(scoredEntry -> scoredEntry.score);
+
+    private static class ScoredEntry<Embedded> {
+
+        final double score;
+        final Entry<Embedded> entry;
+
+        ScoredEntry(double score, Entry<Embedded> entry) {
+            this.score = score;
+            this.entry = entry;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private HnswIndexConfig hnswIndexConfig;
+        private VectorStorage vectorStorage;
+        private Boolean parallelSearch;
+        private Executor searchExecutor;
+        private Integer searchParallelism;
+        private Integer parallelSearchThreshold;
+        private WriteAheadLogConfig writeAheadLogConfig;
+
+        /**
+         * @param hnswIndexConfig The configuration of the HNSW index. Optional.
+         *                        If none is specified, searches use the brute force approach.
+         * @return builder
+         */
+        public Builder hnswIndex(HnswIndexConfig hnswIndexConfig) {
+            this.hnswIndexConfig = hnswIndexConfig;
+            return this;
+        }
+
+        /**
+         * @param vectorStorage The way embedding vectors are kept in memory. Default: {@link VectorStorage#EMBEDDINGS}.
+         * @return builder
+         */
+        public Builder vectorStorage(VectorStorage vectorStorage) {
+            this.vectorStorage = vectorStorage;
+            return this;
+        }
+
+        /**
+         * @param parallelSearch Whether brute force searches over large stores are split into partitions
+         *                       that are scored in parallel. Default: {@code true} if a
+         *                       {@link #searchExecutor(Executor)} is specified, {@code false} otherwise.
+         * @return builder
+         */
+        public Builder parallelSearch(Boolean parallelSearch) {
+            this.parallelSearch = parallelSearch;
+            return this;
+        }
+
+        /**
+         * @param searchExecutor The executor scoring partitions of a parallel search.
+         *                       Default: {@link ForkJoinPool#commonPool()}.
+         * @return builder
+         */
+        public Builder searchExecutor(Executor searchExecutor) {
+            this.searchExecutor = searchExecutor;
+            return this;
+        }
+
+        /**
+         * @param searchParallelism The number of partitions of a parallel search.
+         *                          Default: the number of available processors.
+         * @return builder
+         */
+        public Builder searchParallelism(Integer searchParallelism) {
+            this.searchParallelism = searchParallelism;
+            return this;
+        }
+
+        /**
+         * @param parallelSearchThreshold The minimum number of stored embeddings for a search to run in parallel.
+         *                                Smaller stores are searched on the calling thread. Default: 10000.
+         * @return builder
+         */
+        public Builder parallelSearchThreshold(Integer parallelSearchThreshold) {
+            this.parallelSearchThreshold = parallelSearchThreshold;
+            return this;
+        }
+
+        /**
+         * @param writeAheadLogConfig The configuration of the write-ahead log that persists every change. Optional.
+         *                            If specified, the store is restored from the log directory when it is built.
+         * @return builder
+         */
+        public Builder writeAheadLog(WriteAheadLogConfig writeAheadLogConfig) {
+            this.writeAheadLogConfig = writeAheadLogConfig;
+            return this;
+        }
+
+        public <Embedded> InMemoryEmbeddingStore<Embedded> build() {
+            return new InMemoryEmbeddingStore<>(this);
         }
     }
 
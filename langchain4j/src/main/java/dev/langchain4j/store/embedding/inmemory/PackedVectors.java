@@ -0,0 +1,223 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+import static dev.langchain4j.store.embedding.CosineSimilarity.EPSILON;
+
+/**
+ * Stores vectors of the same dimension packed one after another in large float chunks
+ * (on the heap or in direct, off-heap memory), together with their norms computed once at insertion.
+ * Each vector occupies a slot; slots of removed vectors are reused by subsequent insertions.
+ * <p>
+ * This class is not thread-safe: concurrent reads are fine, but mutations must be externally synchronized.
+ *
+ * @param <T> The type of the item owning each slot.
+ */
+class PackedVectors<T> {
+
+    private static final int FLOATS_PER_CHUNK = 1 << 20;
+
+    private final boolean offHeap;
+    private final List<FloatBuffer> chunks = new ArrayList<>();
+    private int dimension = -1;
+    private int slotsPerChunk;
+
+    private double[] norms = new double[0];
+    private Object[] owners = new Object[0];
+    private int slotCount;
+
+    private int[] freeSlots = new int[0];
+    private int freeSlotCount;
+
+    PackedVectors(boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Creates packed vectors over existing chunks (e.g. memory-mapped from a file) with {@code count} occupied slots.
+     * Chunks must be laid out as described by {@link #slotsPerChunk(int)}. Read-only chunks are copied on first write.
+     */
+    PackedVectors(boolean offHeap, int dimension, List<FloatBuffer> chunks, double[] norms, List<T> owners) {
+        this.offHeap = offHeap;
+        if (!owners.isEmpty()) {
+            this.dimension = dimension;
+            this.slotsPerChunk = slotsPerChunk(dimension);
+            this.chunks.addAll(chunks);
+            this.norms = norms;
+            this.owners = owners.toArray();
+            this.slotCount = owners.size();
+        }
+    }
+
+    /**
+     * @return the number of vectors of the given dimension stored in one (full) chunk.
+     */
+    static int slotsPerChunk(int dimension) {
+        return Math.max(1, FLOATS_PER_CHUNK / Math.max(dimension, 1));
+    }
+
+    /**
+     * @return the slot that now holds the given vector.
+     */
+    int add(float[] vector, T owner) {
+        if (dimension == -1) {
+            dimension = vector.length;
+            slotsPerChunk = slotsPerChunk(dimension);
+        } else if (dimension != vector.length) {
+            throw illegalArgument("Length of vector (%s) must be equal to the length of stored vectors (%s)",
+                    vector.length, dimension);
+        }
+
+        int slot;
+        if (freeSlotCount > 0) {
+            slot = freeSlots[--freeSlotCount];
+        } else {
+            slot = slotCount++;
+            ensureCapacity(slotCount);
+        }
+
+        FloatBuffer chunk = writableChunk(slot / slotsPerChunk);
+        int offset = (slot % slotsPerChunk) * dimension;
+        double norm = 0.0;
+        for (int i = 0; i < dimension; i++) {
+            chunk.put(offset + i, vector[i]);
+            norm += vector[i] * vector[i];
+        }
+        norms[slot] = Math.sqrt(norm);
+        owners[slot] = owner;
+        return slot;
+    }
+
+    void remove(int slot) {
+        owners[slot] = null;
+        if (freeSlotCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, Math.max(16, freeSlots.length * 2));
+        }
+        freeSlots[freeSlotCount++] = slot;
+    }
+
+    void clear() {
+        chunks.clear();
+        dimension = -1;
+        norms = new double[0];
+        owners = new Object[0];
+        slotCount = 0;
+        freeSlots = new int[0];
+        freeSlotCount = 0;
+    }
+
+    /**
+     * @return the number of slots, including free ones. Valid slots are in the range [0..slotCount).
+     */
+    int slotCount() {
+        return slotCount;
+    }
+
+    /**
+     * @return the owner of the slot, or {@code null} if the slot is free.
+     */
+    @SuppressWarnings("unchecked")
+    T owner(int slot) {
+        return (T) owners[slot];
+    }
+
+    float[] vector(int slot) {
+        FloatBuffer chunk = chunks.get(slot / slotsPerChunk);
+        int offset = (slot % slotsPerChunk) * dimension;
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = chunk.get(offset + i);
+        }
+        return vector;
+    }
+
+    /**
+     * Calculates cosine similarity between the vector in the given slot and the query vector,
+     * the same way as {@link dev.langchain4j.store.embedding.CosineSimilarity#between}, but reusing precomputed norms.
+     */
+    double cosineSimilarity(int slot, float[] query, double queryNorm) {
+        if (dimension != query.length) {
+            throw illegalArgument("Length of vector a (%s) must be equal to the length of vector b (%s)",
+                    dimension, query.length);
+        }
+        FloatBuffer chunk = chunks.get(slot / slotsPerChunk);
+        int offset = (slot % slotsPerChunk) * dimension;
+        double dotProduct = 0.0;
+        for (int i = 0; i < dimension; i++) {
+            dotProduct += chunk.get(offset + i) * query[i];
+        }
+        return dotProduct / Math.max(norms[slot] * queryNorm, EPSILON);
+    }
+
+    double norm(int slot) {
+        return norms[slot];
+    }
+
+    static double norm(float[] vector) {
+        double norm = 0.0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        return Math.sqrt(norm);
+    }
+
+    private void ensureCapacity(int requiredSlots) {
+        if (requiredSlots > norms.length) {
+            int newLength = Math.max(16, Math.max(requiredSlots, norms.length + (norms.length >> 1)));
+            norms = Arrays.copyOf(norms, newLength);
+            owners = Arrays.copyOf(owners, newLength);
+        }
+        // all chunks but the last one are full, the last one grows gradually,
+        // so that small stores do not reserve a whole chunk upfront
+        int lastChunk = (requiredSlots - 1) / slotsPerChunk;
+        while (chunks.size() <= lastChunk) {
+            if (!chunks.isEmpty()) {
+                growChunk(chunks.size() - 1, slotsPerChunk);
+            }
+            chunks.add(allocateChunk(Math.min(16, slotsPerChunk) * dimension));
+        }
+        int requiredSlotsInLastChunk = requiredSlots - lastChunk * slotsPerChunk;
+        int slotsInLastChunk = chunks.get(lastChunk).capacity() / Math.max(dimension, 1);
+        if (slotsInLastChunk < requiredSlotsInLastChunk) {
+            growChunk(lastChunk, Math.min(slotsPerChunk, Math.max(requiredSlotsInLastChunk, slotsInLastChunk * 2)));
+        }
+    }
+
+    private FloatBuffer writableChunk(int index) {
+        FloatBuffer chunk = chunks.get(index);
+        if (chunk.isReadOnly()) {
+            FloatBuffer copy = allocateChunk(chunk.capacity());
+            chunk.rewind();
+            copy.put(chunk);
+            chunks.set(index, copy);
+            return copy;
+        }
+        return chunk;
+    }
+
+    private void growChunk(int index, int slots) {
+        FloatBuffer chunk = chunks.get(index);
+        if (chunk.capacity() >= slots * dimension) {
+            return;
+        }
+        FloatBuffer grown = allocateChunk(slots * dimension);
+        chunk.rewind();
+        grown.put(chunk);
+        chunks.set(index, grown);
+    }
+
+    private FloatBuffer allocateChunk(int floats) {
+        if (offHeap) {
+            return ByteBuffer.allocateDirect(floats * Float.BYTES)
+                    .order(ByteOrder.nativeOrder())
+                    .asFloatBuffer();
+        }
+        return FloatBuffer.allocate(floats);
+    }
+}
@@ -0,0 +1,29 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+/**
+ * Defines how the {@link InMemoryEmbeddingStore} keeps embedding vectors in memory.
+ */
+public enum VectorStorage {
+
+    /**
+     * Each entry keeps its own {@link dev.langchain4j.data.embedding.Embedding} object.
+     * This is the default.
+     */
+    EMBEDDINGS,
+
+    /**
+     * All vectors are packed into large contiguous float chunks on the heap, and their norms are computed once,
+     * when they are added. This avoids an object header and a separate array per vector,
+     * and turns a brute force search into a sequential sweep over memory.
+     * {@link dev.langchain4j.data.embedding.Embedding}s are created on demand, e.g. for search results.
+     * <p>
+     * An {@link HnswIndexConfig HNSW index} does not use the packed vectors: it keeps its own copy of them.
+     */
+    PACKED,
+
+    /**
+     * Same as {@link #PACKED}, but the chunks are allocated in direct (off-heap) memory,
+     * which keeps large stores out of the garbage collector's way.
+     */
+    PACKED_OFF_HEAP
+}
@@ -0,0 +1,551 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * An append-only log of the changes made to an {@link InMemoryEmbeddingStore}, see {@link WriteAheadLogConfig}.
+ * <p>
+ * The directory holds files of a single generation: {@code snapshot-<generation>.bin}, a {@link BinarySnapshot}
+ * of the store when the generation started, and {@code wal-<generation>.log}, the changes made since then.
+ * Compaction starts the empty log of the next generation under the write lock of the store, together with
+ * a copy of the entries of the store, and then writes the snapshot of the next generation from this copy
+ * outside of the lock, while changes are appended to the new log. Only then are the files of the previous
+ * generation deleted. Until the snapshot is written, the state of the store is the previous snapshot followed
+ * by the logs of both generations: recovery replays the logs of the generations following the latest snapshot,
+ * so a crash at any point leaves a consistent state to recover from.
+ * For the same reason, a compaction that fails does not fail the change that triggered it, which is already logged:
+ * the failure is logged, and the compaction is attempted again once the log has grown by another threshold.
+ * All numbers are little-endian.
+ * <pre>
+ * log:         int magic, int version, records
+ * record:      int bodyLength, int crc32(body), body
+ * add:         byte 1, int count, count times (string id, int dimension, float[dimension], int payloadLength, payload)
+ * remove:      byte 2, int count, count times string id
+ * remove all:  byte 3
+ * </pre>
+ * Payloads are encoded like in {@link BinarySnapshot}. A torn record at the end of the log
+ * (e.g. after a crash in the middle of a write) is discarded during recovery.
+ * <p>
+ * Records are appended under the write lock of the store, so they are in the same order as the changes in memory.
+ * Forcing them to the storage device ({@link #sync(long)}) happens outside of that lock, so that changes made
+ * concurrently are forced together.
+ */
+class WriteAheadLog implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    private static final int MAGIC = 0x4C344A57; // "L4JW"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private static final byte ADD = 1;
+    private static final byte REMOVE = 2;
+    private static final byte REMOVE_ALL = 3;
+
+    private static final Pattern FILE_NAME = Pattern.compile("(snapshot|wal)-(\\d+)\\.(bin|log)(\\.tmp)?");
+
+    /**
+     * Receives the recovered changes.
+     */
+    interface Target {
+
+        void add(List<InMemoryEmbeddingStore.Entry<TextSegment>> entries);
+
+        void remove(Set<String> ids);
+
+        void removeAll();
+    }
+
+    private final Path directory;
+    private final boolean sync;
+    private final long compactionThreshold;
+    private final Object syncLock = new Object();
+
+    /**
+     * The generation of the log changes are appended to.
+     */
+    private long generation;
+    private FileChannel channel;
+    private long logSize;
+    /**
+     * The size of the log beyond which it is compacted.
+     */
+    private long compactionSize;
+    /**
+     * Whether the snapshot of the current generation is being written.
+     */
+    private volatile boolean compacting;
+
+    /**
+     * The number of bytes appended since the log was opened, across all generations.
+     * Only modified under the write lock of the store.
+     */
+    private volatile long appended;
+    /**
+     * The value of {@link #appended} up to which the log is known to be on the storage device.
+     */
+    private volatile long synced;
+
+    private WriteAheadLog(WriteAheadLogConfig config) {
+        this.directory = config.directory();
+        this.sync = config.sync();
+        this.compactionThreshold = config.compactionThreshold();
+    }
+
+    /**
+     * Opens the log in the configured directory, passing the recovered state of the store to the target.
+     */
+    static WriteAheadLog open(WriteAheadLogConfig config, Target target) throws IOException {
+        WriteAheadLog writeAheadLog = new WriteAheadLog(config);
+        writeAheadLog.recover(target);
+        return writeAheadLog;
+    }
+
+    private void recover(Target target) throws IOException {
+        Files.createDirectories(directory);
+
+        generation = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches() && matcher.group(1).equals("snapshot") && matcher.group(4) == null) {
+                    generation = Math.max(generation, Long.parseLong(matcher.group(2)));
+                }
+            }
+        }
+        deleteFilesBefore(generation);
+
+        Path snapshot = snapshotFile(generation);
+        if (Files.exists(snapshot)) {
+            target.add(materialize(BinarySnapshot.load(snapshot)));
+        }
+
+        // the logs of the following generations exist if a compaction did not write its snapshot
+        long logGeneration = generation;
+        do {
+            if (channel != null) {
+                channel.close();
+            }
+            generation = logGeneration;
+            channel = FileChannel.open(logFile(generation), CREATE, READ, WRITE);
+            if (channel.size() < HEADER_SIZE) {
+                writeHeader(channel);
+                logSize = HEADER_SIZE;
+            } else {
+                logSize = replay(target);
+                channel.truncate(logSize);
+            }
+            logGeneration++;
+        } while (Files.exists(logFile(logGeneration)));
+        channel.position(logSize);
+        compactionSize = logSize + compactionThreshold;
+    }
+
+    /**
+     * Copies entries out of a memory-mapped snapshot, so that the snapshot file can be deleted on compaction.
+     */
+    private static List<InMemoryEmbeddingStore.Entry<TextSegment>> materialize(BinarySnapshot.Loaded loaded) {
+        PackedVectors<InMemoryEmbeddingStore.Entry<TextSegment>> vectors =
+                new PackedVectors<>(false, loaded.dimension, loaded.chunks, loaded.norms, loaded.entries);
+        List<InMemoryEmbeddingStore.Entry<TextSegment>> entries = new ArrayList<>(loaded.entries.size());
+        for (InMemoryEmbeddingStore.Entry<TextSegment> entry : loaded.entries) {
+            entries.add(new InMemoryEmbeddingStore.Entry<>(
+                    entry.id, Embedding.from(vectors.vector(entry.slot)), entry.embedded()));
+        }
+        return entries;
+    }
+
+    /**
+     * @return the size of the valid part of the log.
+     */
+    private long replay(Target target) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(header, 0);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not an embedding store write-ahead log: " + logFile(generation));
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported embedding store write-ahead log version: " + version);
+        }
+
+        long size = channel.size();
+        long position = HEADER_SIZE;
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (position + RECORD_HEADER_SIZE <= size) {
+            recordHeader.clear();
+            readFully(recordHeader, position);
+            int bodyLength = recordHeader.getInt();
+            int checksum = recordHeader.getInt();
+            if (bodyLength <= 0 || position + RECORD_HEADER_SIZE + bodyLength > size) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(bodyLength).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(body, position + RECORD_HEADER_SIZE);
+            if (checksum(body.array()) != checksum) {
+                break;
+            }
+            apply(body, target);
+            position += RECORD_HEADER_SIZE + bodyLength;
+        }
+        return position;
+    }
+
+    private static void apply(ByteBuffer body, Target target) throws IOException {
+        byte type = body.get();
+        switch (type) {
+            case ADD: {
+                int count = body.getInt();
+                List<InMemoryEmbeddingStore.Entry<TextSegment>> entries = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    String id = getString(body);
+                    float[] vector = new float[body.getInt()];
+                    body.asFloatBuffer().get(vector);
+                    body.position(body.position() + vector.length * Float.BYTES);
+                    byte[] payload = new byte[body.getInt()];
+                    body.get(payload);
+                    entries.add(new InMemoryEmbeddingStore.Entry<>(
+                            id, Embedding.from(vector), BinarySnapshot.decodePayload(payload)));
+                }
+                target.add(entries);
+                break;
+            }
+            case REMOVE: {
+                int count = body.getInt();
+                Set<String> ids = new HashSet<>();
+                for (int i = 0; i < count; i++) {
+                    ids.add(getString(body));
+                }
+                target.remove(ids);
+                break;
+            }
+            case REMOVE_ALL:
+                target.removeAll();
+                break;
+            default:
+                throw new IOException("Unknown embedding store write-ahead log record type: " + type);
+        }
+    }
+
+    /**
+     * Must be called under the write lock of the store.
+     *
+     * @return the position to pass to {@link #sync(long)}.
+     */
+    long appendAdd(List<? extends InMemoryEmbeddingStore.Entry<?>> entries) {
+        List<byte[]> ids = new ArrayList<>(entries.size());
+        List<byte[]> payloads = new ArrayList<>(entries.size());
+        int bodyLength = 1 + 4;
+        for (InMemoryEmbeddingStore.Entry<?> entry : entries) {
+            byte[] id = entry.id.getBytes(UTF_8);
+            byte[] payload = BinarySnapshot.encodePayload(entry.embedded());
+            ids.add(id);
+            payloads.add(payload);
+            bodyLength += 4 + id.length + 4 + entry.embedding.dimension() * Float.BYTES + 4 + payload.length;
+        }
+
+        ByteBuffer body = ByteBuffer.allocate(bodyLength).order(ByteOrder.LITTLE_ENDIAN);
+        body.put(ADD);
+        body.putInt(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            float[] vector = entries.get(i).embedding.vector();
+            body.putInt(ids.get(i).length).put(ids.get(i));
+            body.putInt(vector.length);
+            for (float value : vector) {
+                body.putFloat(value);
+            }
+            body.putInt(payloads.get(i).length).put(payloads.get(i));
+        }
+        return append(body.array());
+    }
+
+    /**
+     * Must be called under the write lock of the store.
+     *
+     * @return the position to pass to {@link #sync(long)}.
+     */
+    long appendRemove(Collection<String> ids) {
+        List<byte[]> encodedIds = new ArrayList<>(ids.size());
+        int bodyLength = 1 + 4;
+        for (String id : ids) {
+            byte[] encodedId = id.getBytes(UTF_8);
+            encodedIds.add(encodedId);
+            bodyLength += 4 + encodedId.length;
+        }
+
+        ByteBuffer body = ByteBuffer.allocate(bodyLength).order(ByteOrder.LITTLE_ENDIAN);
+        body.put(REMOVE);
+        body.putInt(encodedIds.size());
+        for (byte[] encodedId : encodedIds) {
+            body.putInt(encodedId.length).put(encodedId);
+        }
+        return append(body.array());
+    }
+
+    /**
+     * Must be called under the write lock of the store.
+     *
+     * @return the position to pass to {@link #sync(long)}.
+     */
+    long appendRemoveAll() {
+        return append(new byte[]{REMOVE_ALL});
+    }
+
+    private long append(byte[] body) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + body.length).order(ByteOrder.LITTLE_ENDIAN);
+        record.putInt(body.length);
+        record.putInt(checksum(body));
+        record.put(body);
+        record.flip();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        } catch (IOException e) {
+            // do not leave a partial record, later records would not be recovered after it
+            try {
+                channel.truncate(logSize);
+                channel.position(logSize);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new RuntimeException(e);
+        }
+        logSize += record.limit();
+        appended += record.limit();
+        return appended;
+    }
+
+    /**
+     * Forces the log to the storage device, up to the given position. While one thread forces the log,
+     * others wait for it and then find that their records have been forced as well (group commit).
+     */
+    void sync(long position) {
+        if (!sync || synced >= position) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced >= position) {
+                return;
+            }
+            long target = appended;
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            synced = target;
+        }
+    }
+
+    /**
+     * Must be called under the write lock of the store.
+     */
+    boolean shouldCompact() {
+        return !compacting && logSize > compactionSize;
+    }
+
+    /**
+     * Starts the empty log of a new generation, to which subsequent changes are appended.
+     * Must be called under the write lock of the store.
+     * If the new log cannot be started, changes are still appended to the current one,
+     * and the compaction is attempted again once the log has grown by another threshold.
+     *
+     * @param source The current state of the store. It must not change once the write lock is released.
+     * @return the compaction, to complete by calling {@link Compaction#complete()} after releasing the write lock,
+     * or null if the new log could not be started.
+     */
+    Compaction startCompaction(BinarySnapshot.Source<?> source) {
+        long nextGeneration = generation + 1;
+        FileChannel nextChannel = null;
+        FileChannel previousChannel;
+        try {
+            nextChannel = FileChannel.open(logFile(nextGeneration), CREATE, READ, WRITE);
+            nextChannel.truncate(0);
+            writeHeader(nextChannel);
+            nextChannel.position(HEADER_SIZE);
+            // from this point on, recovery replays the new log after the previous one
+            syncDirectory();
+
+            synchronized (syncLock) {
+                if (sync) {
+                    channel.force(false);
+                }
+                previousChannel = channel;
+                channel = nextChannel;
+                synced = appended;
+            }
+        } catch (IOException e) {
+            log.warn("Failed to start the write-ahead log of generation {}, "
+                    + "changes are still appended to the log of generation {}", nextGeneration, generation, e);
+            deleteNextLog(nextChannel, nextGeneration);
+            compactionSize = logSize + compactionThreshold;
+            return null;
+        }
+        generation = nextGeneration;
+        logSize = HEADER_SIZE;
+        compactionSize = HEADER_SIZE + compactionThreshold;
+        compacting = true;
+        try {
+            previousChannel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the write-ahead log of generation {}", nextGeneration - 1, e);
+        }
+        return new Compaction(nextGeneration, source);
+    }
+
+    private void deleteNextLog(FileChannel nextChannel, long nextGeneration) {
+        try {
+            if (nextChannel != null) {
+                nextChannel.close();
+            }
+            Files.deleteIfExists(logFile(nextGeneration));
+        } catch (IOException e) {
+            // an empty log left behind is replayed as an empty generation by recovery
+            log.warn("Failed to delete the write-ahead log of generation {}", nextGeneration, e);
+        }
+    }
+
+    /**
+     * Writes the snapshot of a new generation, outside of the write lock of the store.
+     */
+    class Compaction {
+
+        private final long generation;
+        private final BinarySnapshot.Source<?> source;
+
+        private Compaction(long generation, BinarySnapshot.Source<?> source) {
+            this.generation = generation;
+            this.source = source;
+        }
+
+        /**
+         * Writes the snapshot. A failure is logged rather than thrown, as the change that triggered the compaction
+         * is already applied and logged: the logs of the previous generations are kept, so that recovery
+         * still replays them, until a later compaction writes its snapshot.
+         */
+        void complete() {
+            Path temporarySnapshot = directory.resolve(snapshotFile(generation).getFileName() + ".tmp");
+            try {
+                BinarySnapshot.write(temporarySnapshot, source, true);
+
+                // from this point on, recovery starts from the new snapshot
+                Files.move(temporarySnapshot, snapshotFile(generation), ATOMIC_MOVE, REPLACE_EXISTING);
+                syncDirectory();
+                deleteFilesBefore(generation);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to compact the write-ahead log into the snapshot of generation {}, "
+                        + "it will be written by the next compaction", generation, e);
+                try {
+                    Files.deleteIfExists(temporarySnapshot);
+                } catch (IOException ignored) {
+                    // deleted by the next compaction or recovery
+                }
+            } finally {
+                compacting = false;
+            }
+        }
+    }
+
+    /**
+     * Closes the log file. Must be called under the write lock of the store.
+     */
+    @Override
+    public void close() {
+        synchronized (syncLock) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private void writeHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+        channel.force(true);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) == -1) {
+                throw new IOException("Unexpected end of file: " + logFile(generation));
+            }
+        }
+        buffer.flip();
+    }
+
+    private void syncDirectory() {
+        // makes the rename durable; opening a directory is not supported on all platforms
+        try (FileChannel directoryChannel = FileChannel.open(directory, READ)) {
+            directoryChannel.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Deletes the files of the previous generations, and the snapshots that were not completely written.
+     */
+    private void deleteFilesBefore(long generation) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()
+                        && (matcher.group(4) != null || Long.parseLong(matcher.group(2)) < generation)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private Path snapshotFile(long generation) {
+        return directory.resolve("snapshot-" + generation + ".bin");
+    }
+
+    private Path logFile(long generation) {
+        return directory.resolve("wal-" + generation + ".log");
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static int checksum(byte[] bytes) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(bytes, 0, bytes.length);
+        return (int) crc32.getValue();
+    }
+}
@@ -0,0 +1,111 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * Configuration of the write-ahead log that makes an {@link InMemoryEmbeddingStore} durable.
+ * <p>
+ * Every change (add or removal) is appended to a log file before it is applied in memory,
+ * so the cost of persisting a change is proportional to the size of the change, not to the size of the store.
+ * Once the log grows beyond {@link #compactionThreshold()} bytes, the whole store is written into a
+ * binary snapshot (see {@link InMemoryEmbeddingStore#serializeToBinaryFile(Path)}) and a new, empty log is started.
+ * When a store is created with a write-ahead log, it is restored from the latest snapshot and log in the directory.
+ * <p>
+ * Only stores of {@link dev.langchain4j.data.segment.TextSegment}s are supported.
+ * The directory must not be used by more than one store at a time.
+ */
+public class WriteAheadLogConfig {
+
+    private static final long DEFAULT_COMPACTION_THRESHOLD = 64 * 1024 * 1024;
+
+    private final Path directory;
+    private final boolean sync;
+    private final long compactionThreshold;
+
+    /**
+     * Creates an instance of a {@code WriteAheadLogConfig}.
+     *
+     * @param directory           The directory holding the log and the snapshot. It is created if it does not exist.
+     * @param sync                Whether each change is forced to the storage device before the method changing the
+     *                            store returns. Changes made concurrently are forced together (group commit).
+     *                            When disabled, changes survive a crash of the process, but not of the machine.
+     *                            Default: true.
+     * @param compactionThreshold The size of the log, in bytes, above which the log is compacted into a snapshot.
+     *                            Default: 64 MB.
+     */
+    public WriteAheadLogConfig(Path directory, Boolean sync, Long compactionThreshold) {
+        this.directory = ensureNotNull(directory, "directory");
+        this.sync = getOrDefault(sync, true);
+        this.compactionThreshold = getOrDefault(compactionThreshold, DEFAULT_COMPACTION_THRESHOLD);
+        if (this.compactionThreshold <= 0) {
+            throw illegalArgument("compactionThreshold must be greater than zero, but is: %s", compactionThreshold);
+        }
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    public boolean sync() {
+        return sync;
+    }
+
+    public long compactionThreshold() {
+        return compactionThreshold;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private Path directory;
+        private Boolean sync;
+        private Long compactionThreshold;
+
+        /**
+         * @param directory The directory holding the log and the snapshot.
+         * @return builder
+         */
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * @param directory The directory holding the log and the snapshot.
+         * @return builder
+         */
+        public Builder directory(String directory) {
+            return directory(Paths.get(directory));
+        }
+
+        /**
+         * @param sync Whether each change is forced to the storage device before returning. Default: true.
+         * @return builder
+         */
+        public Builder sync(Boolean sync) {
+            this.sync = sync;
+            return this;
+        }
+
+        /**
+         * @param compactionThreshold The size of the log, in bytes, above which it is compacted. Default: 64 MB.
+         * @return builder
+         */
+        public Builder compactionThreshold(Long compactionThreshold) {
+            this.compactionThreshold = compactionThreshold;
+            return this;
+        }
+
+        public WriteAheadLogConfig build() {
+            return new WriteAheadLogConfig(directory, sync, compactionThreshold);
+        }
+    }
+}
@@ -13,6 +13,7 @@ import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.nio.file.*;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static dev.langchain4j.data.document.loader.FileSystemDocumentLoader.*;
 import static java.util.stream.Collectors.toList;
@@ -183,6 +184,30 @@ class FileSystemDocumentLoaderTest implements WithAssertions {
         assertThat(loadDocumentsRecursively(resourceDirectory.toString())).isEqualTo(documents);
     }
 
+    @Test
+    void should_recursively_stream_documents() {
+
+        // given
+        Path resourceDirectory = resourceDirectory();
+        PathMatcher pathMatcher = FileSystems.getDefault().getPathMatcher("glob:**.banana");
+
+        // when
+        List<Document> documents;
+        try (Stream<Document> stream = streamDocumentsRecursively(resourceDirectory, pathMatcher, new TextDocumentParser())) {
+            documents = stream.collect(toList());
+        }
+
+        // then
+        assertThat(documents)
+                .containsExactlyInAnyOrderElementsOf(loadDocumentsRecursively(resourceDirectory, pathMatcher, new TextDocumentParser()))
+                .hasSize(2);
+
+        try (Stream<Document> stream = streamDocumentsRecursively(resourceDirectory)) {
+            assertThat(stream.collect(toList()))
+                    .containsExactlyInAnyOrderElementsOf(loadDocumentsRecursively(resourceDirectory));
+        }
+    }
+
     @Test
     void should_recursively_load_matching_documents() {
 
@@ -4,6 +4,7 @@ import dev.langchain4j.data.document.Document;
 import dev.langchain4j.data.document.DocumentSplitter;
 import dev.langchain4j.data.document.Metadata;
 import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.ExampleTestTokenizer;
 import dev.langchain4j.model.Tokenizer;
 import dev.langchain4j.model.openai.OpenAiTokenizer;
 import org.junit.jupiter.api.Test;
@@ -16,6 +17,7 @@ import static dev.langchain4j.data.document.Metadata.metadata;
 import static dev.langchain4j.data.segment.TextSegment.textSegment;
 import static dev.langchain4j.model.openai.OpenAiModelName.GPT_3_5_TURBO;
 import static java.lang.String.format;
+import static java.util.stream.Collectors.joining;
 import static org.assertj.core.api.Assertions.assertThat;
 
 class DocumentByParagraphSplitterTest {
@@ -489,6 +491,41 @@ class DocumentByParagraphSplitterTest {
         );
     }
 
+    @Test
+    void should_not_exceed_max_segment_size_when_token_count_is_not_additive() {
+
+        // given a tokenizer counting one more token per paragraph when there are several,
+        // so that joined paragraphs are larger than the sum of their sizes
+        Tokenizer tokenizer = new ExampleTestTokenizer() {
+
+            @Override
+            public int estimateTokenCountInText(String text) {
+                int words = text.trim().isEmpty() ? 0 : text.trim().split("\\s+").length;
+                int paragraphs = text.split("\n\n").length;
+                return paragraphs > 1 ? words + paragraphs : words;
+            }
+        };
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            if (text.length() > 0) {
+                text.append("\n\n");
+            }
+            for (int j = 0; j <= i % 7; j++) {
+                text.append("word").append(j).append(' ');
+            }
+            text.append("end.");
+        }
+        DocumentSplitter splitter = new DocumentByParagraphSplitter(20, 0, tokenizer);
+
+        // when
+        List<TextSegment> segments = splitter.split(Document.from(text.toString()));
+
+        // then
+        assertThat(segments).allSatisfy(segment ->
+                assertThat(tokenizer.estimateTokenCountInText(segment.text())).isLessThanOrEqualTo(20));
+        assertThat(segments.stream().map(TextSegment::text).collect(joining("\n\n"))).isEqualTo(text.toString());
+    }
+
     private static String sentences(int fromInclusive, int toInclusive) {
         StringBuilder sb = new StringBuilder();
         for (int i = fromInclusive; i <= toInclusive; i++) {
@@ -0,0 +1,78 @@
+package dev.langchain4j.data.document.splitter;
+
+import dev.langchain4j.benchmark.Benchmark;
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.model.ExampleTestTokenizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * Measures how the time to split a document by paragraphs, with a {@link dev.langchain4j.model.Tokenizer},
+ * and the number of characters tokenized grow with the size of the document and with the size of the segments.
+ * <p>
+ * Run with:
+ * <pre>
+ * mvn -pl langchain4j test -Dtest=DocumentSplitterBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * </pre>
+ */
+class DocumentSplitterBenchmark {
+
+    private static final int PARAGRAPHS = 2_000;
+    private static final int MAX_SEGMENT_SIZE_IN_TOKENS = 1_000;
+
+    static class CountingTokenizer extends ExampleTestTokenizer {
+
+        long tokenizedCharacters;
+
+        @Override
+        public int estimateTokenCountInText(String text) {
+            tokenizedCharacters += text.length();
+            return super.estimateTokenCountInText(text);
+        }
+    }
+
+    @Test
+    void split_documents_of_growing_size() {
+        for (int paragraphs : new int[]{1_000, 2_000, 4_000, 8_000}) {
+            split(paragraphs + " paragraphs, " + MAX_SEGMENT_SIZE_IN_TOKENS + " tokens per segment",
+                    Document.from(text(paragraphs)), MAX_SEGMENT_SIZE_IN_TOKENS);
+        }
+    }
+
+    @Test
+    void split_into_segments_of_growing_size() {
+        Document document = Document.from(text(PARAGRAPHS));
+        for (int maxSegmentSize : new int[]{250, 500, 1_000, 2_000, 4_000}) {
+            split(PARAGRAPHS + " paragraphs, " + maxSegmentSize + " tokens per segment", document, maxSegmentSize);
+        }
+    }
+
+    private static void split(String name, Document document, int maxSegmentSize) {
+        CountingTokenizer tokenizer = new CountingTokenizer();
+        DocumentSplitter splitter = new DocumentByParagraphSplitter(maxSegmentSize, maxSegmentSize / 10, tokenizer);
+
+        int segments = splitter.split(document).size();
+        System.out.printf("%-60s %s segments, %.2f characters tokenized per character%n",
+                name, segments, (double) tokenizer.tokenizedCharacters / document.text().length());
+        Benchmark.nanosPerOperation(name + ", split", () -> splitter.split(document));
+    }
+
+    private static String text(int paragraphs) {
+        Random random = new Random(1);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < paragraphs; i++) {
+            int sentences = 1 + random.nextInt(5);
+            for (int s = 0; s < sentences; s++) {
+                int words = 5 + random.nextInt(15);
+                for (int w = 0; w < words; w++) {
+                    text.append(w == 0 ? "Word" : " word").append(random.nextInt(1_000));
+                }
+                text.append(s == sentences - 1 ? "." : ". ");
+            }
+            text.append("\n\n");
+        }
+        return text.toString();
+    }
+}
@@ -3,6 +3,8 @@ package dev.langchain4j.data.document.splitter;
 import org.assertj.core.api.WithAssertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 
 class SegmentBuilderTest implements WithAssertions {
     @Test
@@ -70,4 +72,38 @@ class SegmentBuilderTest implements WithAssertions {
             assertThat(builder.toString()).isEqualTo("Hello world");
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_measure_each_text_once() {
+        List<String> measuredTexts = new ArrayList<>();
+        SegmentBuilder builder = new SegmentBuilder(1000, text -> {
+            measuredTexts.add(text);
+            return text.length();
+        }, " ");
+        measuredTexts.clear();
+
+        for (int i = 0; i < 100; i++) {
+            builder.append("word" + i);
+        }
+        assertThat(builder.hasSpaceFor(10)).isTrue();
+        assertThat(measuredTexts).hasSize(100);
+
+        assertThat(builder.getSize()).isEqualTo(builder.toString().length());
+        assertThat(measuredTexts).hasSize(101);
+    }
+
+    @Test
+    void should_remove_texts_appended_beyond_max_size_when_size_is_not_additive() {
+        SegmentBuilder builder = new SegmentBuilder(30, text -> text.length() * text.length(), " ");
+        builder.append("aa");
+        builder.append("bb");
+        assertThat(builder.hasSpaceFor("cc")).isTrue();
+        builder.append("cc");
+
+        assertThat(builder.removeTextsBeyondMaxSize()).isEqualTo(1);
+
+        assertThat(builder.toString()).isEqualTo("aa bb");
+        assertThat(builder.getSize()).isEqualTo(25);
+        assertThat(builder.removeTextsBeyondMaxSize()).isZero();
+    }
+}
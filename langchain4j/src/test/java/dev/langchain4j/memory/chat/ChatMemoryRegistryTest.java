@@ -0,0 +1,203 @@
+package dev.langchain4j.memory.chat;
+
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import dev.langchain4j.store.memory.chat.InMemoryChatMemoryStore;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static dev.langchain4j.data.message.UserMessage.userMessage;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+class ChatMemoryRegistryTest implements WithAssertions {
+
+    private final ChatMemoryStore store = new InMemoryChatMemoryStore();
+
+    private final ChatMemoryProvider chatMemoryProvider = memoryId -> MessageWindowChatMemory.builder()
+            .id(memoryId)
+            .maxMessages(10)
+            .chatMemoryStore(store)
+            .build();
+
+    @Test
+    void should_return_the_same_chat_memory_for_the_same_id() {
+
+        ChatMemoryRegistry registry = ChatMemoryRegistry.builder()
+                .chatMemoryProvider(chatMemoryProvider)
+                .build();
+
+        ChatMemory first = registry.get("a");
+
+        assertThat(registry.get("a")).isSameAs(first);
+        assertThat(registry.get("b")).isNotSameAs(first);
+        assertThat(registry.size()).isEqualTo(2);
+        assertThat(registry.hitCount()).isEqualTo(1);
+        assertThat(registry.missCount()).isEqualTo(2);
+        assertThat(registry.evictionCount()).isZero();
+    }
+
+    @Test
+    void should_not_block_other_retrievals_while_obtaining_chat_memory() throws Exception {
+
+        CountDownLatch providing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ChatMemoryRegistry registry = ChatMemoryRegistry.builder()
+                .chatMemoryProvider(memoryId -> {
+                    if (memoryId.equals("slow")) {
+                        providing.countDown();
+                        awaitUninterruptibly(release);
+                    }
+                    return chatMemoryProvider.get(memoryId);
+                })
+                .build();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ChatMemory> slow = executor.submit(() -> registry.get("slow"));
+            providing.await();
+
+            assertThat(registry.get("fast")).isNotNull();
+
+            release.countDown();
+            assertThat(slow.get(1, SECONDS)).isSameAs(registry.get("slow"));
+            assertThat(registry.size()).isEqualTo(2);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void should_evict_least_recently_used_chat_memory() {
+
+        List<ChatMemory> evicted = new ArrayList<>();
+        ChatMemoryRegistry registry = ChatMemoryRegistry.builder()
+                .chatMemoryProvider(chatMemoryProvider)
+                .maxSize(2)
+                .evictionListener(evicted::add)
+                .build();
+
+        ChatMemory a = registry.get("a");
+        a.add(userMessage("hello"));
+        registry.get("b");
+        registry.get("a");
+
+        registry.get("c");
+
+        assertThat(registry.size()).isEqualTo(2);
+        assertThat(registry.evictionCount()).isEqualTo(1);
+        assertThat(evicted).extracting(ChatMemory::id).containsExactly("b");
+
+        registry.get("b");
+
+        assertThat(evicted).extracting(ChatMemory::id).containsExactly("b", "a");
+        ChatMemory reloaded = registry.get("a");
+        assertThat(reloaded).isNotSameAs(a);
+        assertThat(reloaded.messages()).containsExactly(userMessage("hello"));
+    }
+
+    @Test
+    void should_evict_chat_memories_exceeding_max_total_messages() {
+
+        ChatMemoryRegistry registry = ChatMemoryRegistry.builder()
+                .chatMemoryProvider(chatMemoryProvider)
+                .maxTotalMessages(3)
+                .build();
+
+        ChatMemory a = registry.get("a");
+        a.add(userMessage("1"));
+        a.add(userMessage("2"));
+        ChatMemory b = registry.get("b");
+        b.add(userMessage("3"));
+        b.add(userMessage("4"));
+
+        registry.get("a");
+        assertThat(registry.size()).isEqualTo(2);
+
+        registry.get("b");
+
+        assertThat(registry.size()).isEqualTo(1);
+        assertThat(registry.evictionCount()).isEqualTo(1);
+        assertThat(registry.get("b")).isSameAs(b);
+    }
+
+    @Test
+    void should_never_evict_the_chat_memory_being_retrieved() {
+
+        ChatMemoryRegistry registry = ChatMemoryRegistry.builder()
+                .chatMemoryProvider(chatMemoryProvider)
+                .maxTotalMessages(1)
+                .build();
+
+        ChatMemory a = registry.get("a");
+        a.add(userMessage("1"));
+        a.add(userMessage("2"));
+
+        assertThat(registry.get("a")).isSameAs(a);
+        assertThat(registry.size()).isEqualTo(1);
+    }
+
+    @Test
+    void should_evict_idle_chat_memories() {
+
+        ChatMemoryRegistry registry = ChatMemoryRegistry.builder()
+                .chatMemoryProvider(chatMemoryProvider)
+                .idleTimeout(Duration.ofNanos(1))
+                .build();
+
+        ChatMemory a = registry.get("a");
+
+        assertThat(registry.get("a")).isNotSameAs(a);
+        assertThat(registry.missCount()).isEqualTo(2);
+        assertThat(registry.evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_evict_explicitly() {
+
+        List<ChatMemory> evicted = new ArrayList<>();
+        ChatMemoryRegistry registry = ChatMemoryRegistry.builder()
+                .chatMemoryProvider(chatMemoryProvider)
+                .evictionListener(evicted::add)
+                .build();
+        registry.get("a");
+        registry.get("b");
+        registry.get("c");
+
+        registry.evict("a");
+        registry.evict("unknown");
+        assertThat(evicted).extracting(ChatMemory::id).containsExactly("a");
+
+        registry.evictAll();
+        assertThat(evicted).extracting(ChatMemory::id).containsExactly("a", "b", "c");
+        assertThat(registry.size()).isZero();
+        assertThat(registry.evictionCount()).isEqualTo(3);
+    }
+
+    @Test
+    void should_fail_when_idle_timeout_is_not_positive() {
+
+        assertThatThrownBy(() -> ChatMemoryRegistry.builder()
+                .chatMemoryProvider(chatMemoryProvider)
+                .idleTimeout(Duration.ZERO)
+                .build())
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("idleTimeout must be positive, but is: PT0S");
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -6,12 +6,21 @@ import dev.langchain4j.data.message.SystemMessage;
 import dev.langchain4j.data.message.ToolExecutionResultMessage;
 import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.store.memory.chat.InMemoryChatMemoryStore;
 import org.assertj.core.api.WithAssertions;
 import org.junit.jupiter.api.Test;
 
 import static dev.langchain4j.data.message.AiMessage.aiMessage;
 import static dev.langchain4j.data.message.SystemMessage.systemMessage;
 import static dev.langchain4j.data.message.UserMessage.userMessage;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 class MessageWindowChatMemoryTest implements WithAssertions {
     @Test
@@ -469,4 +478,58 @@ class MessageWindowChatMemoryTest implements WithAssertions {
         // then orphan toolExecutionResultMessage1 and toolExecutionResultMessage2 are evicted together with aiMessage
         assertThat(chatMemory.messages()).containsExactly(systemMessage, aiMessage2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_write_only_changes_to_incremental_store() {
+
+        // given
+        InMemoryChatMemoryStore store = spy(new InMemoryChatMemoryStore());
+        ChatMemory chatMemory = MessageWindowChatMemory.builder()
+                .maxMessages(3)
+                .chatMemoryStore(store)
+                .build();
+        chatMemory.add(systemMessage("Be polite"));
+        chatMemory.add(userMessage("1"));
+        chatMemory.add(aiMessage("2"));
+
+        // when
+        chatMemory.add(userMessage("3"));
+
+        // then
+        assertThat(chatMemory.messages()).containsExactly(systemMessage("Be polite"), aiMessage("2"), userMessage("3"));
+        verify(store).appendMessages("default", singletonList(userMessage("3")));
+        verify(store).removeMessages("default", 1, 1);
+
+        // when
+        chatMemory.add(systemMessage("Be concise"));
+
+        // then
+        assertThat(chatMemory.messages()).containsExactly(aiMessage("2"), userMessage("3"), systemMessage("Be concise"));
+        verify(store).appendMessages("default", singletonList(systemMessage("Be concise")));
+        verify(store).removeMessages("default", 0, 1);
+        verify(store, never()).updateMessages(any(), any());
+    }
+
+    @Test
+    void should_replace_all_messages_when_store_does_not_support_incremental_updates() {
+
+        // given
+        InMemoryChatMemoryStore store = spy(new InMemoryChatMemoryStore());
+        doReturn(false).when(store).supportsIncrementalUpdates();
+        ChatMemory chatMemory = MessageWindowChatMemory.builder()
+                .maxMessages(2)
+                .chatMemoryStore(store)
+                .build();
+        chatMemory.add(userMessage("1"));
+        chatMemory.add(aiMessage("2"));
+
+        // when
+        chatMemory.add(userMessage("3"));
+
+        // then
+        assertThat(chatMemory.messages()).containsExactly(aiMessage("2"), userMessage("3"));
+        verify(store).updateMessages("default", asList(aiMessage("2"), userMessage("3")));
+        verify(store, never()).appendMessages(any(), any());
+        verify(store, never()).removeMessages(any(), anyInt(), anyInt());
+    }
+}
@@ -5,14 +5,20 @@ import dev.langchain4j.data.message.*;
 import dev.langchain4j.memory.ChatMemory;
 import dev.langchain4j.model.Tokenizer;
 import dev.langchain4j.model.openai.OpenAiTokenizer;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
 import org.assertj.core.api.WithAssertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static dev.langchain4j.data.message.SystemMessage.systemMessage;
 import static dev.langchain4j.data.message.UserMessage.userMessage;
 import static dev.langchain4j.internal.TestUtils.*;
 import static dev.langchain4j.model.openai.OpenAiModelName.GPT_3_5_TURBO;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 class TokenWindowChatMemoryTest implements WithAssertions {
 
@@ -609,4 +615,50 @@ class TokenWindowChatMemoryTest implements WithAssertions {
                 .isEqualTo(EXTRA_TOKENS_PER_REQUEST + systemMessageTokens + aiMessage2Tokens)
                 .isEqualTo(32);
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_estimate_token_count_of_each_message_once() {
+
+        // given a store returning copies of the messages
+        ChatMemoryStore store = new ChatMemoryStore() {
+
+            private String json = "[]";
+
+            @Override
+            public List<ChatMessage> getMessages(Object memoryId) {
+                return ChatMessageDeserializer.messagesFromJson(json);
+            }
+
+            @Override
+            public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+                json = ChatMessageSerializer.messagesToJson(messages);
+            }
+
+            @Override
+            public void deleteMessages(Object memoryId) {
+                json = "[]";
+            }
+        };
+        Tokenizer tokenizer = spy(new OpenAiTokenizer(GPT_3_5_TURBO));
+        ChatMemory chatMemory = TokenWindowChatMemory.builder()
+                .maxTokens(25, tokenizer)
+                .chatMemoryStore(store)
+                .build();
+
+        // when
+        UserMessage userMessage1 = userMessage("hello");
+        UserMessage userMessage2 = userMessage("how are you?");
+        UserMessage userMessage3 = userMessage("what is the weather like?");
+        chatMemory.add(userMessage1);
+        chatMemory.add(userMessage2);
+        chatMemory.add(userMessage3);
+        chatMemory.messages();
+
+        // then
+        assertThat(chatMemory.messages()).containsExactly(userMessage2, userMessage3);
+        verify(tokenizer).estimateTokenCountInMessage(userMessage1);
+        verify(tokenizer).estimateTokenCountInMessage(userMessage2);
+        verify(tokenizer).estimateTokenCountInMessage(userMessage3);
+        verify(tokenizer).estimateTokenCountInMessages(emptyList());
+    }
+}
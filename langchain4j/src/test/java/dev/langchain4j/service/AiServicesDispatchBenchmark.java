@@ -0,0 +1,59 @@
+package dev.langchain4j.service;
+
+import dev.langchain4j.benchmark.Benchmark;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Measures the overhead of calling a model through an AI service, compared to calling it directly.
+ * The model responds immediately, so only the work done by the AI service proxy is measured.
+ * <p>
+ * Run with:
+ * <pre>
+ * mvn -pl langchain4j test -Dtest=AiServicesDispatchBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * </pre>
+ */
+class AiServicesDispatchBenchmark {
+
+    enum Sentiment {
+        POSITIVE, NEUTRAL, NEGATIVE
+    }
+
+    interface Assistant {
+
+        @SystemMessage("You are a professional translator into {{language}}")
+        @UserMessage("Translate the following text: {{text}}")
+        String translate(@V("text") String text, @V("language") String language);
+
+        @UserMessage("Analyze the sentiment of {{it}}")
+        Sentiment analyzeSentimentOf(String text);
+    }
+
+    @Test
+    void dispatch() {
+        ChatLanguageModel model = new ChatLanguageModel() {
+
+            @Override
+            public Response<AiMessage> generate(List<ChatMessage> messages) {
+                return Response.from(AiMessage.from("POSITIVE"));
+            }
+        };
+        Assistant assistant = AiServices.create(Assistant.class, model);
+
+        List<ChatMessage> messages = asList(
+                dev.langchain4j.data.message.SystemMessage.from("You are a professional translator into French"),
+                dev.langchain4j.data.message.UserMessage.from("Translate the following text: Hello"));
+        Benchmark.nanosPerOperation("direct model call", () -> model.generate(messages));
+        Benchmark.nanosPerOperation("AI service call, templated system and user messages",
+                () -> assistant.translate("Hello", "French"));
+        Benchmark.nanosPerOperation("AI service call, enum return type",
+                () -> assistant.analyzeSentimentOf("I love it"));
+    }
+}
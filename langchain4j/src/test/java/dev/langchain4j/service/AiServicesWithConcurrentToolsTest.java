@@ -0,0 +1,186 @@
+package dev.langchain4j.service;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.memory.chat.MessageWindowChatMemory;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.service.tool.ToolExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AiServicesWithConcurrentToolsTest {
+
+    interface Assistant {
+
+        String chat(String userMessage);
+    }
+
+    /**
+     * Requests the execution of the specified tools in the first response, then answers "done".
+     */
+    static class ToolCallingModel implements ChatLanguageModel {
+
+        private final List<String> toolNames;
+        private List<ChatMessage> lastMessages;
+
+        ToolCallingModel(String... toolNames) {
+            this.toolNames = asList(toolNames);
+        }
+
+        @Override
+        public Response<AiMessage> generate(List<ChatMessage> messages) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+            lastMessages = new ArrayList<>(messages);
+            if (messages.get(messages.size() - 1) instanceof ToolExecutionResultMessage) {
+                return Response.from(AiMessage.from("done"));
+            }
+            List<ToolExecutionRequest> requests = new ArrayList<>();
+            for (int i = 0; i < toolNames.size(); i++) {
+                requests.add(ToolExecutionRequest.builder()
+                        .id(String.valueOf(i))
+                        .name(toolNames.get(i))
+                        .arguments("{}")
+                        .build());
+            }
+            return Response.from(AiMessage.from(requests));
+        }
+
+        List<String> toolResults() {
+            return lastMessages.stream()
+                    .filter(message -> message instanceof ToolExecutionResultMessage)
+                    .map(message -> ((ToolExecutionResultMessage) message).text())
+                    .collect(toList());
+        }
+    }
+
+    @Test
+    void should_execute_tools_concurrently_and_keep_results_in_order() {
+
+        // given
+        CountDownLatch allToolsStarted = new CountDownLatch(3);
+        ToolExecutor awaitingToolExecutor = (request, memoryId) -> {
+            allToolsStarted.countDown();
+            try {
+                // would time out if the tools were executed one after another
+                return allToolsStarted.await(10, SECONDS) ? "result " + request.name() : "not concurrent";
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        };
+        ToolCallingModel model = new ToolCallingModel("first", "second", "third");
+
+        Assistant assistant = AiServices.builder(Assistant.class)
+                .chatLanguageModel(model)
+                .chatMemory(MessageWindowChatMemory.withMaxMessages(10))
+                .tools(tools(awaitingToolExecutor, "first", "second", "third"))
+                .executeToolsConcurrently(Executors.newFixedThreadPool(3))
+                .build();
+
+        // when
+        String answer = assistant.chat("hi");
+
+        // then
+        assertThat(answer).isEqualTo("done");
+        assertThat(model.toolResults()).containsExactly("result first", "result second", "result third");
+    }
+
+    @Test
+    void should_time_out_tool_execution() {
+
+        // given
+        CountDownLatch never = new CountDownLatch(1);
+        ToolExecutor toolExecutor = (request, memoryId) -> {
+            if (request.name().equals("fast")) {
+                return "fast result";
+            }
+            try {
+                never.await(10, SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+            return "slow result";
+        };
+        ToolCallingModel model = new ToolCallingModel("slow", "fast");
+
+        Assistant assistant = AiServices.builder(Assistant.class)
+                .chatLanguageModel(model)
+                .tools(tools(toolExecutor, "slow", "fast"))
+                .executeToolsConcurrently()
+                .toolExecutionTimeout(Duration.ofMillis(100))
+                .build();
+
+        // when
+        String answer = assistant.chat("hi");
+        never.countDown();
+
+        // then
+        assertThat(answer).isEqualTo("done");
+        assertThat(model.toolResults()).containsExactly(
+                "Execution of tool 'slow' timed out after 100 ms",
+                "fast result"
+        );
+    }
+
+    @Test
+    void should_interrupt_tool_execution_that_timed_out() throws Exception {
+
+        // given
+        CountDownLatch interrupted = new CountDownLatch(1);
+        ToolExecutor toolExecutor = (request, memoryId) -> {
+            try {
+                new CountDownLatch(1).await(10, SECONDS);
+                return "slow result";
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                return "interrupted";
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        Assistant assistant = AiServices.builder(Assistant.class)
+                .chatLanguageModel(new ToolCallingModel("slow"))
+                .tools(tools(toolExecutor, "slow"))
+                .executeToolsConcurrently(executor)
+                .toolExecutionTimeout(Duration.ofMillis(100))
+                .build();
+
+        try {
+            // when
+            assistant.chat("hi");
+
+            // then the only thread of the executor is released
+            assertThat(interrupted.await(1, SECONDS)).isTrue();
+            assertThat(executor.submit(() -> "next").get(1, SECONDS)).isEqualTo("next");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Map<ToolSpecification, ToolExecutor> tools(ToolExecutor toolExecutor, String... toolNames) {
+        Map<ToolSpecification, ToolExecutor> tools = new LinkedHashMap<>();
+        for (String toolName : toolNames) {
+            tools.put(ToolSpecification.builder().name(toolName).build(), toolExecutor);
+        }
+        return tools;
+    }
+}
@@ -0,0 +1,44 @@
+package dev.langchain4j.service;
+
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.cache.CachingChatLanguageModel;
+import dev.langchain4j.model.chat.cache.ChatResponseCache;
+import dev.langchain4j.model.chat.mock.ChatModelMock;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class AiServicesWithResponseCacheTest {
+
+    interface Assistant {
+
+        String chat(@MemoryId String memoryId, @UserMessage String userMessage);
+    }
+
+    @Test
+    void should_bypass_response_cache_for_matching_memory_ids() {
+
+        // given
+        ChatLanguageModel delegate = spy(ChatModelMock.thatAlwaysResponds("Berlin"));
+        ChatLanguageModel cachingModel = new CachingChatLanguageModel(delegate, ChatResponseCache.builder().build());
+
+        Assistant assistant = AiServices.builder(Assistant.class)
+                .chatLanguageModel(cachingModel)
+                .responseCacheBypass(memoryId -> memoryId.equals("private"))
+                .build();
+
+        // when
+        assistant.chat("public", "What is the capital of Germany?");
+        assistant.chat("public", "What is the capital of Germany?");
+        assistant.chat("private", "What is the capital of Germany?");
+        String answer = assistant.chat("private", "What is the capital of Germany?");
+
+        // then
+        assertThat(answer).isEqualTo("Berlin");
+        verify(delegate, times(3)).generate(anyList());
+    }
+}
@@ -0,0 +1,72 @@
+package dev.langchain4j.service;
+
+import dev.langchain4j.exception.IllegalConfigurationException;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+import static dev.langchain4j.data.message.SystemMessage.systemMessage;
+import static dev.langchain4j.data.message.UserMessage.userMessage;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MethodInvocationPlanTest {
+
+    interface AiService {
+
+        @SystemMessage("Answer in {{language}}")
+        @UserMessage("What is the capital of {{it}}?")
+        String chat(@MemoryId int memoryId, @V("language") String language, @V("it") String country);
+
+        String chatWithName(@UserMessage String userMessage, @UserName String name);
+
+        String chatWithoutUserMessage(@V("country") String country);
+    }
+
+    @Test
+    void should_prepare_messages_with_the_same_plan() throws Exception {
+
+        // given
+        MethodInvocationPlan plan = MethodInvocationPlan.from(
+                AiService.class.getMethod("chat", int.class, String.class, String.class));
+
+        // when-then
+        Object[] args = {7, "German", "France"};
+        assertThat(plan.findMemoryId(args)).contains(7);
+        assertThat(plan.prepareSystemMessage(7, args, memoryId -> Optional.empty()))
+                .contains(systemMessage("Answer in German"));
+        assertThat(plan.prepareUserMessage(args)).isEqualTo(userMessage("What is the capital of France?"));
+
+        args = new Object[]{8, "Italian", "Spain"};
+        assertThat(plan.findMemoryId(args)).contains(8);
+        assertThat(plan.prepareSystemMessage(8, args, memoryId -> Optional.empty()))
+                .contains(systemMessage("Answer in Italian"));
+        assertThat(plan.prepareUserMessage(args)).isEqualTo(userMessage("What is the capital of Spain?"));
+    }
+
+    @Test
+    void should_use_system_message_provider_and_user_message_parameter() throws Exception {
+
+        // given
+        MethodInvocationPlan plan = MethodInvocationPlan.from(
+                AiService.class.getMethod("chatWithName", String.class, String.class));
+        Object[] args = {"Hello", "Klaus"};
+
+        // when-then
+        assertThat(plan.findMemoryId(args)).isEmpty();
+        assertThat(plan.prepareSystemMessage("default", args, memoryId -> Optional.of("Be polite")))
+                .contains(systemMessage("Be polite"));
+        assertThat(plan.prepareUserMessage(args)).isEqualTo(userMessage("Klaus", "Hello"));
+    }
+
+    @Test
+    void should_fail_to_create_plan_for_invalid_method() throws Exception {
+
+        Method method = AiService.class.getMethod("chatWithoutUserMessage", String.class);
+
+        assertThatThrownBy(() -> MethodInvocationPlan.from(method))
+                .isExactlyInstanceOf(IllegalConfigurationException.class)
+                .hasMessage("Error: The method 'chatWithoutUserMessage' does not have a user message defined.");
+    }
+}
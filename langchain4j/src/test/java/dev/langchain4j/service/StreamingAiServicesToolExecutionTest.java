@@ -0,0 +1,162 @@
+package dev.langchain4j.service;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.service.tool.ToolExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingAiServicesToolExecutionTest {
+
+    interface Assistant {
+
+        TokenStream chat(String userMessage);
+    }
+
+    /**
+     * Delivers all responses in a single thread, like the dispatcher of an HTTP client.
+     * Requests the "slow" tool when asked to "use the tool", otherwise answers "done".
+     */
+    static class SingleThreadedStreamingModel implements StreamingChatLanguageModel {
+
+        final ExecutorService dispatcher = Executors.newSingleThreadExecutor();
+
+        @Override
+        public void generate(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) {
+            generate(messages, (List<ToolSpecification>) null, handler);
+        }
+
+        @Override
+        public void generate(List<ChatMessage> messages,
+                             List<ToolSpecification> toolSpecifications,
+                             StreamingResponseHandler<AiMessage> handler) {
+            ChatMessage lastMessage = messages.get(messages.size() - 1);
+            dispatcher.execute(() -> {
+                if (lastMessage instanceof UserMessage
+                        && ((UserMessage) lastMessage).singleText().equals("use the tool")) {
+                    handler.onComplete(Response.from(AiMessage.from(ToolExecutionRequest.builder()
+                            .id("1")
+                            .name("slow")
+                            .arguments("{}")
+                            .build())));
+                } else {
+                    handler.onNext("done");
+                    handler.onComplete(Response.from(AiMessage.from("done")));
+                }
+            });
+        }
+    }
+
+    private final SingleThreadedStreamingModel model = new SingleThreadedStreamingModel();
+    private final ExecutorService toolExecutionExecutor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void shutdown() {
+        model.dispatcher.shutdownNow();
+        toolExecutionExecutor.shutdownNow();
+    }
+
+    @Test
+    void should_keep_unrelated_streams_flowing_while_tools_run() throws Exception {
+
+        // given
+        CountDownLatch toolStarted = new CountDownLatch(1);
+        CountDownLatch toolMayComplete = new CountDownLatch(1);
+        ToolExecutor slowToolExecutor = (request, memoryId) -> {
+            toolStarted.countDown();
+            try {
+                toolMayComplete.await(10, SECONDS);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return "tool result";
+        };
+        AtomicInteger toolExecutionTasks = new AtomicInteger();
+
+        Assistant assistant = AiServices.builder(Assistant.class)
+                .streamingChatLanguageModel(model)
+                .tools(singletonMap(ToolSpecification.builder().name("slow").build(), slowToolExecutor))
+                .streamingToolExecutionExecutor(task -> {
+                    toolExecutionTasks.incrementAndGet();
+                    toolExecutionExecutor.execute(task);
+                })
+                .build();
+
+        // when
+        CompletableFuture<Response<AiMessage>> withTool = new CompletableFuture<>();
+        assistant.chat("use the tool")
+                .onNext(token -> {
+                })
+                .onComplete(withTool::complete)
+                .onError(withTool::completeExceptionally)
+                .start();
+        assertThat(toolStarted.await(10, SECONDS)).isTrue();
+
+        List<CompletableFuture<Response<AiMessage>>> unrelated = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            CompletableFuture<Response<AiMessage>> future = new CompletableFuture<>();
+            assistant.chat("hello")
+                    .onNext(token -> {
+                    })
+                    .onComplete(future::complete)
+                    .onError(future::completeExceptionally)
+                    .start();
+            unrelated.add(future);
+        }
+
+        // then
+        for (CompletableFuture<Response<AiMessage>> future : unrelated) {
+            assertThat(future.get(10, SECONDS).content().text()).isEqualTo("done");
+        }
+        assertThat(withTool).isNotDone();
+
+        toolMayComplete.countDown();
+        assertThat(withTool.get(10, SECONDS).content().text()).isEqualTo("done");
+        assertThat(toolExecutionTasks).hasValue(1);
+    }
+
+    @Test
+    void should_report_rejected_tool_execution_as_error() throws Exception {
+
+        // given
+        Assistant assistant = AiServices.builder(Assistant.class)
+                .streamingChatLanguageModel(model)
+                .tools(singletonMap(ToolSpecification.builder().name("slow").build(), (request, memoryId) -> "result"))
+                .streamingToolExecutionExecutor(task -> {
+                    throw new RejectedExecutionException("too many tool executions");
+                })
+                .build();
+
+        // when
+        CompletableFuture<Throwable> error = new CompletableFuture<>();
+        assistant.chat("use the tool")
+                .onNext(token -> {
+                })
+                .onError(error::complete)
+                .start();
+
+        // then
+        assertThat(error.get(10, SECONDS))
+                .isExactlyInstanceOf(RejectedExecutionException.class)
+                .hasMessage("too many tool executions");
+    }
+}
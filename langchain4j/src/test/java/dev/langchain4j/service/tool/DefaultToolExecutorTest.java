@@ -248,6 +248,21 @@ class DefaultToolExecutorTest implements WithAssertions {
         public int addOne(int num) {
             return num + 1;
         }
+
+        @Tool
+        public int divide(int dividend, int divisor) {
+            return dividend / divisor;
+        }
+
+        @Tool
+        public void fail() {
+            throw new AssertionError("Broken tool");
+        }
+
+        @Tool
+        public String memoryId(@ToolMemoryId String memoryId) {
+            return memoryId;
+        }
     }
 
     @Test
@@ -301,4 +316,78 @@ class DefaultToolExecutorTest implements WithAssertions {
                 .isThrownBy(() -> new DefaultToolExecutor(new TestTool(), (ToolExecutionRequest) null));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void should_execute_tool_repeatedly_with_the_same_executor() throws NoSuchMethodException {
+        DefaultToolExecutor toolExecutor = new DefaultToolExecutor(
+                new TestTool(), TestTool.class.getDeclaredMethod("divide", int.class, int.class));
+
+        for (int i = 1; i <= 3; i++) {
+            ToolExecutionRequest request = ToolExecutionRequest.builder()
+                    .name("divide")
+                    .arguments("{ \"arg0\": 6, \"arg1\": " + i + " }")
+                    .build();
+
+            assertThat(toolExecutor.execute(request, "DEFAULT")).isEqualTo(String.valueOf(6 / i));
+        }
+    }
+
+    @Test
+    public void should_return_message_of_exception_thrown_by_tool() throws NoSuchMethodException {
+        ToolExecutionRequest request = ToolExecutionRequest.builder()
+                .name("divide")
+                .arguments("{ \"arg0\": 6, \"arg1\": 0 }")
+                .build();
+
+        DefaultToolExecutor toolExecutor = new DefaultToolExecutor(
+                new TestTool(), TestTool.class.getDeclaredMethod("divide", int.class, int.class));
+
+        assertThat(toolExecutor.execute(request, "DEFAULT")).isEqualTo("/ by zero");
+    }
+
+    @Test
+    public void should_propagate_error_thrown_by_tool() throws NoSuchMethodException {
+        ToolExecutionRequest request = ToolExecutionRequest.builder()
+                .name("fail")
+                .arguments("{}")
+                .build();
+
+        DefaultToolExecutor toolExecutor = new DefaultToolExecutor(
+                new TestTool(), TestTool.class.getDeclaredMethod("fail"));
+
+        assertThatExceptionOfType(AssertionError.class)
+                .isThrownBy(() -> toolExecutor.execute(request, "DEFAULT"))
+                .withMessage("Broken tool");
+    }
+
+    @Test
+    public void should_propagate_exception_not_thrown_by_tool() throws NoSuchMethodException {
+        ToolExecutionRequest request = ToolExecutionRequest.builder()
+                .name("memoryId")
+                .arguments("{}")
+                .build();
+
+        DefaultToolExecutor toolExecutor = new DefaultToolExecutor(
+                new TestTool(), TestTool.class.getDeclaredMethod("memoryId", String.class));
+
+        assertThat(toolExecutor.execute(request, "DEFAULT")).isEqualTo("DEFAULT");
+        // the memory ID cannot be passed to the tool, this is not an error of the tool for the model to handle
+        assertThatExceptionOfType(ClassCastException.class)
+                .isThrownBy(() -> toolExecutor.execute(request, 42));
+    }
+
+    @Test
+    public void should_fail_when_primitive_argument_is_missing() throws NoSuchMethodException {
+        ToolExecutionRequest request = ToolExecutionRequest.builder()
+                .name("divide")
+                .arguments("{ \"arg0\": 6 }")
+                .build();
+
+        DefaultToolExecutor toolExecutor = new DefaultToolExecutor(
+                new TestTool(), TestTool.class.getDeclaredMethod("divide", int.class, int.class));
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> toolExecutor.execute(request, "DEFAULT"))
+                .withMessage("Argument \"arg1\" is missing, it is required for int");
+    }
+}
@@ -0,0 +1,70 @@
+package dev.langchain4j.store.embedding;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.parser.TextDocumentParser;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static dev.langchain4j.data.document.loader.FileSystemDocumentLoader.loadDocuments;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmbeddingStoreIngestorIncrementalTest {
+
+    @TempDir
+    Path directory;
+
+    EmbeddingModel embeddingModel = new EmbeddingModel() {
+
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+            return Response.from(segments.stream()
+                    .map(segment -> Embedding.from(new float[]{segment.text().length(), 1}))
+                    .collect(toList()));
+        }
+    };
+
+    @Test
+    void should_remove_deleted_files_when_directory_is_ingested_again() throws IOException {
+
+        // given
+        Files.write(directory.resolve("first.txt"), "first file".getBytes(UTF_8));
+        Files.write(directory.resolve("second.txt"), "second file".getBytes(UTF_8));
+        Files.write(directory.resolve("third.txt"), "third file".getBytes(UTF_8));
+
+        InMemoryEmbeddingStore<TextSegment> embeddingStore = new InMemoryEmbeddingStore<>();
+        InMemoryIngestionManifest manifest = new InMemoryIngestionManifest();
+        EmbeddingStoreIngestor ingestor = EmbeddingStoreIngestor.builder()
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .manifest(manifest)
+                .documentIdKey(Document.FILE_NAME)
+                .removeMissingDocuments(true)
+                .build();
+        ingestor.ingest(loadDocuments(directory, new TextDocumentParser()));
+
+        // when
+        Files.delete(directory.resolve("second.txt"));
+        IngestionResult result = ingestor.ingestWithResult(loadDocuments(directory, new TextDocumentParser()));
+
+        // then
+        assertThat(result.segmentCount()).isZero();
+        assertThat(result.skippedSegmentCount()).isEqualTo(2);
+        assertThat(manifest.documentIds()).containsExactlyInAnyOrder("first.txt", "third.txt");
+        List<String> storedFiles = embeddingStore.findRelevant(embeddingModel.embed("query").content(), 10).stream()
+                .map(match -> match.embedded().metadata().getString(Document.FILE_NAME))
+                .collect(toList());
+        assertThat(storedFiles).containsExactlyInAnyOrder("first.txt", "third.txt");
+    }
+}
@@ -0,0 +1,167 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HnswIndexTest {
+
+    private static final int DIMENSION = 16;
+
+    Random random = new Random(1);
+
+    @Test
+    void should_find_nearest_neighbours_with_high_recall() {
+
+        // given
+        HnswIndex<Integer> index = new HnswIndex<>(HnswIndexConfig.defaultConfig());
+        List<float[]> vectors = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            float[] vector = randomVector();
+            vectors.add(vector);
+            index.add(String.valueOf(i), vector, i);
+        }
+
+        // when
+        int maxResults = 10;
+        int queries = 100;
+        int found = 0;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector();
+            Set<Integer> expected = exactNearestNeighbours(vectors, query, maxResults);
+            for (Integer item : index.search(query, maxResults)) {
+                if (expected.contains(item)) {
+                    found++;
+                }
+            }
+        }
+
+        // then
+        double recall = (double) found / (queries * maxResults);
+        assertThat(recall).isGreaterThan(0.95);
+    }
+
+    @Test
+    void should_not_return_removed_items() {
+
+        // given
+        HnswIndex<Integer> index = new HnswIndex<>(HnswIndexConfig.defaultConfig());
+        List<Integer> items = new ArrayList<>();
+        List<float[]> vectors = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Integer item = i;
+            items.add(item);
+            vectors.add(randomVector());
+            index.add(String.valueOf(i), vectors.get(i), item);
+        }
+
+        // when
+        for (int i = 0; i < 400; i++) {
+            index.remove(String.valueOf(i), items.get(i));
+        }
+
+        // then
+        assertThat(index.size()).isEqualTo(100);
+        List<Integer> found = index.search(vectors.get(0), 100);
+        assertThat(found).hasSize(100);
+        assertThat(found).allMatch(item -> item >= 400);
+        assertThat(index.search(vectors.get(450), 1)).containsExactly(450);
+    }
+
+    @Test
+    void should_find_same_items_when_indexes_are_searched_alternately_and_concurrently() throws Exception {
+
+        // given
+        HnswIndex<Integer> large = new HnswIndex<>(HnswIndexConfig.defaultConfig());
+        HnswIndex<Integer> small = new HnswIndex<>(HnswIndexConfig.defaultConfig());
+        for (int i = 0; i < 2000; i++) {
+            large.add(String.valueOf(i), randomVector(), i);
+        }
+        for (int i = 0; i < 100; i++) {
+            small.add(String.valueOf(i), randomVector(), i);
+        }
+        List<float[]> queries = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            queries.add(randomVector());
+        }
+        List<List<Integer>> expected = new ArrayList<>();
+        for (float[] query : queries) {
+            expected.add(large.search(query, 10));
+            expected.add(small.search(query, 10));
+        }
+
+        // when
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<List<List<Integer>>>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(executor.submit(() -> {
+                List<List<Integer>> found = new ArrayList<>();
+                for (float[] query : queries) {
+                    found.add(large.search(query, 10));
+                    found.add(small.search(query, 10));
+                }
+                return found;
+            }));
+        }
+
+        // then
+        try {
+            for (Future<List<List<Integer>>> future : futures) {
+                assertThat(future.get()).isEqualTo(expected);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void should_fail_when_dimensions_differ() {
+
+        HnswIndex<Integer> index = new HnswIndex<>(HnswIndexConfig.defaultConfig());
+        index.add("1", randomVector(), 1);
+
+        assertThatThrownBy(() -> index.add("2", new float[]{1, 2, 3}, 2))
+                .isExactlyInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.search(new float[]{1, 2, 3}, 1))
+                .isExactlyInstanceOf(IllegalArgumentException.class);
+    }
+
+    private float[] randomVector() {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static Set<Integer> exactNearestNeighbours(List<float[]> vectors, float[] query, int maxResults) {
+        List<Integer> items = new ArrayList<>();
+        double[] similarities = new double[vectors.size()];
+        for (int i = 0; i < vectors.size(); i++) {
+            items.add(i);
+            similarities[i] = cosineSimilarity(vectors.get(i), query);
+        }
+        items.sort((a, b) -> Double.compare(similarities[b], similarities[a]));
+        return new HashSet<>(items.subList(0, maxResults));
+    }
+
+    private static double cosineSimilarity(float[] a, float[] b) {
+        double dot = 0, normA = 0, normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return dot / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+}
@@ -0,0 +1,114 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.benchmark.Benchmark;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Compares the latency of brute force and HNSW searches, and the recall of HNSW searches,
+ * as the number of stored embeddings grows.
+ * Like embeddings of texts about a limited number of topics, the random embeddings are grouped in clusters.
+ * <p>
+ * Run with:
+ * <pre>
+ * mvn -pl langchain4j test -Dtest=InMemoryEmbeddingStoreSearchBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * </pre>
+ */
+class InMemoryEmbeddingStoreSearchBenchmark {
+
+    private static final int DIMENSION = 128;
+    private static final int MAX_RESULTS = 10;
+    private static final int QUERIES = 100;
+    private static final int CLUSTERS = 1_000;
+
+    Random random = new Random(1);
+    List<float[]> centroids = new ArrayList<>();
+
+    @Test
+    void search() {
+        for (int i = 0; i < CLUSTERS; i++) {
+            centroids.add(randomVector(1));
+        }
+        for (int size : new int[]{10_000, 20_000, 40_000, 80_000}) {
+            List<Embedding> embeddings = new ArrayList<>();
+            List<Integer> embedded = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                embeddings.add(randomEmbedding());
+                embedded.add(i);
+            }
+            List<EmbeddingSearchRequest> requests = new ArrayList<>();
+            for (int i = 0; i < QUERIES; i++) {
+                requests.add(EmbeddingSearchRequest.builder()
+                        .queryEmbedding(randomEmbedding())
+                        .maxResults(MAX_RESULTS)
+                        .build());
+            }
+
+            InMemoryEmbeddingStore<Integer> bruteForce = new InMemoryEmbeddingStore<>();
+            bruteForce.addAll(embeddings, embedded);
+            InMemoryEmbeddingStore<Integer> hnsw = Benchmark.once(size + " embeddings, HNSW index build", () -> {
+                InMemoryEmbeddingStore<Integer> store = new InMemoryEmbeddingStore<>(HnswIndexConfig.defaultConfig());
+                store.addAll(embeddings, embedded);
+                return store;
+            });
+
+            Benchmark.nanosPerOperation(size + " embeddings, brute force search", searches(bruteForce, requests));
+            Benchmark.nanosPerOperation(size + " embeddings, HNSW search", searches(hnsw, requests));
+            System.out.printf("%-60s %.3f%n", size + " embeddings, HNSW recall@" + MAX_RESULTS, recall(bruteForce, hnsw, requests));
+        }
+    }
+
+    private static Supplier<Object> searches(InMemoryEmbeddingStore<Integer> store,
+                                             List<EmbeddingSearchRequest> requests) {
+        int[] next = {0};
+        return () -> store.search(requests.get(next[0]++ % requests.size()));
+    }
+
+    private static double recall(InMemoryEmbeddingStore<Integer> exact,
+                                 InMemoryEmbeddingStore<Integer> approximate,
+                                 List<EmbeddingSearchRequest> requests) {
+        int found = 0;
+        int expected = 0;
+        for (EmbeddingSearchRequest request : requests) {
+            Set<Integer> exactItems = items(exact.search(request).matches());
+            expected += exactItems.size();
+            for (Integer item : items(approximate.search(request).matches())) {
+                if (exactItems.contains(item)) {
+                    found++;
+                }
+            }
+        }
+        return (double) found / expected;
+    }
+
+    private static Set<Integer> items(List<EmbeddingMatch<Integer>> matches) {
+        return matches.stream().map(EmbeddingMatch::embedded).collect(toSet());
+    }
+
+    private Embedding randomEmbedding() {
+        float[] centroid = centroids.get(random.nextInt(CLUSTERS));
+        float[] vector = randomVector(0.5);
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] += centroid[i];
+        }
+        return Embedding.from(vector);
+    }
+
+    private float[] randomVector(double deviation) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) (random.nextGaussian() * deviation);
+        }
+        return vector;
+    }
+}
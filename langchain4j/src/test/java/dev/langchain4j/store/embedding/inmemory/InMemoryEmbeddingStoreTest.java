@@ -11,10 +11,11 @@ import dev.langchain4j.store.embedding.EmbeddingStoreWithFilteringIT;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -36,8 +37,7 @@ class InMemoryEmbeddingStoreTest extends EmbeddingStoreWithFilteringIT {
         String json = originalEmbeddingStore.serializeToJson();
         InMemoryEmbeddingStore<TextSegment> deserializedEmbeddingStore = InMemoryEmbeddingStore.fromJson(json);
 
-        assertThat(deserializedEmbeddingStore.entries).isEqualTo(originalEmbeddingStore.entries);
-        assertThat(deserializedEmbeddingStore.entries).isInstanceOf(CopyOnWriteArrayList.class);
+        assertThat(deserializedEmbeddingStore.entries.toList()).isEqualTo(originalEmbeddingStore.entries.toList());
     }
 
     @Test
@@ -63,20 +63,93 @@ class InMemoryEmbeddingStoreTest extends EmbeddingStoreWithFilteringIT {
             originalEmbeddingStore.serializeToFile(filePath);
             InMemoryEmbeddingStore<TextSegment> deserializedEmbeddingStore = InMemoryEmbeddingStore.fromFile(filePath);
 
-            assertThat(deserializedEmbeddingStore.entries)
-                    .isEqualTo(originalEmbeddingStore.entries)
-                    .hasSameHashCodeAs(originalEmbeddingStore.entries);
-            assertThat(deserializedEmbeddingStore.entries).isInstanceOf(CopyOnWriteArrayList.class);
+            assertThat(deserializedEmbeddingStore.entries.toList())
+                    .isEqualTo(originalEmbeddingStore.entries.toList())
+                    .hasSameHashCodeAs(originalEmbeddingStore.entries.toList());
         }
         {
             originalEmbeddingStore.serializeToFile(filePath.toString());
             InMemoryEmbeddingStore<TextSegment> deserializedEmbeddingStore = InMemoryEmbeddingStore.fromFile(filePath);
 
-            assertThat(deserializedEmbeddingStore.entries).isEqualTo(originalEmbeddingStore.entries);
-            assertThat(deserializedEmbeddingStore.entries).isInstanceOf(CopyOnWriteArrayList.class);
+            assertThat(deserializedEmbeddingStore.entries.toList()).isEqualTo(originalEmbeddingStore.entries.toList());
         }
     }
 
+    @Test
+    void should_serialize_to_and_deserialize_from_binary_file() {
+
+        // given
+        InMemoryEmbeddingStore<TextSegment> originalEmbeddingStore = createEmbeddingStore();
+        Path filePath = temporaryDirectory.resolve("embedding-store.bin");
+        Embedding queryEmbedding = embeddingModel.embed("first").content();
+
+        // when
+        originalEmbeddingStore.serializeToBinaryFile(filePath);
+        InMemoryEmbeddingStore<TextSegment> deserializedEmbeddingStore = InMemoryEmbeddingStore.fromBinaryFile(filePath);
+
+        // then
+        assertThat(deserializedEmbeddingStore.findRelevant(queryEmbedding, 100))
+                .isEqualTo(originalEmbeddingStore.findRelevant(queryEmbedding, 100));
+        assertThat(InMemoryEmbeddingStore.fromFile(filePath).findRelevant(queryEmbedding, 100))
+                .isEqualTo(originalEmbeddingStore.findRelevant(queryEmbedding, 100));
+
+        // loaded store can be modified and serialized again
+        TextSegment segment = TextSegment.from("third", Metadata.from("key", 3));
+        Embedding embedding = embeddingModel.embed(segment).content();
+        deserializedEmbeddingStore.add(embedding, segment);
+        originalEmbeddingStore.add(embedding, segment);
+        deserializedEmbeddingStore.serializeToBinaryFile(temporaryDirectory.resolve("embedding-store-2.bin"));
+        assertThat(InMemoryEmbeddingStore.fromBinaryFile(temporaryDirectory.resolve("embedding-store-2.bin"))
+                .findRelevant(queryEmbedding, 100))
+                .isEqualTo(originalEmbeddingStore.findRelevant(queryEmbedding, 100));
+    }
+
+    @Test
+    void should_serialize_loaded_store_to_binary_file_it_was_loaded_from() throws Exception {
+
+        // given
+        InMemoryEmbeddingStore<TextSegment> originalEmbeddingStore = createEmbeddingStore();
+        Path filePath = temporaryDirectory.resolve("embedding-store.bin");
+        originalEmbeddingStore.serializeToBinaryFile(filePath);
+        InMemoryEmbeddingStore<TextSegment> deserializedEmbeddingStore = InMemoryEmbeddingStore.fromBinaryFile(filePath);
+        Embedding queryEmbedding = embeddingModel.embed("first").content();
+
+        TextSegment segment = TextSegment.from("third", Metadata.from("key", 3));
+        Embedding embedding = embeddingModel.embed(segment).content();
+        deserializedEmbeddingStore.add(embedding, segment);
+        originalEmbeddingStore.add(embedding, segment);
+
+        // when
+        deserializedEmbeddingStore.serializeToBinaryFile(filePath);
+
+        // then
+        assertThat(InMemoryEmbeddingStore.fromBinaryFile(filePath).findRelevant(queryEmbedding, 100))
+                .isEqualTo(originalEmbeddingStore.findRelevant(queryEmbedding, 100));
+        assertThat(deserializedEmbeddingStore.findRelevant(queryEmbedding, 100))
+                .isEqualTo(originalEmbeddingStore.findRelevant(queryEmbedding, 100));
+        try (Stream<Path> files = Files.list(temporaryDirectory)) {
+            assertThat(files).containsExactly(filePath);
+        }
+    }
+
+    @Test
+    void should_migrate_from_json_to_binary_file() {
+
+        // given
+        InMemoryEmbeddingStore<TextSegment> originalEmbeddingStore = createEmbeddingStore();
+        Path jsonFilePath = temporaryDirectory.resolve("embedding-store.json");
+        Path binaryFilePath = temporaryDirectory.resolve("embedding-store.bin");
+        originalEmbeddingStore.serializeToFile(jsonFilePath);
+        Embedding queryEmbedding = embeddingModel.embed("second").content();
+
+        // when
+        InMemoryEmbeddingStore.fromFile(jsonFilePath).serializeToBinaryFile(binaryFilePath);
+
+        // then
+        assertThat(InMemoryEmbeddingStore.fromFile(binaryFilePath).findRelevant(queryEmbedding, 100))
+                .isEqualTo(originalEmbeddingStore.findRelevant(queryEmbedding, 100));
+    }
+
     @Test
     void test_backwards_compatibility_with_0_27_1() {
 
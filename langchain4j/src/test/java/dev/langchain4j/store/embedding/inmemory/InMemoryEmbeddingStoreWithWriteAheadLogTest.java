@@ -0,0 +1,231 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryEmbeddingStoreWithWriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    Random random = new Random(42);
+
+    @ParameterizedTest
+    @EnumSource(VectorStorage.class)
+    void should_restore_changes_from_log(VectorStorage vectorStorage) {
+
+        // given
+        InMemoryEmbeddingStore<TextSegment> expected = new InMemoryEmbeddingStore<>();
+        try (InMemoryEmbeddingStore<TextSegment> store = open(vectorStorage, null)) {
+            for (int i = 0; i < 20; i++) {
+                Embedding embedding = randomEmbedding();
+                TextSegment segment = TextSegment.from("segment " + i, Metadata.from("group", "group-" + (i % 4)));
+                store.add("id-" + i, embedding, segment);
+                expected.add("id-" + i, embedding, segment);
+            }
+
+            // when
+            store.removeAll(asList("id-1", "id-2"));
+            expected.removeAll(asList("id-1", "id-2"));
+            store.removeAll(metadataKey("group").isEqualTo("group-3"));
+            expected.removeAll(metadataKey("group").isEqualTo("group-3"));
+        }
+
+        // then
+        Embedding query = randomEmbedding();
+        try (InMemoryEmbeddingStore<TextSegment> restored = open(vectorStorage, null)) {
+            assertThat(restored.findRelevant(query, 100))
+                    .isEqualTo(expected.findRelevant(query, 100))
+                    .hasSize(13);
+        }
+    }
+
+    @Test
+    void should_restore_remove_all_from_log() {
+
+        // given
+        try (InMemoryEmbeddingStore<TextSegment> store = open(VectorStorage.EMBEDDINGS, null)) {
+            store.add(randomEmbedding(), TextSegment.from("first"));
+
+            // when
+            store.removeAll();
+            store.add("second", randomEmbedding(), TextSegment.from("second"));
+        }
+
+        // then
+        try (InMemoryEmbeddingStore<TextSegment> restored = open(VectorStorage.EMBEDDINGS, null)) {
+            List<EmbeddingMatch<TextSegment>> matches = restored.findRelevant(randomEmbedding(), 100);
+            assertThat(matches).extracting(EmbeddingMatch::embeddingId).containsExactly("second");
+        }
+    }
+
+    @Test
+    void should_compact_log_into_snapshot() throws IOException {
+
+        // given
+        InMemoryEmbeddingStore<TextSegment> expected = new InMemoryEmbeddingStore<>();
+
+        // when
+        try (InMemoryEmbeddingStore<TextSegment> store = open(VectorStorage.PACKED, 1_000L)) {
+            for (int i = 0; i < 100; i++) {
+                Embedding embedding = randomEmbedding();
+                TextSegment segment = TextSegment.from("segment " + i);
+                store.add("id-" + i, embedding, segment);
+                expected.add("id-" + i, embedding, segment);
+            }
+        }
+
+        // then
+        assertThat(files()).hasSize(2).anyMatch(file -> file.startsWith("snapshot-"));
+        assertThat(Files.size(directory.resolve(files().stream()
+                .filter(file -> file.startsWith("wal-"))
+                .findFirst()
+                .get()))).isLessThan(2_000L);
+
+        Embedding query = randomEmbedding();
+        try (InMemoryEmbeddingStore<TextSegment> restored = open(VectorStorage.PACKED, 1_000L)) {
+            assertThat(restored.findRelevant(query, 100))
+                    .isEqualTo(expected.findRelevant(query, 100));
+        }
+    }
+
+    @Test
+    void should_restore_changes_from_logs_of_interrupted_compaction() throws IOException {
+
+        // given
+        try (InMemoryEmbeddingStore<TextSegment> store = open(VectorStorage.EMBEDDINGS, null)) {
+            store.add("before", randomEmbedding(), TextSegment.from("before"));
+        }
+        // the log of the next generation was started, but the snapshot of the compaction was not written
+        Files.createFile(directory.resolve("wal-1.log"));
+        Files.createFile(directory.resolve("snapshot-1.bin.tmp"));
+
+        // when
+        try (InMemoryEmbeddingStore<TextSegment> store = open(VectorStorage.EMBEDDINGS, null)) {
+            store.add("after", randomEmbedding(), TextSegment.from("after"));
+        }
+
+        // then
+        assertThat(files()).containsExactlyInAnyOrder("wal-0.log", "wal-1.log");
+        try (InMemoryEmbeddingStore<TextSegment> restored = open(VectorStorage.EMBEDDINGS, null)) {
+            assertThat(restored.findRelevant(randomEmbedding(), 100))
+                    .extracting(EmbeddingMatch::embeddingId)
+                    .containsExactlyInAnyOrder("before", "after");
+        }
+    }
+
+    @Test
+    void should_not_fail_changes_when_compaction_fails() throws IOException {
+
+        // given
+        InMemoryEmbeddingStore<TextSegment> expected = new InMemoryEmbeddingStore<>();
+        Path blocker;
+
+        // when
+        try (InMemoryEmbeddingStore<TextSegment> store = open(VectorStorage.EMBEDDINGS, 1_000L)) {
+            // the snapshot of the first compaction cannot be written where a non-empty directory is in the way
+            blocker = Files.createDirectories(directory.resolve("snapshot-1.bin.tmp"));
+            Files.createFile(blocker.resolve("file"));
+            for (int i = 0; i < 20; i++) {
+                Embedding embedding = randomEmbedding();
+                TextSegment segment = TextSegment.from("segment " + i);
+                store.add("id-" + i, embedding, segment);
+                expected.add("id-" + i, embedding, segment);
+            }
+        }
+
+        // then
+        // the next compaction wrote its snapshot
+        assertThat(files()).contains("snapshot-2.bin");
+        Files.delete(blocker.resolve("file"));
+        Embedding query = randomEmbedding();
+        try (InMemoryEmbeddingStore<TextSegment> restored = open(VectorStorage.EMBEDDINGS, 1_000L)) {
+            assertThat(restored.findRelevant(query, 100))
+                    .isEqualTo(expected.findRelevant(query, 100))
+                    .hasSize(20);
+        }
+    }
+
+    @Test
+    void should_discard_torn_record_at_the_end_of_log() throws IOException {
+
+        // given
+        try (InMemoryEmbeddingStore<TextSegment> store = open(VectorStorage.EMBEDDINGS, null)) {
+            store.add("complete", randomEmbedding(), TextSegment.from("complete"));
+            store.add("torn", randomEmbedding(), TextSegment.from("torn"));
+        }
+        try (FileChannel log = FileChannel.open(directory.resolve("wal-0.log"), WRITE)) {
+            log.truncate(log.size() - 3);
+        }
+
+        // when
+        try (InMemoryEmbeddingStore<TextSegment> restored = open(VectorStorage.EMBEDDINGS, null)) {
+            restored.add("next", randomEmbedding(), TextSegment.from("next"));
+        }
+
+        // then
+        try (InMemoryEmbeddingStore<TextSegment> restored = open(VectorStorage.EMBEDDINGS, null)) {
+            assertThat(restored.findRelevant(randomEmbedding(), 100))
+                    .extracting(EmbeddingMatch::embeddingId)
+                    .containsExactlyInAnyOrder("complete", "next");
+        }
+    }
+
+    @Test
+    void should_not_change_store_once_closed() {
+
+        // given
+        InMemoryEmbeddingStore<TextSegment> store = open(VectorStorage.EMBEDDINGS, null);
+        store.close();
+
+        // when-then
+        assertThatThrownBy(() -> store.add("closed", randomEmbedding(), TextSegment.from("closed")))
+                .hasRootCauseInstanceOf(ClosedChannelException.class);
+    }
+
+    private InMemoryEmbeddingStore<TextSegment> open(VectorStorage vectorStorage, Long compactionThreshold) {
+        return InMemoryEmbeddingStore.builder()
+                .vectorStorage(vectorStorage)
+                .writeAheadLog(WriteAheadLogConfig.builder()
+                        .directory(directory)
+                        .compactionThreshold(compactionThreshold)
+                        .build())
+                .build();
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).collect(toList());
+        }
+    }
+
+    private Embedding randomEmbedding() {
+        float[] vector = new float[16];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = random.nextFloat() - 0.5f;
+        }
+        return Embedding.from(vector);
+    }
+}
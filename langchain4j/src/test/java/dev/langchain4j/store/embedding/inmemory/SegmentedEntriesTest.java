@@ -0,0 +1,127 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore.Entry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentedEntriesTest {
+
+    @Test
+    void should_keep_insertion_order_across_segments() {
+
+        // given
+        SegmentedEntries<String> entries = new SegmentedEntries<>();
+        List<Entry<String>> added = entries(0, 5000);
+
+        // when
+        for (Entry<String> entry : added) {
+            entries.addAll(singletonList(entry));
+        }
+
+        // then
+        assertThat(entries.size()).isEqualTo(5000);
+        assertThat(entries.toList()).containsExactlyElementsOf(added);
+    }
+
+    @Test
+    void should_find_and_remove_entries_by_ids() {
+
+        // given
+        SegmentedEntries<String> entries = new SegmentedEntries<>();
+        Entry<String> first = entry("duplicate");
+        Entry<String> second = entry("duplicate");
+        Entry<String> other = entry("other");
+        entries.addAll(asList(first, other, second));
+
+        // when
+        List<Entry<String>> removed = entries.removeAll(entries.findAll(singletonList("duplicate")));
+
+        // then
+        assertThat(removed).containsExactlyInAnyOrder(first, second);
+        assertThat(entries.toList()).containsExactly(other);
+        assertThat(entries.findAll(singletonList("duplicate"))).isEmpty();
+        assertThat(entries.removeAll(asList(first, second))).isEmpty();
+    }
+
+    @Test
+    void should_compact_tombstones() {
+
+        // given
+        SegmentedEntries<String> entries = new SegmentedEntries<>();
+        List<Entry<String>> added = entries(0, 10_000);
+        entries.addAll(added);
+
+        // when
+        List<Entry<String>> toRemove = added.stream()
+                .filter(entry -> Integer.parseInt(entry.id) % 10 != 0)
+                .collect(toList());
+        entries.removeAll(toRemove);
+
+        // then
+        List<Entry<String>> remaining = added.stream()
+                .filter(entry -> Integer.parseInt(entry.id) % 10 == 0)
+                .collect(toList());
+        assertThat(entries.toList()).containsExactlyElementsOf(remaining);
+        assertThat(entries.spliterator().estimateSize()).isEqualTo(1000);
+
+        entries.removeAll(singletonList(remaining.get(500)));
+        assertThat(entries.findAll(singletonList("5000"))).isEmpty();
+        assertThat(entries.size()).isEqualTo(999);
+    }
+
+    @Test
+    void should_not_change_spliterator_when_entries_are_added() {
+
+        // given
+        SegmentedEntries<String> entries = new SegmentedEntries<>();
+        entries.addAll(entries(0, 100));
+        Spliterator<Entry<String>> spliterator = entries.spliterator();
+
+        // when
+        entries.addAll(entries(100, 200));
+
+        // then
+        List<Entry<String>> seen = new ArrayList<>();
+        spliterator.forEachRemaining(seen::add);
+        assertThat(seen).hasSize(100);
+    }
+
+    @Test
+    void should_split_spliterator_into_disjoint_ranges() {
+
+        // given
+        SegmentedEntries<String> entries = new SegmentedEntries<>();
+        entries.addAll(entries(0, 3000));
+
+        // when
+        Spliterator<Entry<String>> second = entries.spliterator();
+        Spliterator<Entry<String>> first = second.trySplit();
+
+        // then
+        List<Entry<String>> seen = new ArrayList<>();
+        first.forEachRemaining(seen::add);
+        second.forEachRemaining(seen::add);
+        assertThat(seen).containsExactlyElementsOf(entries.toList());
+    }
+
+    private static List<Entry<String>> entries(int from, int to) {
+        List<Entry<String>> entries = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            entries.add(entry(String.valueOf(i)));
+        }
+        return entries;
+    }
+
+    private static Entry<String> entry(String id) {
+        return new Entry<>(id, Embedding.from(new float[]{1, 2, 3}), "text " + id);
+    }
+}